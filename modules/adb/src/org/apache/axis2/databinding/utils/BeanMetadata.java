@@ -0,0 +1,294 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.databinding.utils;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.xml.namespace.QName;
+
+/**
+ * Introspection results for a bean class, as used by {@link BeanUtil} to serialize and deserialize
+ * POJOs. The metadata is computed once per class and is stored in a {@link ClassValue}, so that it
+ * doesn't prevent the class (and its class loader) from being unloaded.
+ */
+final class BeanMetadata {
+    private static final ClassValue<BeanMetadata> cache = new ClassValue<BeanMetadata>() {
+        @Override
+        protected BeanMetadata computeValue(Class<?> beanClass) {
+            try {
+                return new BeanMetadata(beanClass);
+            } catch (IntrospectionException ex) {
+                throw new UndeclaredThrowableException(ex);
+            }
+        }
+    };
+
+    private static final MethodType READ_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType WRITE_TYPE =
+            MethodType.methodType(void.class, Object.class, Object.class);
+
+    /**
+     * A property of a bean class, with the accessors adapted to a generic signature. The
+     * accessors have the same contract as {@link Method#invoke(Object, Object...)}: a bean or
+     * value that doesn't fit the accessor causes an {@link IllegalArgumentException} (or a
+     * {@link NullPointerException} for a null bean), and only exceptions thrown by the accessor
+     * itself are wrapped in an {@link InvocationTargetException}.
+     */
+    static final class Property {
+        private final int index;
+        private final String name;
+        private final Class<?> type;
+        private final Type genericType;
+        private final Method readMethod;
+        private final Method writeMethod;
+        private final Class<?> writeType;
+        private final MethodHandle reader;
+        private final MethodHandle writer;
+        private final QName unqualifiedName;
+        // The last qualified name requested; a bean class is normally serialized in a single
+        // namespace, which is given by the type table of the service
+        private volatile QName qualifiedName;
+
+        Property(int index, String name, Class<?> type, Method readMethod, Method writeMethod) {
+            this.index = index;
+            this.name = name;
+            this.type = type;
+            this.genericType = readMethod == null ? type : readMethod.getGenericReturnType();
+            this.readMethod = readMethod;
+            this.writeMethod = writeMethod;
+            writeType = writeMethod == null ? null : wrap(writeMethod.getParameterTypes()[0]);
+            reader = unreflect(readMethod, READ_TYPE);
+            writer = unreflect(writeMethod, WRITE_TYPE);
+            unqualifiedName = new QName(name);
+        }
+
+        /**
+         * @return the position of the property in {@link BeanMetadata#getProperties()}
+         */
+        int getIndex() {
+            return index;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        /**
+         * @return the unqualified name of the element for the property
+         */
+        QName getQName() {
+            return unqualifiedName;
+        }
+
+        /**
+         * @return the name of the element for the property in the given namespace, which is only
+         *         created if the namespace or prefix differ from the previous call
+         */
+        QName getQName(String namespaceURI, String prefix) {
+            QName qname = qualifiedName;
+            if (qname == null || !qname.getNamespaceURI().equals(namespaceURI)
+                    || !qname.getPrefix().equals(prefix)) {
+                qname = new QName(namespaceURI, name, prefix);
+                qualifiedName = qname;
+            }
+            return qname;
+        }
+
+        Class<?> getType() {
+            return type;
+        }
+
+        /**
+         * @return the generic return type of the read method, or the property type if the
+         *         property is not readable
+         */
+        Type getGenericType() {
+            return genericType;
+        }
+
+        boolean isReadable() {
+            return readMethod != null;
+        }
+
+        boolean isWritable() {
+            return writeMethod != null;
+        }
+
+        Object read(Object bean) throws IllegalAccessException, InvocationTargetException {
+            if (reader == null || !readMethod.getDeclaringClass().isInstance(bean)) {
+                // let reflection report the error
+                return readMethod.invoke(bean);
+            }
+            // the handle can't fail to adapt the bean any more; anything it throws comes from
+            // the read method
+            try {
+                return reader.invokeExact(bean);
+            } catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+
+        void write(Object bean, Object value)
+                throws IllegalAccessException, InvocationTargetException {
+            if (writer == null || !writeMethod.getDeclaringClass().isInstance(bean)
+                    || !accepts(value)) {
+                // let reflection report the error, or apply a widening conversion
+                writeMethod.invoke(bean, value);
+                return;
+            }
+            try {
+                writer.invokeExact(bean, value);
+            } catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+
+        /**
+         * @return true if the write handle can take the value without any conversion
+         */
+        private boolean accepts(Object value) {
+            return value == null ? !writeMethod.getParameterTypes()[0].isPrimitive()
+                    : writeType.isInstance(value);
+        }
+    }
+
+    private final List<Property> properties;
+    private final List<Property> declaredProperties;
+    private final Map<String,Property> propertiesByName = new HashMap<String,Property>();
+    private final Map<String,Property> propertiesByLowerCaseName =
+            new HashMap<String,Property>();
+
+    private BeanMetadata(Class<?> beanClass) throws IntrospectionException {
+        List<Property> properties = new ArrayList<Property>();
+        for (PropertyDescriptor descriptor :
+                Introspector.getBeanInfo(beanClass).getPropertyDescriptors()) {
+            if (descriptor.getName().equals("class")) {
+                continue;
+            }
+            Property property = new Property(properties.size(), descriptor.getName(),
+                    descriptor.getPropertyType(), descriptor.getReadMethod(),
+                    descriptor.getWriteMethod());
+            properties.add(property);
+            propertiesByName.put(property.getName(), property);
+            // the last of several properties whose names only differ by case wins
+            propertiesByLowerCaseName.put(property.getName().toLowerCase(Locale.ENGLISH), property);
+        }
+        this.properties = Collections.unmodifiableList(properties);
+
+        List<Property> declaredProperties = new ArrayList<Property>();
+        Class<?> superclass = beanClass.getSuperclass();
+        BeanInfo declaredInfo = superclass == null ? Introspector.getBeanInfo(beanClass)
+                : Introspector.getBeanInfo(beanClass, superclass);
+        for (PropertyDescriptor descriptor : declaredInfo.getPropertyDescriptors()) {
+            Class<?> type = descriptor.getPropertyType();
+            if (descriptor.getName().equals("class") || type == null) {
+                continue;
+            }
+            Method readMethod = descriptor.getReadMethod();
+            Method writeMethod = descriptor.getWriteMethod();
+            if (readMethod == null && type == Boolean.class && writeMethod != null) {
+                // The introspector only recognizes "is" getters for primitive booleans
+                String writeMethodName = writeMethod.getName();
+                readMethod = new PropertyDescriptor(descriptor.getName(), beanClass,
+                        "is" + writeMethodName.substring(3), writeMethodName).getReadMethod();
+            }
+            declaredProperties.add(new Property(declaredProperties.size(), descriptor.getName(),
+                    type, readMethod, writeMethod));
+        }
+        this.declaredProperties = Collections.unmodifiableList(declaredProperties);
+    }
+
+    /**
+     * Get the metadata for the given bean class, introspecting the class if this has not been
+     * done yet.
+     */
+    static BeanMetadata getBeanMetadata(Class<?> beanClass) throws IntrospectionException {
+        try {
+            return cache.get(beanClass);
+        } catch (UndeclaredThrowableException ex) {
+            Throwable cause = ex.getUndeclaredThrowable();
+            if (cause instanceof IntrospectionException) {
+                throw (IntrospectionException)cause;
+            }
+            throw ex;
+        }
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        return type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+    }
+
+    private static MethodHandle unreflect(Method method, MethodType type) {
+        if (method == null) {
+            return null;
+        }
+        try {
+            method.setAccessible(true);
+        } catch (RuntimeException ex) {
+            // Not allowed; the lookup below will only succeed for accessible methods
+        }
+        try {
+            return MethodHandles.lookup().unreflect(method).asType(type);
+        } catch (IllegalAccessException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the properties of the bean, including inherited ones, in the order returned by the
+     *         introspector
+     */
+    List<Property> getProperties() {
+        return properties;
+    }
+
+    /**
+     * @return the properties declared by the bean class itself (i.e. excluding the properties
+     *         inherited from the superclass), in the order returned by the introspector; this
+     *         doesn't include properties whose type is unknown
+     */
+    List<Property> getDeclaredProperties() {
+        return declaredProperties;
+    }
+
+    Property getProperty(String name) {
+        return propertiesByName.get(name);
+    }
+
+    Property getPropertyIgnoreCase(String name) {
+        return propertiesByLowerCaseName.get(name.toLowerCase(Locale.ENGLISH));
+    }
+}
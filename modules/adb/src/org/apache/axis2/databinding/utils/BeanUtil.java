@@ -20,9 +20,7 @@
 package org.apache.axis2.databinding.utils;
 
 
-import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
-import java.beans.PropertyDescriptor;
 import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -30,7 +28,6 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -58,7 +55,6 @@ import org.apache.axiom.om.*;
 import org.apache.axiom.util.activation.DataHandlerUtils;
 import org.apache.axiom.util.base64.Base64Utils;
 import org.apache.axis2.AxisFault;
-import org.apache.axis2.classloader.BeanInfoCache;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.databinding.typemapping.SimpleTypeMapper;
 import org.apache.axis2.databinding.utils.reader.ADBXMLStreamReaderImpl;
@@ -111,15 +107,6 @@ public class BeanUtil {
         return name;
     }
 
-
-    private static BeanInfo getBeanInfo(Class beanClass, Class beanSuperclass) throws IntrospectionException {
-        return BeanInfoCache.getCachedBeanInfo(beanClass, beanSuperclass);
-    }
-
-    private static BeanInfo getBeanInfo(Class beanClass) throws IntrospectionException {
-        return getBeanInfo(beanClass, null);
-    }
-
     private static List<Object> getPropertyQnameList(Object beanObject,
                                                      Class<?> beanClass,
                                                      QName beanName,
@@ -148,7 +135,8 @@ public class BeanUtil {
                                         beanObject.getClass().getPackage().getName());
                 }
 
-                elemntNameSpace = new QName(qNamefortheType.getNamespaceURI(), "elementName", qNamefortheType.getPrefix());
+                // only the namespace URI and prefix are used
+                elemntNameSpace = qNamefortheType;
             }
             AxisService axisService = null;
             if (MessageContext.getCurrentMessageContext() != null) {
@@ -159,36 +147,17 @@ public class BeanUtil {
             if (axisService != null && axisService.getExcludeInfo() != null) {
                 beanExcludeInfo = axisService.getExcludeInfo().getBeanExcludeInfoForClass(beanClass.getName());
             }
-            BeanInfo beanInfo = getBeanInfo(beanClass, beanClass.getSuperclass());
-            PropertyDescriptor[] properties = beanInfo.getPropertyDescriptors();
-            for (PropertyDescriptor property : properties) {
+            BeanMetadata beanMetadata = BeanMetadata.getBeanMetadata(beanClass);
+            for (BeanMetadata.Property property : beanMetadata.getDeclaredProperties()) {
                 String propertyName = property.getName();
-                Class<?> ptype = property.getPropertyType();
-                if (propertyName.equals("class") ||
-                    beanExcludeInfo != null && beanExcludeInfo.isExcludedProperty(propertyName) || ptype == null) {
+                Class<?> ptype = property.getType();
+                if (beanExcludeInfo != null && beanExcludeInfo.isExcludedProperty(propertyName)) {
                     continue;
                 }
 
-                Method readMethod = property.getReadMethod();
-                if (readMethod == null) {
-                    Class propertyType = property.getPropertyType();
-                    if (propertyType == java.lang.Boolean.class) {
-                        Method writeMethod = property.getWriteMethod();
-                        if (writeMethod != null) {
-                            String tmpWriteMethodName = writeMethod.getName();
-                            PropertyDescriptor tmpPropDesc =
-                                    new PropertyDescriptor(property.getName(),
-                                            beanObject.getClass(),
-                                            "is" + tmpWriteMethodName.substring(3),
-                                            tmpWriteMethodName);
-                            readMethod = tmpPropDesc.getReadMethod();
-                        }
-                    }
-                }
                 Object value;
-                if (readMethod != null) {
-                    readMethod.setAccessible(true);
-                    value = readMethod.invoke(beanObject);
+                if (property.isReadable()) {
+                    value = property.read(beanObject);
                 } else {
                     throw new AxisFault("Property '" + propertyName + "' in bean class '"
                                         + beanClass.getName() + "'is not readable.");
@@ -234,12 +203,11 @@ public class BeanUtil {
                                              property, beanName, processingDocLitBare);   
                                 QName propertyQName = null;
                                 if (elemntNameSpace != null) {
-                                    propertyQName = new QName(
+                                    propertyQName = property.getQName(
                                             elemntNameSpace.getNamespaceURI(),
-                                            propertyName,
                                             elemntNameSpace.getPrefix());
                                 } else {
-                                    propertyQName = new QName(propertyName);
+                                    propertyQName = property.getQName();
 
                                 }
                                 
@@ -289,7 +257,7 @@ public class BeanUtil {
                         QName qNamefortheType = null;
                         qNamefortheType = (QName) typeTable
                                 .getComplexSchemaMap().get(getClassName(beanClass));
-                        Type genericType = property.getReadMethod().getGenericReturnType();
+                        Type genericType = property.getGenericType();
                         OMElement collection = BeanUtil.getCollectionElement(
                                 fac, genericType,
                                 (Collection) value, propertyName,null,
@@ -365,12 +333,11 @@ public class BeanUtil {
                         QName elementName;
                         OMElement element;
                         if (elemntNameSpace != null) {
-                            elementName = new QName(
+                            elementName = property.getQName(
                                     elemntNameSpace.getNamespaceURI(),
-                                    property.getName(),
                                     qNamefortheType.getPrefix());
                         } else {
-                            elementName = new QName(property.getName());
+                            elementName = property.getQName();
                         }
                         
                         if(SimpleTypeMapper.isSimpleType(value)){
@@ -411,17 +378,18 @@ public class BeanUtil {
 
     private static void addTypeQname(QName elemntNameSpace,
                                      List<Object> propertyQnameValueList,
-                                     PropertyDescriptor propDesc,
+                                     BeanMetadata.Property propDesc,
                                      QName beanName,
                                      boolean processingDocLitBare) {
         if (elemntNameSpace != null) {
-            propertyQnameValueList.add(new QName(elemntNameSpace.getNamespaceURI(),
-                                                 propDesc.getName(), elemntNameSpace.getPrefix()));
+            propertyQnameValueList.add(propDesc.getQName(elemntNameSpace.getNamespaceURI(),
+                                                         elemntNameSpace.getPrefix()));
         } else {
             if (processingDocLitBare) {
-                propertyQnameValueList.add(new QName(propDesc.getName()));
+                propertyQnameValueList.add(propDesc.getQName());
             } else {
-                propertyQnameValueList.add(new QName(beanName.getNamespaceURI(), propDesc.getName(), beanName.getPrefix()));
+                propertyQnameValueList.add(propDesc.getQName(beanName.getNamespaceURI(),
+                                                             beanName.getPrefix()));
             }
 
         }
@@ -543,25 +511,11 @@ public class BeanUtil {
                     return beanElement.getFirstOMChild();
                 }
 
-                //use a comaprator to ignore the case of the bean element
-                //names eg. if the property descriptor is getServiceName it
-                //should accept child element with ServiceName as well.
-                //but currently accepts only serviceName
-                Comparator comparator = new Comparator() {
-                    public int compare(Object o1, Object o2) {
-                        String string1 = (String) o1;
-                        String string2 = (String) o2;
-                        return string1.compareToIgnoreCase(string2);
-                    }
-                };
-                Map<String, PropertyDescriptor> properties = new TreeMap<String, PropertyDescriptor>(comparator);
-
-
-                BeanInfo beanInfo = getBeanInfo(beanClass);
-                PropertyDescriptor[] propDescs = beanInfo.getPropertyDescriptors();
-                for (PropertyDescriptor proprty : propDescs) {
-                    properties.put(proprty.getName(), proprty);
-                }
+                //ignore the case of the bean element names eg. if the property
+                //descriptor is getServiceName it should accept child element
+                //with ServiceName as well. Each property is only set once.
+                BeanMetadata beanMetadata = BeanMetadata.getBeanMetadata(beanClass);
+                boolean[] processed = new boolean[beanMetadata.getProperties().size()];
                 Iterator elements = beanElement.getChildren();
                 beanObj = objectSupplier.getObject(beanClass);
                 while (elements.hasNext()) {
@@ -581,11 +535,10 @@ public class BeanUtil {
                     // if parts/@href != null then need to find element with id and deserialize.
                     // before that first check whether we already have it in the hashtable
                     String partsLocalName = parts.getLocalName();
-                    PropertyDescriptor prty = properties.remove(partsLocalName);
-                    if (prty != null) {
-                        Class parameters = prty.getPropertyType();
-                        if (prty.getName().equals("class"))
-                            continue;
+                    BeanMetadata.Property prty = beanMetadata.getPropertyIgnoreCase(partsLocalName);
+                    if (prty != null && !processed[prty.getIndex()]) {
+                        processed[prty.getIndex()] = true;
+                        Class parameters = prty.getType();
 
                         Object partObj;
                         boolean isNil = false;
@@ -604,7 +557,7 @@ public class BeanUtil {
                                 partObj = SimpleTypeMapper.getHashSet((OMElement)
                                         parts.getParent(), prty.getName());
                             } else if (SimpleTypeMapper.isCollection(parameters)) {
-                                Type type = prty.getReadMethod().getGenericReturnType();
+                                Type type = prty.getGenericType();
                                 partObj = processGenericCollection(parts, type, null, objectSupplier);  
 
                             } else if (SimpleTypeMapper.isDataHandler(parameters)) {
@@ -614,7 +567,7 @@ public class BeanUtil {
                                                       objectSupplier, prty.getName());
                             } else if (SimpleTypeMapper.isMap(parameters)){
                                 partObj = null;
-                                final Type type = prty.getReadMethod().getGenericReturnType();
+                                final Type type = prty.getGenericType();
                                 if (type instanceof ParameterizedType) {
                                     ParameterizedType aType = (ParameterizedType) type;
                                     Type[] parameterArgTypes = aType.getActualTypeArguments();
@@ -631,11 +584,8 @@ public class BeanUtil {
                                 partObj = deserialize(parameters, parts, objectSupplier, null);
                             }
                         }
-                        Object[] parms = new Object[]{partObj};
-                        Method writeMethod = prty.getWriteMethod();
-                        if (writeMethod != null) {
-                            writeMethod.setAccessible(true);
-                            writeMethod.invoke(beanObj, parms);
+                        if (prty.isWritable()) {
+                            prty.write(beanObj, partObj);
                         }
                     }
                 }
@@ -660,12 +610,7 @@ public class BeanUtil {
                                      ObjectSupplier objectSupplier) throws AxisFault {
         Object beanObj;
         try {
-            HashMap<String, PropertyDescriptor> properties = new HashMap<String, PropertyDescriptor>();
-            BeanInfo beanInfo = getBeanInfo(beanClass);
-            PropertyDescriptor[] propDescs = beanInfo.getPropertyDescriptors();
-            for (PropertyDescriptor proprty : propDescs) {
-                properties.put(proprty.getName(), proprty);
-            }
+            BeanMetadata beanMetadata = BeanMetadata.getBeanMetadata(beanClass);
 
             beanObj = objectSupplier.getObject(beanClass);
             Iterator elements = beanElement.getChildren();
@@ -678,12 +623,10 @@ public class BeanUtil {
                     continue;
                 }
                 String partsLocalName = parts.getLocalName();
-                PropertyDescriptor prty = properties.get(
+                BeanMetadata.Property prty = beanMetadata.getProperty(
                         partsLocalName.toLowerCase());
                 if (prty != null) {
-                    Class parameters = prty.getPropertyType();
-                    if (prty.getName().equals("class"))
-                        continue;
+                    Class parameters = prty.getType();
                     Object partObj;
                     OMAttribute attr = MultirefHelper.processRefAtt(parts);
                     if (attr != null) {
@@ -698,11 +641,8 @@ public class BeanUtil {
                             partObj = deserialize(parameters, parts, objectSupplier, null);
                         }
                     }
-                    Object[] parms = new Object[]{partObj};
-                    Method writeMethod = prty.getWriteMethod();
-                    if (writeMethod != null) {
-                        writeMethod.setAccessible(true);
-                        writeMethod.invoke(beanObj, parms);
+                    if (prty.isWritable()) {
+                        prty.write(beanObj, partObj);
                     }
                 }
             }
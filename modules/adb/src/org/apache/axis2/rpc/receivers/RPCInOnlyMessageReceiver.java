@@ -55,20 +55,11 @@ public class RPCInOnlyMessageReceiver extends AbstractMessageReceiver {
 
             AxisMessage inAxisMessage = op.getMessage(WSDLConstants.MESSAGE_LABEL_IN_VALUE);
             String messageNameSpace = null;
-            String methodName = op.getName().getLocalPart();
-            Method[] methods = ImplClass.getMethods();
-            for (int i = 0; i < methods.length; i++) {
-                if (methods[i].isBridge()) {
-                    continue;
-                }
-                if (methods[i].getName().equals(methodName)) {
-                    method = methods[i];
-                    break;
-                }
-            }
+            RPCMethodInvoker invoker = RPCMethodInvoker.getInvoker(op, ImplClass);
+            method = invoker.getMethod();
             if (inAxisMessage != null) {
                 RPCUtil.invokeServiceClass(inAxisMessage,
-                        method,
+                        invoker,
                         obj,
                         messageNameSpace,
                         methodElement,inMessage);
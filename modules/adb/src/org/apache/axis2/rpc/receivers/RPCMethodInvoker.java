@@ -0,0 +1,297 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.rpc.receivers;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.description.AxisOperation;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Invokes the Java method implementing an RPC operation. The method is looked up once per
+ * operation and implementation class, and is called through a {@link MethodHandle} adapted to a
+ * fixed <code>(Object, Object[])Object</code> signature rather than through
+ * {@link Method#invoke(Object, Object...)}. Methods that can't be accessed through a public
+ * lookup fall back to reflection.
+ * <p>
+ * The invoker has the same contract as reflection, so that callers can handle both cases the
+ * same way: the target object and the arguments are checked, and the arguments unwrapped and
+ * widened, before the method is called, and an {@link IllegalArgumentException} is thrown if
+ * they don't fit the method. Only exceptions thrown by the service method itself are wrapped
+ * in an {@link InvocationTargetException}.
+ */
+public final class RPCMethodInvoker {
+
+    private static final Log log = LogFactory.getLog(RPCMethodInvoker.class);
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    /**
+     * Name of the operation parameter the invoker is cached in.
+     */
+    public static final String INVOKER_PARAMETER = "rpcMethodInvoker";
+
+    private final Class<?> implClass;
+    private final Method method;
+    private final Class<?>[] parameterTypes;
+    private final boolean isStatic;
+    private final MethodHandle handle;
+
+    private RPCMethodInvoker(Class<?> implClass, Method method, MethodHandle handle) {
+        this.implClass = implClass;
+        this.method = method;
+        this.parameterTypes = method.getParameterTypes();
+        this.isStatic = Modifier.isStatic(method.getModifiers());
+        this.handle = handle;
+    }
+
+    /**
+     * Get the invoker for the given operation, looking up the method and caching the invoker on
+     * the operation if this has not been done yet for the given implementation class.
+     *
+     * @throws AxisFault if the implementation class has no method for the operation
+     */
+    public static RPCMethodInvoker getInvoker(AxisOperation op, Class<?> implClass)
+            throws AxisFault {
+        RPCMethodInvoker invoker = (RPCMethodInvoker) op.getParameterValue(INVOKER_PARAMETER);
+        // If the implementation class has changed, then the cached method is invalid, so we need
+        // to reload it. This is to fix AXIS2-3947.
+        if (invoker != null && invoker.implClass == implClass) {
+            return invoker;
+        }
+        String methodName = op.getName().getLocalPart();
+        Method method = null;
+        for (Method candidate : implClass.getMethods()) {
+            if (candidate.isBridge()) {
+                continue;
+            }
+            if (candidate.getName().equals(methodName)) {
+                method = candidate;
+                break;
+            }
+        }
+        if (method == null) {
+            throw new AxisFault("No such method '" + methodName +
+                    "' in class " + implClass.getName());
+        }
+        invoker = new RPCMethodInvoker(implClass, method, createHandle(method));
+        op.addParameter(INVOKER_PARAMETER, invoker);
+        return invoker;
+    }
+
+    /**
+     * Create an invoker that uses plain reflection, for callers that only have a {@link Method}.
+     */
+    public static RPCMethodInvoker forMethod(Method method) {
+        return new RPCMethodInvoker(method.getDeclaringClass(), method, null);
+    }
+
+    private static MethodHandle createHandle(Method method) {
+        try {
+            // Method.invoke takes varargs as an array; don't let the handle collect them again
+            MethodHandle handle = MethodHandles.publicLookup().unreflect(method).asFixedArity();
+            int parameterCount = method.getParameterTypes().length;
+            if (Modifier.isStatic(method.getModifiers())) {
+                // Method.invoke ignores the target object of a static method
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            return handle.asType(MethodType.genericMethodType(parameterCount + 1))
+                    .asSpreader(Object[].class, parameterCount);
+        } catch (IllegalAccessException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Falling back to reflection to invoke " + method, e);
+            }
+            return null;
+        }
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * Invoke the method.
+     *
+     * @param target the service object
+     * @param args the arguments, or null if the method takes none
+     * @return the value returned by the method, or null for a void method
+     * @throws IllegalArgumentException if the target object is not an instance of the class
+     *         declaring the method, or if the arguments don't match the parameters of the method
+     * @throws NullPointerException if the target object is null and the method is an instance
+     *         method
+     * @throws InvocationTargetException if the method threw an exception
+     */
+    public Object invoke(Object target, Object[] args)
+            throws IllegalAccessException, InvocationTargetException {
+        if (handle == null) {
+            return method.invoke(target, args);
+        }
+        if (!isStatic) {
+            if (target == null) {
+                throw new NullPointerException("Target object of " + method + " is null");
+            }
+            if (!method.getDeclaringClass().isInstance(target)) {
+                throw new IllegalArgumentException("Object of class " +
+                        target.getClass().getName() + " is not an instance of " +
+                        method.getDeclaringClass().getName());
+            }
+        }
+        Object[] arguments = convertArguments(args);
+        // Everything the handle adapts has been checked, so whatever it throws comes from the
+        // method itself. The static argument types must match the type of the handle exactly.
+        try {
+            return handle.invokeExact(target, arguments);
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    /**
+     * Check the arguments against the parameter types and apply the unwrapping and widening
+     * conversions of {@link Method#invoke(Object, Object...)}, so that the handle only has to
+     * unbox values of the exact wrapper types.
+     */
+    private Object[] convertArguments(Object[] args) {
+        int count = args == null ? 0 : args.length;
+        if (count != parameterTypes.length) {
+            throw new IllegalArgumentException("Wrong number of arguments for " + method +
+                    ": expected " + parameterTypes.length + ", got " + count);
+        }
+        if (count == 0) {
+            return NO_ARGS;
+        }
+        Object[] arguments = args;
+        for (int i = 0; i < count; i++) {
+            Class<?> type = parameterTypes[i];
+            Object arg = args[i];
+            Object converted;
+            if (!type.isPrimitive()) {
+                if (arg != null && !type.isInstance(arg)) {
+                    throw argumentMismatch(i, arg);
+                }
+                converted = arg;
+            } else {
+                converted = widen(type, arg);
+                if (converted == null) {
+                    throw argumentMismatch(i, arg);
+                }
+            }
+            if (converted != arg) {
+                if (arguments == args) {
+                    arguments = args.clone();
+                }
+                arguments[i] = converted;
+            }
+        }
+        return arguments;
+    }
+
+    private IllegalArgumentException argumentMismatch(int index, Object arg) {
+        return new IllegalArgumentException("Argument " + index + " of " + method +
+                " must be of type " + parameterTypes[index].getName() + ", got " +
+                (arg == null ? "null" : arg.getClass().getName()));
+    }
+
+    /**
+     * Convert a wrapper object to the wrapper of the given primitive type, using a widening
+     * primitive conversion if needed.
+     *
+     * @return the converted value, or null if the value can't be converted
+     */
+    private static Object widen(Class<?> type, Object arg) {
+        if (arg instanceof Boolean) {
+            return type == boolean.class ? arg : null;
+        }
+        if (type == char.class) {
+            return arg instanceof Character ? arg : null;
+        }
+        int sourceRank;
+        long integral;
+        if (arg instanceof Character) {
+            if (type == byte.class || type == short.class) {
+                return null;
+            }
+            sourceRank = 2;
+            integral = ((Character) arg).charValue();
+        } else if (arg instanceof Byte) {
+            sourceRank = 0;
+            integral = ((Byte) arg).byteValue();
+        } else if (arg instanceof Short) {
+            sourceRank = 1;
+            integral = ((Short) arg).shortValue();
+        } else if (arg instanceof Integer) {
+            sourceRank = 2;
+            integral = ((Integer) arg).intValue();
+        } else if (arg instanceof Long) {
+            sourceRank = 3;
+            integral = ((Long) arg).longValue();
+        } else if (arg instanceof Float) {
+            sourceRank = 4;
+            integral = 0;
+        } else if (arg instanceof Double) {
+            sourceRank = 5;
+            integral = 0;
+        } else {
+            return null;
+        }
+        int targetRank;
+        if (type == byte.class) {
+            targetRank = 0;
+        } else if (type == short.class) {
+            targetRank = 1;
+        } else if (type == int.class) {
+            targetRank = 2;
+        } else if (type == long.class) {
+            targetRank = 3;
+        } else if (type == float.class) {
+            targetRank = 4;
+        } else if (type == double.class) {
+            targetRank = 5;
+        } else {
+            return null;
+        }
+        if (targetRank < sourceRank) {
+            return null;
+        }
+        if (targetRank == sourceRank && !(arg instanceof Character)) {
+            return arg;
+        }
+        switch (targetRank) {
+            case 1:
+                return Short.valueOf((short) integral);
+            case 2:
+                return Integer.valueOf((int) integral);
+            case 3:
+                return Long.valueOf(integral);
+            case 4:
+                return sourceRank < 4 ? Float.valueOf((float) integral) : arg;
+            default:
+                return sourceRank < 4 ? Double.valueOf((double) integral)
+                        : Double.valueOf(((Number) arg).doubleValue());
+        }
+    }
+}
@@ -212,6 +212,18 @@ public class RPCUtil {
                                             OMElement methodElement,
                                             MessageContext inMessage) throws AxisFault,
             IllegalAccessException, InvocationTargetException {
+        return invokeServiceClass(inAxisMessage, RPCMethodInvoker.forMethod(method), implObject,
+                messageNameSpace, methodElement, inMessage);
+    }
+
+    public static Object invokeServiceClass(AxisMessage inAxisMessage,
+                                            RPCMethodInvoker invoker,
+                                            Object implObject,
+                                            String messageNameSpace,
+                                            OMElement methodElement,
+                                            MessageContext inMessage) throws AxisFault,
+            IllegalAccessException, InvocationTargetException {
+        Method method = invoker.getMethod();
         
         //POJO was not WS-I complient since it does generate an empty soap message for in comming
         //soap envelope when no input parameters are set. But now we have fixed this to include the
@@ -221,7 +233,7 @@ public class RPCUtil {
 
         if ((inAxisMessage.getElementQName() == null) || (methodElement == null)) {
             // method accept empty SOAPbody
-            return method.invoke(implObject);
+            return invoker.invoke(implObject, null);
         } else {
             QName elementQName = inAxisMessage.getElementQName();
             messageNameSpace = elementQName.getNamespaceURI();
@@ -255,7 +267,7 @@ public class RPCUtil {
                 objectArray = RPCUtil.processRequest((OMElement) methodElement.getParent(),
                         method, inMessage.getAxisService().getObjectSupplier());
             }
-            return method.invoke(implObject, objectArray);
+            return invoker.invoke(implObject, objectArray);
 
         }
     }
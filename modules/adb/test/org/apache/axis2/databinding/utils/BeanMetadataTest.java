@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.databinding.utils;
+
+import java.lang.reflect.InvocationTargetException;
+
+import javax.xml.namespace.QName;
+
+import junit.framework.TestCase;
+
+public class BeanMetadataTest extends TestCase {
+
+    public static class Bean {
+        private long count;
+        private String name;
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+
+        public String getName() {
+            if (name == null) {
+                throw new IllegalStateException("name not set");
+            }
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    private static BeanMetadata.Property getProperty(String name) throws Exception {
+        return BeanMetadata.getBeanMetadata(Bean.class).getProperty(name);
+    }
+
+    public void testReadWrite() throws Exception {
+        Bean bean = new Bean();
+        getProperty("name").write(bean, "test");
+        getProperty("count").write(bean, 3L);
+        assertEquals("test", getProperty("name").read(bean));
+        assertEquals(Long.valueOf(3), getProperty("count").read(bean));
+    }
+
+    public void testWriteWidensPrimitives() throws Exception {
+        Bean bean = new Bean();
+        getProperty("count").write(bean, 3);
+        assertEquals(3, bean.getCount());
+    }
+
+    public void testWriteNullToPrimitive() throws Exception {
+        try {
+            getProperty("count").write(new Bean(), null);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    public void testWriteWrongType() throws Exception {
+        try {
+            getProperty("name").write(new Bean(), Integer.valueOf(1));
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    public void testReadWrongBean() throws Exception {
+        try {
+            getProperty("name").read("not a bean");
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    public void testTargetException() throws Exception {
+        try {
+            getProperty("name").read(new Bean());
+            fail("Expected InvocationTargetException");
+        } catch (InvocationTargetException ex) {
+            assertTrue(ex.getTargetException() instanceof IllegalStateException);
+        }
+    }
+
+    public void testQName() throws Exception {
+        BeanMetadata.Property property = getProperty("name");
+        assertEquals(new QName("name"), property.getQName());
+        assertSame(property.getQName(), property.getQName());
+
+        QName qname = property.getQName("urn:test", "t");
+        assertEquals(new QName("urn:test", "name"), qname);
+        assertEquals("t", qname.getPrefix());
+        assertSame(qname, property.getQName("urn:test", "t"));
+
+        QName other = property.getQName("urn:test", "u");
+        assertEquals("u", other.getPrefix());
+        assertEquals(new QName("urn:other", "name"), property.getQName("urn:other", "t"));
+    }
+}
@@ -139,6 +139,16 @@ public class BeanUtilTest extends TestCase {
         assertEquals("World", ((ComplexType) result).getChild());
     }
 
+    public void testProcessObjectAsComplexTypeIgnoresCase() throws Exception {
+        omFactory.createOMElement(new QName("Child"), omElement).setText("World");
+        // only the first element matching a property is used
+        omFactory.createOMElement(new QName("child"), omElement).setText("Again");
+
+        Object result = BeanUtil.processObject(omElement, ComplexType.class, new MultirefHelper(omElement), false, objectSupplier, null);
+        assertTrue(result instanceof ComplexType);
+        assertEquals("World", ((ComplexType) result).getChild());
+    }
+
     public void testProcessObjectAsObject() throws Exception {
         omElement.declareNamespace(omFactory.createOMNamespace(Constants.XSD_NAMESPACE, "xs"));
 
@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.rpc.receivers;
+
+import java.lang.reflect.InvocationTargetException;
+
+import javax.xml.namespace.QName;
+
+import org.apache.axis2.description.AxisOperation;
+import org.apache.axis2.description.InOutAxisOperation;
+
+import junit.framework.TestCase;
+
+public class RPCMethodInvokerTest extends TestCase {
+
+    public static class Service {
+        public long add(int a, long b) {
+            return a + b;
+        }
+
+        public double scale(double value, float factor) {
+            return value * factor;
+        }
+
+        public String concat(String a, String b) {
+            return a + b;
+        }
+
+        public int count(String... values) {
+            return values == null ? -1 : values.length;
+        }
+
+        public static String staticEcho(String value) {
+            return value;
+        }
+
+        public void fail(String message) {
+            throw new IllegalStateException(message);
+        }
+
+        public void castFail(Object value) {
+            // a ClassCastException thrown by the method itself
+            ((Integer) value).intValue();
+        }
+    }
+
+    private static RPCMethodInvoker getInvoker(String name) throws Exception {
+        AxisOperation op = new InOutAxisOperation(new QName(name));
+        return RPCMethodInvoker.getInvoker(op, Service.class);
+    }
+
+    public void testInvokerIsCached() throws Exception {
+        AxisOperation op = new InOutAxisOperation(new QName("add"));
+        RPCMethodInvoker invoker = RPCMethodInvoker.getInvoker(op, Service.class);
+        assertSame(invoker, RPCMethodInvoker.getInvoker(op, Service.class));
+    }
+
+    public void testPrimitives() throws Exception {
+        assertEquals(Long.valueOf(5),
+                getInvoker("add").invoke(new Service(), new Object[] { 2, 3L }));
+    }
+
+    public void testWidening() throws Exception {
+        RPCMethodInvoker add = getInvoker("add");
+        assertEquals(Long.valueOf(5),
+                add.invoke(new Service(), new Object[] { (byte) 2, 3 }));
+        assertEquals(Long.valueOf('a' + 1),
+                add.invoke(new Service(), new Object[] { 'a', (short) 1 }));
+        assertEquals(Double.valueOf(5.0),
+                getInvoker("scale").invoke(new Service(), new Object[] { 2, 2.5f }));
+    }
+
+    public void testNarrowingIsRejected() throws Exception {
+        try {
+            getInvoker("add").invoke(new Service(), new Object[] { 2L, 3L });
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testNullForPrimitive() throws Exception {
+        try {
+            getInvoker("add").invoke(new Service(), new Object[] { null, 3L });
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testNullForReference() throws Exception {
+        assertEquals("nullb",
+                getInvoker("concat").invoke(new Service(), new Object[] { null, "b" }));
+    }
+
+    public void testWrongArgumentType() throws Exception {
+        try {
+            getInvoker("concat").invoke(new Service(), new Object[] { 1, "b" });
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testWrongArgumentCount() throws Exception {
+        RPCMethodInvoker concat = getInvoker("concat");
+        try {
+            concat.invoke(new Service(), new Object[] { "a" });
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            concat.invoke(new Service(), null);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testVarargs() throws Exception {
+        RPCMethodInvoker count = getInvoker("count");
+        assertEquals(Integer.valueOf(2),
+                count.invoke(new Service(), new Object[] { new String[] { "a", "b" } }));
+        assertEquals(Integer.valueOf(-1), count.invoke(new Service(), new Object[] { null }));
+    }
+
+    public void testStaticMethod() throws Exception {
+        RPCMethodInvoker staticEcho = getInvoker("staticEcho");
+        assertEquals("a", staticEcho.invoke(null, new Object[] { "a" }));
+        assertEquals("a", staticEcho.invoke(new Service(), new Object[] { "a" }));
+    }
+
+    public void testInstanceMethodWithNullTarget() throws Exception {
+        try {
+            getInvoker("concat").invoke(null, new Object[] { "a", "b" });
+            fail("Expected NullPointerException");
+        } catch (NullPointerException e) {
+            // expected
+        }
+    }
+
+    public void testInstanceMethodWithWrongTarget() throws Exception {
+        try {
+            getInvoker("concat").invoke("not a service", new Object[] { "a", "b" });
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testExceptionPropagation() throws Exception {
+        try {
+            getInvoker("fail").invoke(new Service(), new Object[] { "boom" });
+            fail("Expected InvocationTargetException");
+        } catch (InvocationTargetException e) {
+            assertTrue(e.getTargetException() instanceof IllegalStateException);
+            assertEquals("boom", e.getTargetException().getMessage());
+        }
+    }
+
+    public void testTargetClassCastExceptionIsWrapped() throws Exception {
+        try {
+            getInvoker("castFail").invoke(new Service(), new Object[] { "not an integer" });
+            fail("Expected InvocationTargetException");
+        } catch (InvocationTargetException e) {
+            assertTrue(e.getTargetException() instanceof ClassCastException);
+        }
+    }
+
+    public void testReflectionFallback() throws Exception {
+        RPCMethodInvoker invoker =
+                RPCMethodInvoker.forMethod(Service.class.getMethod("add", int.class, long.class));
+        assertEquals(Long.valueOf(5), invoker.invoke(new Service(), new Object[] { 2, 3L }));
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axiom.soap.SOAPFactory;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.ConfigurationContextFactory;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.engine.AxisEngine;
+import org.apache.axis2.engine.ExecutionPlan;
+import org.apache.axis2.engine.Handler;
+import org.apache.axis2.engine.Phase;
+import org.apache.axis2.handlers.AbstractHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the in flow of {@link AxisEngine}, including the switch to the operation phases
+ * done by the dispatch phase and the walk back over the executed phases on flow completion.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExecutedPhasesBenchmark {
+    /**
+     * Replaces the execution plan in the same way as the dispatch phase.
+     */
+    private static class DispatchHandler extends AbstractHandler {
+        private final List<Handler> operationPlan;
+
+        DispatchHandler(List<Handler> operationPlan) {
+            this.operationPlan = operationPlan;
+        }
+
+        public InvocationResponse invoke(MessageContext msgContext) throws AxisFault {
+            msgContext.setExecutionPlan(operationPlan);
+            return InvocationResponse.CONTINUE;
+        }
+    }
+
+    @Param({"5", "20"})
+    private int phaseCount;
+
+    private ConfigurationContext configurationContext;
+
+    private SOAPFactory factory;
+
+    @Setup
+    public void setUp() throws AxisFault {
+        configurationContext = ConfigurationContextFactory.createEmptyConfigurationContext();
+        factory = OMAbstractFactory.getSOAP11Factory();
+        List<Phase> operationPhases = new ArrayList<Phase>();
+        for (int i = 0; i < phaseCount; i++) {
+            operationPhases.add(new Phase("Operation" + i));
+        }
+        List<Phase> globalPhases = new ArrayList<Phase>();
+        for (int i = 0; i < phaseCount; i++) {
+            globalPhases.add(new Phase("Global" + i));
+        }
+        Phase dispatch = new Phase("Dispatch");
+        dispatch.addHandler(new DispatchHandler(
+                ExecutionPlan.update(null, operationPhases, null).getHandlers()));
+        globalPhases.add(dispatch);
+        configurationContext.getAxisConfiguration()
+                .setInPhasesUptoAndIncludingPostDispatch(globalPhases);
+    }
+
+    @Benchmark
+    public MessageContext receive() throws AxisFault {
+        MessageContext msgContext = configurationContext.createMessageContext();
+        SOAPEnvelope envelope = factory.getDefaultEnvelope();
+        msgContext.setEnvelope(envelope);
+        AxisEngine.receive(msgContext);
+        return msgContext;
+    }
+}
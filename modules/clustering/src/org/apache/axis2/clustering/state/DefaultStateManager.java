@@ -23,12 +23,16 @@ import org.apache.axiom.om.OMElement;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.clustering.ClusteringFault;
 import org.apache.axis2.clustering.state.commands.StateClusteringCommandCollection;
+import org.apache.axis2.clustering.state.commands.UpdateStateCommand;
 import org.apache.axis2.clustering.tribes.ChannelSender;
+import org.apache.axis2.clustering.tribes.StateReplicationCodec;
 import org.apache.axis2.context.AbstractContext;
 import org.apache.axis2.context.ConfigurationContext;
 import org.apache.axis2.context.ServiceContext;
 import org.apache.axis2.context.ServiceGroupContext;
 import org.apache.axis2.description.Parameter;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -40,15 +44,74 @@ import java.util.Map;
  */
 public class DefaultStateManager implements StateManager {
 
+    private static final Log log = LogFactory.getLog(DefaultStateManager.class);
+
+    /**
+     * The parameter specifying the window in milliseconds within which context updates are
+     * coalesced and sent asynchronously. If not specified, updates are sent synchronously.
+     */
+    public static final String REPLICATION_WINDOW = "replicationWindow";
+
     private final Map<String, Parameter> parameters = new HashMap<String, Parameter>();
 
     private ChannelSender sender;
 
+    private volatile StateReplicationPipeline replicationPipeline;
+
     private final Map<String, List> excludedReplicationPatterns = new HashMap<String, List>();
 
     //TODO: Try to use an interface
     public void setSender(ChannelSender sender) {
         this.sender = sender;
+        shutdown();
+        Parameter windowParam = getParameter(REPLICATION_WINDOW);
+        if (sender != null && windowParam != null) {
+            long window = 0;
+            try {
+                window = Long.parseLong(((String) windowParam.getValue()).trim());
+            } catch (NumberFormatException e) {
+                log.error("Invalid " + REPLICATION_WINDOW + " value " + windowParam.getValue() +
+                          ", replicating state synchronously");
+            }
+            if (window > 0) {
+                log.info("Replicating state asynchronously with a " + window + " ms window");
+                StateReplicationPipeline pipeline = new StateReplicationPipeline(sender, window);
+                pipeline.start();
+                replicationPipeline = pipeline;
+            }
+        }
+    }
+
+    /**
+     * @return The pipeline replicating state asynchronously, or null if state is replicated
+     *         synchronously
+     */
+    public StateReplicationPipeline getReplicationPipeline() {
+        return replicationPipeline;
+    }
+
+    /**
+     * Send the pending state updates and stop asynchronous replication
+     */
+    public void shutdown() {
+        StateReplicationPipeline pipeline = replicationPipeline;
+        if (pipeline != null) {
+            replicationPipeline = null;
+            pipeline.shutdown();
+        }
+    }
+
+    private void send(StateClusteringCommand cmd) throws ClusteringFault {
+        StateReplicationPipeline pipeline = replicationPipeline;
+        if (pipeline == null) {
+            sender.sendToGroup(cmd);
+        } else if (StateReplicationCodec.canEncode(cmd)) {
+            pipeline.enqueue((UpdateStateCommand) cmd);
+        } else {
+            // Don't overtake pending updates; if they can't be sent, neither is the command
+            pipeline.flush();
+            sender.sendToGroup(cmd);
+        }
     }
 
     public DefaultStateManager() {
@@ -60,7 +123,7 @@ public class DefaultStateManager implements StateManager {
                                                                  excludedReplicationPatterns,
                                                                  false);
         if (cmd != null) {
-            sender.sendToGroup(cmd);
+            send(cmd);
         }
     }
 
@@ -69,7 +132,7 @@ public class DefaultStateManager implements StateManager {
         StateClusteringCommand cmd =
                 StateClusteringCommandFactory.getUpdateCommand(context, propertyNames);
         if (cmd != null) {
-            sender.sendToGroup(cmd);
+            send(cmd);
         }
     }
 
@@ -77,18 +140,22 @@ public class DefaultStateManager implements StateManager {
         StateClusteringCommandCollection cmd =
                 StateClusteringCommandFactory.getCommandCollection(contexts,
                                                                    excludedReplicationPatterns);
-        if (!cmd.isEmpty()) {
+        if (replicationPipeline != null) {
+            for (StateClusteringCommand update : cmd.getCommands()) {
+                send(update);
+            }
+        } else if (!cmd.isEmpty()) {
             sender.sendToGroup(cmd);
         }
     }
 
     public void replicateState(StateClusteringCommand command) throws ClusteringFault {
-        sender.sendToGroup(command);
+        send(command);
     }
 
     public void removeContext(AbstractContext context) throws ClusteringFault {
         StateClusteringCommand cmd = StateClusteringCommandFactory.getRemoveCommand(context);
-        sender.sendToGroup(cmd);
+        send(cmd);
     }
 
     public boolean isContextClusterable(AbstractContext context) {
@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.clustering.state;
+
+import org.apache.axis2.clustering.ClusteringFault;
+import org.apache.axis2.clustering.state.commands.UpdateServiceGroupStateCommand;
+import org.apache.axis2.clustering.state.commands.UpdateServiceStateCommand;
+import org.apache.axis2.clustering.state.commands.UpdateStateCommand;
+import org.apache.axis2.clustering.tribes.ChannelSender;
+import org.apache.axis2.clustering.tribes.StateReplicationCodec;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replicates context state asynchronously. Updates of the same context which are made within
+ * the replication window are coalesced into a single update holding the latest value of each
+ * property, and all pending updates are sent to the group in one message, encoded using
+ * {@link StateReplicationCodec}.
+ */
+public class StateReplicationPipeline {
+
+    private static final Log log = LogFactory.getLog(StateReplicationPipeline.class);
+
+    private final ChannelSender sender;
+    private final long window;
+    private final ScheduledExecutorService executor;
+    /** Held while flushing, so that flushed updates are sent in order */
+    private final Object flushLock = new Object();
+
+    /** The pending updates in the order the contexts were first updated, by context */
+    private LinkedHashMap<String, UpdateStateCommand> pendingUpdates =
+            new LinkedHashMap<String, UpdateStateCommand>();
+    /** The time in nanoseconds of the oldest pending update */
+    private long oldestPendingUpdate;
+
+    private final AtomicLong sentMessages = new AtomicLong();
+    private final AtomicLong sentUpdates = new AtomicLong();
+    private final AtomicLong coalescedUpdates = new AtomicLong();
+    private final AtomicLong failedMessages = new AtomicLong();
+    private volatile long lastLag;
+
+    /**
+     * @param sender The sender used to send the updates to the group
+     * @param window The replication window in milliseconds
+     */
+    public StateReplicationPipeline(ChannelSender sender, long window) {
+        this.sender = sender;
+        this.window = window;
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Axis2-StateReplication");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    public void start() {
+        executor.scheduleWithFixedDelay(new Runnable() {
+            public void run() {
+                try {
+                    trySend();
+                } catch (Throwable e) {
+                    log.error("Error replicating state", e);
+                }
+            }
+        }, window, window, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the pipeline after sending the pending updates
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(window + 1000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (trySend() != null) {
+                log.error("Discarding " + getQueueDepth() + " state updates which could not be sent");
+            }
+        } catch (ClusteringFault e) {
+            log.error("Error replicating state", e);
+        }
+    }
+
+    /**
+     * Queue an update for replication
+     *
+     * @param cmd The update, see {@link StateReplicationCodec#canEncode(StateClusteringCommand)}
+     */
+    public void enqueue(UpdateStateCommand cmd) {
+        String key = getContextKey(cmd);
+        synchronized (this) {
+            UpdateStateCommand pending = pendingUpdates.get(key);
+            if (pending == null) {
+                if (pendingUpdates.isEmpty()) {
+                    oldestPendingUpdate = System.nanoTime();
+                }
+                pendingUpdates.put(key, cmd);
+            } else {
+                pending.addProperties(cmd);
+                coalescedUpdates.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Send the pending updates now. This is also used to preserve the order of updates and
+     * commands which are sent directly: a command must only be sent if this method returns
+     * normally, as it would otherwise overtake the updates.
+     *
+     * @throws ClusteringFault If the updates can't be encoded, or can't be sent; in the latter
+     *                         case they are queued again and sent with the next flush
+     */
+    public void flush() throws ClusteringFault {
+        ClusteringFault sendFault = trySend();
+        if (sendFault != null) {
+            throw new ClusteringFault("Pending state updates could not be sent to the group " +
+                                      "and have been queued again", sendFault);
+        }
+    }
+
+    /**
+     * Send the pending updates, queuing them again if they can't be sent.
+     *
+     * @return null if the updates have been sent, or the fault that prevented sending them
+     * @throws ClusteringFault If the updates can't be encoded
+     */
+    private ClusteringFault trySend() throws ClusteringFault {
+        synchronized (flushLock) {
+            List<UpdateStateCommand> updates;
+            long oldest;
+            synchronized (this) {
+                if (pendingUpdates.isEmpty()) {
+                    return null;
+                }
+                updates = new ArrayList<UpdateStateCommand>(pendingUpdates.values());
+                oldest = oldestPendingUpdate;
+                pendingUpdates = new LinkedHashMap<String, UpdateStateCommand>();
+            }
+            byte[] message;
+            try {
+                message = StateReplicationCodec.encode(updates);
+            } catch (IOException e) {
+                failedMessages.incrementAndGet();
+                throw new ClusteringFault("Cannot encode " + updates.size() + " state updates", e);
+            }
+            try {
+                sender.sendToGroup(message, updates.size() + " state updates");
+            } catch (ClusteringFault e) {
+                failedMessages.incrementAndGet();
+                requeue(updates, oldest);
+                log.warn("Could not send " + updates.size() + " state updates to the group; " +
+                         "they will be sent again with the next flush", e);
+                return e;
+            }
+            sentMessages.incrementAndGet();
+            sentUpdates.addAndGet(updates.size());
+            lastLag = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest);
+            if (log.isDebugEnabled()) {
+                log.debug("Sent " + updates.size() + " state updates (" + message.length +
+                          " bytes) to group, " + lastLag + " ms after the oldest update");
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Put updates which could not be sent back in front of the pending updates. The pending
+     * updates are newer, so their property values take precedence.
+     */
+    private synchronized void requeue(List<UpdateStateCommand> updates, long oldest) {
+        LinkedHashMap<String, UpdateStateCommand> requeued =
+                new LinkedHashMap<String, UpdateStateCommand>();
+        for (UpdateStateCommand update : updates) {
+            requeued.put(getContextKey(update), update);
+        }
+        for (Map.Entry<String, UpdateStateCommand> entry : pendingUpdates.entrySet()) {
+            UpdateStateCommand update = requeued.get(entry.getKey());
+            if (update == null) {
+                requeued.put(entry.getKey(), entry.getValue());
+            } else {
+                update.addProperties(entry.getValue());
+            }
+        }
+        pendingUpdates = requeued;
+        oldestPendingUpdate = oldest;
+    }
+
+    private static String getContextKey(UpdateStateCommand cmd) {
+        if (cmd instanceof UpdateServiceGroupStateCommand) {
+            return "G:" + ((UpdateServiceGroupStateCommand) cmd).getServiceGroupContextId();
+        } else if (cmd instanceof UpdateServiceStateCommand) {
+            UpdateServiceStateCommand serviceCmd = (UpdateServiceStateCommand) cmd;
+            return "S:" + serviceCmd.getServiceGroupContextId() + ":" + serviceCmd.getServiceName();
+        } else {
+            return "C";
+        }
+    }
+
+    // ---------------------------------- Metrics ----------------------------------------------
+
+    /**
+     * @return The number of contexts with pending updates
+     */
+    public synchronized int getQueueDepth() {
+        return pendingUpdates.size();
+    }
+
+    /**
+     * @return The time in milliseconds the oldest pending update has been waiting, or 0 if there
+     *         are no pending updates
+     */
+    public synchronized long getLag() {
+        if (pendingUpdates.isEmpty()) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldestPendingUpdate);
+    }
+
+    /**
+     * @return The time in milliseconds the oldest update of the last message sent was waiting
+     */
+    public long getLastLag() {
+        return lastLag;
+    }
+
+    public long getSentMessageCount() {
+        return sentMessages.get();
+    }
+
+    public long getSentUpdateCount() {
+        return sentUpdates.get();
+    }
+
+    /**
+     * @return The number of updates which were merged into a pending update of the same context
+     */
+    public long getCoalescedUpdateCount() {
+        return coalescedUpdates.get();
+    }
+
+    public long getFailedMessageCount() {
+        return failedMessages.get();
+    }
+}
@@ -23,6 +23,8 @@ import org.apache.axis2.clustering.state.PropertyUpdater;
 import org.apache.axis2.clustering.state.StateClusteringCommand;
 import org.apache.axis2.context.PropertyDifference;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 
 /**
@@ -46,4 +48,23 @@ public abstract class UpdateStateCommand extends StateClusteringCommand {
         }                                        
         propertyUpdater.addContextProperty(diff);
     }
+
+    /**
+     * Add the property differences of another command updating the same context. Differences of
+     * the other command replace those of this command for the same property.
+     *
+     * @param cmd The command whose properties are to be added
+     */
+    public void addProperties(UpdateStateCommand cmd) {
+        for (PropertyDifference diff : cmd.getPropertyDifferences()) {
+            addProperty(diff);
+        }
+    }
+
+    public Collection<PropertyDifference> getPropertyDifferences() {
+        if (propertyUpdater.getProperties() == null) {
+            return Collections.emptyList();
+        }
+        return propertyUpdater.getProperties().values();
+    }
 }
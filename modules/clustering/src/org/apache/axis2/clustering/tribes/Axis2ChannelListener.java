@@ -88,10 +88,14 @@ public class Axis2ChannelListener implements ChannelListener {
     public void messageReceived(Serializable msg, Member sender) {
         try {
             byte[] message = ((ByteMessage) msg).getMessage();
-            msg = XByteBuffer.deserialize(message,
-                                          0,
-                                          message.length,
-                                          ClassLoaderUtil.getClassLoaders());
+            if (StateReplicationCodec.isEncoded(message)) {
+                msg = StateReplicationCodec.decode(message, ClassLoaderUtil.getClassLoaders());
+            } else {
+                msg = XByteBuffer.deserialize(message,
+                                              0,
+                                              message.length,
+                                              ClassLoaderUtil.getClassLoaders());
+            }
         } catch (Exception e) {
             String errMsg = "Cannot deserialize received message";
             log.error(errMsg, e);
@@ -49,12 +49,52 @@ public class ChannelSender implements MessageSender {
         this.synchronizeAllMembers = synchronizeAllMembers;
     }
 
-    public synchronized void sendToGroup(ClusteringCommand msg,
+    public void sendToGroup(ClusteringCommand msg,
                             MembershipManager membershipManager,
                             int additionalOptions) throws ClusteringFault {
-        if (channel == null) {
+        if (channel == null || membershipManager.getMembers().length == 0) {
+            return;
+        }
+        // Serialize before taking the lock, so that senders only wait for each other while
+        // the channel is in use
+        ByteMessage byteMessage;
+        try {
+            byteMessage = toByteMessage(msg);
+        } catch (NotSerializableException e) {
+            String message = "Could not send command message " + msg +
+                             " to group since it is not serializable.";
+            log.error(message, e);
+            throw new ClusteringFault(message, e);
+        } catch (IOException e) {
+            log.warn("Error sending command message : " + msg + ". Reason " + e.getMessage(), e);
             return;
         }
+        sendToGroup(msg, byteMessage, membershipManager, additionalOptions);
+    }
+
+    /**
+     * Send a message which has already been encoded, e.g. using {@link StateReplicationCodec}
+     *
+     * @param message     The encoded message
+     * @param description A description of the message, used for logging
+     * @throws ClusteringFault If the message could not be sent to all members
+     */
+    public void sendToGroup(byte[] message, String description) throws ClusteringFault {
+        if (!sendToGroup(description, new ByteMessage(message), this.membershipManager, 0)) {
+            throw new ClusteringFault("Could not send " + description + " to the group");
+        }
+    }
+
+    /**
+     * @return false if sending the message failed, true otherwise
+     */
+    private synchronized boolean sendToGroup(Object msg,
+                                             ByteMessage byteMessage,
+                                             MembershipManager membershipManager,
+                                             int additionalOptions) {
+        if (channel == null) {
+            return true;
+        }
         Member[] members = membershipManager.getMembers();
 
         // Keep retrying, since at the point of trying to send the msg, a member may leave the group
@@ -62,7 +102,7 @@ public class ChannelSender implements MessageSender {
         if (members.length > 0) {
             try {
                 if (synchronizeAllMembers) {
-                    channel.send(members, toByteMessage(msg),
+                    channel.send(members, byteMessage,
                                  Channel.SEND_OPTIONS_USE_ACK |
                                  Channel.SEND_OPTIONS_SYNCHRONIZED_ACK |
                                  Channel.SEND_OPTIONS_BYTE_MESSAGE |
@@ -70,7 +110,7 @@ public class ChannelSender implements MessageSender {
                                  TribesConstants.AT_MOST_ONCE_OPTION |
                                  additionalOptions);
                 } else {
-                    channel.send(members, toByteMessage(msg),
+                    channel.send(members, byteMessage,
                                  Channel.SEND_OPTIONS_ASYNCHRONOUS |
                                  TribesConstants.MSG_ORDER_OPTION |
                                  Channel.SEND_OPTIONS_BYTE_MESSAGE |
@@ -80,11 +120,6 @@ public class ChannelSender implements MessageSender {
                 if (log.isDebugEnabled()) {
                     log.debug("Sent " + msg + " to group");
                 }
-            } catch (NotSerializableException e) {
-                String message = "Could not send command message " + msg +
-                                 " to group since it is not serializable.";
-                log.error(message, e);
-                throw new ClusteringFault(message, e);
             } catch (ChannelException e) {
                 log.error("Could not send message to some members", e);
                 ChannelException.FaultyMember[] faultyMembers = e.getFaultyMembers();
@@ -93,12 +128,15 @@ public class ChannelSender implements MessageSender {
                     log.error("Member " + TribesUtil.getName(member) + " is faulty",
                               faultyMember.getCause());
                 }
+                return false;
             } catch (Exception e) {
                 String message = "Error sending command message : " + msg +
                                  ". Reason " + e.getMessage();
                 log.warn(message, e);
+                return false;
             }
         }
+        return true;
     }
 
     public void sendToGroup(ClusteringCommand msg) throws ClusteringFault {
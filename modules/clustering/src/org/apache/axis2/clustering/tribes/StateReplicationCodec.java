@@ -0,0 +1,274 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.clustering.tribes;
+
+import org.apache.axis2.clustering.state.StateClusteringCommand;
+import org.apache.axis2.clustering.state.commands.StateClusteringCommandCollection;
+import org.apache.axis2.clustering.state.commands.UpdateConfigurationStateCommand;
+import org.apache.axis2.clustering.state.commands.UpdateServiceGroupStateCommand;
+import org.apache.axis2.clustering.state.commands.UpdateServiceStateCommand;
+import org.apache.axis2.clustering.state.commands.UpdateStateCommand;
+import org.apache.axis2.context.PropertyDifference;
+import org.apache.catalina.tribes.io.XByteBuffer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Compact binary encoding of context state updates. Unlike Java serialization of the
+ * {@link UpdateStateCommand}s, only the identity of the updated contexts and the property
+ * differences are written; property values of common immutable types are written directly and
+ * only other values are Java serialized.
+ * <p>
+ * An encoded message starts with a magic number which can't start a Java serialization stream,
+ * followed by the format version, so that receivers can tell both apart.
+ */
+public final class StateReplicationCodec {
+
+    private static final byte[] MAGIC = {'A', '2', 'S', 'R'};
+
+    public static final byte VERSION = 1;
+
+    private static final byte CONFIGURATION_CONTEXT = 1;
+    private static final byte SERVICE_GROUP_CONTEXT = 2;
+    private static final byte SERVICE_CONTEXT = 3;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte BOOLEAN = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte BYTES = 6;
+    private static final byte SERIALIZED = 7;
+
+    private StateReplicationCodec() {
+    }
+
+    /**
+     * Check whether a command can be encoded, i.e. whether it updates a configuration, service
+     * group or service context.
+     */
+    public static boolean canEncode(StateClusteringCommand cmd) {
+        return cmd instanceof UpdateConfigurationStateCommand ||
+               cmd instanceof UpdateServiceGroupStateCommand ||
+               cmd instanceof UpdateServiceStateCommand;
+    }
+
+    public static boolean isEncoded(byte[] message) {
+        if (message.length < MAGIC.length + 1) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (message[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param commands The commands to encode, see {@link #canEncode(StateClusteringCommand)}
+     * @return The encoded message
+     * @throws IOException If a property value can't be serialized
+     */
+    public static byte[] encode(Collection<? extends UpdateStateCommand> commands)
+            throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bos);
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        out.writeInt(commands.size());
+        for (UpdateStateCommand cmd : commands) {
+            if (cmd instanceof UpdateConfigurationStateCommand) {
+                out.writeByte(CONFIGURATION_CONTEXT);
+            } else if (cmd instanceof UpdateServiceGroupStateCommand) {
+                UpdateServiceGroupStateCommand sgCmd = (UpdateServiceGroupStateCommand) cmd;
+                out.writeByte(SERVICE_GROUP_CONTEXT);
+                writeString(out, sgCmd.getServiceGroupName());
+                writeString(out, sgCmd.getServiceGroupContextId());
+            } else if (cmd instanceof UpdateServiceStateCommand) {
+                UpdateServiceStateCommand serviceCmd = (UpdateServiceStateCommand) cmd;
+                out.writeByte(SERVICE_CONTEXT);
+                writeString(out, serviceCmd.getServiceGroupName());
+                writeString(out, serviceCmd.getServiceGroupContextId());
+                writeString(out, serviceCmd.getServiceName());
+            } else {
+                throw new IOException("Cannot encode command " + cmd);
+            }
+            Collection<PropertyDifference> diffs = cmd.getPropertyDifferences();
+            out.writeInt(diffs.size());
+            for (PropertyDifference diff : diffs) {
+                writeString(out, diff.getKey());
+                out.writeBoolean(diff.isRemoved());
+                writeValue(out, diff.isRemoved() ? null : diff.getValue());
+            }
+        }
+        out.flush();
+        return bos.toByteArray();
+    }
+
+    /**
+     * @param message      The encoded message
+     * @param classLoaders The class loaders used to deserialize property values
+     * @return The decoded commands
+     * @throws IOException            If the message is malformed or of an unsupported version
+     * @throws ClassNotFoundException If the class of a property value can't be found
+     */
+    public static StateClusteringCommandCollection decode(byte[] message,
+                                                          ClassLoader[] classLoaders)
+            throws IOException, ClassNotFoundException {
+        if (!isEncoded(message)) {
+            throw new IOException("Not an encoded state replication message");
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(message));
+        in.skipBytes(MAGIC.length);
+        byte version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported state replication message version " + version);
+        }
+        int count = in.readInt();
+        List<StateClusteringCommand> commands = new ArrayList<StateClusteringCommand>(count);
+        for (int i = 0; i < count; i++) {
+            UpdateStateCommand cmd;
+            byte type = in.readByte();
+            switch (type) {
+                case CONFIGURATION_CONTEXT:
+                    cmd = new UpdateConfigurationStateCommand();
+                    break;
+                case SERVICE_GROUP_CONTEXT:
+                    UpdateServiceGroupStateCommand sgCmd = new UpdateServiceGroupStateCommand();
+                    sgCmd.setServiceGroupName(readString(in));
+                    sgCmd.setServiceGroupContextId(readString(in));
+                    cmd = sgCmd;
+                    break;
+                case SERVICE_CONTEXT:
+                    UpdateServiceStateCommand serviceCmd = new UpdateServiceStateCommand();
+                    serviceCmd.setServiceGroupName(readString(in));
+                    serviceCmd.setServiceGroupContextId(readString(in));
+                    serviceCmd.setServiceName(readString(in));
+                    cmd = serviceCmd;
+                    break;
+                default:
+                    throw new IOException("Unknown context type " + type);
+            }
+            int propertyCount = in.readInt();
+            for (int j = 0; j < propertyCount; j++) {
+                String key = readString(in);
+                boolean removed = in.readBoolean();
+                cmd.addProperty(new PropertyDifference(key, readValue(in, classLoaders), removed));
+            }
+            commands.add(cmd);
+        }
+        return new StateClusteringCommandCollection(commands);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = readBytes(in);
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            out.writeByte(BYTES);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } else {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            ObjectOutputStream oos = new ObjectOutputStream(bos);
+            oos.writeObject(value);
+            oos.close();
+            out.writeByte(SERIALIZED);
+            out.writeInt(bos.size());
+            bos.writeTo(out);
+        }
+    }
+
+    private static Object readValue(DataInputStream in, ClassLoader[] classLoaders)
+            throws IOException, ClassNotFoundException {
+        byte type = in.readByte();
+        switch (type) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(in);
+            case INTEGER:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case BOOLEAN:
+                return in.readBoolean();
+            case DOUBLE:
+                return in.readDouble();
+            case BYTES:
+                return readBytes(in);
+            case SERIALIZED:
+                byte[] bytes = readBytes(in);
+                return XByteBuffer.deserialize(bytes, 0, bytes.length, classLoaders);
+            default:
+                throw new IOException("Unknown value type " + type);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.clustering.state;
+
+import junit.framework.TestCase;
+import org.apache.axis2.clustering.ClusteringCommand;
+import org.apache.axis2.clustering.ClusteringFault;
+import org.apache.axis2.clustering.state.commands.DeleteServiceGroupStateCommand;
+import org.apache.axis2.clustering.state.commands.UpdateServiceStateCommand;
+import org.apache.axis2.clustering.tribes.ChannelSender;
+import org.apache.axis2.context.PropertyDifference;
+import org.apache.axis2.description.Parameter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class StateReplicationPipelineTest extends TestCase {
+
+    private static UpdateServiceStateCommand update(String sgCtxId, String key, Object value) {
+        UpdateServiceStateCommand cmd = new UpdateServiceStateCommand();
+        cmd.setServiceGroupName("sg");
+        cmd.setServiceGroupContextId(sgCtxId);
+        cmd.setServiceName("service");
+        cmd.addProperty(new PropertyDifference(key, value, false));
+        return cmd;
+    }
+
+    public void testCoalescing() throws Exception {
+        // Without a channel, the sender discards the messages
+        StateReplicationPipeline pipeline =
+                new StateReplicationPipeline(new ChannelSender(null, null, false), 60000);
+        UpdateServiceStateCommand first = update("sgctx1", "a", "1");
+        pipeline.enqueue(first);
+        pipeline.enqueue(update("sgctx1", "a", "2"));
+        pipeline.enqueue(update("sgctx1", "b", "3"));
+        pipeline.enqueue(update("sgctx2", "a", "4"));
+
+        assertEquals(2, pipeline.getQueueDepth());
+        assertEquals(2, pipeline.getCoalescedUpdateCount());
+        assertEquals(2, first.getPropertyDifferences().size());
+        for (PropertyDifference diff : first.getPropertyDifferences()) {
+            assertEquals(diff.getKey().equals("a") ? "2" : "3", diff.getValue());
+        }
+
+        pipeline.flush();
+        assertEquals(0, pipeline.getQueueDepth());
+        assertEquals(0, pipeline.getLag());
+        assertEquals(1, pipeline.getSentMessageCount());
+        assertEquals(2, pipeline.getSentUpdateCount());
+        pipeline.shutdown();
+    }
+
+    public void testFailedSendIsRequeued() throws Exception {
+        final int[] attempts = new int[1];
+        ChannelSender sender = new ChannelSender(null, null, false) {
+            @Override
+            public void sendToGroup(byte[] message, String description) throws ClusteringFault {
+                if (attempts[0]++ == 0) {
+                    throw new ClusteringFault("Simulated failure");
+                }
+            }
+        };
+        StateReplicationPipeline pipeline = new StateReplicationPipeline(sender, 60000);
+        UpdateServiceStateCommand first = update("sgctx1", "a", "1");
+        pipeline.enqueue(first);
+        pipeline.enqueue(update("sgctx2", "a", "2"));
+
+        try {
+            pipeline.flush();
+            fail("Expected ClusteringFault");
+        } catch (ClusteringFault e) {
+            // Expected
+        }
+        assertEquals(1, pipeline.getFailedMessageCount());
+        assertEquals(0, pipeline.getSentMessageCount());
+        assertEquals(2, pipeline.getQueueDepth());
+
+        // A newer update of a requeued context takes precedence
+        pipeline.enqueue(update("sgctx1", "a", "3"));
+        pipeline.enqueue(update("sgctx3", "a", "4"));
+        assertEquals(3, pipeline.getQueueDepth());
+        pipeline.flush();
+        assertEquals(1, pipeline.getFailedMessageCount());
+        assertEquals(1, pipeline.getSentMessageCount());
+        assertEquals(3, pipeline.getSentUpdateCount());
+        assertEquals(0, pipeline.getQueueDepth());
+        assertEquals(1, first.getPropertyDifferences().size());
+        assertEquals("3", first.getPropertyDifferences().iterator().next().getValue());
+        pipeline.shutdown();
+    }
+
+    public void testCommandDoesNotOvertakeRequeuedUpdates() throws Exception {
+        final boolean[] failing = {true};
+        final List<Object> sent = new ArrayList<Object>();
+        ChannelSender sender = new ChannelSender(null, null, false) {
+            @Override
+            public void sendToGroup(byte[] message, String description) throws ClusteringFault {
+                if (failing[0]) {
+                    throw new ClusteringFault("Simulated failure");
+                }
+                sent.add(message);
+            }
+
+            @Override
+            public void sendToGroup(ClusteringCommand msg) throws ClusteringFault {
+                sent.add(msg);
+            }
+        };
+        DefaultStateManager stateManager = new DefaultStateManager();
+        stateManager.addParameter(
+                new Parameter(DefaultStateManager.REPLICATION_WINDOW, "60000"));
+        stateManager.setSender(sender);
+        StateReplicationPipeline pipeline = stateManager.getReplicationPipeline();
+        assertNotNull(pipeline);
+        stateManager.replicateState(update("sgctx1", "a", "1"));
+        assertEquals(1, pipeline.getQueueDepth());
+
+        DeleteServiceGroupStateCommand delete = new DeleteServiceGroupStateCommand();
+        try {
+            stateManager.replicateState(delete);
+            fail("Expected ClusteringFault");
+        } catch (ClusteringFault e) {
+            // Expected
+        }
+        assertTrue(sent.isEmpty());
+        assertEquals(1, pipeline.getQueueDepth());
+
+        failing[0] = false;
+        stateManager.replicateState(delete);
+        assertEquals(2, sent.size());
+        assertTrue(sent.get(0) instanceof byte[]);
+        assertSame(delete, sent.get(1));
+        assertEquals(0, pipeline.getQueueDepth());
+        stateManager.shutdown();
+    }
+}
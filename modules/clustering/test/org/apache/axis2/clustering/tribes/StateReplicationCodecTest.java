@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.clustering.tribes;
+
+import junit.framework.TestCase;
+import org.apache.axis2.clustering.TestDO;
+import org.apache.axis2.clustering.state.commands.StateClusteringCommandCollection;
+import org.apache.axis2.clustering.state.commands.UpdateConfigurationStateCommand;
+import org.apache.axis2.clustering.state.commands.UpdateServiceStateCommand;
+import org.apache.axis2.clustering.state.commands.UpdateStateCommand;
+import org.apache.axis2.context.PropertyDifference;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class StateReplicationCodecTest extends TestCase {
+
+    public void testRoundTrip() throws Exception {
+        UpdateServiceStateCommand serviceCmd = new UpdateServiceStateCommand();
+        serviceCmd.setServiceGroupName("sg");
+        serviceCmd.setServiceGroupContextId("sgctx");
+        serviceCmd.setServiceName("service");
+        serviceCmd.addProperty(new PropertyDifference("string", "value", false));
+        serviceCmd.addProperty(new PropertyDifference("int", 42, false));
+        serviceCmd.addProperty(new PropertyDifference("long", 42L, false));
+        serviceCmd.addProperty(new PropertyDifference("object", new TestDO("name", "value"), false));
+        serviceCmd.addProperty(new PropertyDifference("removed", null, true));
+        UpdateConfigurationStateCommand configCmd = new UpdateConfigurationStateCommand();
+        configCmd.addProperty(new PropertyDifference("bytes", new byte[] { 1, 2, 3 }, false));
+        List<UpdateStateCommand> commands = new ArrayList<UpdateStateCommand>();
+        commands.add(serviceCmd);
+        commands.add(configCmd);
+
+        byte[] message = StateReplicationCodec.encode(commands);
+        assertTrue(StateReplicationCodec.isEncoded(message));
+        StateClusteringCommandCollection decoded = StateReplicationCodec.decode(message,
+                new ClassLoader[] { getClass().getClassLoader() });
+
+        assertEquals(2, decoded.getCommands().size());
+        UpdateServiceStateCommand decodedServiceCmd =
+                (UpdateServiceStateCommand) decoded.getCommands().get(0);
+        assertEquals("sg", decodedServiceCmd.getServiceGroupName());
+        assertEquals("sgctx", decodedServiceCmd.getServiceGroupContextId());
+        assertEquals("service", decodedServiceCmd.getServiceName());
+        Map<String, PropertyDifference> diffs = new HashMap<String, PropertyDifference>();
+        for (PropertyDifference diff : decodedServiceCmd.getPropertyDifferences()) {
+            diffs.put(diff.getKey(), diff);
+        }
+        assertEquals(5, diffs.size());
+        assertEquals("value", diffs.get("string").getValue());
+        assertEquals(42, diffs.get("int").getValue());
+        assertEquals(42L, diffs.get("long").getValue());
+        assertEquals("name", ((TestDO) diffs.get("object").getValue()).getName());
+        assertTrue(diffs.get("removed").isRemoved());
+        assertFalse(diffs.get("string").isRemoved());
+
+        UpdateConfigurationStateCommand decodedConfigCmd =
+                (UpdateConfigurationStateCommand) decoded.getCommands().get(1);
+        PropertyDifference bytes = decodedConfigCmd.getPropertyDifferences().iterator().next();
+        assertEquals("bytes", bytes.getKey());
+        assertEquals(3, ((byte[]) bytes.getValue()).length);
+    }
+
+    public void testJavaSerializationNotMistakenForEncodedMessage() {
+        assertFalse(StateReplicationCodec.isEncoded(new byte[] { (byte) 0xAC, (byte) 0xED, 0, 5, 0 }));
+    }
+}
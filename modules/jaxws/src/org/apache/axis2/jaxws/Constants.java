@@ -267,4 +267,64 @@ public interface Constants {
      * If this property is set, the Endpoint.publish methods will throw an UnsupportedOperationException.
      */
     public static final String  DISABLE_ENDPOINT_PUBLISH_METHODS = "jaxws.endpoint.publish.disable"; 
+
+    /**
+     * Configuration Parameter:
+     * Name: jaxws.executor.type
+     * Value: String "fixed", "forkjoin" or "virtual"
+     * Default: null, which is interpreted as "fixed"
+     * Can be set on:
+     * - Axis Configuration
+     *
+     * Selects the kind of thread pool backing the executor that is shared by the ServiceDelegate
+     * instances of a configuration context (unless the application sets its own Executor) and
+     * by asynchronous server invocations. "fixed" uses a pool of daemon threads, "forkjoin" a ForkJoinPool in async mode
+     * and "virtual" one virtual thread per task. Virtual threads require a Java runtime that
+     * supports them; on other runtimes "fixed" is used.
+     *
+     * Each configuration context creates its executors the first time they are needed, and shuts
+     * them down when it is terminated.
+     */
+    public static final String JAXWS_EXECUTOR_TYPE = "jaxws.executor.type";
+
+    /**
+     * Configuration Parameter:
+     * Name: jaxws.executor.threads
+     * Value: String containing a positive integer
+     * Default: null, which is interpreted as the number of available processors, but at least 3
+     * Can be set on:
+     * - Axis Configuration
+     *
+     * The number of threads of the shared "fixed" and "forkjoin" executors. Ignored for "virtual".
+     */
+    public static final String JAXWS_EXECUTOR_THREADS = "jaxws.executor.threads";
+
+    /**
+     * Configuration Parameter:
+     * Name: jaxws.executor.maxPending
+     * Value: String containing a positive integer
+     * Default: null, which is interpreted as 1024
+     * Can be set on:
+     * - Axis Configuration
+     *
+     * The maximum number of tasks (e.g. AsyncHandler callbacks) that may be queued or running on
+     * a shared executor. When the limit is reached, further tasks are run by the thread that
+     * submits them, which slows down the producer instead of letting the queue grow without bound.
+     */
+    public static final String JAXWS_EXECUTOR_MAX_PENDING = "jaxws.executor.maxPending";
+
+    /**
+     * Configuration Parameter:
+     * Name: jaxws.jaxbcontext.prewarm
+     * Value: String "false" or "true"
+     * Default: null, which is interpreted as "false"
+     * Can be set on:
+     * - Axis Configuration, which affects all jax-ws endpoints deployed by the JAXWSDeployer
+     *
+     * If set to "true", the JAXBContexts of the endpoints are built in parallel when they are
+     * deployed, instead of on the first request, and are pinned (held strongly) until the
+     * endpoints are undeployed, so that they are not discarded under memory pressure.
+     * See org.apache.axis2.jaxws.message.databinding.JAXBContextRegistry.
+     */
+    public static final String JAXWS_JAXB_CONTEXT_PREWARM = "jaxws.jaxbcontext.prewarm";
 }
@@ -196,6 +196,9 @@ public class JAXWSDeployer extends AbstractDeployer {
         try {
             AxisServiceGroup serviceGroup =
                     axisConfig.removeServiceGroup(fileName);
+            if (serviceGroup != null) {
+                JAXWSDeployerSupport.releaseJAXBContexts(serviceGroup);
+            }
             if(configCtx != null) {
                 configCtx.removeServiceGroupContext(serviceGroup);
             }
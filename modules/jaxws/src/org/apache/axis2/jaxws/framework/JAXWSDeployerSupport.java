@@ -25,8 +25,16 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.jws.WebService;
+import javax.xml.bind.JAXBException;
 import javax.xml.namespace.QName;
 import javax.xml.ws.WebServiceProvider;
 
@@ -46,7 +54,13 @@ import org.apache.axis2.jaxws.addressing.util.EndpointContextMapManager;
 import org.apache.axis2.jaxws.addressing.util.EndpointKey;
 import org.apache.axis2.jaxws.description.DescriptionFactory;
 import org.apache.axis2.jaxws.description.EndpointDescription;
+import org.apache.axis2.jaxws.message.databinding.JAXBContextRegistry;
+import org.apache.axis2.jaxws.message.databinding.JAXBUtils;
+import org.apache.axis2.jaxws.runtime.description.marshal.MarshalServiceRuntimeDescription;
+import org.apache.axis2.jaxws.runtime.description.marshal.MarshalServiceRuntimeDescriptionFactory;
 import org.apache.axis2.jaxws.server.JAXWSMessageReceiver;
+import org.apache.axis2.jaxws.utility.JAXWSThreadFactory;
+import org.apache.axis2.util.JavaUtils;
 import org.apache.axis2.util.Loader;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -171,6 +185,9 @@ public class JAXWSDeployerSupport {
             }
             getConfigurationContext().getAxisConfiguration().addServiceGroup(serviceGroup);
             configureAddressing(serviceGroup);
+            if (isPrewarmJAXBContexts()) {
+                prewarmJAXBContexts(serviceGroup);
+            }
             return serviceGroup;
         }
         return null;
@@ -335,6 +352,100 @@ public class JAXWSDeployerSupport {
         return classNames;
     }
 
+    private boolean isPrewarmJAXBContexts() {
+        Parameter param = getConfigurationContext().getAxisConfiguration().getParameter(
+                org.apache.axis2.jaxws.Constants.JAXWS_JAXB_CONTEXT_PREWARM);
+        return param != null && JavaUtils.isTrueExplicitly(param.getValue());
+    }
+
+    /**
+     * Build the JAXBContexts of the services in the group in parallel and pin them in the
+     * {@link JAXBContextRegistry}, so that the first requests don't have to build them and
+     * they are not discarded under memory pressure. Failures are logged; the contexts are then
+     * built on the first request as usual.
+     * 
+     * @param serviceGroup
+     *            the deployed service group
+     */
+    protected void prewarmJAXBContexts(AxisServiceGroup serviceGroup) {
+        List<Callable<JAXBContextRegistry.Entry>> tasks =
+                new ArrayList<Callable<JAXBContextRegistry.Entry>>();
+        for (Iterator<AxisService> it = serviceGroup.getServices(); it.hasNext();) {
+            final AxisService axisService = it.next();
+            Parameter param = axisService.getParameter(EndpointDescription.AXIS_SERVICE_PARAMETER);
+            if (param == null) {
+                continue;
+            }
+            final EndpointDescription ed = (EndpointDescription) param.getValue();
+            tasks.add(new Callable<JAXBContextRegistry.Entry>() {
+                public JAXBContextRegistry.Entry call() throws Exception {
+                    return prewarmJAXBContext(axisService, ed);
+                }
+            });
+        }
+        if (tasks.isEmpty()) {
+            return;
+        }
+        int threads = Math.min(tasks.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new JAXWSThreadFactory());
+        try {
+            List<Future<JAXBContextRegistry.Entry>> futures = executor.invokeAll(tasks);
+            for (Future<JAXBContextRegistry.Entry> future : futures) {
+                try {
+                    JAXBContextRegistry.Entry entry = future.get();
+                    if (entry != null && log.isDebugEnabled()) {
+                        log.debug("Pinned " + entry);
+                    }
+                } catch (ExecutionException e) {
+                    log.warn("Unable to build JAXBContext at deployment time: "
+                            + e.getCause(), e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private JAXBContextRegistry.Entry prewarmJAXBContext(AxisService axisService,
+            EndpointDescription ed) throws JAXBException {
+        MarshalServiceRuntimeDescription marshalDesc =
+                MarshalServiceRuntimeDescriptionFactory.get(ed.getServiceDescription());
+        TreeSet<String> packages = marshalDesc.getPackages();
+        if (packages == null || packages.isEmpty()) {
+            return null;
+        }
+        // Use the class loader and properties that the JAX-WS runtime uses for this endpoint
+        ClassLoader cl = (ClassLoader) axisService.getParameterValue(
+                org.apache.axis2.jaxws.spi.Constants.CACHE_CLASSLOADER);
+        if (cl == null) {
+            cl = axisService.getClassLoader();
+        }
+        if (cl == null) {
+            return null;
+        }
+        Map<String, Object> properties = null;
+        if (JAXBUtils.DEFAULT_NAMESPACE_REMAP != null && ed.getTargetNamespace() != null) {
+            properties = new HashMap<String, Object>();
+            properties.put(JAXBUtils.DEFAULT_NAMESPACE_REMAP, ed.getTargetNamespace());
+        }
+        return JAXBContextRegistry.pin(axisService, packages,
+                marshalDesc.getPackagesKey(), cl, properties);
+    }
+
+    /**
+     * Release the JAXBContexts pinned for the services in the group.
+     * 
+     * @param serviceGroup
+     *            the undeployed service group
+     */
+    public static void releaseJAXBContexts(AxisServiceGroup serviceGroup) {
+        for (Iterator<AxisService> it = serviceGroup.getServices(); it.hasNext();) {
+            JAXBContextRegistry.release(it.next());
+        }
+    }
+
     /**
      * Configure addressing.
      * 
@@ -0,0 +1,269 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.jaxws.message.databinding;
+
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.jaxws.message.databinding.JAXBUtils.CONSTRUCTION_TYPE;
+import org.apache.axis2.jaxws.message.databinding.JAXBUtils.JAXBContextValue;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.ws.Holder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registry of JAXBContexts that are pinned for deployed endpoints.
+ * <p>
+ * The contexts cached by {@link JAXBUtils} are softly referenced and the cache is bounded, so a
+ * context may be discarded under memory pressure and have to be rebuilt on a later request.
+ * A pinned context is held strongly until all endpoints that pinned it are released. Endpoints
+ * are identified by their AxisService instance, so that services with the same name deployed
+ * in different Axis configurations don't release each other's contexts. Lookups
+ * in JAXBUtils consult this registry first. Contexts are normally pinned when endpoints are
+ * deployed (see {@link org.apache.axis2.jaxws.Constants#JAXWS_JAXB_CONTEXT_PREWARM}).
+ * <p>
+ * The registry records how long each context took to obtain and how often it was used, which
+ * can be retrieved with {@link #getEntries()}, {@link #getLookupCount()} and
+ * {@link #getHitCount()}.
+ */
+public class JAXBContextRegistry {
+
+    private static final Log log = LogFactory.getLog(JAXBContextRegistry.class);
+
+    // key is the String (sorted packages), as in JAXBUtils
+    private static final Map<String, ConcurrentHashMap<ClassLoader, Entry>> entries =
+            new ConcurrentHashMap<String, ConcurrentHashMap<ClassLoader, Entry>>();
+
+    private static final AtomicLong lookupCount = new AtomicLong();
+    private static final AtomicLong hitCount = new AtomicLong();
+
+    /**
+     * Intentionally private.  All methods are static.
+     */
+    private JAXBContextRegistry() {
+    }
+
+    /**
+     * A pinned JAXBContext
+     */
+    public static class Entry {
+        private final String packagesKey;
+        private final JAXBContextValue value;
+        private final long buildTime;
+        private final AtomicLong hits = new AtomicLong();
+        // Guarded by entries
+        private final Set<AxisService> endpoints =
+                Collections.newSetFromMap(new IdentityHashMap<AxisService, Boolean>());
+
+        Entry(String packagesKey, JAXBContextValue value, long buildTime) {
+            this.packagesKey = packagesKey;
+            this.value = value;
+            this.buildTime = buildTime;
+        }
+
+        public String getPackagesKey() {
+            return packagesKey;
+        }
+
+        public JAXBContext getJAXBContext() {
+            return value.jaxbContext;
+        }
+
+        public CONSTRUCTION_TYPE getConstructionType() {
+            return value.constructionType;
+        }
+
+        /**
+         * @return the time in milliseconds it took to obtain the JAXBContext when it was pinned
+         */
+        public long getBuildTime() {
+            return buildTime;
+        }
+
+        /**
+         * @return the number of lookups served by this entry
+         */
+        public long getHitCount() {
+            return hits.get();
+        }
+
+        /**
+         * @return the endpoints that pinned this entry
+         */
+        public List<AxisService> getEndpoints() {
+            synchronized (entries) {
+                return new ArrayList<AxisService>(endpoints);
+            }
+        }
+
+        public String toString() {
+            List<String> names = new ArrayList<String>();
+            for (AxisService endpoint : getEndpoints()) {
+                names.add(endpoint.getName());
+            }
+            return "JAXBContext " + packagesKey + " [constructionType=" + value.constructionType
+                    + ", buildTime=" + buildTime + "ms, hits=" + getHitCount()
+                    + ", endpoints=" + names + "]";
+        }
+    }
+
+    /**
+     * Get the pinned JAXBContext for the given packages and class loader.
+     *
+     * @param key the packages key
+     * @param cl the class loader
+     * @param forceArrays true if the JAXBContext must include all arrays
+     * @return the JAXBContext value or null if no matching context is pinned
+     */
+    static JAXBContextValue lookup(String key, ClassLoader cl, boolean forceArrays) {
+        if (entries.isEmpty() || cl == null) {
+            return null;
+        }
+        lookupCount.incrementAndGet();
+        Map<ClassLoader, Entry> map = entries.get(key);
+        Entry entry = map == null ? null : map.get(cl);
+        if (entry == null || (forceArrays &&
+                entry.value.constructionType != CONSTRUCTION_TYPE.BY_CLASS_ARRAY_PLUS_ARRAYS)) {
+            return null;
+        }
+        hitCount.incrementAndGet();
+        entry.hits.incrementAndGet();
+        return entry.value;
+    }
+
+    /**
+     * Pin the JAXBContext for the given packages on behalf of an endpoint, building it if
+     * necessary.
+     *
+     * @param endpoint the AxisService of the endpoint; used to release the context
+     * @param contextPackages the packages, as returned by
+     *        {@link org.apache.axis2.jaxws.runtime.description.marshal.MarshalServiceRuntimeDescription#getPackages()}
+     * @param key the packages key
+     * @param cl the class loader that is used to look up the context at runtime; not null
+     * @param properties Map of properties for the JAXBContext.newInstance creation method
+     * @return the registry entry
+     * @throws JAXBException
+     */
+    public static Entry pin(AxisService endpoint, TreeSet<String> contextPackages, String key,
+                            ClassLoader cl, Map<String, ?> properties) throws JAXBException {
+        if (cl == null) {
+            throw new IllegalArgumentException("A class loader is required");
+        }
+        Entry entry = getEntry(key, cl);
+        if (entry == null) {
+            // Build outside of the lock, so that contexts can be built in parallel.
+            // JAXBUtils prevents concurrent builds for the same packages.
+            long start = System.currentTimeMillis();
+            Holder<CONSTRUCTION_TYPE> constructionType = new Holder<CONSTRUCTION_TYPE>();
+            JAXBContext context = JAXBUtils.getJAXBContext(contextPackages, constructionType,
+                    key, cl, properties);
+            long buildTime = System.currentTimeMillis() - start;
+            if (log.isDebugEnabled()) {
+                log.debug("Obtained JAXBContext for " + key + " in " + buildTime + "ms");
+            }
+            entry = new Entry(key, new JAXBContextValue(context, constructionType.value),
+                    buildTime);
+        }
+        synchronized (entries) {
+            ConcurrentHashMap<ClassLoader, Entry> map = entries.get(key);
+            if (map == null) {
+                map = new ConcurrentHashMap<ClassLoader, Entry>();
+                entries.put(key, map);
+            }
+            Entry existing = map.get(cl);
+            if (existing == null) {
+                map.put(cl, entry);
+            } else {
+                entry = existing;
+            }
+            entry.endpoints.add(endpoint);
+        }
+        return entry;
+    }
+
+    /**
+     * Release the JAXBContexts pinned by an endpoint. Contexts that are no longer pinned by any
+     * endpoint are removed from the registry; they remain available from the JAXBUtils cache.
+     *
+     * @param endpoint the AxisService used to pin the contexts
+     */
+    public static void release(AxisService endpoint) {
+        synchronized (entries) {
+            for (Iterator<ConcurrentHashMap<ClassLoader, Entry>> it = entries.values().iterator();
+                    it.hasNext(); ) {
+                Map<ClassLoader, Entry> map = it.next();
+                for (Iterator<Entry> it2 = map.values().iterator(); it2.hasNext(); ) {
+                    Entry entry = it2.next();
+                    if (entry.endpoints.remove(endpoint) && entry.endpoints.isEmpty()) {
+                        if (log.isDebugEnabled()) {
+                            log.debug("Releasing " + entry);
+                        }
+                        it2.remove();
+                    }
+                }
+                if (map.isEmpty()) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private static Entry getEntry(String key, ClassLoader cl) {
+        Map<ClassLoader, Entry> map = entries.get(key);
+        return map == null ? null : map.get(cl);
+    }
+
+    /**
+     * @return the pinned contexts
+     */
+    public static Collection<Entry> getEntries() {
+        List<Entry> result = new ArrayList<Entry>();
+        for (Map<ClassLoader, Entry> map : entries.values()) {
+            result.addAll(map.values());
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of JAXBContext lookups made while contexts were pinned
+     */
+    public static long getLookupCount() {
+        return lookupCount.get();
+    }
+
+    /**
+     * @return the number of JAXBContext lookups served by a pinned context
+     */
+    public static long getHitCount() {
+        return hitCount.get();
+    }
+}
@@ -213,6 +213,18 @@ public class JAXBUtils {
             JAXBUtilsMonitor.addPackageKey(contextPackages.toString());
         }
 
+        // Contexts pinned for deployed endpoints take precedence over the soft cache
+        ClassLoader cl = getContextClassLoader();
+        JAXBContextValue contextValue =
+                JAXBContextRegistry.lookup(key, (cacheKey != null) ? cacheKey : cl, forceArrays);
+        if (contextValue != null) {
+            if (log.isDebugEnabled()) {
+                log.debug("JAXBContext [pinned] for " + key);
+            }
+            constructionType.value = contextValue.constructionType;
+            return contextValue.jaxbContext;
+        }
+
         // Get or Create The InnerMap using the package key
         ConcurrentHashMap<ClassLoader, JAXBContextValue> innerMap = null;
         SoftReference<ConcurrentHashMap<ClassLoader, JAXBContextValue>> 
@@ -239,8 +251,6 @@ public class JAXBUtils {
         
         // Now get the contextValue using either the classloader key or 
         // the current Classloader
-        ClassLoader cl = getContextClassLoader();
-        JAXBContextValue contextValue = null;
         if(cacheKey != null) {
             if(log.isDebugEnabled()) {
                 log.debug("Using supplied classloader to retrieve JAXBContext: " + 
@@ -33,7 +33,6 @@ import org.apache.axis2.jaxws.marshaller.MethodMarshaller;
 import org.apache.axis2.jaxws.marshaller.factory.MethodMarshallerFactory;
 import org.apache.axis2.jaxws.message.Message;
 import org.apache.axis2.jaxws.message.Protocol;
-import org.apache.axis2.jaxws.registry.FactoryRegistry;
 import org.apache.axis2.jaxws.server.EndpointCallback;
 import org.apache.axis2.jaxws.server.EndpointInvocationContext;
 import org.apache.axis2.jaxws.server.InvocationHelper;
@@ -41,6 +40,7 @@ import org.apache.axis2.jaxws.server.ServerConstants;
 import org.apache.axis2.jaxws.server.endpoint.Utils;
 import org.apache.axis2.jaxws.spi.Constants;
 import org.apache.axis2.jaxws.utility.ExecutorFactory;
+import org.apache.axis2.jaxws.utility.JAXWSExecutorFactory;
 import org.apache.axis2.jaxws.utility.SingleThreadedExecutor;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -156,8 +156,8 @@ public class JavaBeanDispatcher extends JavaDispatcher {
                                                                  cl, eic);
         FutureTask task = new FutureTask<AsyncInvocationWorker>(worker);
         
-        ExecutorFactory ef = (ExecutorFactory) FactoryRegistry.getFactory(ExecutorFactory.class);
-        Executor executor = ef.getExecutorInstance(ExecutorFactory.SERVER_EXECUTOR);
+        Executor executor = JAXWSExecutorFactory.getExecutor(ExecutorFactory.SERVER_EXECUTOR,
+                request.getAxisMessageContext().getConfigurationContext());
         
         // If the property has been set to disable thread switching, then we can 
         // do so by using a SingleThreadedExecutor instance to continue processing
@@ -202,8 +202,8 @@ public class JavaBeanDispatcher extends JavaDispatcher {
         AsyncInvocationWorker worker = new AsyncInvocationWorker(target, methodInputParams, cl, eic);
         FutureTask task = new FutureTask<AsyncInvocationWorker>(worker);
         
-        ExecutorFactory ef = (ExecutorFactory) FactoryRegistry.getFactory(ExecutorFactory.class);
-        Executor executor = ef.getExecutorInstance(ExecutorFactory.SERVER_EXECUTOR);
+        Executor executor = JAXWSExecutorFactory.getExecutor(ExecutorFactory.SERVER_EXECUTOR,
+                request.getAxisMessageContext().getConfigurationContext());
         // If the property has been set to disable thread switching, then we can 
         // do so by using a SingleThreadedExecutor instance to continue processing
         // work on the existing thread.
@@ -48,6 +48,7 @@ import org.apache.axis2.jaxws.server.ServerConstants;
 import org.apache.axis2.jaxws.utility.ClassUtils;
 import org.apache.axis2.jaxws.utility.DataSourceFormatter;
 import org.apache.axis2.jaxws.utility.ExecutorFactory;
+import org.apache.axis2.jaxws.utility.JAXWSExecutorFactory;
 import org.apache.axis2.jaxws.utility.SingleThreadedExecutor;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -190,8 +191,8 @@ public class ProviderDispatcher extends JavaDispatcher {
             }
         }
 
-        ExecutorFactory ef = (ExecutorFactory) FactoryRegistry.getFactory(ExecutorFactory.class);
-        Executor executor = ef.getExecutorInstance(ExecutorFactory.SERVER_EXECUTOR);
+        Executor executor = JAXWSExecutorFactory.getExecutor(ExecutorFactory.SERVER_EXECUTOR,
+                request.getAxisMessageContext().getConfigurationContext());
         
         // If the property has been set to disable thread switching, then we can 
         // do so by using a SingleThreadedExecutor instance to continue processing
@@ -241,8 +242,8 @@ public class ProviderDispatcher extends JavaDispatcher {
             }
         }
 
-        ExecutorFactory ef = (ExecutorFactory) FactoryRegistry.getFactory(ExecutorFactory.class);
-        Executor executor = ef.getExecutorInstance(ExecutorFactory.SERVER_EXECUTOR);
+        Executor executor = JAXWSExecutorFactory.getExecutor(ExecutorFactory.SERVER_EXECUTOR,
+                request.getAxisMessageContext().getConfigurationContext());
         
         // If the property has been set to disable thread switching, then we can 
         // do so by using a SingleThreadedExecutor instance to continue processing
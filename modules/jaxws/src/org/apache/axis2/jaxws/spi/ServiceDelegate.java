@@ -59,10 +59,10 @@ import org.apache.axis2.jaxws.description.ServiceDescriptionWSDL;
 import org.apache.axis2.jaxws.description.builder.DescriptionBuilderComposite;
 import org.apache.axis2.jaxws.handler.HandlerResolverImpl;
 import org.apache.axis2.jaxws.i18n.Messages;
-import org.apache.axis2.jaxws.registry.FactoryRegistry;
 import org.apache.axis2.jaxws.spi.migrator.ApplicationContextMigratorUtil;
 import org.apache.axis2.jaxws.util.WSDLWrapper;
 import org.apache.axis2.jaxws.utility.ExecutorFactory;
+import org.apache.axis2.jaxws.utility.JAXWSExecutorFactory;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -773,11 +773,9 @@ public class ServiceDelegate extends javax.xml.ws.spi.ServiceDelegate {
     // Impl methods
     //================================================
 
-    //TODO: Need to make the default number of threads configurable
     private Executor getDefaultExecutor() {
-    	ExecutorFactory executorFactory = (ExecutorFactory) FactoryRegistry.getFactory(
-    			ExecutorFactory.class);
-        return executorFactory.getExecutorInstance(ExecutorFactory.CLIENT_EXECUTOR);
+        return JAXWSExecutorFactory.getExecutor(ExecutorFactory.CLIENT_EXECUTOR,
+                serviceDescription.getAxisConfigContext());
     }
 
     private boolean isValidServiceName() {
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.jaxws.utility;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An Executor shared by the JAX-WS runtime. It limits the number of tasks that may be pending
+ * (queued or running) on the underlying executor; tasks submitted beyond that limit are run by
+ * the submitting thread. It also keeps counters that can be used to monitor the executor.
+ * <p>
+ * This class deliberately does not implement <code>ExecutorService</code>: the instance is
+ * shared, so applications must not be able to shut it down. It is shut down by the
+ * {@link JAXWSExecutorFactory} when the configuration context it belongs to is terminated.
+ */
+public class JAXWSExecutor implements Executor {
+    private static final Log log = LogFactory.getLog(JAXWSExecutor.class);
+
+    private final String name;
+    private final Executor delegate;
+    private final int maxPending;
+    private final Semaphore permits;
+
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong callerRunsCount = new AtomicLong();
+    private final AtomicInteger activeCount = new AtomicInteger();
+
+    /**
+     * @param name a name identifying the executor in log messages
+     * @param delegate the executor that runs the tasks
+     * @param maxPending the maximum number of tasks pending on <code>delegate</code>
+     */
+    public JAXWSExecutor(String name, Executor delegate, int maxPending) {
+        this.name = name;
+        this.delegate = delegate;
+        this.maxPending = maxPending;
+        permits = new Semaphore(maxPending);
+    }
+
+    public void execute(final Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        submittedCount.incrementAndGet();
+        if (!permits.tryAcquire()) {
+            callerRunsCount.incrementAndGet();
+            if (log.isDebugEnabled()) {
+                log.debug("Executor " + name + " has " + maxPending
+                        + " pending tasks; running task in the calling thread");
+            }
+            run(command);
+            return;
+        }
+        try {
+            delegate.execute(new Runnable() {
+                public void run() {
+                    try {
+                        JAXWSExecutor.this.run(command);
+                    } finally {
+                        permits.release();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void run(Runnable command) {
+        activeCount.incrementAndGet();
+        try {
+            command.run();
+        } finally {
+            activeCount.decrementAndGet();
+            completedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Shut down the underlying executor. Tasks that have already been submitted are still run;
+     * new tasks are rejected.
+     */
+    void shutdown() {
+        if (delegate instanceof ExecutorService) {
+            ((ExecutorService) delegate).shutdown();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxPending() {
+        return maxPending;
+    }
+
+    /**
+     * @return the number of tasks that have been queued or are running
+     */
+    public int getPendingCount() {
+        return maxPending - permits.availablePermits();
+    }
+
+    /**
+     * @return the number of tasks currently running, including those run by submitting threads
+     */
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    public long getSubmittedCount() {
+        return submittedCount.get();
+    }
+
+    public long getCompletedCount() {
+        return completedCount.get();
+    }
+
+    /**
+     * @return the number of tasks that were run by the submitting thread because the maximum
+     *         number of pending tasks was reached
+     */
+    public long getCallerRunsCount() {
+        return callerRunsCount.get();
+    }
+
+    public String toString() {
+        return "JAXWSExecutor[name=" + name + ", pending=" + getPendingCount()
+                + ", active=" + getActiveCount() + ", submitted=" + getSubmittedCount()
+                + ", completed=" + getCompletedCount() + ", callerRuns=" + getCallerRunsCount()
+                + "]";
+    }
+}
@@ -19,25 +19,206 @@
 
 package org.apache.axis2.jaxws.utility;
 
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.description.Parameter;
+import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.axis2.jaxws.Constants;
+import org.apache.axis2.jaxws.registry.FactoryRegistry;
+import org.apache.axis2.util.threadpool.ThreadPool;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This is an implementation of the ExecutorFactory interface. It is used
- * to provide an Executor to a ServiceDelegate instance. The Executor instance
- * will be backed by the JAXWSThreadFactory.
- *
+ * to provide an Executor to a ServiceDelegate instance and to the server side
+ * dispatchers.
+ * <p>
+ * The factory returns one {@link JAXWSExecutor} per executor type and ConfigurationContext, so
+ * that creating many ServiceDelegate instances doesn't create threads for each of them. The
+ * executors are stored as a property of the ConfigurationContext and are shut down when it is
+ * terminated. The kind of thread pool and its limits are configured with the
+ * {@link Constants#JAXWS_EXECUTOR_TYPE}, {@link Constants#JAXWS_EXECUTOR_THREADS} and
+ * {@link Constants#JAXWS_EXECUTOR_MAX_PENDING} parameters of the Axis Configuration. Pool
+ * threads are created by the JAXWSThreadFactory, or the JAXWSForkJoinWorkerThreadFactory for
+ * the "forkjoin" type.
+ * <p>
+ * Once {@link Constants#JAXWS_EXECUTOR_MAX_PENDING} tasks are queued or running, further tasks
+ * are run synchronously by the thread that submits them. For a client this means that an
+ * AsyncHandler callback may run on the thread that received the response, and for a server
+ * that an asynchronous invocation may complete on the request thread.
  */
 public class JAXWSExecutorFactory implements ExecutorFactory {
+    private static final Log log = LogFactory.getLog(JAXWSExecutorFactory.class);
+
+    public static final String EXECUTOR_TYPE_FIXED = "fixed";
+    public static final String EXECUTOR_TYPE_FORK_JOIN = "forkjoin";
+    public static final String EXECUTOR_TYPE_VIRTUAL = ThreadPool.THREAD_POOL_TYPE_VIRTUAL;
+
+    private static final int DEFAULT_MAX_PENDING = 1024;
+
+    /**
+     * The ConfigurationContext property holding the client and server executors of that
+     * context, as a <code>JAXWSExecutor[2]</code>.
+     */
+    private static final String EXECUTORS_PROPERTY =
+            JAXWSExecutorFactory.class.getName() + ".executors";
 
     public Executor getExecutorInstance() {
-        return Executors.newFixedThreadPool(3, new JAXWSThreadFactory());
+        return getExecutorInstance(CLIENT_EXECUTOR);
     }
 
+    /**
+     * Get a new executor of the given type, configured with the default parameters. It is not
+     * shared; its idle threads time out.
+     */
     public Executor getExecutorInstance(int executorType) {
-        return getExecutorInstance();
+        return createExecutor(getName(executorType), null);
     }
-        
-	
 
+    /**
+     * Get the executor of the given type shared by the users of a configuration context,
+     * creating it if necessary.
+     *
+     * @param executorType {@link ExecutorFactory#CLIENT_EXECUTOR} or
+     *                     {@link ExecutorFactory#SERVER_EXECUTOR}
+     * @param configContext the configuration context the executor belongs to, and whose Axis
+     *                      Configuration the executor parameters are read from; may be
+     *                      <code>null</code>, in which case a new, unshared executor with the
+     *                      default parameters is returned
+     * @return the executor
+     */
+    public Executor getExecutorInstance(int executorType,
+                                        final ConfigurationContext configContext) {
+        if (configContext == null) {
+            return getExecutorInstance(executorType);
+        }
+        int index = executorType == SERVER_EXECUTOR ? SERVER_EXECUTOR : CLIENT_EXECUTOR;
+        synchronized (configContext) {
+            JAXWSExecutor[] executors = (JAXWSExecutor[]) configContext.getProperty(
+                    EXECUTORS_PROPERTY);
+            if (executors == null) {
+                final JAXWSExecutor[] newExecutors = new JAXWSExecutor[2];
+                configContext.setNonReplicableProperty(EXECUTORS_PROPERTY, newExecutors);
+                configContext.addTerminationTask(new Runnable() {
+                    public void run() {
+                        shutdown(configContext, newExecutors);
+                    }
+                });
+                executors = newExecutors;
+            }
+            if (executors[index] == null) {
+                executors[index] = createExecutor(getName(index),
+                        configContext.getAxisConfiguration());
+            }
+            return executors[index];
+        }
+    }
+
+    private static void shutdown(ConfigurationContext configContext, JAXWSExecutor[] executors) {
+        synchronized (configContext) {
+            configContext.removePropertyNonReplicable(EXECUTORS_PROPERTY);
+            for (JAXWSExecutor executor : executors) {
+                if (executor != null) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Shutting down " + executor);
+                    }
+                    executor.shutdown();
+                }
+            }
+        }
+    }
+
+    private static String getName(int executorType) {
+        return executorType == SERVER_EXECUTOR ? "server" : "client";
+    }
+
+    /**
+     * Get an executor from the ExecutorFactory registered in the FactoryRegistry. If that is a
+     * JAXWSExecutorFactory, the executor parameters are read from the given configuration.
+     *
+     * @param executorType {@link ExecutorFactory#CLIENT_EXECUTOR} or
+     *                     {@link ExecutorFactory#SERVER_EXECUTOR}
+     * @param configContext the active configuration context; may be <code>null</code>
+     * @return the executor
+     */
+    public static Executor getExecutor(int executorType, ConfigurationContext configContext) {
+        ExecutorFactory ef = (ExecutorFactory) FactoryRegistry.getFactory(ExecutorFactory.class);
+        if (ef instanceof JAXWSExecutorFactory) {
+            return ((JAXWSExecutorFactory) ef).getExecutorInstance(executorType, configContext);
+        }
+        return ef.getExecutorInstance(executorType);
+    }
+
+    private static JAXWSExecutor createExecutor(String name, AxisConfiguration axisConfig) {
+        String type = getParameter(axisConfig, Constants.JAXWS_EXECUTOR_TYPE, EXECUTOR_TYPE_FIXED);
+        int threads = getIntParameter(axisConfig, Constants.JAXWS_EXECUTOR_THREADS,
+                Math.max(3, Runtime.getRuntime().availableProcessors()));
+        int maxPending = getIntParameter(axisConfig, Constants.JAXWS_EXECUTOR_MAX_PENDING,
+                DEFAULT_MAX_PENDING);
+
+        Executor delegate = null;
+        if (EXECUTOR_TYPE_VIRTUAL.equals(type)) {
+            if (ThreadPool.isVirtualThreadSupported()) {
+                delegate = ThreadPool.newVirtualThreadPerTaskExecutor("JAX-WS " + name);
+            } else {
+                log.warn("Virtual threads are not supported by this Java runtime; using a "
+                        + "fixed thread pool for the JAX-WS " + name + " executor");
+                type = EXECUTOR_TYPE_FIXED;
+            }
+        } else if (EXECUTOR_TYPE_FORK_JOIN.equals(type)) {
+            delegate = new ForkJoinPool(threads,
+                    new JAXWSForkJoinWorkerThreadFactory("JAX-WS " + name + " executor"), null,
+                    true);
+        } else if (!EXECUTOR_TYPE_FIXED.equals(type)) {
+            log.warn("Unknown value '" + type + "' for " + Constants.JAXWS_EXECUTOR_TYPE
+                    + "; using a fixed thread pool");
+            type = EXECUTOR_TYPE_FIXED;
+        }
+        if (delegate == null) {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60,
+                    TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                    new JAXWSThreadFactory());
+            pool.allowCoreThreadTimeOut(true);
+            delegate = pool;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Created JAX-WS " + name + " executor: type=" + type + ", threads="
+                    + threads + ", maxPending=" + maxPending);
+        }
+        return new JAXWSExecutor(name, delegate, maxPending);
+    }
+
+    private static String getParameter(AxisConfiguration axisConfig, String name,
+                                       String defaultValue) {
+        if (axisConfig != null) {
+            Parameter parameter = axisConfig.getParameter(name);
+            if (parameter != null && parameter.getValue() != null) {
+                return parameter.getValue().toString().trim();
+            }
+        }
+        return defaultValue;
+    }
+
+    private static int getIntParameter(AxisConfiguration axisConfig, String name,
+                                       int defaultValue) {
+        String value = getParameter(axisConfig, name, null);
+        if (value != null) {
+            try {
+                int intValue = Integer.parseInt(value);
+                if (intValue > 0) {
+                    return intValue;
+                }
+            } catch (NumberFormatException e) {
+                // Fall through
+            }
+            log.warn("Invalid value '" + value + "' for " + name + "; using " + defaultValue);
+        }
+        return defaultValue;
+    }
 }
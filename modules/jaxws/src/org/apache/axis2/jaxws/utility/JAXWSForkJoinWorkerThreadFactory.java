@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.jaxws.utility;
+
+import org.apache.axis2.java.security.AccessController;
+
+import java.security.PrivilegedAction;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factory to create the worker threads of a ForkJoinPool used as JAX-WS executor. Like the
+ * threads of the {@link JAXWSThreadFactory}, the workers are daemon threads and inherit the
+ * context class loader of the thread that creates them. They are named after the executor, so
+ * that they can be identified in thread dumps.
+ */
+public class JAXWSForkJoinWorkerThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+    private final String name;
+    private final AtomicInteger threadNumber = new AtomicInteger();
+
+    /**
+     * @param name the prefix of the thread names
+     */
+    public JAXWSForkJoinWorkerThreadFactory(String name) {
+        this.name = name;
+    }
+
+    public ForkJoinWorkerThread newThread(final ForkJoinPool pool) {
+        final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        final String threadName = name + "-" + threadNumber.incrementAndGet();
+        return AccessController.doPrivileged(new PrivilegedAction<ForkJoinWorkerThread>() {
+            public ForkJoinWorkerThread run() {
+                ForkJoinWorkerThread thread = new ForkJoinWorkerThread(pool) {};
+                thread.setName(threadName);
+                thread.setDaemon(true);
+                thread.setContextClassLoader(classLoader);
+                return thread;
+            }
+        });
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.jaxws.message.databinding;
+
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.AxisServiceGroup;
+import org.apache.axis2.jaxws.framework.JAXWSDeployerSupport;
+import org.apache.axis2.jaxws.message.databinding.JAXBUtils.CONSTRUCTION_TYPE;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.ws.Holder;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.TreeSet;
+
+import junit.framework.TestCase;
+
+/**
+ * Test JAXBContextRegistry functionality
+ */
+public class JAXBContextRegistryTests extends TestCase {
+
+    public void testPinAndRelease() throws Exception {
+        TreeSet<String> contextPackages = new TreeSet<String>();
+        contextPackages.add("org.apache.ws.jaxb.a");
+        String key = contextPackages.toString();
+        ClassLoader cl = JAXBContextRegistryTests.class.getClassLoader();
+        AxisService endpoint1 = new AxisService("endpoint1");
+        AxisService endpoint2 = new AxisService("endpoint2");
+
+        JAXBContextRegistry.Entry entry =
+                JAXBContextRegistry.pin(endpoint1, contextPackages, key, cl, null);
+        assertSame(entry, JAXBContextRegistry.pin(endpoint2, contextPackages, key, cl, null));
+        assertEquals(2, entry.getEndpoints().size());
+        assertTrue(JAXBContextRegistry.getEntries().contains(entry));
+
+        // Lookups through JAXBUtils are served by the pinned context
+        long hits = JAXBContextRegistry.getHitCount();
+        Holder<CONSTRUCTION_TYPE> constructionType = new Holder<CONSTRUCTION_TYPE>();
+        JAXBContext context = JAXBUtils.getJAXBContext(contextPackages, constructionType, key,
+                                                       cl, null);
+        assertSame(entry.getJAXBContext(), context);
+        assertEquals(entry.getConstructionType(), constructionType.value);
+        assertEquals(1, entry.getHitCount());
+        assertEquals(hits + 1, JAXBContextRegistry.getHitCount());
+
+        JAXBContextRegistry.release(endpoint1);
+        assertTrue(JAXBContextRegistry.getEntries().contains(entry));
+        JAXBContextRegistry.release(endpoint2);
+        assertFalse(JAXBContextRegistry.getEntries().contains(entry));
+        assertNull(JAXBContextRegistry.lookup(key, cl, false));
+    }
+
+    public void testLookup() throws Exception {
+        TreeSet<String> contextPackages = new TreeSet<String>();
+        contextPackages.add("org.apache.ws.jaxb.b");
+        String key = contextPackages.toString();
+        ClassLoader cl = JAXBContextRegistryTests.class.getClassLoader();
+        AxisService endpoint = new AxisService("endpoint");
+
+        JAXBContextRegistry.Entry entry =
+                JAXBContextRegistry.pin(endpoint, contextPackages, key, cl, null);
+        try {
+            assertSame(entry.getJAXBContext(),
+                       JAXBContextRegistry.lookup(key, cl, false).jaxbContext);
+            // Contexts are pinned per class loader
+            assertNull(JAXBContextRegistry.lookup(key, new URLClassLoader(new URL[0], cl), false));
+            assertNull(JAXBContextRegistry.lookup("[org.apache.ws.jaxb.other]", cl, false));
+            if (entry.getConstructionType() != CONSTRUCTION_TYPE.BY_CLASS_ARRAY_PLUS_ARRAYS) {
+                assertNull(JAXBContextRegistry.lookup(key, cl, true));
+            }
+        } finally {
+            JAXBContextRegistry.release(endpoint);
+        }
+    }
+
+    public void testSameServiceNameInOtherGroup() throws Exception {
+        TreeSet<String> contextPackages = new TreeSet<String>();
+        contextPackages.add("org.apache.ws.jaxb.c");
+        String key = contextPackages.toString();
+        ClassLoader cl = JAXBContextRegistryTests.class.getClassLoader();
+        AxisServiceGroup group1 = new AxisServiceGroup();
+        AxisService service1 = new AxisService("EchoService");
+        group1.addService(service1);
+        AxisServiceGroup group2 = new AxisServiceGroup();
+        AxisService service2 = new AxisService("EchoService");
+        group2.addService(service2);
+
+        JAXBContextRegistry.Entry entry =
+                JAXBContextRegistry.pin(service1, contextPackages, key, cl, null);
+        JAXBContextRegistry.pin(service2, contextPackages, key, cl, null);
+        assertEquals(2, entry.getEndpoints().size());
+
+        // Undeploying one group must not release the context pinned by the other one
+        JAXWSDeployerSupport.releaseJAXBContexts(group1);
+        assertTrue(JAXBContextRegistry.getEntries().contains(entry));
+        assertEquals(1, entry.getEndpoints().size());
+        assertSame(service2, entry.getEndpoints().get(0));
+        JAXWSDeployerSupport.releaseJAXBContexts(group1);
+        assertTrue(JAXBContextRegistry.getEntries().contains(entry));
+
+        JAXWSDeployerSupport.releaseJAXBContexts(group2);
+        assertFalse(JAXBContextRegistry.getEntries().contains(entry));
+    }
+}
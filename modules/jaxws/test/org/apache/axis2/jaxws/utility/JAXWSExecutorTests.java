@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.jaxws.utility;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.description.Parameter;
+import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.axis2.jaxws.Constants;
+
+/**
+ * Test the shared executor returned by JAXWSExecutorFactory
+ */
+public class JAXWSExecutorTests extends TestCase {
+
+    public void testSharedPerConfigurationContext() throws Exception {
+        ConfigurationContext configContext = new ConfigurationContext(new AxisConfiguration());
+        ConfigurationContext otherConfigContext =
+                new ConfigurationContext(new AxisConfiguration());
+        try {
+            Executor executor = new JAXWSExecutorFactory().getExecutorInstance(
+                    ExecutorFactory.CLIENT_EXECUTOR, configContext);
+            assertTrue(executor instanceof JAXWSExecutor);
+            assertSame(executor, new JAXWSExecutorFactory().getExecutorInstance(
+                    ExecutorFactory.CLIENT_EXECUTOR, configContext));
+            assertNotSame(executor, new JAXWSExecutorFactory().getExecutorInstance(
+                    ExecutorFactory.SERVER_EXECUTOR, configContext));
+            assertNotSame(executor, new JAXWSExecutorFactory().getExecutorInstance(
+                    ExecutorFactory.CLIENT_EXECUTOR, otherConfigContext));
+        } finally {
+            configContext.terminate();
+            otherConfigContext.terminate();
+        }
+    }
+
+    public void testShutdownWithConfigurationContext() throws Exception {
+        ConfigurationContext configContext = new ConfigurationContext(new AxisConfiguration());
+        Executor executor = new JAXWSExecutorFactory().getExecutorInstance(
+                ExecutorFactory.CLIENT_EXECUTOR, configContext);
+        configContext.terminate();
+        try {
+            executor.execute(new Runnable() {
+                public void run() {
+                }
+            });
+            fail("Expected RejectedExecutionException");
+        } catch (RejectedExecutionException e) {
+            // Expected
+        }
+        assertEquals(0, ((JAXWSExecutor) executor).getPendingCount());
+    }
+
+    public void testForkJoinWorkerThreads() throws Exception {
+        AxisConfiguration axisConfig = new AxisConfiguration();
+        axisConfig.addParameter(new Parameter(Constants.JAXWS_EXECUTOR_TYPE,
+                JAXWSExecutorFactory.EXECUTOR_TYPE_FORK_JOIN));
+        ConfigurationContext configContext = new ConfigurationContext(axisConfig);
+        ClassLoader classLoader = new URLClassLoader(new URL[0]);
+        Thread currentThread = Thread.currentThread();
+        ClassLoader savedClassLoader = currentThread.getContextClassLoader();
+        currentThread.setContextClassLoader(classLoader);
+        try {
+            Executor executor = new JAXWSExecutorFactory().getExecutorInstance(
+                    ExecutorFactory.CLIENT_EXECUTOR, configContext);
+            final Thread[] runner = new Thread[1];
+            final ClassLoader[] runnerClassLoader = new ClassLoader[1];
+            final CountDownLatch done = new CountDownLatch(1);
+            executor.execute(new Runnable() {
+                public void run() {
+                    runner[0] = Thread.currentThread();
+                    runnerClassLoader[0] = runner[0].getContextClassLoader();
+                    done.countDown();
+                }
+            });
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertNotSame(currentThread, runner[0]);
+            assertTrue(runner[0].getName().startsWith("JAX-WS client executor-"));
+            assertTrue(runner[0].isDaemon());
+            assertSame(classLoader, runnerClassLoader[0]);
+        } finally {
+            currentThread.setContextClassLoader(savedClassLoader);
+            configContext.terminate();
+        }
+    }
+
+    public void testCallerRunsWhenMaxPendingReached() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        JAXWSExecutor executor = new JAXWSExecutor("test",
+                new JAXWSExecutorFactory().getExecutorInstance(), 1);
+        executor.execute(new Runnable() {
+            public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertEquals(1, executor.getPendingCount());
+
+        final Thread[] runner = new Thread[1];
+        executor.execute(new Runnable() {
+            public void run() {
+                runner[0] = Thread.currentThread();
+            }
+        });
+        assertSame(Thread.currentThread(), runner[0]);
+        assertEquals(1, executor.getCallerRunsCount());
+
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 10000;
+        while ((executor.getCompletedCount() < 2 || executor.getPendingCount() > 0)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, executor.getSubmittedCount());
+        assertEquals(2, executor.getCompletedCount());
+        assertEquals(0, executor.getPendingCount());
+    }
+}
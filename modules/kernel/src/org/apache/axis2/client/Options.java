@@ -28,6 +28,8 @@ import org.apache.axis2.addressing.AddressingConstants;
 import org.apache.axis2.addressing.EndpointReference;
 import org.apache.axis2.addressing.RelatesTo;
 import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.PropertyKey;
+import org.apache.axis2.context.PropertyMap;
 import org.apache.axis2.context.externalize.ExternalizeConstants;
 import org.apache.axis2.context.externalize.SafeObjectInputStream;
 import org.apache.axis2.context.externalize.SafeObjectOutputStream;
@@ -339,7 +341,7 @@ public class Options implements Externalizable, SafeSerializable {
     public Map<String, Object> getProperties() {
         // make sure that the Options properties exists
         if (this.properties == null) {
-            this.properties = new HashMap<String, Object>();
+            this.properties = new PropertyMap();
         }
 
         if (parent == null) {
@@ -368,6 +370,22 @@ public class Options implements Externalizable, SafeSerializable {
         return myPropValue;
     }
 
+    /**
+     * Get a registered property value. Like {@link #getProperty(String)}, the parent options are
+     * searched if the property is not set here.
+     *
+     * @param key the property key
+     * @return the value related to this key. <code>null</code>, if not found.
+     * @throws ClassCastException if the value is not of the type of the key
+     */
+    public <T> T getTypedProperty(PropertyKey<T> key) {
+        Object myPropValue = PropertyMap.lookup(properties, key);
+        if (myPropValue == null && parent != null) {
+            return parent.getTypedProperty(key);
+        }
+        return key.cast(myPropValue);
+    }
+
     /**
      * Get WS-Addressing RelatesTo item with a specified type. If there are
      * multiple RelatesTo items defined with the same type, the one returned
@@ -880,7 +898,7 @@ public class Options implements Externalizable, SafeSerializable {
     public void setProperty(String propertyKey, Object property) {
         // make sure that the Options properties exists
         if (this.properties == null) {
-            this.properties = new HashMap<String, Object>();
+            this.properties = new PropertyMap();
         }
         properties.put(propertyKey, property);
         if (DEBUG_ENABLED) {
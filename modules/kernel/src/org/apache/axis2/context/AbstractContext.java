@@ -140,6 +140,56 @@ public abstract class AbstractContext {
         return obj;
     }
 
+    /**
+     * Retrieves a registered property. Like {@link #getProperty(String)}, the parent contexts
+     * are searched if the property is not set at this level, but the lookup doesn't need to
+     * hash the property name.
+     *
+     * @param key the property key
+     * @return the property value, or <code>null</code> if it is not set
+     * @throws ClassCastException if the value is not of the type of the key
+     */
+    public <T> T getTypedProperty(PropertyKey<T> key) {
+        Object obj = PropertyMap.lookup(properties, key);
+        if (obj != null) {
+            if(!isClusteringCheckDone) {
+                isClusteringCheckDone = true;
+                isClusteringOn = needPropertyDifferences();
+            }
+            if(isClusteringOn) {
+                addPropertyDifference(key.getName(), obj, false);
+            }
+        } else if (parent != null) {
+            return parent.getTypedProperty(key);
+        }
+        return key.cast(obj);
+    }
+
+    /**
+     * Store a registered property in this context. This is equivalent to
+     * {@link #setProperty(String, Object)} with the name of the key, but doesn't need to look
+     * up the key.
+     *
+     * @param key   the property key
+     * @param value the value
+     */
+    public <T> void setTypedProperty(PropertyKey<T> key, T value) {
+        initPropertiesMap();
+        Map<String, Object> properties = this.properties;
+        if (properties instanceof PropertyMap) {
+            ((PropertyMap) properties).put(key, value);
+        } else {
+            while (true) {
+                try {
+                    properties.put(key.getName(), value);
+                    break;
+                } catch (ConcurrentModificationException cme) {
+                }
+            }
+        }
+        propertySet(key.getName(), value);
+    }
+
     /**
      * Retrieves an object given a key. Only searches at this level
      * i.e. getLocalProperty on MessageContext does not look in
@@ -197,6 +247,10 @@ public abstract class AbstractContext {
             } catch (ConcurrentModificationException cme) {
             }
         }
+        propertySet(key, value);
+    }
+
+    private void propertySet(String key, Object value) {
         if(!isClusteringCheckDone) {
             isClusteringCheckDone = true;
             isClusteringOn = needPropertyDifferences();
@@ -376,7 +430,7 @@ public abstract class AbstractContext {
                 // argument map.
                 while (true) {
                     try {
-                        this.properties = new HashMap(properties);
+                        this.properties = new PropertyMap(properties);
                         break;
                     } catch (ConcurrentModificationException cme) {
                     }
@@ -482,7 +536,7 @@ public abstract class AbstractContext {
             // This needs to be a concurrent collection to prevent ConcurrentModificationExcpetions
             // for async-on-the-wire.  It was originally: 
 //            properties = new HashMap(DEFAULT_MAP_SIZE);
-            properties = new HashMap<String,Object>(DEFAULT_MAP_SIZE);
+            properties = new PropertyMap();
         }
     }
 }
@@ -40,6 +40,7 @@ import org.apache.axis2.java.security.AccessController;
 import org.apache.axis2.modules.Module;
 import org.apache.axis2.util.JavaUtils;
 import org.apache.axis2.util.OnDemandLogger;
+import org.apache.axis2.util.threadpool.DefaultThreadFactory;
 import org.apache.axis2.util.threadpool.ThreadFactory;
 import org.apache.axis2.util.threadpool.ThreadPool;
 
@@ -47,12 +48,14 @@ import java.io.File;
 import java.net.URL;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.HashMap;
-import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * <p>Axis2 states are held in two information models, called description hierarchy and context
@@ -71,8 +74,11 @@ public class ConfigurationContext extends AbstractContext {
     private static final OnDemandLogger log = new OnDemandLogger(ConfigurationContext.class);
     /** Map containing <code>MessageID</code> to <code>OperationContext</code> mapping. */
     private final ConcurrentHashMap<String, OperationContext> operationContextMap = new ConcurrentHashMap<String, OperationContext>();
-    private final Hashtable<String, ServiceGroupContext> serviceGroupContextMap = new Hashtable<String, ServiceGroupContext>();
-    private Hashtable<String, ServiceGroupContext> applicationSessionServiceGroupContexts = new Hashtable<String, ServiceGroupContext>();
+    private final ConcurrentHashMap<String, ServiceGroupContext> serviceGroupContextMap = new ConcurrentHashMap<String, ServiceGroupContext>();
+    private ConcurrentHashMap<String, ServiceGroupContext> applicationSessionServiceGroupContexts = new ConcurrentHashMap<String, ServiceGroupContext>();
+    /** Deadline-ordered view of <code>serviceGroupContextMap</code>, drained by a background reaper. */
+    private final ServiceGroupContextExpiryIndex serviceGroupContextExpiryIndex = new ServiceGroupContextExpiryIndex();
+    private final AtomicLong expiredServiceGroupContextCount = new AtomicLong();
     private AxisConfiguration axisConfiguration;
     private ThreadFactory threadPool;
     //To keep TransportManager instance
@@ -87,6 +93,9 @@ public class ConfigurationContext extends AbstractContext {
 
     private String cachedServicePath = null;
     protected List<ContextListener> contextListeners;
+    private final List<Runnable> terminationTasks = new ArrayList<Runnable>();
+    // Guarded by terminationTasks
+    private ScheduledThreadPoolExecutor scheduler;
     private boolean stopped = false;
     
     /**
@@ -200,6 +209,47 @@ public class ConfigurationContext extends AbstractContext {
         }
     }
 
+    /**
+     * Register a task to be run by {@link #terminate()}, once the transports have been stopped.
+     * This is typically used to shut down thread pools that have been created for this
+     * configuration context. Tasks are run in the order they were added.
+     *
+     * @param task the task
+     */
+    public void addTerminationTask(Runnable task) {
+        synchronized (terminationTasks) {
+            terminationTasks.add(task);
+        }
+    }
+
+    /**
+     * Get the executor that runs the periodic housekeeping tasks of this configuration context and
+     * of the components that belong to it, such as the expiry of contexts or the eviction of idle
+     * connections. It has a single daemon thread, which is started on first use, exits when there
+     * are no scheduled tasks, and is stopped by {@link #terminate()}. Tasks must therefore be
+     * short and must not block.
+     *
+     * @return the executor; it rejects new tasks once this configuration context is terminated
+     */
+    public ScheduledExecutorService getScheduler() {
+        synchronized (terminationTasks) {
+            if (scheduler == null) {
+                final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1,
+                        new DefaultThreadFactory(null, "Axis2-Scheduler", true));
+                executor.setRemoveOnCancelPolicy(true);
+                executor.setKeepAliveTime(60, TimeUnit.SECONDS);
+                executor.allowCoreThreadTimeOut(true);
+                terminationTasks.add(new Runnable() {
+                    public void run() {
+                        executor.shutdownNow();
+                    }
+                });
+                scheduler = executor;
+            }
+            return scheduler;
+        }
+    }
+
     /**
      * Searches for a ServiceGroupContext in the map with given id as the key.
      * <pre>
@@ -244,8 +294,6 @@ public class ConfigurationContext extends AbstractContext {
                 messageContext
                         .setServiceContext(serviceGroupContext.getServiceContext(axisService));
             } else if (Constants.SCOPE_SOAP_SESSION.equals(scope)) {
-                //cleaning the session
-                cleanupServiceGroupContexts();
                 String serviceGroupContextId = messageContext.getServiceGroupContextId();
                 if (serviceGroupContextId != null) {
                     serviceGroupContext =
@@ -363,8 +411,9 @@ public class ConfigurationContext extends AbstractContext {
         serviceGroupContextMap.put(id, serviceGroupContext);
         serviceGroupContext.touch();
         serviceGroupContext.setParent(this);
-        // this is the best time to clean up the SGCtxts since are not being used anymore
-        cleanupServiceGroupContexts();
+        // expired contexts are removed by the reaper of the expiry index
+        serviceGroupContextExpiryIndex.add(this, serviceGroupContext,
+                                           getServiceGroupContextTimeoutInterval());
     }
 
     /**
@@ -375,7 +424,7 @@ public class ConfigurationContext extends AbstractContext {
     public void addServiceGroupContextIntoApplicationScopeTable
             (ServiceGroupContext serviceGroupContext) {
         if (applicationSessionServiceGroupContexts == null) {
-            applicationSessionServiceGroupContexts = new Hashtable<String, ServiceGroupContext>();
+            applicationSessionServiceGroupContexts = new ConcurrentHashMap<String, ServiceGroupContext>();
         }
         applicationSessionServiceGroupContexts.put(
                 serviceGroupContext.getDescription().getServiceGroupName(), serviceGroupContext);
@@ -525,6 +574,11 @@ public class ConfigurationContext extends AbstractContext {
         ServiceGroupContext serviceGroupContext =
                 serviceGroupContextMap.get(serviceGroupContextId);
 
+        if (serviceGroupContext != null && isExpired(serviceGroupContext)) {
+            // expired, but not reaped yet
+            expireServiceGroupContext(serviceGroupContextId, serviceGroupContext);
+            serviceGroupContext = null;
+        }
         if (serviceGroupContext != null) {
             serviceGroupContext.touch();
             return serviceGroupContext;
@@ -545,7 +599,7 @@ public class ConfigurationContext extends AbstractContext {
     public ServiceGroupContext getServiceGroupContext(String serviceGroupCtxId) {
 
         if (serviceGroupCtxId == null) {
-            // Hashtables require non-null key-value pairs
+            // ConcurrentHashMaps require non-null keys
             return null;
         }
 
@@ -596,7 +650,13 @@ public class ConfigurationContext extends AbstractContext {
      */
     public ThreadFactory getThreadPool() {
         if (threadPool == null) {
-            threadPool = new ThreadPool();
+            Parameter type = axisConfiguration == null ? null
+                    : axisConfiguration.getParameter(ThreadPool.THREAD_POOL_TYPE);
+            if (type != null && type.getValue() != null) {
+                threadPool = new ThreadPool(((String)type.getValue()).trim());
+            } else {
+                threadPool = new ThreadPool();
+            }
         }
 
         return threadPool;
@@ -639,27 +699,48 @@ public class ConfigurationContext extends AbstractContext {
         cleanupServiceContexts(serviceGroupContext);
     }
 
-    private void cleanupServiceGroupContexts() {
-        if (serviceGroupContextMap == null) {
-            return;
-        }
-        long currentTime = new Date().getTime();
-
-        synchronized (serviceGroupContextMap) {
-            for (Iterator<String> sgCtxtMapKeyIter = serviceGroupContextMap.keySet().iterator();
-                 sgCtxtMapKeyIter.hasNext();) {
-                String sgCtxtId = sgCtxtMapKeyIter.next();
-                ServiceGroupContext serviceGroupContext =serviceGroupContextMap.get(sgCtxtId);
-                if ((currentTime - serviceGroupContext.getLastTouchedTime()) >
-                    getServiceGroupContextTimeoutInterval()) {
-                    sgCtxtMapKeyIter.remove();
-                    cleanupServiceContexts(serviceGroupContext);
-                    contextRemoved(serviceGroupContext);
-                }
-            }
+    /**
+     * Returns the number of SOAP session scoped ServiceGroupContexts currently held.
+     *
+     * @return the number of live SOAP session contexts
+     */
+    public int getSoapSessionServiceGroupContextCount() {
+        return serviceGroupContextMap.size();
+    }
+
+    /**
+     * Returns the number of SOAP session scoped ServiceGroupContexts removed because they timed
+     * out since this ConfigurationContext was created.
+     *
+     * @return the number of expired SOAP session contexts
+     */
+    public long getExpiredServiceGroupContextCount() {
+        return expiredServiceGroupContextCount.get();
+    }
+
+    ServiceGroupContext peekSoapSessionServiceGroupContext(String serviceGroupContextId) {
+        return serviceGroupContextMap.get(serviceGroupContextId);
+    }
+
+    void expireServiceGroupContext(String serviceGroupContextId,
+                                   ServiceGroupContext serviceGroupContext) {
+        // Only clean up if no other thread got there first
+        if (serviceGroupContextMap.remove(serviceGroupContextId, serviceGroupContext)) {
+            expiredServiceGroupContextCount.incrementAndGet();
+            cleanupServiceContexts(serviceGroupContext);
+            contextRemoved(serviceGroupContext);
         }
     }
 
+    private boolean isExpired(ServiceGroupContext serviceGroupContext) {
+        return (System.currentTimeMillis() - serviceGroupContext.getLastTouchedTime()) >
+               getServiceGroupContextTimeoutInterval();
+    }
+
+    static void logReaperFailure(Throwable t) {
+        log.warn("Failed to clean up expired service group contexts", t);
+    }
+
     /**
      * Retrieve the ListenerManager
      *
@@ -711,6 +792,7 @@ public class ConfigurationContext extends AbstractContext {
             }
             serviceGroupContextMap.clear();
         }
+        serviceGroupContextExpiryIndex.clear();
     }
     /**
      * Called during shutdown to clean up all Contexts
@@ -777,6 +859,18 @@ public class ConfigurationContext extends AbstractContext {
         if (listenerManager != null) {
             listenerManager.destroy();
         }
+        List<Runnable> tasks;
+        synchronized (terminationTasks) {
+            tasks = new ArrayList<Runnable>(terminationTasks);
+            terminationTasks.clear();
+        }
+        for (Runnable task : tasks) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.warn("Error running termination task " + task, e);
+            }
+        }
         if (axisConfiguration != null) {
             axisConfiguration.cleanup();
             cleanupTemp();
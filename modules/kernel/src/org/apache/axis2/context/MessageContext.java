@@ -298,9 +298,34 @@ public class MessageContext extends AbstractContext
     private ArrayList<Handler> executionChain;
 
     /**
-     * @serial The chain of executed Handlers/Phases from processing
+     * Shared, read only execution plan used in place of {@link #executionChain} until the chain
+     * is requested through {@link #getExecutionChain()}, which may modify it
      */
-    private LinkedList<Handler> executedPhases;
+    private transient List<Handler> executionPlan;
+
+    /**
+     * The executed Handlers/Phases are the entries of the execution plan from this index to
+     * {@link #executedPhaseEnd}, preceded by the first {@link #priorExecutedPhaseCount} entries
+     * of {@link #priorExecutedPhases}. They are saved as a list by
+     * {@link #writeExternal(ObjectOutput)}.
+     */
+    private transient int executedPhaseStart;
+
+    /**
+     * Index in the execution plan after the last executed Handler/Phase
+     */
+    private transient int executedPhaseEnd;
+
+    /**
+     * Handlers/Phases executed before the current execution plan was set, in execution order.
+     * This is typically the previous (shared) execution plan, and is never modified.
+     */
+    private transient List<Handler> priorExecutedPhases;
+
+    /**
+     * Number of executed entries at the start of {@link #priorExecutedPhases}
+     */
+    private transient int priorExecutedPhaseCount;
 
     /**
      * @serial Flag to indicate if we are doing REST
@@ -640,32 +665,68 @@ public class MessageContext extends AbstractContext
         return envelope;
     }
 
+    /**
+     * Get the execution chain of this message context. If the message context was given a shared
+     * execution plan, a private copy of the plan is made first, so that the returned list can be
+     * modified.
+     *
+     * @return the list of handlers to execute
+     */
     public ArrayList<Handler> getExecutionChain() {
         if (DEBUG_ENABLED) {
             checkActivateWarning("getExecutionChain");
         }
+        if (executionChain == null && executionPlan != null) {
+            executionChain = new ArrayList<Handler>(executionPlan);
+            executionPlan = null;
+        }
         return executionChain;
     }
 
+    /**
+     * Get the handlers to execute without copying a shared execution plan. The returned list
+     * must not be modified.
+     *
+     * @return the execution plan or chain of this message context, or <code>null</code>
+     */
+    public List<Handler> getExecutionPlan() {
+        return executionChain != null ? executionChain : executionPlan;
+    }
+
     /**
      * Add a Phase to the collection of executed phases for the path.
      * Phases will be inserted in a LIFO data structure.
+     * <p>
+     * The phase is normally the current entry of the execution plan, in which case this only
+     * moves the end of the executed part of the plan.
      *
      * @param phase The phase to add to the list.
      */
     public void addExecutedPhase(Handler phase) {
-        if (executedPhases == null) {
-            executedPhases = new LinkedList<Handler>();
+        List<Handler> plan = getExecutionPlan();
+        int index = currentHandlerIndex;
+        if (plan != null && index >= executedPhaseEnd && index < plan.size()
+                && plan.get(index) == phase) {
+            if (index > executedPhaseEnd) {
+                // entries were skipped: only the executed ones must be kept
+                mergeExecutedPhases(null);
+                executedPhaseStart = index;
+            }
+            executedPhaseEnd = index + 1;
+        } else {
+            mergeExecutedPhases(phase);
+            executedPhaseStart = executedPhaseEnd = Math.max(index + 1, 0);
         }
-        executedPhases.addFirst(phase);
     }
 
     /**
      * Remove the first Phase in the collection of executed phases
      */
     public void removeFirstExecutedPhase() {
-        if (executedPhases != null) {
-            executedPhases.removeFirst();
+        if (executedPhaseEnd > executedPhaseStart) {
+            executedPhaseEnd--;
+        } else if (priorExecutedPhaseCount > 0) {
+            priorExecutedPhaseCount--;
         }
     }
 
@@ -678,10 +739,90 @@ public class MessageContext extends AbstractContext
         if (DEBUG_ENABLED) {
             checkActivateWarning("getExecutedPhases");
         }
-        if (executedPhases == null) {
-            executedPhases = new LinkedList<Handler>();
+        return getExecutedPhaseList().iterator();
+    }
+
+    /**
+     * Get the number of executed phases. Together with {@link #getExecutedPhase(int)}, this
+     * allows the executed phases to be walked without creating a list or iterator.
+     *
+     * @return the number of executed phases
+     */
+    public int getExecutedPhaseCount() {
+        return executedPhaseEnd - executedPhaseStart + priorExecutedPhaseCount;
+    }
+
+    /**
+     * Get an executed phase.
+     *
+     * @param index the index of the phase, starting at 0 for the last executed phase
+     * @return the phase
+     * @throws IndexOutOfBoundsException if the index is not lower than
+     *                                   {@link #getExecutedPhaseCount()}
+     */
+    public Handler getExecutedPhase(int index) {
+        int count = executedPhaseEnd - executedPhaseStart;
+        if (index < 0 || index >= count + priorExecutedPhaseCount) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        return index < count ? getExecutionPlan().get(executedPhaseEnd - 1 - index)
+                : priorExecutedPhases.get(priorExecutedPhaseCount - 1 - (index - count));
+    }
+
+    /**
+     * @return a new list of the executed phases, the last executed phase first
+     */
+    private LinkedList<Handler> getExecutedPhaseList() {
+        LinkedList<Handler> list = new LinkedList<Handler>();
+        for (int i = 0, count = getExecutedPhaseCount(); i < count; i++) {
+            list.add(getExecutedPhase(i));
+        }
+        return list;
+    }
+
+    /**
+     * Move the executed phases of the current execution plan to {@link #priorExecutedPhases},
+     * typically because the plan is about to be replaced. No copy is made if no phase was
+     * executed before the plan, which is the normal case.
+     *
+     * @param phase a phase executed after those, or <code>null</code>
+     */
+    private void mergeExecutedPhases(Handler phase) {
+        List<Handler> plan = getExecutionPlan();
+        if (phase == null && priorExecutedPhaseCount == 0 && executedPhaseStart == 0
+                && plan == executionPlan) {
+            // the plan is shared and immutable
+            priorExecutedPhases = plan;
+            priorExecutedPhaseCount = executedPhaseEnd;
+        } else if (phase != null || executedPhaseEnd > executedPhaseStart) {
+            List<Handler> merged = new ArrayList<Handler>();
+            if (priorExecutedPhaseCount > 0) {
+                merged.addAll(priorExecutedPhases.subList(0, priorExecutedPhaseCount));
+            }
+            if (executedPhaseEnd > executedPhaseStart) {
+                merged.addAll(plan.subList(executedPhaseStart, executedPhaseEnd));
+            }
+            if (phase != null) {
+                merged.add(phase);
+            }
+            priorExecutedPhases = merged;
+            priorExecutedPhaseCount = merged.size();
         }
-        return executedPhases.iterator();
+        executedPhaseStart = executedPhaseEnd = 0;
+    }
+
+    /**
+     * Replace the executed phases.
+     *
+     * @param phases the phases, the last executed phase first
+     */
+    private void setExecutedPhases(List<Handler> phases) {
+        List<Handler> executed = new ArrayList<Handler>(phases);
+        Collections.reverse(executed);
+        priorExecutedPhases = executed;
+        priorExecutedPhaseCount = executed.size();
+        // the current handler, if any, is already part of the list
+        executedPhaseStart = executedPhaseEnd = Math.max(currentHandlerIndex + 1, 0);
     }
 
     /**
@@ -692,7 +833,9 @@ public class MessageContext extends AbstractContext
      */
     public void resetExecutedPhases() {
         executedPhasesReset = true;
-        executedPhases = new LinkedList<Handler>();
+        priorExecutedPhases = null;
+        priorExecutedPhaseCount = 0;
+        executedPhaseStart = executedPhaseEnd = Math.max(currentHandlerIndex + 1, 0);
     }
 
     /**
@@ -978,6 +1121,50 @@ public class MessageContext extends AbstractContext
         return obj;
     }
 
+    /**
+     * Retrieves a registered property, searching the options and the context hierarchy in the
+     * same order as {@link #getProperty(String)}.
+     *
+     * @param key the property key
+     * @return the value or <code>null</code> if the property is not set
+     * @throws ClassCastException if the value is not of the type of the key
+     */
+    public <T> T getTypedProperty(PropertyKey<T> key) {
+        if (DEBUG_ENABLED) {
+            checkActivateWarning("getProperty");
+        }
+
+        T obj = super.getTypedProperty(key);
+        if (obj != null) {
+            return obj;
+        }
+
+        obj = options.getTypedProperty(key);
+        if (obj != null) {
+            return obj;
+        }
+
+        if (operationContext != null) {
+            if (!isAncestor(operationContext)) {
+                obj = operationContext.getTypedProperty(key);
+            }
+        } else if (serviceContext != null) {
+            if (!isAncestor(serviceContext)) {
+                obj = serviceContext.getTypedProperty(key);
+            }
+        } else if (serviceGroupContext != null) {
+            if (!isAncestor(serviceGroupContext)) {
+                obj = serviceGroupContext.getTypedProperty(key);
+            }
+        } else if (configurationContext != null) {
+            if (!isAncestor(configurationContext)) {
+                obj = configurationContext.getTypedProperty(key);
+            }
+        }
+
+        return obj;
+    }
+
     /**
      * Check if a given property is true.  Will return false if the property
      * does not exist or is not an explicit "true" value.
@@ -1335,7 +1522,26 @@ public class MessageContext extends AbstractContext
      * @param executionChain
      */
     public void setExecutionChain(ArrayList<Handler> executionChain) {
+        mergeExecutedPhases(null);
         this.executionChain = executionChain;
+        executionPlan = null;
+        currentHandlerIndex = -1;
+        currentPhaseIndex = 0;
+    }
+
+    /**
+     * Set a shared, immutable execution plan, such as the ones returned by
+     * {@link org.apache.axis2.description.AxisOperation#getExecutionPlan(int)}. Unlike
+     * {@link #setExecutionChain(ArrayList)} this doesn't require a copy per message; a copy is
+     * only made if the chain is later obtained through {@link #getExecutionChain()}. The current
+     * handler/phase indexes are reset as with {@link #setExecutionChain(ArrayList)}.
+     *
+     * @param executionPlan the list of handlers to execute, which must not be modified
+     */
+    public void setExecutionPlan(List<Handler> executionPlan) {
+        mergeExecutedPhases(null);
+        this.executionPlan = executionPlan;
+        executionChain = null;
         currentHandlerIndex = -1;
         currentPhaseIndex = 0;
     }
@@ -1923,7 +2129,7 @@ public class MessageContext extends AbstractContext
      * @param map  users should pass null as this is just a holder for the recursion
      * @return a list of unigue object instances
      */
-    private ArrayList<Handler> flattenPhaseListToHandlers(ArrayList<Handler> list, LinkedHashMap<String, Handler> map) {
+    private ArrayList<Handler> flattenPhaseListToHandlers(List<Handler> list, LinkedHashMap<String, Handler> map) {
 
         if (map == null) {
             map = new LinkedHashMap<String, Handler>();
@@ -2014,6 +2220,7 @@ public class MessageContext extends AbstractContext
      */
     private void serializeSelfManagedData(ObjectOutput out) {
         selfManagedDataHandlerCount = 0;
+        List<Handler> executionChain = getExecutionPlan();
 
         try {
             if ((selfManagedDataMap == null)
@@ -2203,7 +2410,7 @@ public class MessageContext extends AbstractContext
                 String qNameAsString = selfManagedDataHolder.getId();
 
                 SelfManagedDataManager handler = deserialize_getHandlerFromExecutionChain(
-                        executionChain.iterator(), classname, qNameAsString);
+                        getExecutionPlan().iterator(), classname, qNameAsString);
 
                 if (handler == null) {
                     if (DEBUG_ENABLED && log.isTraceEnabled()) {
@@ -2356,6 +2563,7 @@ public class MessageContext extends AbstractContext
         //    boolean      - empty flag
         //---------------------------------------------------------
         out.writeUTF("executionChain");
+        List<Handler> executionChain = getExecutionPlan();
         if (executionChain != null && executionChain.size() > 0) {
             // start writing data to the output stream
             out.writeBoolean(ExternalizeConstants.ACTIVE_OBJECT);
@@ -2465,7 +2673,8 @@ public class MessageContext extends AbstractContext
         //    boolean      - empty flag
         //---------------------------------------------------------
         out.writeUTF("executedPhases");
-        if (executedPhases != null && executedPhases.size() > 0) {
+        LinkedList<Handler> executedPhases = getExecutedPhaseList();
+        if (executedPhases.size() > 0) {
 
             // start writing data to the output stream
             out.writeBoolean(ExternalizeConstants.ACTIVE_OBJECT);
@@ -2950,6 +3159,7 @@ public class MessageContext extends AbstractContext
         // the local chain is not enabled until the
         // list has been reconstituted
         executionChain = null;
+        executionPlan = null;
         currentHandlerIndex = -1;
         currentPhaseIndex = 0;
         metaExecutionChain = null;
@@ -3074,7 +3284,6 @@ public class MessageContext extends AbstractContext
 
         // the local chain is not enabled until the
         // list has been reconstituted
-        executedPhases = null;
         metaExecuted = null;
 
         marker = in.readUTF();
@@ -3410,7 +3619,7 @@ public class MessageContext extends AbstractContext
             log.trace(getLogIDString() +
                       ": readExternal(): About to read properties, marker is: " + marker);
         }
-        properties = in.readMap(new HashMap());
+        properties = in.readMap(new PropertyMap());
 
 
         //---------------------------------------------------------
@@ -3681,15 +3890,10 @@ public class MessageContext extends AbstractContext
             }
 
             if (!(executedPhasesReset)) {
-                executedPhases =
-                        restoreExecutedList(executedPhases, metaExecuted);
+                setExecutedPhases(restoreExecutedList(getExecutedPhaseList(), metaExecuted));
             }
         }
 
-        if (executedPhases == null) {
-            executedPhases = new LinkedList<Handler>();
-        }
-
 
         //-------------------------------------------------------
         // finish up remaining links
@@ -3909,15 +4113,10 @@ public class MessageContext extends AbstractContext
             }
 
             if (!(executedPhasesReset)) {
-                executedPhases =
-                        restoreExecutedList(executedPhases, metaExecuted);
+                setExecutedPhases(restoreExecutedList(getExecutedPhaseList(), metaExecuted));
             }
         }
 
-        if (executedPhases == null) {
-            executedPhases = new LinkedList<Handler>();
-        }
-
         //-------------------------------------------------------
         // done, reset the flag
         //-------------------------------------------------------
@@ -4147,7 +4346,11 @@ public class MessageContext extends AbstractContext
         // ArrayList executionChain
         //     handler and phase related data
         //---------------------------------------------------------
-        copy.setExecutionChain(executionChain);
+        if (executionChain != null) {
+            copy.setExecutionChain(executionChain);
+        } else {
+            copy.setExecutionPlan(executionPlan);
+        }
 
         // the setting of the execution chain is actually a reset
         // so copy the indices after putting in the execution chain
@@ -4155,9 +4358,12 @@ public class MessageContext extends AbstractContext
         copy.setCurrentPhaseIndex(currentPhaseIndex);
 
         //---------------------------------------------------------
-        // LinkedList executedPhases
+        // executed phases
         //---------------------------------------------------------
-        copy.setExecutedPhasesExplicit(executedPhases);
+        copy.executedPhaseStart = executedPhaseStart;
+        copy.executedPhaseEnd = executedPhaseEnd;
+        copy.priorExecutedPhases = priorExecutedPhases;
+        copy.priorExecutedPhaseCount = priorExecutedPhaseCount;
 
         //---------------------------------------------------------
         // options
@@ -4254,7 +4460,7 @@ public class MessageContext extends AbstractContext
     }
 
     public void setExecutedPhasesExplicit(LinkedList<Handler> inb) {
-        executedPhases = inb;
+        setExecutedPhases(inb == null ? Collections.<Handler>emptyList() : inb);
     }
 
     public void setSelfManagedDataMapExplicit(LinkedHashMap<String, Object> map) {
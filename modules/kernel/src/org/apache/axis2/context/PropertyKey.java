@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.context;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A typed key for a well-known context property. Each registered key has a fixed slot index,
+ * so that contexts and {@link org.apache.axis2.client.Options} can store the property in an
+ * array (see {@link PropertyMap}) and look it up without hashing the name. The property remains
+ * accessible by name through the usual <code>String</code> based methods.
+ * <p>
+ * Keys are never unregistered, so they should only be created for a fixed set of constant
+ * property names, typically as <code>static final</code> fields; see {@link PropertyKeys}.
+ *
+ * @param <T> the type of the property value
+ */
+public final class PropertyKey<T> {
+    private static final ConcurrentMap<String, PropertyKey<?>> registry =
+            new ConcurrentHashMap<String, PropertyKey<?>>();
+
+    /** registered keys by index; replaced on registration, so that it can be read without locking */
+    private static volatile PropertyKey<?>[] keys = new PropertyKey<?>[0];
+
+    private static volatile int count;
+
+    private final String name;
+    private final Class<T> type;
+    private final int index;
+
+    private PropertyKey(String name, Class<T> type, int index) {
+        this.name = name;
+        this.type = type;
+        this.index = index;
+    }
+
+    /**
+     * Register a property key. Registering a name twice returns the existing key, provided
+     * that the types match.
+     *
+     * @param name the property name
+     * @param type the type of the property values
+     * @return the key
+     * @throws IllegalArgumentException if the name is already registered with another type
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PropertyKey<T> register(String name, Class<T> type) {
+        synchronized (registry) {
+            PropertyKey<?> key = registry.get(name);
+            if (key == null) {
+                key = new PropertyKey<T>(name, type, count++);
+                PropertyKey<?>[] newKeys = Arrays.copyOf(keys, count);
+                newKeys[key.index] = key;
+                keys = newKeys;
+                registry.put(name, key);
+            } else if (key.type != type) {
+                throw new IllegalArgumentException("Property " + name +
+                        " is already registered with type " + key.type.getName());
+            }
+            return (PropertyKey<T>) key;
+        }
+    }
+
+    /**
+     * Get the key registered for a property name.
+     *
+     * @param name the property name
+     * @return the key or <code>null</code> if the name is not registered
+     */
+    public static PropertyKey<?> forName(Object name) {
+        return name == null ? null : registry.get(name);
+    }
+
+    static PropertyKey<?> forIndex(int index) {
+        return keys[index];
+    }
+
+    /**
+     * @return the number of registered keys, i.e. the number of slots required to store them
+     */
+    static int getCount() {
+        return count;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    /**
+     * Cast a property value to the type of this key.
+     *
+     * @param value the value
+     * @return the value
+     * @throws ClassCastException if the value is not of the type of the key
+     */
+    public T cast(Object value) {
+        return type.cast(value);
+    }
+
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.context;
+
+import org.apache.axis2.Constants;
+import org.apache.axis2.kernel.OutTransportInfo;
+
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Registered keys of the properties that the engine and the transports look up for every
+ * message. The properties can still be accessed by name.
+ */
+public final class PropertyKeys {
+    public static final PropertyKey<OutputStream> TRANSPORT_OUT =
+            PropertyKey.register(MessageContext.TRANSPORT_OUT, OutputStream.class);
+
+    public static final PropertyKey<OutTransportInfo> OUT_TRANSPORT_INFO =
+            PropertyKey.register(Constants.OUT_TRANSPORT_INFO, OutTransportInfo.class);
+
+    @SuppressWarnings("rawtypes")
+    public static final PropertyKey<Map> TRANSPORT_HEADERS =
+            PropertyKey.register(MessageContext.TRANSPORT_HEADERS, Map.class);
+
+    public static final PropertyKey<String> CHARACTER_SET_ENCODING =
+            PropertyKey.register(Constants.Configuration.CHARACTER_SET_ENCODING, String.class);
+
+    public static final PropertyKey<String> HTTP_METHOD =
+            PropertyKey.register(Constants.Configuration.HTTP_METHOD, String.class);
+
+    public static final PropertyKey<String> CONTENT_TYPE =
+            PropertyKey.register(Constants.Configuration.CONTENT_TYPE, String.class);
+
+    public static final PropertyKey<String> MESSAGE_TYPE =
+            PropertyKey.register(Constants.Configuration.MESSAGE_TYPE, String.class);
+
+    private PropertyKeys() {
+    }
+}
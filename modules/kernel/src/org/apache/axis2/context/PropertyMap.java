@@ -0,0 +1,383 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.context;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Property map that stores the values of registered {@link PropertyKey}s in an array indexed
+ * by the slot of the key, and other properties in a {@link HashMap}. It behaves like a
+ * {@link HashMap} (including <code>null</code> values and keys, and fail-fast iterators) and
+ * is not thread safe, but a property can be read through its key without hashing its name.
+ * <p>
+ * Like for a {@link HashMap}, reads don't modify the map: a property added under its name
+ * before its key was registered is found in {@link #others} by readers, and only moved to its
+ * slot by the next write of that property. Lookups of such keys that miss are remembered in
+ * {@link #misses}, so that looking up an absent property never hashes its name twice.
+ * <p>
+ * Properties looked up by name are searched in {@link #others} first, so that reading a
+ * property that has no key doesn't go through the key registry when the property is set.
+ */
+public class PropertyMap extends AbstractMap<String, Object> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final Object[] NO_SLOTS = new Object[0];
+
+    /** Marker for a slot holding a <code>null</code> value, which is different from no value */
+    private static final Object NULL = new Object();
+
+    private transient Object[] slots = NO_SLOTS;
+    private transient int slotCount;
+    private transient HashMap<String, Object> others;
+    /**
+     * Lowest number of registered keys seen when adding to {@link #others}. Keys with a higher
+     * index may have been registered after a property with the same name was added there.
+     */
+    private transient int othersKeyCount = Integer.MAX_VALUE;
+    /**
+     * Bits indexed by slot, set for keys that were looked up in {@link #others} and were not
+     * found there. Slots are always checked first, so these only save the lookup in
+     * {@link #others}; they are reset when a property is added there.
+     */
+    private transient long[] misses;
+    private transient int modCount;
+    private transient Set<Entry<String, Object>> entrySet;
+
+    public PropertyMap() {
+    }
+
+    public PropertyMap(Map<String, ?> map) {
+        putAll(map);
+    }
+
+    /**
+     * Get the value of a registered property.
+     *
+     * @param key the key
+     * @return the value or <code>null</code> if the property is not set
+     */
+    public Object get(PropertyKey<?> key) {
+        int index = key.getIndex();
+        Object[] slots = this.slots;
+        if (index < slots.length) {
+            Object value = slots[index];
+            if (value != null) {
+                return value == NULL ? null : value;
+            }
+        }
+        if (index >= othersKeyCount && others != null && !isMiss(index)) {
+            Object value = others.get(key.getName());
+            if (value == null) {
+                setMiss(index);
+            }
+            return value;
+        }
+        return null;
+    }
+
+    private boolean isMiss(int index) {
+        long[] misses = this.misses;
+        return misses != null && (index >> 6) < misses.length
+                && (misses[index >> 6] & (1L << index)) != 0;
+    }
+
+    private void setMiss(int index) {
+        long[] misses = this.misses;
+        if (misses == null || (index >> 6) >= misses.length) {
+            misses = misses == null ? new long[(index >> 6) + 1]
+                    : Arrays.copyOf(misses, (index >> 6) + 1);
+            this.misses = misses;
+        }
+        misses[index >> 6] |= 1L << index;
+    }
+
+    /**
+     * Set the value of a registered property.
+     *
+     * @param key   the key
+     * @param value the value
+     * @return the previous value
+     */
+    public Object put(PropertyKey<?> key, Object value) {
+        int index = key.getIndex();
+        if (index >= othersKeyCount) {
+            migrate(key);
+        }
+        if (index >= slots.length) {
+            slots = Arrays.copyOf(slots, Math.max(index + 1, PropertyKey.getCount()));
+        }
+        Object previous = slots[index];
+        slots[index] = value == null ? NULL : value;
+        if (previous == null) {
+            slotCount++;
+            modCount++;
+            return null;
+        }
+        return previous == NULL ? null : previous;
+    }
+
+    private Object remove(PropertyKey<?> key) {
+        int index = key.getIndex();
+        if (index >= othersKeyCount) {
+            migrate(key);
+        }
+        if (index >= slots.length || slots[index] == null) {
+            return null;
+        }
+        Object previous = slots[index];
+        slots[index] = null;
+        slotCount--;
+        modCount++;
+        return previous == NULL ? null : previous;
+    }
+
+    /**
+     * Move a property that was added under its name before the key was registered to its slot.
+     * Only called when the property is modified.
+     */
+    private void migrate(PropertyKey<?> key) {
+        if (others != null && others.containsKey(key.getName())) {
+            Object value = others.remove(key.getName());
+            int index = key.getIndex();
+            if (index >= slots.length) {
+                slots = Arrays.copyOf(slots, Math.max(index + 1, PropertyKey.getCount()));
+            }
+            slots[index] = value == null ? NULL : value;
+            slotCount++;
+            modCount++;
+        }
+    }
+
+    /**
+     * Get the value of a registered property from a property map that may or may not be a
+     * {@link PropertyMap}.
+     *
+     * @param map the map, may be <code>null</code>
+     * @param key the key
+     * @return the value or <code>null</code>
+     */
+    public static Object lookup(Map<String, Object> map, PropertyKey<?> key) {
+        if (map == null) {
+            return null;
+        } else if (map instanceof PropertyMap) {
+            return ((PropertyMap) map).get(key);
+        } else {
+            return map.get(key.getName());
+        }
+    }
+
+    public Object get(Object name) {
+        if (others != null) {
+            // a property found there is current, even if its key was registered since
+            Object value = others.get(name);
+            if (value != null) {
+                return value;
+            }
+        }
+        PropertyKey<?> key = PropertyKey.forName(name);
+        if (key != null) {
+            Object value = key.getIndex() < slots.length ? slots[key.getIndex()] : null;
+            return value == NULL ? null : value;
+        }
+        return null;
+    }
+
+    public boolean containsKey(Object name) {
+        PropertyKey<?> key = PropertyKey.forName(name);
+        if (key != null) {
+            int index = key.getIndex();
+            if (index < slots.length && slots[index] != null) {
+                return true;
+            }
+            return index >= othersKeyCount && others != null
+                    && others.containsKey(key.getName());
+        }
+        return others != null && others.containsKey(name);
+    }
+
+    public Object put(String name, Object value) {
+        PropertyKey<?> key = PropertyKey.forName(name);
+        if (key != null) {
+            return put(key, value);
+        }
+        if (others == null) {
+            others = new HashMap<String, Object>();
+        }
+        othersKeyCount = Math.min(othersKeyCount, PropertyKey.getCount());
+        int size = others.size();
+        Object previous = others.put(name, value);
+        if (others.size() != size) {
+            // a key for that name may have been registered concurrently
+            misses = null;
+            modCount++;
+        }
+        return previous;
+    }
+
+    public Object remove(Object name) {
+        PropertyKey<?> key = PropertyKey.forName(name);
+        if (key != null) {
+            return remove(key);
+        }
+        if (others == null || !others.containsKey(name)) {
+            return null;
+        }
+        modCount++;
+        return others.remove(name);
+    }
+
+    public int size() {
+        return slotCount + (others == null ? 0 : others.size());
+    }
+
+    public void clear() {
+        if (size() > 0) {
+            Arrays.fill(slots, null);
+            slotCount = 0;
+            others = null;
+            modCount++;
+        }
+    }
+
+    public Set<Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Entry<String, Object>>() {
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new EntryIterator();
+                }
+
+                public int size() {
+                    return PropertyMap.this.size();
+                }
+
+                public void clear() {
+                    PropertyMap.this.clear();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    private Object writeReplace() {
+        // slot indexes are specific to this JVM
+        return new HashMap<String, Object>(this);
+    }
+
+    private final class SlotEntry extends SimpleEntry<String, Object> {
+        private static final long serialVersionUID = 1L;
+
+        private final int index;
+
+        SlotEntry(String name, Object value, int index) {
+            super(name, value);
+            this.index = index;
+        }
+
+        public Object setValue(Object value) {
+            if (slots[index] == null) {
+                throw new IllegalStateException();
+            }
+            slots[index] = value == null ? NULL : value;
+            return super.setValue(value);
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, Object>> {
+        private int expectedModCount = modCount;
+        private int nextSlot = -1;
+        private Iterator<Entry<String, Object>> othersIterator;
+        private boolean inOthers;
+        private int lastSlot = -1;
+        private boolean canRemove;
+
+        EntryIterator() {
+            advanceSlot();
+        }
+
+        private void advanceSlot() {
+            int i = nextSlot + 1;
+            while (i < slots.length && slots[i] == null) {
+                i++;
+            }
+            nextSlot = i;
+        }
+
+        public boolean hasNext() {
+            checkModCount();
+            if (nextSlot < slots.length) {
+                return true;
+            }
+            if (othersIterator == null && others != null) {
+                othersIterator = others.entrySet().iterator();
+            }
+            return othersIterator != null && othersIterator.hasNext();
+        }
+
+        public Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            canRemove = true;
+            if (nextSlot < slots.length) {
+                lastSlot = nextSlot;
+                advanceSlot();
+                Object value = slots[lastSlot];
+                return new SlotEntry(nameOf(lastSlot), value == NULL ? null : value, lastSlot);
+            }
+            inOthers = true;
+            return othersIterator.next();
+        }
+
+        public void remove() {
+            if (!canRemove) {
+                throw new IllegalStateException();
+            }
+            checkModCount();
+            canRemove = false;
+            if (inOthers) {
+                othersIterator.remove();
+            } else {
+                slots[lastSlot] = null;
+                slotCount--;
+            }
+            modCount++;
+            expectedModCount = modCount;
+        }
+
+        private void checkModCount() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    private static String nameOf(int index) {
+        return PropertyKey.forIndex(index).getName();
+    }
+}
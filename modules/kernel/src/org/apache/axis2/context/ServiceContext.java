@@ -424,7 +424,7 @@ public class ServiceContext extends AbstractContext
         //---------------------------------------------------------
         // properties
         //---------------------------------------------------------
-        properties = in.readMap(new HashMap());
+        properties = in.readMap(new PropertyMap());
 
         //---------------------------------------------------------
         // AxisService
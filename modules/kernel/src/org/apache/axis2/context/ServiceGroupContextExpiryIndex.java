@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.context;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadline-ordered index of the soapsession scoped {@link ServiceGroupContext}s held by a
+ * {@link ConfigurationContext}.
+ * <p>
+ * Each context is queued with the time at which it would expire if it were never touched
+ * again. Touching a context does not update the queue; instead, when an entry becomes due,
+ * the reaper re-checks the context's last touched time and either expires it or re-queues it
+ * with its new deadline. Request threads therefore only pay for a queue insertion when a
+ * context is created, and the reaper only looks at entries that are actually due.
+ * <p>
+ * The index is drained by a task running on the {@link ConfigurationContext#getScheduler()
+ * scheduler} of its configuration context. The task only holds a weak reference to the
+ * configuration context, so a context that is never terminated can still be garbage collected.
+ */
+final class ServiceGroupContextExpiryIndex {
+
+    /**
+     * Interval in millis at which the reaper drains due entries.
+     */
+    static final long REAPER_INTERVAL = 1000;
+
+    private final PriorityBlockingQueue<Entry> queue = new PriorityBlockingQueue<Entry>();
+
+    private ScheduledFuture<?> reaperTask;
+
+    /**
+     * Add a context to the index. Starts the reaper for the given configuration context if it is
+     * not already running.
+     */
+    void add(ConfigurationContext configurationContext, ServiceGroupContext serviceGroupContext,
+             long timeout) {
+        queue.offer(new Entry(serviceGroupContext.getId(),
+                              serviceGroupContext.getLastTouchedTime() + timeout));
+        startReaper(configurationContext);
+    }
+
+    /**
+     * Remove the due entries from the queue and expire the corresponding contexts if they have
+     * not been touched since they were queued. Contexts that have been touched are re-queued
+     * with their new deadline.
+     */
+    synchronized void drain(ConfigurationContext configurationContext, long currentTime,
+                            long timeout) {
+        Entry entry;
+        while ((entry = queue.poll()) != null) {
+            if (entry.deadline > currentTime) {
+                queue.offer(entry);
+                break;
+            }
+            ServiceGroupContext serviceGroupContext =
+                    configurationContext.peekSoapSessionServiceGroupContext(entry.id);
+            if (serviceGroupContext == null) {
+                // Already removed explicitly
+                continue;
+            }
+            long deadline = serviceGroupContext.getLastTouchedTime() + timeout;
+            if (deadline < currentTime) {
+                configurationContext.expireServiceGroupContext(entry.id, serviceGroupContext);
+            } else {
+                queue.offer(new Entry(entry.id, Math.max(deadline, currentTime + 1)));
+            }
+        }
+    }
+
+    int size() {
+        return queue.size();
+    }
+
+    void clear() {
+        queue.clear();
+        stopReaper();
+    }
+
+    private synchronized void stopReaper() {
+        if (reaperTask != null) {
+            reaperTask.cancel(false);
+            reaperTask = null;
+        }
+    }
+
+    private synchronized void startReaper(ConfigurationContext configurationContext) {
+        if (reaperTask == null) {
+            try {
+                reaperTask = configurationContext.getScheduler().scheduleWithFixedDelay(
+                        new Reaper(configurationContext, this), REAPER_INTERVAL, REAPER_INTERVAL,
+                        TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // The configuration context has been terminated
+            }
+        }
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        // Only the id is kept so that the index does not pin the contexts (and through their
+        // parent, the configuration context) in memory
+        final String id;
+        final long deadline;
+
+        Entry(String id, long deadline) {
+            this.id = id;
+            this.deadline = deadline;
+        }
+
+        public int compareTo(Entry other) {
+            return deadline < other.deadline ? -1 : (deadline == other.deadline ? 0 : 1);
+        }
+    }
+
+    private static final class Reaper implements Runnable {
+        private final WeakReference<ConfigurationContext> configurationContextRef;
+        private final ServiceGroupContextExpiryIndex index;
+
+        Reaper(ConfigurationContext configurationContext, ServiceGroupContextExpiryIndex index) {
+            this.configurationContextRef = new WeakReference<ConfigurationContext>(
+                    configurationContext);
+            this.index = index;
+        }
+
+        public void run() {
+            ConfigurationContext configurationContext = configurationContextRef.get();
+            if (configurationContext == null) {
+                index.clear();
+                return;
+            }
+            try {
+                index.drain(configurationContext, System.currentTimeMillis(),
+                            configurationContext.getServiceGroupContextTimeoutInterval());
+            } catch (RuntimeException e) {
+                // Never let an exception cancel the periodic task
+                ConfigurationContext.logReaperFailure(e);
+            }
+        }
+    }
+}
@@ -52,6 +52,7 @@ import org.apache.axis2.util.PolicyUtil;
 import org.apache.axis2.util.TargetResolver;
 import org.apache.axis2.util.ThreadContextMigrator;
 import org.apache.axis2.util.ThreadContextMigratorUtil;
+import org.apache.axis2.util.threadpool.ThreadPool;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -98,6 +99,7 @@ public class AxisConfigBuilder extends DescriptionBuilder {
             Iterator<OMElement> itr = config_element.getChildrenWithName(new QName(TAG_PARAMETER));
 
             processParameters(itr, axisConfig, axisConfig);
+            checkThreadPoolType();
 
             // process MessageReceiver
             OMElement messageReceiver =
@@ -288,6 +290,22 @@ public class AxisConfigBuilder extends DescriptionBuilder {
         }
     }
 
+    private void checkThreadPoolType() throws DeploymentException {
+        Parameter threadPoolType = axisConfig.getParameter(ThreadPool.THREAD_POOL_TYPE);
+        if (threadPoolType == null || threadPoolType.getValue() == null) {
+            return;
+        }
+        if (!(threadPoolType.getValue() instanceof String)) {
+            throw new DeploymentException("The " + ThreadPool.THREAD_POOL_TYPE
+                    + " parameter must be a string");
+        }
+        try {
+            ThreadPool.checkThreadPoolType(((String)threadPoolType.getValue()).trim());
+        } catch (IllegalArgumentException e) {
+            throw new DeploymentException(e.getMessage());
+        }
+    }
+
     private void processTargetResolvers(AxisConfiguration axisConfig, OMElement targetResolvers) {
         if (targetResolvers != null) {
             Iterator<OMElement> iterator = targetResolvers.getChildrenWithName(new QName(TAG_TARGET_RESOLVER));
@@ -0,0 +1,392 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.deployment;
+
+import org.apache.axis2.Version;
+import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.axis2.engine.AxisConfigurator;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.wsdl.Definition;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * On disk cache of the WSDL 1.1 documents found in service archives, so that they don't have
+ * to be parsed again each time the server is restarted.
+ * <p>
+ * Entries are stored as serialized WSDL4J {@link Definition}s and are keyed by a checksum of
+ * the content of the whole service artifact, the name of the WSDL inside the artifact, the
+ * Axis2 version and the Java version. Each entry repeats its key, and an entry is discarded
+ * (and deleted) whenever its key doesn't match or it can't be read, in which case the WSDL is
+ * simply parsed again. Deserialization is restricted to the classes a WSDL4J definition is made
+ * of (WSDL4J, DOM implementations and a few <code>java.*</code> types); on Java 9 and later the
+ * depth of the object graph and the length of arrays are limited as well. The cache directory
+ * should nevertheless only be writable by the server.
+ * <p>
+ * The cache is disabled unless the {@link DeploymentConstants#TAG_DEPLOYMENT_CACHE} parameter
+ * is set in axis2.xml.
+ */
+public class DeploymentCache {
+    private static final Log log = LogFactory.getLog(DeploymentCache.class);
+
+    private static final int FORMAT_VERSION = 1;
+    private static final String SUFFIX = ".ser";
+
+    /** packages whose classes may appear in a cache entry */
+    private static final String[] ALLOWED_PACKAGES = {
+        "javax.wsdl.",
+        "com.ibm.wsdl.",
+        "org.apache.xerces.dom.",
+        "com.sun.org.apache.xerces.internal.dom.",
+    };
+
+    /** other classes which may appear in a cache entry */
+    private static final Set<String> ALLOWED_CLASSES = new HashSet<String>(Arrays.asList(
+        "java.lang.Object",
+        "java.lang.String",
+        "java.lang.Boolean",
+        "java.lang.Number",
+        "java.lang.Integer",
+        "java.lang.Long",
+        "java.lang.Short",
+        "java.lang.Byte",
+        "java.lang.Character",
+        "java.lang.Float",
+        "java.lang.Double",
+        "java.util.ArrayList",
+        "java.util.LinkedList",
+        "java.util.Vector",
+        "java.util.HashMap",
+        "java.util.LinkedHashMap",
+        "java.util.Hashtable",
+        "java.util.TreeMap",
+        "java.util.HashSet",
+        "java.util.LinkedHashSet",
+        "java.util.TreeSet",
+        "java.util.Arrays$ArrayList",
+        "java.util.Collections$EmptyList",
+        "java.util.Collections$EmptyMap",
+        "java.util.Collections$EmptySet",
+        "java.util.Collections$UnmodifiableCollection",
+        "java.util.Collections$UnmodifiableList",
+        "java.util.Collections$UnmodifiableRandomAccessList",
+        "java.util.Collections$UnmodifiableMap",
+        "java.util.Collections$UnmodifiableSet",
+        "javax.xml.namespace.QName"));
+
+    /** limits applied through <code>java.io.ObjectInputFilter</code> where available */
+    private static final String LIMITS = "maxdepth=10000;maxarray=1000000";
+
+    private static final Method CREATE_FILTER;
+    private static final Method SET_FILTER;
+
+    static {
+        Method createFilter = null;
+        Method setFilter = null;
+        try {
+            Class<?> filterClass = Class.forName("java.io.ObjectInputFilter");
+            createFilter = Class.forName("java.io.ObjectInputFilter$Config")
+                    .getMethod("createFilter", String.class);
+            setFilter = ObjectInputStream.class.getMethod("setObjectInputFilter", filterClass);
+        } catch (Exception e) {
+            // Java 8: only the class allowlist applies
+        }
+        CREATE_FILTER = createFilter;
+        SET_FILTER = setFilter;
+    }
+
+    private final File directory;
+    private final String version;
+
+    /**
+     * Creates a cache storing its entries in the given directory.
+     *
+     * @param directory the cache directory, which is created if needed
+     */
+    public DeploymentCache(File directory) {
+        this.directory = directory;
+        this.version = Version.getVersionText() + "/" +
+                       System.getProperty("java.specification.version");
+    }
+
+    /**
+     * Get the cache of the DeploymentEngine which configured the given AxisConfiguration.
+     *
+     * @param axisConfig the AxisConfiguration, may be <code>null</code>
+     * @return the cache or <code>null</code> if caching is disabled
+     */
+    public static DeploymentCache getDeploymentCache(AxisConfiguration axisConfig) {
+        AxisConfigurator configurator = axisConfig == null ? null : axisConfig.getConfigurator();
+        if (configurator instanceof DeploymentEngine) {
+            return ((DeploymentEngine) configurator).getDeploymentCache();
+        }
+        return null;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Computes the checksum of an artifact. For an exploded artifact, the names and content of
+     * all the files in the directory are taken into account.
+     *
+     * @param artifact an archive or a directory
+     * @return the hex encoded SHA-256 checksum of the artifact
+     * @throws IOException if the artifact can't be read
+     */
+    public String checksum(File artifact) throws IOException {
+        MessageDigest digest = newDigest();
+        if (artifact.isDirectory()) {
+            digestDirectory(digest, artifact, "");
+        } else {
+            digestFile(digest, artifact);
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Get a cached WSDL definition.
+     *
+     * @param checksum the checksum of the artifact containing the WSDL
+     * @param name     the name of the WSDL inside the artifact
+     * @return the cached definition, or <code>null</code> if it is not cached or the cached
+     *         entry is stale
+     */
+    public Definition getDefinition(String checksum, String name) {
+        File entry = getEntry(checksum, name);
+        if (!entry.exists()) {
+            return null;
+        }
+        ObjectInputStream in = null;
+        try {
+            in = new DefinitionInputStream(new BufferedInputStream(new FileInputStream(entry)));
+            if (in.readInt() == FORMAT_VERSION
+                && version.equals(in.readUTF())
+                && checksum.equals(in.readUTF())
+                && name.equals(in.readUTF())) {
+                Definition definition = (Definition) in.readObject();
+                if (log.isDebugEnabled()) {
+                    log.debug("Loaded " + name + " from the deployment cache");
+                }
+                return definition;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Discarding stale deployment cache entry " + entry);
+            }
+        } catch (Exception e) {
+            log.info("Discarding unreadable deployment cache entry " + entry + " : " +
+                     e.getMessage());
+        } finally {
+            close(in);
+        }
+        if (!entry.delete()) {
+            log.warn("Unable to delete deployment cache entry " + entry);
+        }
+        return null;
+    }
+
+    /**
+     * Store a WSDL definition in the cache. Failures are logged and otherwise ignored; the
+     * WSDL will just be parsed again next time.
+     *
+     * @param checksum   the checksum of the artifact containing the WSDL
+     * @param name       the name of the WSDL inside the artifact
+     * @param definition the definition to cache
+     */
+    public void putDefinition(String checksum, String name, Definition definition) {
+        if (definition == null || (!directory.isDirectory() && !directory.mkdirs())) {
+            return;
+        }
+        File entry = getEntry(checksum, name);
+        File tmp = null;
+        try {
+            tmp = File.createTempFile("entry", ".tmp", directory);
+            ObjectOutputStream out =
+                    new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            try {
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(version);
+                out.writeUTF(checksum);
+                out.writeUTF(name);
+                out.writeObject(definition);
+            } finally {
+                out.close();
+            }
+            try {
+                Files.move(tmp.toPath(), entry.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp.toPath(), entry.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            tmp = null;
+        } catch (IOException e) {
+            // typically a NotSerializableException from an extensibility element
+            log.info("Unable to cache " + name + " : " + e.getMessage());
+        } finally {
+            if (tmp != null && !tmp.delete()) {
+                tmp.deleteOnExit();
+            }
+        }
+    }
+
+    private File getEntry(String checksum, String name) {
+        MessageDigest digest = newDigest();
+        digest.update(version.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(checksum.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(name.getBytes(StandardCharsets.UTF_8));
+        return new File(directory, toHex(digest.digest()) + SUFFIX);
+    }
+
+    private static void digestDirectory(MessageDigest digest, File dir, String path)
+            throws IOException {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            throw new IOException("Unable to list " + dir);
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            String name = path + file.getName();
+            digest.update(name.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            if (file.isDirectory()) {
+                digestDirectory(digest, file, name + "/");
+            } else {
+                digestFile(digest, file);
+            }
+        }
+    }
+
+    private static void digestFile(MessageDigest digest, File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] buf = new byte[8192];
+            int read;
+            while ((read = in.read(buf)) > 0) {
+                digest.update(buf, 0, read);
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder buffer = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            buffer.append(Character.forDigit((b >> 4) & 0xF, 16));
+            buffer.append(Character.forDigit(b & 0xF, 16));
+        }
+        return buffer.toString();
+    }
+
+    static boolean isAllowed(String className) {
+        String name = className;
+        if (name.startsWith("[")) {
+            name = name.substring(name.lastIndexOf('[') + 1);
+            if (!name.startsWith("L")) {
+                // array of primitives
+                return true;
+            }
+            name = name.substring(1, name.length() - 1);
+        }
+        if (ALLOWED_CLASSES.contains(name)) {
+            return true;
+        }
+        for (String prefix : ALLOWED_PACKAGES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads cache entries, refusing any class which is not part of a WSDL4J definition.
+     */
+    private static class DefinitionInputStream extends ObjectInputStream {
+        DefinitionInputStream(InputStream in) throws IOException {
+            super(in);
+            if (SET_FILTER != null) {
+                try {
+                    SET_FILTER.invoke(this, CREATE_FILTER.invoke(null, LIMITS));
+                } catch (Exception e) {
+                    throw new IOException("Unable to limit deserialization", e);
+                }
+            }
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc)
+                throws IOException, ClassNotFoundException {
+            if (!isAllowed(desc.getName())) {
+                throw new InvalidClassException(desc.getName(),
+                                                "not allowed in a deployment cache entry");
+            }
+            return super.resolveClass(desc);
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces) throws IOException {
+            throw new InvalidClassException("Proxy classes are not allowed in a deployment " +
+                                            "cache entry");
+        }
+    }
+
+    private static void close(InputStream in) {
+        if (in != null) {
+            try {
+                in.close();
+            } catch (IOException e) {
+                log.debug(e);
+            }
+        }
+    }
+}
@@ -23,10 +23,12 @@ package org.apache.axis2.deployment;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.Constants;
 import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.deployment.ServiceDeployer.PreparedServiceGroup;
 import org.apache.axis2.deployment.repository.util.ArchiveReader;
 import org.apache.axis2.deployment.repository.util.DeploymentFileData;
 import org.apache.axis2.deployment.repository.util.WSInfo;
 import org.apache.axis2.deployment.scheduler.DeploymentIterator;
+import org.apache.axis2.deployment.scheduler.RepositoryWatcher;
 import org.apache.axis2.deployment.scheduler.Scheduler;
 import org.apache.axis2.deployment.scheduler.SchedulerTask;
 import org.apache.axis2.deployment.util.Utils;
@@ -56,10 +58,19 @@ import java.lang.reflect.Method;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.zip.ZipEntry;
@@ -79,6 +90,7 @@ public abstract class DeploymentEngine implements DeploymentConstants {
     protected static String webLocationString = null;
     protected Scheduler scheduler;
     private SchedulerTask schedulerTask;
+    private RepositoryWatcher repositoryWatcher;
 
     public static void setWebLocationString(String webLocationString) {
         DeploymentEngine.webLocationString = webLocationString;
@@ -95,6 +107,23 @@ public abstract class DeploymentEngine implements DeploymentConstants {
      */
     protected boolean hotDeployment = true;
 
+    /**
+     * Whether hot deployment is driven by file system events (see {@link RepositoryWatcher})
+     * rather than by periodically scanning the repository
+     */
+    protected boolean watchRepository = false;
+
+    /**
+     * Quiet period in milliseconds before changes detected by the {@link RepositoryWatcher}
+     * are deployed
+     */
+    protected long watchDebounce = 2000;
+
+    /**
+     * Cache of parsed service WSDLs, or null if caching is disabled
+     */
+    protected DeploymentCache deploymentCache;
+
     /**
      * Stores all the web Services to deploy.
      */
@@ -131,6 +160,14 @@ public abstract class DeploymentEngine implements DeploymentConstants {
 
     private Lock lock = new ReentrantLock();
 
+    /**
+     * The number of threads used to build service groups concurrently, configured through
+     * the {@link #TAG_DEPLOYMENT_THREADS} parameter. 1 means sequential deployment.
+     */
+    protected int deploymentThreads = 1;
+
+    private Map<String, Long> deploymentTimings = Collections.emptyMap();
+
     public void loadServices() {
         repoListener.checkServices();
         if (hotDeployment) {
@@ -575,24 +612,195 @@ public abstract class DeploymentEngine implements DeploymentConstants {
         wsToUnDeploy.add(file);
     }
 
+    /**
+     * Deploys all the artifacts queued through {@link #addWSToDeploy(DeploymentFileData)}.
+     * <p>
+     * Modules are deployed first, in order, so that the services can engage them. If more
+     * than one deployment thread is configured (see {@link #TAG_DEPLOYMENT_THREADS}), the
+     * service groups of the service archives are then built concurrently, without modifying
+     * the AxisConfiguration (see {@link ServiceDeployer#prepare}), and registered in a single
+     * step, in the order they were queued: if one of them can't be registered, none of them is
+     * (see {@link ServiceDeployer#deployAll}). Module engagement only happens during
+     * registration, on the deploying thread. Finally all other artifacts are deployed, one
+     * after the other, in the order they were queued.
+     */
     public synchronized void doDeploy() {
         try {
             if (wsToDeploy.size() > 0) {
-                for (Object aWsToDeploy : wsToDeploy) {
-                    DeploymentFileData fileToDeploy = (DeploymentFileData) aWsToDeploy;
-                    try {
-                        fileToDeploy.deploy();
-                    } catch (DeploymentException e) {
-                        // TODO : This probably isn't sufficient.  Maybe provide an option to stop?
-                        log.info(e);
+                long start = System.currentTimeMillis();
+                Map<String, Long> timings = new LinkedHashMap<String, Long>();
+                List<DeploymentFileData> remaining = new ArrayList<DeploymentFileData>();
+                for (DeploymentFileData fileToDeploy : wsToDeploy) {
+                    if (fileToDeploy.getDeployer() instanceof ModuleDeployer) {
+                        deploy(fileToDeploy, null, timings);
+                    } else {
+                        remaining.add(fileToDeploy);
                     }
                 }
+                Map<DeploymentFileData, Future<PreparedServiceGroup>> prepared =
+                        prepareServiceGroups(remaining, timings);
+                if (!prepared.isEmpty()) {
+                    deploy(prepared);
+                }
+                for (DeploymentFileData fileToDeploy : remaining) {
+                    if (!prepared.containsKey(fileToDeploy)) {
+                        deploy(fileToDeploy, timings);
+                    }
+                }
+                deploymentTimings = Collections.unmodifiableMap(timings);
+                if (log.isDebugEnabled()) {
+                    log.debug("Deployed " + timings.size() + " artifact(s) in " +
+                              (System.currentTimeMillis() - start) + "ms : " + timings);
+                }
             }
         } finally {
             wsToDeploy.clear();
         }
     }
 
+    private void deploy(DeploymentFileData fileToDeploy, Map<String, Long> timings) {
+        long start = System.currentTimeMillis();
+        try {
+            fileToDeploy.deploy();
+        } catch (DeploymentException e) {
+            // TODO : This probably isn't sufficient.  Maybe provide an option to stop?
+            log.info(e);
+        } finally {
+            timings.put(fileToDeploy.getAbsolutePath(), System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Registers the service groups built by {@link #prepareServiceGroups} in one step. Archives
+     * whose service group could not be built have already been reported as faulty and are
+     * skipped.
+     */
+    private void deploy(Map<DeploymentFileData, Future<PreparedServiceGroup>> prepared) {
+        long start = System.currentTimeMillis();
+        List<PreparedServiceGroup> serviceGroups = new ArrayList<PreparedServiceGroup>();
+        for (Map.Entry<DeploymentFileData, Future<PreparedServiceGroup>> entry
+                : prepared.entrySet()) {
+            try {
+                serviceGroups.add(awaitPrepared(entry.getValue()));
+            } catch (DeploymentException e) {
+                log.info(e);
+            }
+        }
+        try {
+            ServiceDeployer.deployAll(serviceGroups);
+        } catch (DeploymentException e) {
+            log.info(e);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Registered " + serviceGroups.size() + " service group(s) in " +
+                      (System.currentTimeMillis() - start) + "ms");
+        }
+    }
+
+    private static PreparedServiceGroup awaitPrepared(Future<PreparedServiceGroup> prepared)
+            throws DeploymentException {
+        try {
+            return prepared.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof DeploymentException) {
+                throw (DeploymentException) cause;
+            }
+            throw new DeploymentException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeploymentException(e);
+        }
+    }
+
+    /**
+     * Builds the service groups of all file based service archives in the given list on a
+     * bounded pool of {@link #deploymentThreads} threads. Only archives handled by the plain
+     * {@link ServiceDeployer} are built in advance, as subclasses may override how an archive
+     * is deployed. Returns the builds in queue order, or an empty map (i.e. all artifacts are
+     * deployed sequentially) if parallel deployment is disabled or pointless.
+     */
+    private Map<DeploymentFileData, Future<PreparedServiceGroup>>
+            prepareServiceGroups(List<DeploymentFileData> files, final Map<String, Long> timings) {
+        Map<DeploymentFileData, Future<PreparedServiceGroup>> prepared =
+                new LinkedHashMap<DeploymentFileData, Future<PreparedServiceGroup>>();
+        List<DeploymentFileData> serviceArchives = new ArrayList<DeploymentFileData>();
+        for (DeploymentFileData file : files) {
+            if (file.getDeployer() != null
+                    && file.getDeployer().getClass() == ServiceDeployer.class
+                    && file.getFile() != null) {
+                serviceArchives.add(file);
+            }
+        }
+        int threads = Math.min(deploymentThreads, serviceArchives.size());
+        if (threads < 2) {
+            return prepared;
+        }
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Axis2-Deployer-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setContextClassLoader(contextClassLoader);
+                return thread;
+            }
+        });
+        try {
+            for (final DeploymentFileData file : serviceArchives) {
+                final ServiceDeployer deployer = (ServiceDeployer) file.getDeployer();
+                prepared.put(file, executor.submit(new Callable<PreparedServiceGroup>() {
+                    public PreparedServiceGroup call() throws Exception {
+                        long start = System.currentTimeMillis();
+                        try {
+                            return deployer.prepare(file);
+                        } finally {
+                            synchronized (timings) {
+                                timings.put(file.getAbsolutePath(),
+                                            System.currentTimeMillis() - start);
+                            }
+                        }
+                    }
+                }));
+            }
+            // wait for all the builds, so that the timings map is no longer shared
+            for (Future<PreparedServiceGroup> future : prepared.values()) {
+                try {
+                    future.get();
+                } catch (ExecutionException ignore) {
+                    // reported when the service group is built
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return prepared;
+    }
+
+    /**
+     * Get the cache of parsed service WSDLs.
+     *
+     * @return the cache or <code>null</code> if it is not enabled through the
+     *         {@link #TAG_DEPLOYMENT_CACHE} parameter
+     */
+    public DeploymentCache getDeploymentCache() {
+        return deploymentCache;
+    }
+
+    /**
+     * Get the time it took to deploy each artifact during the last deployment run, i.e. the
+     * last call to {@link #doDeploy()} that had something to deploy.
+     *
+     * @return a map of artifact path to deployment time in milliseconds, in deployment order
+     */
+    public Map<String, Long> getDeploymentTimings() {
+        return deploymentTimings;
+    }
+
     /**
      * Checks if the modules, referred by server.xml, exist or that they are deployed.
      *
@@ -643,6 +851,16 @@ public abstract class DeploymentEngine implements DeploymentConstants {
      * @param listener : RepositoryListener
      */
     protected void startSearch(RepositoryListener listener) {
+        if (watchRepository) {
+            try {
+                repositoryWatcher = new RepositoryWatcher(listener, axisConfig, watchDebounce);
+                repositoryWatcher.start();
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Unable to watch the repository for changes, " +
+                         "falling back to periodic scanning", e);
+            }
+        }
         scheduler = new Scheduler();
 
         schedulerTask = new SchedulerTask(listener, axisConfig);
@@ -838,6 +1056,37 @@ public abstract class DeploymentEngine implements DeploymentConstants {
             this.hotUpdate = JavaUtils.isTrue(hotUpdate.getValue(), true);
         }
 
+        Parameter watchRepository = axisConfig.getParameter(TAG_HOT_DEPLOYMENT_WATCHER);
+        if (watchRepository != null) {
+            this.watchRepository = JavaUtils.isTrue(watchRepository.getValue(), false);
+        }
+
+        Parameter watchDebounce = axisConfig.getParameter(TAG_HOT_DEPLOYMENT_DEBOUNCE);
+        if (watchDebounce != null) {
+            try {
+                this.watchDebounce = Long.parseLong(((String) watchDebounce.getValue()).trim());
+            } catch (RuntimeException e) {
+                log.warn("Invalid value for " + TAG_HOT_DEPLOYMENT_DEBOUNCE + " : " +
+                         watchDebounce.getValue() + ", using " + this.watchDebounce + "ms");
+            }
+        }
+
+        String deploymentCacheDir = (String) axisConfig.getParameterValue(TAG_DEPLOYMENT_CACHE);
+        if (deploymentCacheDir != null && deploymentCacheDir.trim().length() > 0) {
+            deploymentCache = new DeploymentCache(new File(deploymentCacheDir.trim()));
+        }
+
+        Parameter deploymentThreads = axisConfig.getParameter(TAG_DEPLOYMENT_THREADS);
+        if (deploymentThreads != null) {
+            try {
+                this.deploymentThreads = Math.max(1,
+                        Integer.parseInt(((String) deploymentThreads.getValue()).trim()));
+            } catch (RuntimeException e) {
+                log.warn("Invalid value for " + TAG_DEPLOYMENT_THREADS + " : " +
+                         deploymentThreads.getValue() + ", deploying sequentially");
+            }
+        }
+
         String serviceDirPara = (String)
                 axisConfig.getParameterValue(DeploymentConstants.SERVICE_DIR_PATH);
         if (serviceDirPara != null) {
@@ -1103,6 +1352,7 @@ public abstract class DeploymentEngine implements DeploymentConstants {
             AxisConfiguration axisConfig = configCtx.getAxisConfiguration();
 
             ArchiveReader archiveReader = new ArchiveReader();
+            archiveReader.setDeploymentCache(deploymentCache);
             HashMap<String, AxisService> wsdlServices = archiveReader.processWSDLs(currentDeploymentFile);
             InputStream serviceXml = classLoader.getResourceAsStream("META-INF/services.xml");
             ArrayList<AxisService> serviceList = archiveReader.buildServiceGroup(serviceXml,
@@ -1169,6 +1419,9 @@ public abstract class DeploymentEngine implements DeploymentConstants {
      * Clean up the mess
      */
     public void cleanup() {
+        if (repositoryWatcher != null) {
+            repositoryWatcher.stop();
+        }
         destroyClassLoader(axisConfig.getModuleClassLoader());
         destroyClassLoader(axisConfig.getServiceClassLoader());
         destroyClassLoader(axisConfig.getSystemClassLoader());
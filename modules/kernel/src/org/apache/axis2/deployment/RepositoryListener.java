@@ -35,8 +35,15 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class RepositoryListener implements DeploymentConstants {
     protected static final Log log = LogFactory.getLog(RepositoryListener.class);
@@ -298,26 +305,7 @@ public class RepositoryListener implements DeploymentConstants {
                 File[] files = directory.listFiles();
                 if (files != null && files.length > 0) {
                     for (int i = 0; i < files.length; i++) {
-                        File file = files[i];
-                        if (isSourceControlDir(file)) {
-                            continue;
-                        }
-                        if (extension == null && file.isDirectory()) {
-                            Deployer deployer = deploymentEngine.getDeployer(dir, extension);
-                            deployer.setDirectory(dir);
-                            addFileToDeploy(file, deployer, WSInfo.TYPE_CUSTOM);
-                        } else if (extension != null) {
-                            if (!file.isDirectory() && extension
-                                    .equals(DeploymentFileData.getFileExtension(file.getName()))) {
-                                Deployer deployer = deploymentEngine.getDeployer(dir, extension);
-                                deployer.setDirectory(dir);
-                                addFileToDeploy(file, deployer, WSInfo.TYPE_CUSTOM);
-                            } else if (file.isDirectory() && !file.getName().startsWith(".") &&
-                                    !(dir.equals(directory.getName()) && "lib".equalsIgnoreCase(file.getName()))) {
-                                //look in the child directory also
-                                findFileForGivenDirectory(file, extension, dir);
-                            }
-                        }
+                        findFileForGivenDirectory(directory, files[i], extension, dir);
                     }
                 }
             }
@@ -326,6 +314,28 @@ public class RepositoryListener implements DeploymentConstants {
         }
     }
 
+    private void findFileForGivenDirectory(File directory, File file, String extension, String dir) {
+        if (isSourceControlDir(file)) {
+            return;
+        }
+        if (extension == null && file.isDirectory()) {
+            Deployer deployer = deploymentEngine.getDeployer(dir, extension);
+            deployer.setDirectory(dir);
+            addFileToDeploy(file, deployer, WSInfo.TYPE_CUSTOM);
+        } else if (extension != null) {
+            if (!file.isDirectory() && extension
+                    .equals(DeploymentFileData.getFileExtension(file.getName()))) {
+                Deployer deployer = deploymentEngine.getDeployer(dir, extension);
+                deployer.setDirectory(dir);
+                addFileToDeploy(file, deployer, WSInfo.TYPE_CUSTOM);
+            } else if (file.isDirectory() && !file.getName().startsWith(".") &&
+                    !(dir.equals(directory.getName()) && "lib".equalsIgnoreCase(file.getName()))) {
+                //look in the child directory also
+                findFileForGivenDirectory(file, extension, dir);
+            }
+        }
+    }
+
     /**
      * Searches a given folder for aar files and adds them to a list in the WSInfolist class.
      * If sub folders found, those are also searched for services.
@@ -344,32 +354,138 @@ public class RepositoryListener implements DeploymentConstants {
 
         if (files != null && files.length > 0) {
             for (File file : files) {
-                if (isSourceControlDir(file)) {
+                findServicesInFile(file, servicesDir);
+            }
+        }
+    }
+
+    private void findServicesInFile(File file, boolean servicesDir) {
+        if (isSourceControlDir(file)) {
+            return;
+        }
+        if (file.isDirectory()) {
+            if (!(servicesDir && "lib".equalsIgnoreCase(file.getName())) &&
+                !file.getName().startsWith(".")) {
+                File servicesXML = new File(file, DeploymentConstants.SERVICES_XML);
+                if (!servicesXML.exists()) {
+                    servicesXML =
+                            new File(file, DeploymentConstants.SERVICES_XML.toLowerCase());
+                }
+                if (servicesXML.exists()) {
+                    addFileToDeploy(file, deploymentEngine.getServiceDeployer(),
+                                    WSInfo.TYPE_SERVICE);
+                } else {
+                    findServicesInDirectory(file);
+                }
+            }
+        } else {
+            if (DeploymentFileData.isServiceArchiveFile(file.getName())) {
+                addFileToDeploy(file, deploymentEngine.getServiceDeployer(),
+                                WSInfo.TYPE_SERVICE);
+            }
+        }
+    }
+
+    /**
+     * Get the directories hot deployment has to look at, i.e. the services and modules
+     * directories and the directories of the deployers configured in axis2.xml.
+     *
+     * @return the list of existing directories
+     */
+    public List<File> getHotDeploymentDirectories() {
+        List<File> directories = new ArrayList<File>();
+        File servicesDir = deploymentEngine.getServicesDir();
+        if (servicesDir != null && servicesDir.isDirectory()) {
+            directories.add(servicesDir);
+        }
+        File modulesDir = deploymentEngine.getModulesDir();
+        if (modulesDir != null && modulesDir.isDirectory() && !directories.contains(modulesDir)) {
+            directories.add(modulesDir);
+        }
+        for (String directory : deploymentEngine.getDeployers().keySet()) {
+            File dir = getDeployerDirectory(directory);
+            if (dir.isDirectory() && !directories.contains(dir)) {
+                directories.add(dir);
+            }
+        }
+        return directories;
+    }
+
+    private File getDeployerDirectory(String directory) {
+        File dir = new File(directory);
+        if (!dir.isAbsolute()) {
+            dir = new File(deploymentEngine.getRepositoryDir(), directory);
+        }
+        return dir;
+    }
+
+    /**
+     * Deploys, updates or undeploys the artifacts affected by the given changed files, without
+     * scanning the rest of the repository. Each change is narrowed down to the top level entry
+     * of the hot deployment directory it belongs to, and only that entry is re-examined. Changes
+     * in the modules directory are handled by {@link #checkModules()}, as modules are deployed
+     * but never undeployed.
+     *
+     * @param changedFiles files or directories that have been created, modified or deleted
+     */
+    public void updateArtifacts(Collection<File> changedFiles) {
+        Set<File> serviceRoots = new LinkedHashSet<File>();
+        Map<String, Set<File>> deployerRoots = new HashMap<String, Set<File>>();
+        File servicesDir = deploymentEngine.getServicesDir();
+        File modulesDir = deploymentEngine.getModulesDir();
+        boolean modulesChanged = false;
+        for (File changed : changedFiles) {
+            if (modulesDir != null && getTopLevelEntry(modulesDir, changed) != null) {
+                modulesChanged = true;
+                continue;
+            }
+            File root = servicesDir == null ? null : getTopLevelEntry(servicesDir, changed);
+            if (root != null && serviceRoots.add(root)) {
+                wsInfoList.removeMissingItems(root);
+                if (root.exists()) {
+                    findServicesInFile(root, true);
+                }
+            }
+            for (Map.Entry<String, Map<String, Deployer>> entry :
+                    deploymentEngine.getDeployers().entrySet()) {
+                File directory = getDeployerDirectory(entry.getKey());
+                root = getTopLevelEntry(directory, changed);
+                if (root == null) {
                     continue;
                 }
-                if (file.isDirectory()) {
-                    if (!(servicesDir && "lib".equalsIgnoreCase(file.getName())) &&
-                        !file.getName().startsWith(".")) {
-                        File servicesXML = new File(file, DeploymentConstants.SERVICES_XML);
-                        if (!servicesXML.exists()) {
-                            servicesXML =
-                                    new File(file, DeploymentConstants.SERVICES_XML.toLowerCase());
-                        }
-                        if (servicesXML.exists()) {
-                            addFileToDeploy(file, deploymentEngine.getServiceDeployer(),
-                                            WSInfo.TYPE_SERVICE);
-                        } else {
-                            findServicesInDirectory(file);
+                Set<File> roots = deployerRoots.get(entry.getKey());
+                if (roots == null) {
+                    roots = new HashSet<File>();
+                    deployerRoots.put(entry.getKey(), roots);
+                }
+                if (roots.add(root)) {
+                    wsInfoList.removeMissingItems(root);
+                    if (root.exists()) {
+                        for (String extension : entry.getValue().keySet()) {
+                            findFileForGivenDirectory(directory, root, extension, entry.getKey());
                         }
                     }
-                } else {
-                    if (DeploymentFileData.isServiceArchiveFile(file.getName())) {
-                        addFileToDeploy(file, deploymentEngine.getServiceDeployer(),
-                                        WSInfo.TYPE_SERVICE);
-                    }
                 }
             }
         }
+        if (modulesChanged) {
+            checkModules();
+        }
+        wsInfoList.updateIncremental();
+    }
+
+    /**
+     * Get the child of the given directory that (directly or indirectly) contains the given
+     * file, or null if the file is not located below the directory
+     */
+    private static File getTopLevelEntry(File directory, File file) {
+        File dir = directory.getAbsoluteFile();
+        for (File f = file.getAbsoluteFile(); f != null; f = f.getParentFile()) {
+            if (dir.equals(f.getParentFile())) {
+                return f;
+            }
+        }
+        return null;
     }
 
     /** Method invoked from the scheduler to start the listener. */
@@ -38,6 +38,7 @@ import org.apache.axis2.engine.AxisConfiguration;
 import org.apache.axis2.engine.MessageReceiver;
 import org.apache.axis2.engine.ServiceLifeCycle;
 import org.apache.axis2.i18n.Messages;
+import org.apache.axis2.util.FaultyServiceData;
 import org.apache.axis2.util.JavaUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -133,11 +134,28 @@ public class ServiceDeployer extends AbstractDeployer {
             deployFromUrl(deploymentFileData);
             return;
         }
-        boolean isDirectory = deploymentFile.isDirectory();
-        ArchiveReader archiveReader;
-        StringWriter errorWriter = new StringWriter();
-        archiveReader = new ArchiveReader();
-        String serviceStatus = "";
+        deploy(prepare(deploymentFileData));
+    }
+
+    /**
+     * Builds the complete service group of a file based service archive: creates its class
+     * loader, parses its services.xml, runs the service builder extensions (e.g. to build
+     * services from WSDL) and builds the services. The service group only refers to the
+     * AxisConfiguration for lookups (transports, message receivers, phases, parameters); it is
+     * not added to it and no module is engaged until {@link #deploy(PreparedServiceGroup)} or
+     * {@link #deployAll(List)} is called. This may therefore run concurrently for different
+     * archives, provided that the AxisConfiguration isn't modified in the meantime. Service
+     * builder extensions and {@link ServiceLifeCycle#startUp} are then invoked concurrently as
+     * well.
+     *
+     * @param deploymentFileData the service archive or exploded directory
+     * @return the service group, ready to be registered
+     * @throws DeploymentException if the service group could not be built
+     */
+    public PreparedServiceGroup prepare(DeploymentFileData deploymentFileData)
+            throws DeploymentException {
+        boolean isDirectory = deploymentFileData.getFile().isDirectory();
+        ArchiveReader archiveReader = new ArchiveReader();
         try {
             deploymentFileData.setClassLoader(isDirectory,
                                               axisConfig.getServiceClassLoader(),
@@ -169,76 +187,204 @@ public class ServiceDeployer extends AbstractDeployer {
                     }
                 }
             }
-            DeploymentEngine.addServiceGroup(serviceGroup,
-                                             serviceList,
-                                             location,
-                                             deploymentFileData,
-                                             axisConfig);
-
-            super.deploy(deploymentFileData);
-        } catch (DeploymentException de) {
+            return new PreparedServiceGroup(this, deploymentFileData, serviceGroup, serviceList,
+                                            location);
+        } catch (Throwable t) {
+            throw deploymentFailed(deploymentFileData, t);
+        }
+    }
+
+    /**
+     * Registers a service group built by {@link #prepare(DeploymentFileData)} with the
+     * AxisConfiguration. Must not be called concurrently.
+     *
+     * @param prepared the prepared service group
+     * @throws DeploymentException if the service group could not be added
+     */
+    public void deploy(PreparedServiceGroup prepared) throws DeploymentException {
+        DeploymentFileData deploymentFileData = prepared.getDeploymentFileData();
+        try {
+            register(prepared);
+        } catch (Throwable t) {
+            throw deploymentFailed(deploymentFileData, t);
+        }
+    }
+
+    /**
+     * Registers service groups built by {@link #prepare(DeploymentFileData)}, possibly by
+     * different deployers, with the AxisConfiguration as a whole: if one of them can't be added (e.g. because of a duplicate
+     * service name), the service groups that were already added are removed again and all the
+     * archives are reported as faulty. The services of the other archives are shut down (see
+     * {@link ServiceLifeCycle#shutDown}) and observers are notified of the removal of the
+     * service groups that were added. A service group referring to a module that isn't deployed
+     * yet is not a failure; as with {@link #deploy(PreparedServiceGroup)}, it is kept aside
+     * until the module is deployed. Must not be called concurrently.
+     *
+     * @param prepared the prepared service groups, in registration order
+     * @throws DeploymentException if the service groups could not be added
+     */
+    public static void deployAll(List<PreparedServiceGroup> prepared)
+            throws DeploymentException {
+        int registered = 0;
+        try {
+            for (PreparedServiceGroup group : prepared) {
+                group.deployer.register(group);
+                registered++;
+            }
+        } catch (Throwable t) {
+            PreparedServiceGroup failed = prepared.get(registered);
+            // the failed service group may have been added before the failure
+            for (int i = registered; i >= 0; i--) {
+                PreparedServiceGroup group = prepared.get(i);
+                group.deployer.rollback(group);
+            }
+            for (int i = 0; i < prepared.size(); i++) {
+                if (i != registered) {
+                    PreparedServiceGroup group = prepared.get(i);
+                    group.deployer.shutDown(group);
+                    group.deployer.deploymentFailed(group.getDeploymentFileData(),
+                            new DeploymentException("Service archive " +
+                                    failed.getDeploymentFileData().getName() +
+                                    ", deployed together with this one, could not be deployed",
+                                    t));
+                }
+            }
+            throw failed.deployer.deploymentFailed(failed.getDeploymentFileData(), t);
+        }
+    }
+
+    private void register(PreparedServiceGroup prepared) throws AxisFault, DeploymentException {
+        DeploymentFileData deploymentFileData = prepared.getDeploymentFileData();
+        DeploymentEngine.addServiceGroup(prepared.getServiceGroup(),
+                                         prepared.getServiceList(),
+                                         prepared.getLocation(),
+                                         deploymentFileData,
+                                         axisConfig);
+
+        super.deploy(deploymentFileData);
+    }
+
+    /**
+     * Undoes {@link #register(PreparedServiceGroup)}.
+     */
+    private void rollback(PreparedServiceGroup prepared) {
+        AxisServiceGroup serviceGroup = prepared.getServiceGroup();
+        String serviceGroupName = serviceGroup.getServiceGroupName();
+        if (axisConfig.getServiceGroup(serviceGroupName) == serviceGroup) {
+            try {
+                axisConfig.removeServiceGroup(serviceGroupName);
+                configCtx.removeServiceGroupContext(serviceGroup);
+            } catch (AxisFault e) {
+                log.warn("Could not remove service group " + serviceGroupName, e);
+            }
+        } else {
+            // not deployed because of a missing module
+            synchronized (axisConfig.getFaultyServicesDuetoModules()) {
+                Iterator<Map<String, FaultyServiceData>> faultyServices =
+                        axisConfig.getFaultyServicesDuetoModules().values().iterator();
+                while (faultyServices.hasNext()) {
+                    Map<String, FaultyServiceData> faultyServicesDueToModule =
+                            faultyServices.next();
+                    FaultyServiceData faultyServiceData =
+                            faultyServicesDueToModule.get(serviceGroupName);
+                    if (faultyServiceData != null
+                            && faultyServiceData.getServiceGroup() == serviceGroup) {
+                        faultyServicesDueToModule.remove(serviceGroupName);
+                        if (faultyServicesDueToModule.isEmpty()) {
+                            faultyServices.remove();
+                        }
+                    }
+                }
+            }
+        }
+        deploymentFileDataMap.remove(prepared.getDeploymentFileData().getAbsolutePath());
+    }
+
+    private void shutDown(PreparedServiceGroup prepared) {
+        for (AxisService axisService : prepared.getServiceList()) {
+            ServiceLifeCycle serviceLifeCycle = axisService.getServiceLifeCycle();
+            if (serviceLifeCycle != null) {
+                serviceLifeCycle.shutDown(configCtx, axisService);
+            }
+        }
+    }
+
+    private DeploymentException deploymentFailed(DeploymentFileData deploymentFileData,
+                                                 Throwable t) {
+        StringWriter errorWriter = new StringWriter();
+        DeploymentException result;
+        if (t instanceof DeploymentException) {
+            DeploymentException de = (DeploymentException) t;
             de.printStackTrace();
             log.error(Messages.getMessage(DeploymentErrorMsgs.INVALID_SERVICE,
                                           deploymentFileData.getName(),
                                           de.getMessage()),
                       de);
-            PrintWriter error_ptintWriter = new PrintWriter(errorWriter);
-            de.printStackTrace(error_ptintWriter);
-            serviceStatus = "Error:\n" + errorWriter.toString();
-
-            throw de;
-
-        } catch (AxisFault axisFault) {
+            result = de;
+        } else if (t instanceof AxisFault) {
             log.error(Messages.getMessage(DeploymentErrorMsgs.INVALID_SERVICE,
                                           deploymentFileData.getName(),
-                                          axisFault.getMessage()),
-                      axisFault);
-            PrintWriter error_ptintWriter = new PrintWriter(errorWriter);
-            axisFault.printStackTrace(error_ptintWriter);
-            serviceStatus = "Error:\n" + errorWriter.toString();
-
-            throw new DeploymentException(axisFault);
-
-        } catch (Exception e) {
+                                          t.getMessage()),
+                      t);
+            result = new DeploymentException((AxisFault) t);
+        } else {
             if (log.isInfoEnabled()) {
                 StringWriter sw = new StringWriter();
                 PrintWriter pw = new PrintWriter(sw);
-                e.printStackTrace(pw);
+                t.printStackTrace(pw);
                 log.info(Messages.getMessage(
                         DeploymentErrorMsgs.INVALID_SERVICE,
                         deploymentFileData.getName(),
                         sw.getBuffer().toString()));
             }
-            PrintWriter error_ptintWriter = new PrintWriter(errorWriter);
-            e.printStackTrace(error_ptintWriter);
-            serviceStatus = "Error:\n" + errorWriter.toString();
+            result = t instanceof Exception ? new DeploymentException((Exception) t)
+                    : new DeploymentException(new Exception(t));
+        }
+        PrintWriter error_ptintWriter = new PrintWriter(errorWriter);
+        t.printStackTrace(error_ptintWriter);
+        axisConfig.getFaultyServices().put(deploymentFileData.getFile().getAbsolutePath(),
+                                           "Error:\n" + errorWriter.toString());
+        return result;
+    }
 
-            throw new DeploymentException(e);
+    /**
+     * A service group that has been built from a service archive but not yet registered with
+     * the AxisConfiguration.
+     */
+    public static class PreparedServiceGroup {
+        private final ServiceDeployer deployer;
+        private final DeploymentFileData deploymentFileData;
+        private final AxisServiceGroup serviceGroup;
+        private final ArrayList<AxisService> serviceList;
+        private final URL location;
 
-        } catch (Throwable t) {
-            if (log.isInfoEnabled()) {
-                StringWriter sw = new StringWriter();
-                PrintWriter pw = new PrintWriter(sw);
-                t.printStackTrace(pw);
-                log.info(Messages.getMessage(
-                        DeploymentErrorMsgs.INVALID_SERVICE,
-                        deploymentFileData.getName(),
-                        sw.getBuffer().toString()));
-            }
-            PrintWriter error_ptintWriter = new PrintWriter(errorWriter);
-            t.printStackTrace(error_ptintWriter);
-            serviceStatus = "Error:\n" + errorWriter.toString();
+        PreparedServiceGroup(ServiceDeployer deployer, DeploymentFileData deploymentFileData,
+                             AxisServiceGroup serviceGroup,
+                             ArrayList<AxisService> serviceList, URL location) {
+            this.deployer = deployer;
+            this.deploymentFileData = deploymentFileData;
+            this.serviceGroup = serviceGroup;
+            this.serviceList = serviceList;
+            this.location = location;
+        }
 
-            throw new DeploymentException(new Exception(t));
+        public DeploymentFileData getDeploymentFileData() {
+            return deploymentFileData;
+        }
 
-        } finally {
-            if (serviceStatus.startsWith("Error:")) {
-                axisConfig.getFaultyServices().put(deploymentFileData.getFile().getAbsolutePath(),
-                                                   serviceStatus);
-            }
+        public AxisServiceGroup getServiceGroup() {
+            return serviceGroup;
+        }
+
+        public ArrayList<AxisService> getServiceList() {
+            return serviceList;
+        }
+
+        public URL getLocation() {
+            return location;
         }
     }
-    
+
     public void deployFromUrl(DeploymentFileData deploymentFileData) throws DeploymentException {
         URL servicesURL = deploymentFileData.getUrl();
         if (servicesURL == null) {
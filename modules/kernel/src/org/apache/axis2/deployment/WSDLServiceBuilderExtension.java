@@ -49,6 +49,10 @@ public class WSDLServiceBuilderExtension extends AbstractServiceBuilderExtension
     public Map<String, AxisService> buildAxisServices(DeploymentFileData deploymentFileData)
             throws DeploymentException {
         ArchiveReader archiveReader = new ArchiveReader();
+        if (getConfigurationContext() != null) {
+            archiveReader.setDeploymentCache(DeploymentCache.getDeploymentCache(
+                    getConfigurationContext().getAxisConfiguration()));
+        }
         Map<String, AxisService> wsdlservices = archiveReader.processWSDLs(deploymentFileData);
         if (wsdlservices != null && wsdlservices.size() > 0) {
             for (AxisService service : wsdlservices.values()) {
@@ -24,6 +24,7 @@ import org.apache.axiom.om.OMElement;
 import org.apache.axiom.om.OMNamespace;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.deployment.DeploymentCache;
 import org.apache.axis2.deployment.DeploymentConstants;
 import org.apache.axis2.deployment.DeploymentErrorMsgs;
 import org.apache.axis2.deployment.DeploymentException;
@@ -50,6 +51,8 @@ import org.apache.axis2.util.XMLUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import javax.wsdl.Definition;
+import javax.wsdl.WSDLException;
 import javax.xml.stream.XMLStreamException;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -68,6 +71,17 @@ import java.util.zip.ZipInputStream;
 public class ArchiveReader implements DeploymentConstants {
     private static final Log log = LogFactory.getLog(ArchiveReader.class);
 
+    private DeploymentCache deploymentCache;
+
+    /**
+     * Set the cache used to avoid parsing the WSDL 1.1 documents of service archives again.
+     *
+     * @param deploymentCache the cache, or <code>null</code> to always parse the WSDLs
+     */
+    public void setDeploymentCache(DeploymentCache deploymentCache) {
+        this.deploymentCache = deploymentCache;
+    }
+
     public ArrayList<AxisService> buildServiceGroup(InputStream zin, DeploymentFileData currentFile,
                                        AxisServiceGroup axisServiceGroup, HashMap<String, AxisService> wsdlServices,
                                        ConfigurationContext configCtx)
@@ -250,6 +264,20 @@ public class ArchiveReader implements DeploymentConstants {
                                  File serviceArchiveFile,
                                  boolean isArchive, InputStream in, String baseURI)
             throws DeploymentException {
+        return processWSDLFile(axisServiceBuilder, serviceArchiveFile, isArchive, in, baseURI,
+                               null, null);
+    }
+
+    /**
+     * @param checksum the checksum of the artifact, if the WSDL is to be cached, or
+     *                 <code>null</code>
+     * @param name     the name of the WSDL in the deployment cache
+     */
+    private List<AxisService> processWSDLFile(WSDLToAxisServiceBuilder axisServiceBuilder,
+                                 File serviceArchiveFile,
+                                 boolean isArchive, InputStream in, String baseURI,
+                                 String checksum, String name)
+            throws DeploymentException {
         try {
 
             if (serviceArchiveFile != null && isArchive) {
@@ -281,7 +309,14 @@ public class ArchiveReader implements DeploymentConstants {
                 }
             }
             if (axisServiceBuilder instanceof WSDL11ToAllAxisServicesBuilder) {
-                return ((WSDL11ToAllAxisServicesBuilder) axisServiceBuilder).populateAllServices();
+                WSDL11ToAllAxisServicesBuilder wsdl11Builder =
+                        (WSDL11ToAllAxisServicesBuilder) axisServiceBuilder;
+                if (checksum != null && wsdl11Builder.getWSDL4JDefinition() == null) {
+                    // cache the definition as read, before building the services modifies it
+                    deploymentCache.putDefinition(checksum, name,
+                                                  wsdl11Builder.readWSDL4JDefinition());
+                }
+                return wsdl11Builder.populateAllServices();
             } else if (axisServiceBuilder instanceof WSDL20ToAllAxisServicesBuilder) {
                 return ((WSDL20ToAllAxisServicesBuilder) axisServiceBuilder).populateAllServices();
             }
@@ -295,6 +330,11 @@ public class ArchiveReader implements DeploymentConstants {
             if (log.isDebugEnabled()) {
                 log.debug(ioex);
             }
+        } catch (WSDLException e) {
+            log.info("Trouble processing wsdl file :" + e.getMessage());
+            if (log.isDebugEnabled()) {
+                log.debug(e);
+            }
         }
         return null;
     }
@@ -311,6 +351,7 @@ public class ArchiveReader implements DeploymentConstants {
         // to store service come from wsdl files
         HashMap<String, AxisService> servicesMap = new HashMap<String, AxisService>();
         boolean isDirectory = serviceFile.isDirectory();
+        String checksum = getChecksum(serviceFile);
         if (isDirectory) {
             try {
                 File metaInfFolder = new File(serviceFile, META_INF);
@@ -325,7 +366,7 @@ public class ArchiveReader implements DeploymentConstants {
                     }
                 }
 
-                processFilesInFolder(metaInfFolder, servicesMap);
+                processFilesInFolder(metaInfFolder, servicesMap, checksum);
 
             } catch (FileNotFoundException e) {
                 throw new DeploymentException(e);
@@ -375,6 +416,7 @@ public class ArchiveReader implements DeploymentConstants {
                                 ((OMElement) XMLUtils.toOM(in)).getNamespace();
                         if (documentElementNS != null) {
                             WSDLToAxisServiceBuilder wsdlToAxisServiceBuilder;
+                            Definition definition = null;
                             if (WSDL2Constants.WSDL_NAMESPACE
                                     .equals(documentElementNS.getNamespaceURI())) {
                                 // we have a WSDL 2.0 document here.
@@ -383,8 +425,11 @@ public class ArchiveReader implements DeploymentConstants {
                                 wsdlToAxisServiceBuilder.setBaseUri(entryName);
                             } else if (Constants.NS_URI_WSDL11.
                                     equals(documentElementNS.getNamespaceURI())) {
-                                wsdlToAxisServiceBuilder = new WSDL11ToAllAxisServicesBuilder(
-                                        new ByteArrayInputStream(out.toByteArray()));
+                                definition = getCachedDefinition(checksum, entry.getName());
+                                wsdlToAxisServiceBuilder = definition != null
+                                        ? new WSDL11ToAllAxisServicesBuilder(definition)
+                                        : new WSDL11ToAllAxisServicesBuilder(
+                                                new ByteArrayInputStream(out.toByteArray()));
                                 ((WSDL11ToAxisServiceBuilder) wsdlToAxisServiceBuilder).setDocumentBaseUri(entryName);
                             } else {
                                 throw new DeploymentException(Messages.getMessage("invalidWSDLFound"));
@@ -393,7 +438,8 @@ public class ArchiveReader implements DeploymentConstants {
                                                             serviceFile, true,
                                                             new ByteArrayInputStream(
                                                                     out.toByteArray()),
-                                                            entry.getName());
+                                                            entry.getName(),
+                                                            checksum, entry.getName());
                             if (services != null) {
                                 for (AxisService axisService : services) {
                                     if (axisService != null) {
@@ -471,6 +517,12 @@ public class ArchiveReader implements DeploymentConstants {
 
     public void processFilesInFolder(File folder, HashMap<String, AxisService> servicesMap)
             throws FileNotFoundException, XMLStreamException, DeploymentException {
+        processFilesInFolder(folder, servicesMap, null);
+    }
+
+    private void processFilesInFolder(File folder, HashMap<String, AxisService> servicesMap,
+                                      String checksum)
+            throws FileNotFoundException, XMLStreamException, DeploymentException {
         File files[] = folder.listFiles();
         for (int i = 0; i < files.length; i++) {
             File file1 = files[i];
@@ -485,6 +537,8 @@ public class ArchiveReader implements DeploymentConstants {
                 OMNamespace documentElementNS = ((OMElement) XMLUtils.toOM(in)).getNamespace();
                 if (documentElementNS != null) {
                     WSDLToAxisServiceBuilder wsdlToAxisServiceBuilder;
+                    String name = folder.getName() + "/" + file1.getName();
+                    Definition definition = null;
                     if (WSDL2Constants.WSDL_NAMESPACE
                             .equals(documentElementNS.getNamespaceURI())) {
                         // we have a WSDL 2.0 document here.
@@ -493,7 +547,10 @@ public class ArchiveReader implements DeploymentConstants {
                     } else if (Constants.NS_URI_WSDL11.
                             equals(documentElementNS.getNamespaceURI())) {
                         in2 = new FileInputStream(file1);
-                        wsdlToAxisServiceBuilder = new WSDL11ToAllAxisServicesBuilder(in2);
+                        definition = getCachedDefinition(checksum, name);
+                        wsdlToAxisServiceBuilder = definition != null
+                                ? new WSDL11ToAllAxisServicesBuilder(definition)
+                                : new WSDL11ToAllAxisServicesBuilder(in2);
                         ((WSDL11ToAxisServiceBuilder) wsdlToAxisServiceBuilder).setDocumentBaseUri(file1.toURI()
                                                                                                         .toString());
                     } else {
@@ -502,7 +559,7 @@ public class ArchiveReader implements DeploymentConstants {
 
                     FileInputStream in3 = new FileInputStream(file1);
                     List<AxisService> services = processWSDLFile(wsdlToAxisServiceBuilder, file1, false,
-                                                    in2, file1.toURI().toString());
+                                                    in2, file1.toURI().toString(), checksum, name);
 
                     if (services != null) {
                         for (AxisService axisService : services) {
@@ -527,6 +584,22 @@ public class ArchiveReader implements DeploymentConstants {
         }
     }
 
+    private String getChecksum(File serviceFile) {
+        if (deploymentCache == null) {
+            return null;
+        }
+        try {
+            return deploymentCache.checksum(serviceFile);
+        } catch (IOException e) {
+            log.info("Unable to compute the checksum of " + serviceFile + " : " + e.getMessage());
+            return null;
+        }
+    }
+
+    private Definition getCachedDefinition(String checksum, String name) {
+        return checksum == null ? null : deploymentCache.getDefinition(checksum, name);
+    }
+
     public void readModuleArchive(DeploymentFileData deploymentFile,
                                   AxisModule module, boolean explodedDir,
                                   AxisConfiguration axisConfig)
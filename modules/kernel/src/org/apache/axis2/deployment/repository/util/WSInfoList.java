@@ -165,6 +165,46 @@ public class WSInfoList implements DeploymentConstants {
         }
     }
 
+    /**
+     * Undeploys the items located at or below the given path which no longer exist. Used by
+     * incremental hot deployment instead of the full comparison done by
+     * {@link #update()}.
+     *
+     * @param root the file or directory that has changed
+     */
+    public synchronized void removeMissingItems(File root) {
+        String rootPath = root.getAbsolutePath();
+        Iterator infoItems = currentJars.entrySet().iterator();
+        while (infoItems.hasNext()) {
+            Map.Entry entry = (Map.Entry) infoItems.next();
+            String fileName = (String) entry.getKey();
+            WSInfo infoItem = (WSInfo) entry.getValue();
+            if (infoItem.getType() == WSInfo.TYPE_MODULE) {
+                continue;
+            }
+            if ((fileName.equals(rootPath) || fileName.startsWith(rootPath + File.separator))
+                    && !new File(fileName).exists()) {
+                deploymentEngine.addWSToUndeploy(infoItem);
+                infoItems.remove();
+            }
+        }
+    }
+
+    /**
+     * Applies the changes collected through {@link #addWSInfoItem(File, Deployer, int)} and
+     * {@link #removeMissingItems(File)} for the re-examined part of the repository only,
+     * i.e. without treating the items that have not been seen as deleted.
+     */
+    public void updateIncremental() {
+        synchronized (deploymentEngine) {
+            synchronized (this) {
+                jarList.clear();
+            }
+            deploymentEngine.unDeploy();
+            deploymentEngine.doDeploy();
+        }
+    }
+
     /**
      * Gets the WSInfo object related to a file if it exists, null otherwise.
      *
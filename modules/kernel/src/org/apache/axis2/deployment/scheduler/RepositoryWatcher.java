@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.deployment.scheduler;
+
+import org.apache.axis2.deployment.RepositoryListener;
+import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot deployment driven by a {@link WatchService} instead of periodically rescanning the whole
+ * repository. Only the artifacts affected by file system events are re-examined, through
+ * {@link RepositoryListener#updateArtifacts(java.util.Collection)}.
+ * <p>
+ * Changes are debounced: they are only applied once no event has been received for the
+ * configured period and the size and modification time of the changed files have stopped
+ * changing, so that an archive that is still being copied is not deployed half written. If
+ * the watch service loses events, the whole repository is rescanned once.
+ */
+public class RepositoryWatcher implements Runnable {
+    private static final Log log = LogFactory.getLog(RepositoryWatcher.class);
+
+    private final RepositoryListener listener;
+    private final AxisConfiguration axisConfig;
+    private final long debounce;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> keys = new HashMap<WatchKey, Path>();
+    /** changed paths, mapped to their size and modification time when last checked */
+    private final Map<Path, Long> pending = new HashMap<Path, Long>();
+    private long lastEventTime;
+    private boolean overflow;
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * Creates a watcher for the hot deployment directories of the given listener.
+     *
+     * @param listener   the repository listener to notify
+     * @param axisConfig the AxisConfiguration, used to flag running deployment tasks
+     * @param debounce   quiet period in milliseconds before changes are deployed
+     * @throws IOException if the file system does not support watching the repository
+     */
+    public RepositoryWatcher(RepositoryListener listener, AxisConfiguration axisConfig,
+                             long debounce) throws IOException {
+        this.listener = listener;
+        this.axisConfig = axisConfig;
+        this.debounce = debounce;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        try {
+            for (File directory : listener.getHotDeploymentDirectories()) {
+                register(directory.toPath());
+            }
+        } catch (IOException e) {
+            watchService.close();
+            throw e;
+        }
+    }
+
+    public synchronized void start() {
+        running = true;
+        thread = new Thread(this, "Axis2-RepositoryWatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching the repository. Closing the watch service wakes up the watcher thread,
+     * which is then waited for, so that no deployment triggered by this watcher is still running
+     * when this method returns.
+     */
+    public synchronized void stop() {
+        running = false;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            log.debug("Error closing the repository watch service", e);
+        }
+        if (thread != null) {
+            if (thread != Thread.currentThread()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            thread = null;
+        }
+    }
+
+    public void run() {
+        while (running) {
+            try {
+                WatchKey key;
+                if (pending.isEmpty() && !overflow) {
+                    key = watchService.take();
+                } else {
+                    key = watchService.poll(Math.max(debounce / 4, 10), TimeUnit.MILLISECONDS);
+                }
+                if (key != null) {
+                    processEvents(key);
+                }
+                if ((!pending.isEmpty() || overflow)
+                        && System.currentTimeMillis() - lastEventTime >= debounce
+                        && isSettled()) {
+                    deployChanges();
+                }
+            } catch (InterruptedException e) {
+                break;
+            } catch (ClosedWatchServiceException e) {
+                break;
+            } catch (Throwable t) {
+                log.error("Error processing repository changes", t);
+            }
+        }
+    }
+
+    private void processEvents(WatchKey key) {
+        Path dir = keys.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+            } else if (dir != null) {
+                Path path = dir.resolve((Path) event.context());
+                pending.put(path, null);
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+                        && Files.isDirectory(path)) {
+                    try {
+                        register(path);
+                    } catch (IOException e) {
+                        log.warn("Unable to watch new directory " + path +
+                                 ", rescanning the repository instead", e);
+                        overflow = true;
+                    }
+                }
+            }
+        }
+        lastEventTime = System.currentTimeMillis();
+        if (!key.reset()) {
+            keys.remove(key);
+        }
+    }
+
+    /**
+     * Checks whether the changed files are still being written, i.e. whether their size or
+     * modification time differ from the previous check.
+     */
+    private boolean isSettled() {
+        boolean settled = true;
+        for (Map.Entry<Path, Long> entry : pending.entrySet()) {
+            File file = entry.getKey().toFile();
+            long stamp = file.exists() ? file.length() * 31 + file.lastModified() : -1;
+            if (entry.getValue() == null || entry.getValue() != stamp) {
+                entry.setValue(stamp);
+                settled = false;
+            }
+        }
+        if (!settled) {
+            lastEventTime = System.currentTimeMillis();
+        }
+        return settled;
+    }
+
+    private void deployChanges() {
+        final boolean rescan = overflow;
+        final List<File> changes = new ArrayList<File>();
+        for (Path path : pending.keySet()) {
+            changes.add(path.toFile());
+        }
+        pending.clear();
+        overflow = false;
+        if (log.isDebugEnabled()) {
+            log.debug(rescan ? "Repository watch events lost, rescanning the repository"
+                    : "Repository changes detected : " + changes);
+        }
+        new SchedulerTask(listener, axisConfig) {
+            @Override
+            protected void checkRepository() {
+                if (rescan) {
+                    listener.checkModules();
+                    listener.startListener();
+                } else {
+                    listener.updateArtifacts(changes);
+                }
+            }
+        }.run();
+    }
+
+    private void register(Path start) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
+                    throws IOException {
+                WatchKey key = dir.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+                keys.put(key, dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -69,7 +69,7 @@ public class SchedulerTask implements Runnable {
         }
     }
 
-    private void checkRepository() {
+    protected void checkRepository() {
         wsListener.startListener();
     }
 
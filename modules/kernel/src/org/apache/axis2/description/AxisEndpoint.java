@@ -25,6 +25,7 @@ import org.apache.axiom.om.OMFactory;
 import org.apache.axiom.om.OMNamespace;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.addressing.EndpointReference;
+import org.apache.axis2.dispatchers.HTTPLocationRouter;
 import org.apache.axis2.engine.AxisConfiguration;
 import org.apache.axis2.kernel.TransportListener;
 import org.apache.axis2.util.Utils;
@@ -56,6 +57,8 @@ public class AxisEndpoint extends AxisDescription {
 
     private String transportInDescName;
 
+    private volatile HTTPLocationRouter httpLocationRouter;
+
     public String getEndpointURL() {
 //        AxisService axisServce = (AxisService) this.getParent();
 //        if ((axisServce!= null && axisServce.isModifyUserWSDLPortAddress()) || endpointURL == null) {
@@ -112,6 +115,30 @@ public class AxisEndpoint extends AxisDescription {
 
     public void setBinding(AxisBinding binding) {
         this.binding = binding;
+        httpLocationRouter = null;
+    }
+
+    /**
+     * Get the router compiled from the HTTP location table of the binding of this endpoint. The
+     * router is built when the service is deployed and rebuilt if the table changes.
+     *
+     * @return the router, or <code>null</code> if the binding has no HTTP location table
+     */
+    public HTTPLocationRouter getHTTPLocationRouter() {
+        if (binding == null) {
+            return null;
+        }
+        Map<?, ?> httpLocationTable =
+                (Map<?, ?>) binding.getProperty(WSDL2Constants.HTTP_LOCATION_TABLE);
+        if (httpLocationTable == null) {
+            return null;
+        }
+        HTTPLocationRouter router = httpLocationRouter;
+        if (router == null || !router.isCompiledFrom(httpLocationTable)) {
+            router = new HTTPLocationRouter(binding, httpLocationTable);
+            httpLocationRouter = router;
+        }
+        return router;
     }
 
     public Object getKey() {
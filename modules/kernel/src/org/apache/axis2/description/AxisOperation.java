@@ -20,9 +20,11 @@
 package org.apache.axis2.description;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Set;
 
 import javax.xml.namespace.QName;
@@ -37,6 +39,8 @@ import org.apache.axis2.context.OperationContext;
 import org.apache.axis2.context.ServiceContext;
 import org.apache.axis2.engine.AxisConfiguration;
 import org.apache.axis2.engine.AxisError;
+import org.apache.axis2.engine.ExecutionPlan;
+import org.apache.axis2.engine.Handler;
 import org.apache.axis2.engine.MessageReceiver;
 import org.apache.axis2.i18n.Messages;
 import org.apache.axis2.phaseresolver.PhaseResolver;
@@ -79,6 +83,12 @@ public abstract class AxisOperation extends AxisDescription
 
     private String soapAction;
 
+    /**
+     * Execution plans of this operation, indexed by flow. Plans are immutable, so the
+     * unsynchronized updates of this array are harmless.
+     */
+    private final ExecutionPlan[] executionPlans = new ExecutionPlan[5];
+
 
     /** Default constructor */
     public AxisOperation() {
@@ -150,6 +160,7 @@ public abstract class AxisOperation extends AxisDescription
         AxisConfiguration axisConfig = getAxisConfiguration();
         PhaseResolver phaseResolver = new PhaseResolver(axisConfig);
         phaseResolver.engageModuleToOperation(this, axisModule);
+        resetExecutionPlans();
     }
 
     protected void onDisengage(AxisModule module) {
@@ -163,6 +174,7 @@ public abstract class AxisOperation extends AxisDescription
             phaseResolver.disengageModuleFromGlobalChains(module);
         }
         phaseResolver.disengageModuleFromOperationChain(module, this);
+        resetExecutionPlans();
 
         //removing operations added at the time of module engagemnt
         HashMap<QName, AxisOperation> moduleOperations = module.getOperations();
@@ -363,6 +375,54 @@ public abstract class AxisOperation extends AxisDescription
 
     public abstract ArrayList getRemainingPhasesInFlow();
 
+    /**
+     * Get the shared, read only execution plan of this operation for a flow, to be set on
+     * message contexts with {@link MessageContext#setExecutionPlan(java.util.List)}. The plan
+     * is built on first use and only rebuilt when modules are engaged or disengaged or when
+     * the phase lists change.
+     * <ul>
+     * <li>{@link MessageContext#IN_FLOW}: the phases remaining after dispatch</li>
+     * <li>{@link MessageContext#IN_FAULT_FLOW}: the in fault phases of the operation</li>
+     * <li>{@link MessageContext#OUT_FLOW}: the out phases of the operation followed by the
+     * global out phases</li>
+     * <li>{@link MessageContext#OUT_FAULT_FLOW}: the out fault phases of the operation</li>
+     * </ul>
+     *
+     * @param flow the flow
+     * @return the phases to execute
+     */
+    public List<Handler> getExecutionPlan(int flow) {
+        List<Handler> first;
+        List<Handler> second = null;
+        switch (flow) {
+            case MessageContext.IN_FLOW:
+                first = getRemainingPhasesInFlow();
+                break;
+            case MessageContext.IN_FAULT_FLOW:
+                first = getPhasesInFaultFlow();
+                break;
+            case MessageContext.OUT_FLOW:
+                first = getPhasesOutFlow();
+                AxisConfiguration axisConfig = getAxisConfiguration();
+                if (axisConfig != null) {
+                    second = (List) axisConfig.getOutFlowPhases();
+                }
+                break;
+            case MessageContext.OUT_FAULT_FLOW:
+                first = getPhasesOutFaultFlow();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown flow " + flow);
+        }
+        ExecutionPlan plan = ExecutionPlan.update(executionPlans[flow], first, second);
+        executionPlans[flow] = plan;
+        return plan.getHandlers();
+    }
+
+    private void resetExecutionPlans() {
+        Arrays.fill(executionPlans, null);
+    }
+
     public String getStyle() {
         return style;
     }
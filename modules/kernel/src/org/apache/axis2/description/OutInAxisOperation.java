@@ -20,6 +20,8 @@
 package org.apache.axis2.description;
 
 import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import javax.xml.namespace.QName;
 
@@ -39,6 +41,8 @@ import org.apache.axis2.context.OperationContext;
 import org.apache.axis2.context.ServiceContext;
 import org.apache.axis2.engine.AxisEngine;
 import org.apache.axis2.i18n.Messages;
+import org.apache.axis2.kernel.AsyncTransportSender;
+import org.apache.axis2.kernel.TransportResponseCallback;
 import org.apache.axis2.kernel.TransportUtils;
 import org.apache.axis2.kernel.http.HTTPConstants;
 import org.apache.axis2.util.CallbackReceiver;
@@ -224,6 +228,9 @@ class OutInAxisOperationClient extends OperationClient {
                 // Send the SOAP Message and receive a response
                 send(mc);
                 completed = true;
+            } else if (isNonBlockingTransport(mc)) {
+                // The transport completes the callback; no need to tie up a thread
+                sendNonBlocking(mc, axisCallback);
             } else {
                 sc.getConfigurationContext().getThreadPool().execute(
                         new NonBlockingInvocationWorker(mc, axisCallback));
@@ -380,9 +387,17 @@ class OutInAxisOperationClient extends OperationClient {
      * @throws AxisFault Sends the message using a two way transport and waits for a response
      */
     protected MessageContext send(MessageContext msgContext) throws AxisFault {
+        MessageContext responseMessageContext = createResponseMessageContext(msgContext);
 
-        // create the responseMessageContext
+        //sending the message
+        AxisEngine.send(msgContext);
+
+        receiveResponse(msgContext, responseMessageContext);
+        return responseMessageContext;
+    }
 
+    private MessageContext createResponseMessageContext(MessageContext msgContext)
+            throws AxisFault {
         MessageContext responseMessageContext =
                 msgContext.getConfigurationContext().createMessageContext();
 
@@ -394,10 +409,14 @@ class OutInAxisOperationClient extends OperationClient {
         responseMessageContext.setServiceContext(msgContext.getServiceContext());
         responseMessageContext.setAxisMessage(
                 axisOp.getMessage(WSDLConstants.MESSAGE_LABEL_IN_VALUE));
+        return responseMessageContext;
+    }
 
-        //sending the message
-        AxisEngine.send(msgContext);
-
+    /**
+     * Process the response once the transport has received it for the given request.
+     */
+    private void receiveResponse(MessageContext msgContext, MessageContext responseMessageContext)
+            throws AxisFault {
         responseMessageContext.setDoingREST(msgContext.isDoingREST());
 
         // Copy RESPONSE properties which the transport set onto the request message context when it processed
@@ -412,7 +431,85 @@ class OutInAxisOperationClient extends OperationClient {
         responseMessageContext.setTransportIn(msgContext.getTransportIn());
         responseMessageContext.setTransportOut(msgContext.getTransportOut());
         handleResponse(responseMessageContext);
-        return responseMessageContext;
+    }
+
+    private static boolean isNonBlockingTransport(MessageContext msgContext) {
+        TransportOutDescription transportOut = msgContext.getTransportOut();
+        if (transportOut == null || !(transportOut.getSender() instanceof AsyncTransportSender)) {
+            return false;
+        }
+        return ((AsyncTransportSender)transportOut.getSender()).isNonBlocking(msgContext);
+    }
+
+    /**
+     * Send the request using a transport that doesn't block until the response arrives. The
+     * callback is completed from the thread on which the transport delivers the response.
+     */
+    private void sendNonBlocking(final MessageContext msgctx, final AxisCallback axisCallback) {
+        try {
+            final MessageContext response = createResponseMessageContext(msgctx);
+            msgctx.setProperty(TransportResponseCallback.PROPERTY, new TransportResponseCallback() {
+                public void onResponse(MessageContext msgContext) {
+                    msgctx.removeProperty(TransportResponseCallback.PROPERTY);
+                    try {
+                        receiveResponse(msgctx, response);
+                        notifyCallback(response, axisCallback);
+                    } catch (Exception e) {
+                        if (axisCallback != null) {
+                            axisCallback.onError(e);
+                        }
+                    } finally {
+                        if (axisCallback != null) {
+                            axisCallback.onComplete();
+                        }
+                    }
+                }
+
+                public void onError(Exception e) {
+                    msgctx.removeProperty(TransportResponseCallback.PROPERTY);
+                    if (axisCallback != null) {
+                        axisCallback.onError(e);
+                        axisCallback.onComplete();
+                    }
+                }
+            });
+            AxisEngine.send(msgctx);
+        } catch (Exception e) {
+            // The transport doesn't invoke the callback if it fails synchronously
+            msgctx.removeProperty(TransportResponseCallback.PROPERTY);
+            if (axisCallback != null) {
+                axisCallback.onError(e);
+                axisCallback.onComplete();
+            }
+        }
+    }
+
+    /**
+     * Pass a response to the user's callback.
+     */
+    private void notifyCallback(MessageContext response, AxisCallback axisCallback)
+            throws AxisFault {
+        SOAPEnvelope resenvelope = response.getEnvelope();
+
+        if (resenvelope.hasFault()) {
+            SOAPBody body = resenvelope.getBody();
+            // If a fault was found, create an AxisFault with a MessageContext so that
+            // other programming models can deserialize the fault to an alternative form.
+            AxisFault fault = new AxisFault(body.getFault(), response);
+            if (axisCallback != null) {
+                if (options.isExceptionToBeThrownOnSOAPFault()) {
+                    axisCallback.onError(fault);
+                } else {
+                    axisCallback.onFault(response);
+                }
+            }
+
+        } else {
+            if (axisCallback != null) {
+                axisCallback.onMessage(response);
+            }
+
+        }
     }
 
     /**
@@ -435,27 +532,7 @@ class OutInAxisOperationClient extends OperationClient {
                 MessageContext response = send(msgctx);
                 // call the callback
                 if (response != null) {
-                    SOAPEnvelope resenvelope = response.getEnvelope();
-                    
-                    if (resenvelope.hasFault()) {
-                        SOAPBody body = resenvelope.getBody();
-                        // If a fault was found, create an AxisFault with a MessageContext so that
-                        // other programming models can deserialize the fault to an alternative form.
-                        AxisFault fault = new AxisFault(body.getFault(), response);
-                        if (axisCallback != null) {
-                            if (options.isExceptionToBeThrownOnSOAPFault()) {
-                                axisCallback.onError(fault);
-                            } else {
-                                axisCallback.onFault(response);
-                            }
-                        }
-
-                    } else {
-                        if (axisCallback != null) {
-                            axisCallback.onMessage(response);
-                        }
-
-                    }
+                    notifyCallback(response, axisCallback);
                 }
 
             } catch (Exception e) {
@@ -475,22 +552,26 @@ class OutInAxisOperationClient extends OperationClient {
      * This class acts as a callback that allows users to wait on the result.
      */
     private class SyncCallBack implements AxisCallback {
-        boolean complete;
+        // Not a monitor, so that waiting doesn't pin the carrier of a virtual thread
+        private final CountDownLatch complete = new CountDownLatch(1);
         boolean receivedFault;
 
         public boolean waitForCompletion(long timeout) throws AxisFault {
-            synchronized (this) {
-                try {
-                    if (complete) return !receivedFault;
-                    wait(timeout);
-                    if (!complete) {
-                        // We timed out!
-                        throw new AxisFault( Messages.getMessage("responseTimeOut"));
-                    }
-                } catch (InterruptedException e) {
-                    // Something interrupted our wait!
-                    error = e;
+            try {
+                boolean completed;
+                if (timeout == 0) {
+                    complete.await();
+                    completed = true;
+                } else {
+                    completed = complete.await(timeout, TimeUnit.MILLISECONDS);
+                }
+                if (!completed) {
+                    // We timed out!
+                    throw new AxisFault( Messages.getMessage("responseTimeOut"));
                 }
+            } catch (InterruptedException e) {
+                // Something interrupted our wait!
+                error = e;
             }
 
             if (error != null) throw AxisFault.makeFault(error);
@@ -527,9 +608,8 @@ class OutInAxisOperationClient extends OperationClient {
          * This is called at the end of the MEP no matter what happens, quite like a
          * finally block.
          */
-        public synchronized void onComplete() {
-            complete = true;
-            notify();
+        public void onComplete() {
+            complete.countDown();
         }
 
         private SOAPEnvelope envelope;
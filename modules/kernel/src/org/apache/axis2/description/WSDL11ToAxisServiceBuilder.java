@@ -943,6 +943,31 @@ public class WSDL11ToAxisServiceBuilder extends WSDLToAxisServiceBuilder {
         // setupComplete
     }
 
+    /**
+     * Read the WSDL, if this has not been done yet, without building any service from it. The
+     * definition is returned as read, before the builder uses it.
+     *
+     * @return the WSDL4J definition
+     * @throws WSDLException if the WSDL can't be read
+     */
+    public Definition readWSDL4JDefinition() throws WSDLException {
+        if (wsdl4jDefinition == null) {
+            wsdl4jDefinition = readInTheWSDLFile(in);
+        }
+        return wsdl4jDefinition;
+    }
+
+    /**
+     * Get the WSDL4J definition the services are built from. This is only available once the
+     * WSDL has been read, i.e. after the services have been populated, unless the builder was
+     * created from a definition in the first place.
+     *
+     * @return the WSDL4J definition or <code>null</code> if the WSDL has not been read yet
+     */
+    public Definition getWSDL4JDefinition() {
+        return wsdl4jDefinition;
+    }
+
 
     /**
      * Populate a map of targetNamespace vs DOM schema element This is used to
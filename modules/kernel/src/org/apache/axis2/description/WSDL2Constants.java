@@ -135,6 +135,10 @@ public interface WSDL2Constants {
 
     String HTTP_LOCATION_TABLE = "HTTPLocationTable";
 
+    // Message context property holding the (undecoded) values of the HTTP location template
+    // variables matched by the HTTPLocationBasedDispatcher, as a Map<String,String>
+    String HTTP_LOCATION_VARIABLES = "HTTPLocationVariables";
+
     // This was taken from thye resolution of CR117 (WSDL 2.0 working group)
     // http://www.w3.org/2002/ws/desc/5/cr-issues/issues.html?view=normal#CR117
     // http://lists.w3.org/Archives/Public/www-ws-desc/2007Feb/0039.html
@@ -32,8 +32,7 @@ import org.apache.axis2.kernel.http.HTTPConstants;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import java.util.Collection;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -68,10 +67,15 @@ public class HTTPLocationBasedDispatcher extends AbstractDispatcher {
                 // was we can dispatch the operation using the HTTPLocationDispatcher table of that
                 // specific endpoint. 
                 if (axisEndpoint != null) {
-                    Map httpLocationTable = (Map) axisEndpoint.getBinding()
-                            .getProperty(WSDL2Constants.HTTP_LOCATION_TABLE);
-                    if (httpLocationTable != null) {
-                        return getOperationFromHTTPLocation(httpLocation, httpLocationTable);
+                    HTTPLocationRouter router = axisEndpoint.getHTTPLocationRouter();
+                    if (router != null) {
+                        Map<String, String> variables = new LinkedHashMap<String, String>();
+                        AxisOperation axisOperation = router.route(httpLocation, variables);
+                        if (axisOperation != null && !variables.isEmpty()) {
+                            messageContext.setProperty(WSDL2Constants.HTTP_LOCATION_VARIABLES,
+                                                       variables);
+                        }
+                        return axisOperation;
                     }
                 } 
             } else {
@@ -122,26 +126,4 @@ public class HTTPLocationBasedDispatcher extends AbstractDispatcher {
         }
         return httpLocation;
     }
-
-    /**
-     * Given the requestPath that the request came to his method returns the corresponding axisOperation
-     *
-     * @param requestPath - Part of the request url which is the part after the service name
-     * @param httpLocationTable - The httpLocationTable stored in the relavant binding
-     * @return AxisOperation - The corresponding AxisOperation
-     */
-    private AxisOperation getOperationFromHTTPLocation(String requestPath, Map httpLocationTable) {
-
-        Collection httpLocations = httpLocationTable.keySet();
-        Iterator iter = httpLocations.iterator();
-        while (iter.hasNext()) {
-            String location = (String) iter.next();
-            int index = requestPath.indexOf(location);
-            if (index == 0) {
-                return (AxisOperation) httpLocationTable.get(location);
-            }
-
-        }
-        return null;
-    }
 }
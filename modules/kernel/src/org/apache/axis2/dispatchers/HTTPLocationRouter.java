@@ -0,0 +1,478 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.dispatchers;
+
+import org.apache.axis2.description.AxisBinding;
+import org.apache.axis2.description.AxisBindingOperation;
+import org.apache.axis2.description.AxisOperation;
+import org.apache.axis2.description.WSDL2Constants;
+import org.apache.axis2.kernel.http.HTTPConstants;
+import org.apache.axis2.wsdl.WSDLUtil;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Routes requests to operations using the HTTP location table of a binding (see
+ * {@link WSDL2Constants#HTTP_LOCATION_TABLE}). The keys of that table are the HTTP method
+ * followed by the constant part of the HTTP location, i.e. the part before the first template
+ * variable. As operations with different templates may share the same key (e.g.
+ * <code>users/{id}</code> and <code>users/{id}/orders</code>), the routes are compiled from the
+ * complete HTTP locations of the binding operations, one per HTTP method and template; table
+ * entries that don't correspond to a binding operation are routed by their key only. The keys
+ * are compiled into a radix tree, so that all keys that are a prefix of the request path are
+ * found in a single pass over the path.
+ * <p>
+ * If several keys match, the longest one takes precedence. For operations whose HTTP location
+ * contains template variables, the rest of the template must match the request path as well;
+ * the values of the variables are then returned to the caller. Among the templates sharing a
+ * key, the one with the most literal characters is tried first. If no template matches
+ * completely, the operation with the longest matching key is selected, as a plain prefix
+ * match.
+ * <p>
+ * Instances are immutable and are normally obtained from
+ * {@link org.apache.axis2.description.AxisEndpoint#getHTTPLocationRouter()}.
+ */
+public final class HTTPLocationRouter {
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Route[] NO_ROUTES = new Route[0];
+
+    private final Map<?, ?> httpLocationTable;
+    /** the entries of the table at the time the router was compiled */
+    private final Object[] tableKeys;
+    private final Object[] tableValues;
+    private final Node root = new Node("");
+    /** depth of the tree, i.e. the maximum number of keys a request path can match */
+    private final int maxDepth;
+
+    /**
+     * Compile the HTTP location table of a binding.
+     *
+     * @param binding the binding, used to look up the HTTP location templates of the operations
+     * @param httpLocationTable the HTTP location table of the binding
+     */
+    public HTTPLocationRouter(AxisBinding binding, Map<?, ?> httpLocationTable) {
+        this.httpLocationTable = httpLocationTable;
+        int size = httpLocationTable.size();
+        tableKeys = new Object[size];
+        tableValues = new Object[size];
+        int i = 0;
+        for (Iterator<? extends Map.Entry<?, ?>> it = httpLocationTable.entrySet().iterator();
+                it.hasNext(); i++) {
+            Map.Entry<?, ?> entry = it.next();
+            tableKeys[i] = entry.getKey();
+            tableValues[i] = entry.getValue();
+        }
+        // Keyed by HTTP method and complete location, so that each template has a single route
+        Map<String, Route> routes = new LinkedHashMap<String, Route>();
+        if (binding != null) {
+            for (Iterator<AxisBindingOperation> it = binding.getChildren(); it.hasNext(); ) {
+                AxisBindingOperation bindingOperation = it.next();
+                Route route = getRoute(bindingOperation, httpLocationTable);
+                if (route != null) {
+                    routes.put(route.key + route.location, route);
+                }
+            }
+        }
+        for (Route route : routes.values()) {
+            insert(route);
+        }
+        for (i = 0; i < size; i++) {
+            String key = (String) tableKeys[i];
+            AxisOperation operation = (AxisOperation) tableValues[i];
+            if (!isRouted(routes, key, operation)) {
+                insert(new Route(key, null, operation, null));
+            }
+        }
+        // computed once the tree is complete, as inserting a key may split existing nodes
+        maxDepth = getDepth(root);
+    }
+
+    /**
+     * Check whether this router was compiled from the given table. This is used to detect
+     * tables that have been replaced or modified since the router was built, including entries
+     * that have been replaced in place.
+     *
+     * @param httpLocationTable the current HTTP location table of the binding
+     * @return <code>true</code> if the router is up to date
+     */
+    public boolean isCompiledFrom(Map<?, ?> httpLocationTable) {
+        if (this.httpLocationTable != httpLocationTable
+                || tableKeys.length != httpLocationTable.size()) {
+            return false;
+        }
+        for (int i = 0; i < tableKeys.length; i++) {
+            if (httpLocationTable.get(tableKeys[i]) != tableValues[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Find the operation for a request.
+     *
+     * @param requestPath the HTTP method followed by the part of the request URL after the
+     *                    service name
+     * @param variables a map to which the values of the template variables of the selected
+     *                  operation are added; may be <code>null</code>
+     * @return the operation or <code>null</code> if no key matches the request path
+     */
+    public AxisOperation route(String requestPath, Map<String, String> variables) {
+        Node[] candidates = new Node[maxDepth + 1];
+        int count = 0;
+        Node node = root;
+        int offset = 0;
+        while (true) {
+            if (node.plainRoute != null || node.templateRoutes.length > 0) {
+                candidates[count++] = node;
+            }
+            if (offset == requestPath.length()) {
+                break;
+            }
+            Node child = node.getChild(requestPath.charAt(offset));
+            if (child == null || !requestPath.startsWith(child.label, offset)) {
+                break;
+            }
+            offset += child.label.length();
+            node = child;
+        }
+        if (count == 0) {
+            return null;
+        }
+        for (int i = count - 1; i >= 0; i--) {
+            Node candidate = candidates[i];
+            String rest = requestPath.substring(candidate.key.length());
+            // A location without variables that matches the request path exactly
+            if (candidate.plainRoute != null && isEmptyPath(rest)) {
+                return candidate.plainRoute.operation;
+            }
+            for (Route route : candidate.templateRoutes) {
+                if (route.template.match(rest, variables)) {
+                    return route.operation;
+                }
+            }
+            if (candidate.plainRoute != null) {
+                return candidate.plainRoute.operation;
+            }
+        }
+        Node longest = candidates[count - 1];
+        return longest.plainRoute != null ? longest.plainRoute.operation
+                : longest.templateRoutes[0].operation;
+    }
+
+    private static boolean isEmptyPath(String path) {
+        return path.length() == 0 || path.charAt(0) == '?'
+                || (path.length() == 1 && path.charAt(0) == '/');
+    }
+
+    private static boolean isRouted(Map<String, Route> routes, String key,
+                                    AxisOperation operation) {
+        for (Route route : routes.values()) {
+            if (route.key.equals(key) && route.operation == operation) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void insert(Route route) {
+        String key = route.key;
+        Node node = root;
+        int offset = 0;
+        while (offset < key.length()) {
+            Node child = node.getChild(key.charAt(offset));
+            if (child == null) {
+                child = new Node(key.substring(offset));
+                node.addChild(child);
+                node = child;
+                break;
+            }
+            int common = 1;
+            while (common < child.label.length() && offset + common < key.length()
+                    && child.label.charAt(common) == key.charAt(offset + common)) {
+                common++;
+            }
+            if (common < child.label.length()) {
+                Node parent = new Node(child.label.substring(0, common));
+                node.replaceChild(parent);
+                child.label = child.label.substring(common);
+                parent.addChild(child);
+                child = parent;
+            }
+            node = child;
+            offset += common;
+        }
+        node.key = key;
+        if (route.template == null) {
+            node.plainRoute = route;
+        } else {
+            node.addTemplateRoute(route);
+        }
+    }
+
+    private static int getDepth(Node node) {
+        int depth = 0;
+        for (Node child : node.children) {
+            depth = Math.max(depth, getDepth(child) + 1);
+        }
+        return depth;
+    }
+
+    /**
+     * Build the route of a binding operation from its complete HTTP location.
+     *
+     * @return the route, or <code>null</code> if the operation has no HTTP location or its key
+     *         is not in the HTTP location table
+     */
+    private static Route getRoute(AxisBindingOperation bindingOperation,
+                                  Map<?, ?> httpLocationTable) {
+        AxisOperation operation = bindingOperation.getAxisOperation();
+        String location =
+                (String) bindingOperation.getProperty(WSDL2Constants.ATTR_WHTTP_LOCATION);
+        if (operation == null || location == null || location.length() == 0) {
+            return null;
+        }
+        String method = (String) bindingOperation.getProperty(WSDL2Constants.ATTR_WHTTP_METHOD);
+        String key;
+        if (method == null || method.length() == 0) {
+            // The table is built with POST as the default method (see
+            // WSDL11ToAxisServiceBuilder), but only trust that if the entry is this operation's
+            key = WSDLUtil.getConstantFromHTTPLocation(location, HTTPConstants.HEADER_POST);
+            if (httpLocationTable.get(key) != operation) {
+                return null;
+            }
+        } else {
+            key = WSDLUtil.getConstantFromHTTPLocation(location, method);
+            if (!httpLocationTable.containsKey(key)) {
+                return null;
+            }
+        }
+        // The table keys are built from the part of the location before the first "{"
+        int index = location.indexOf('{');
+        if (index == -1) {
+            return new Route(key, location, operation, null);
+        }
+        String template = location.substring(index);
+        index = template.indexOf('?');
+        if (index != -1) {
+            template = template.substring(0, index);
+        }
+        Template compiled = Template.compile(template);
+        return compiled == null ? null : new Route(key, location, operation, compiled);
+    }
+
+    private static final class Node {
+        String label;
+        Node[] children = NO_CHILDREN;
+        /** the key of the routes of this node */
+        String key;
+        /** the route of a location without variables */
+        Route plainRoute;
+        /** the routes of locations with variables, most literal characters first */
+        Route[] templateRoutes = NO_ROUTES;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        private int indexOf(char c) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char midChar = children[mid].label.charAt(0);
+                if (midChar < c) {
+                    low = mid + 1;
+                } else if (midChar > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        Node getChild(char c) {
+            int index = indexOf(c);
+            return index < 0 ? null : children[index];
+        }
+
+        void addChild(Node child) {
+            int index = -(indexOf(child.label.charAt(0)) + 1);
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newChildren[index] = child;
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            children = newChildren;
+        }
+
+        void replaceChild(Node child) {
+            children[indexOf(child.label.charAt(0))] = child;
+        }
+
+        void addTemplateRoute(Route route) {
+            int length = route.template.getLiteralLength();
+            int index = 0;
+            while (index < templateRoutes.length
+                    && templateRoutes[index].template.getLiteralLength() >= length) {
+                index++;
+            }
+            Route[] newRoutes = new Route[templateRoutes.length + 1];
+            System.arraycopy(templateRoutes, 0, newRoutes, 0, index);
+            newRoutes[index] = route;
+            System.arraycopy(templateRoutes, index, newRoutes, index + 1,
+                             templateRoutes.length - index);
+            templateRoutes = newRoutes;
+        }
+    }
+
+    private static final class Route {
+        final String key;
+        /** the complete HTTP location, or <code>null</code> for a route built from the key */
+        final String location;
+        final AxisOperation operation;
+        final Template template;
+
+        Route(String key, String location, AxisOperation operation, Template template) {
+            this.key = key;
+            this.location = location;
+            this.operation = operation;
+            this.template = template;
+        }
+    }
+
+    /**
+     * The path part of an HTTP location template, starting at its first variable. It is stored
+     * as alternating literals and variable names: <code>literals[0] names[0] literals[1] ...
+     * names[n-1] literals[n]</code>.
+     */
+    static final class Template {
+        private final String[] literals;
+        private final String[] names;
+        private final boolean trailingSlash;
+
+        private Template(String[] literals, String[] names, boolean trailingSlash) {
+            this.literals = literals;
+            this.names = names;
+            this.trailingSlash = trailingSlash;
+        }
+
+        int getLiteralLength() {
+            int length = 0;
+            for (String literal : literals) {
+                length += literal.length();
+            }
+            return length;
+        }
+
+        static Template compile(String template) {
+            List<String> literals = new ArrayList<String>();
+            List<String> names = new ArrayList<String>();
+            StringBuilder literal = new StringBuilder();
+            int i = 0;
+            while (i < template.length()) {
+                char c = template.charAt(i);
+                if ((c == '{' || c == '}') && i + 1 < template.length()
+                        && template.charAt(i + 1) == c) {
+                    // Escaped brace
+                    literal.append(c);
+                    i += 2;
+                } else if (c == '{') {
+                    int end = template.indexOf('}', i);
+                    if (end == -1) {
+                        return null;
+                    }
+                    String name = template.substring(i + 1, end);
+                    // {!name} denotes a variable that is not percent-encoded
+                    if (name.startsWith("!")) {
+                        name = name.substring(1);
+                    }
+                    literals.add(literal.toString());
+                    literal.setLength(0);
+                    names.add(name);
+                    i = end + 1;
+                } else {
+                    literal.append(c);
+                    i++;
+                }
+            }
+            literals.add(literal.toString());
+            return new Template(literals.toArray(new String[literals.size()]),
+                    names.toArray(new String[names.size()]), template.endsWith("/"));
+        }
+
+        /**
+         * Match the rest of a request path against this template.
+         *
+         * @param path the request path after the constant part of the HTTP location
+         * @param variables the map to add the variable values to if the path matches; may be
+         *                  <code>null</code>
+         * @return <code>true</code> if the path matches
+         */
+        boolean match(String path, Map<String, String> variables) {
+            int index = path.indexOf('?');
+            if (index != -1) {
+                path = path.substring(0, index);
+            }
+            // The dispatcher always appends a "/" to the request path
+            if (!trailingSlash && path.endsWith("/")) {
+                path = path.substring(0, path.length() - 1);
+            }
+            if (!path.startsWith(literals[0])) {
+                return false;
+            }
+            String[] values = new String[names.length];
+            int offset = literals[0].length();
+            for (int i = 0; i < names.length; i++) {
+                String next = literals[i + 1];
+                int end;
+                if (next.length() > 0) {
+                    end = path.indexOf(next, offset);
+                    if (end == -1) {
+                        return false;
+                    }
+                } else if (i == names.length - 1) {
+                    end = path.length();
+                } else {
+                    end = offset;
+                }
+                if (end == offset && (next.length() > 0 || i == names.length - 1)) {
+                    // A variable followed by a literal or ending the template can't be empty
+                    return false;
+                }
+                values[i] = path.substring(offset, end);
+                offset = end + next.length();
+            }
+            if (offset != path.length()) {
+                return false;
+            }
+            if (variables != null) {
+                for (int i = 0; i < names.length; i++) {
+                    variables.put(names[i], values[i]);
+                }
+            }
+            return true;
+        }
+    }
+}
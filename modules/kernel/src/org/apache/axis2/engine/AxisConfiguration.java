@@ -152,6 +152,12 @@ public class AxisConfiguration extends AxisDescription {
 
     private List<Phase> outPhases;
 
+    /**
+     * Execution plans of the global flows, indexed by flow. Plans are immutable, so the
+     * unsynchronized updates of this array are harmless.
+     */
+    private final ExecutionPlan[] executionPlans = new ExecutionPlan[5];
+
     protected PhasesInfo phasesinfo;
 
     private ClassLoader serviceClassLoader;
@@ -383,6 +389,11 @@ public class AxisConfiguration extends AxisDescription {
                 // remove all the ones we added...
                 for (AxisService service : servicesIAdded) {
                     allServices.remove(service.getName());
+                    if (service.getEndpoints() != null) {
+                        for (String endpointName : service.getEndpoints().keySet()) {
+                            allEndpoints.remove(service.getName() + "." + endpointName);
+                        }
+                    }
                 }
                 // And toss this in case anyone wants it?
                 throw axisFault;
@@ -825,6 +836,37 @@ public class AxisConfiguration extends AxisDescription {
         return inPhasesUptoAndIncludingPostDispatch;
     }
 
+    /**
+     * Get the shared, read only execution plan of a global flow. The plan is only rebuilt when
+     * the phase list of the flow changes.
+     *
+     * @param flow one of {@link MessageContext#IN_FLOW}, {@link MessageContext#IN_FAULT_FLOW},
+     *             {@link MessageContext#OUT_FLOW} and {@link MessageContext#OUT_FAULT_FLOW}
+     * @return the phases of the flow
+     */
+    public List<Handler> getExecutionPlan(int flow) {
+        List<Phase> phases;
+        switch (flow) {
+            case MessageContext.IN_FLOW:
+                phases = inPhasesUptoAndIncludingPostDispatch;
+                break;
+            case MessageContext.IN_FAULT_FLOW:
+                phases = inFaultPhases;
+                break;
+            case MessageContext.OUT_FLOW:
+                phases = outPhases;
+                break;
+            case MessageContext.OUT_FAULT_FLOW:
+                phases = outFaultPhases;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown flow " + flow);
+        }
+        ExecutionPlan plan = ExecutionPlan.update(executionPlans[flow], phases, null);
+        executionPlans[flow] = plan;
+        return plan.getHandlers();
+    }
+
     public MessageReceiver getMessageReceiver(String mepURL) {
         return messageReceivers.get(mepURL);
     }
@@ -1502,6 +1544,10 @@ public class AxisConfiguration extends AxisDescription {
             org.apache.axis2.deployment.util.Utils.addEndpointsToService(
                     axisService, axisConfiguration);
         }
+        // Compile the HTTP location routers now rather than on the first request
+        for (AxisEndpoint axisEndpoint : axisService.getEndpoints().values()) {
+            axisEndpoint.getHTTPLocationRouter();
+        }
     }
 
     public boolean isChildFirstClassLoading(){
@@ -138,20 +138,15 @@ public class AxisEngine {
             log.trace(msgContext.getLogIDString() + " receive:" + msgContext.getMessageID());
         }
         ConfigurationContext confContext = msgContext.getConfigurationContext();
-        List<Phase> preCalculatedPhases;
         if (msgContext.isFault() || msgContext.isProcessingFault()) {
-            preCalculatedPhases = confContext.getAxisConfiguration().getInFaultFlowPhases();
             msgContext.setFLOW(MessageContext.IN_FAULT_FLOW);
         } else {
-            preCalculatedPhases = confContext.getAxisConfiguration().getInFlowPhases();
             msgContext.setFLOW(MessageContext.IN_FLOW);
         }
-        // Set the initial execution chain in the MessageContext to a *copy* of what
-        // we got above.  This allows individual message processing to change the chain without
-        // affecting later messages.
-        ArrayList<Handler> executionChain = new ArrayList<Handler>();
-        executionChain.addAll(preCalculatedPhases);
-        msgContext.setExecutionChain(executionChain);
+        // The execution plan is shared; the message context only copies it if individual
+        // message processing changes the chain, so that later messages are not affected.
+        msgContext.setExecutionPlan(
+                confContext.getAxisConfiguration().getExecutionPlan(msgContext.getFLOW()));
         try {
             InvocationResponse pi = invoke(msgContext, NOT_RESUMING_EXECUTION);
 
@@ -234,8 +229,9 @@ public class AxisEngine {
 
         InvocationResponse pi = InvocationResponse.CONTINUE;
 
-        while (msgContext.getCurrentHandlerIndex() < msgContext.getExecutionChain().size()) {
-            Handler currentHandler = (Handler) msgContext.getExecutionChain().
+        // the plan is fetched again for each handler since a handler may change the chain
+        while (msgContext.getCurrentHandlerIndex() < msgContext.getExecutionPlan().size()) {
+            Handler currentHandler = msgContext.getExecutionPlan().
                     get(msgContext.getCurrentHandlerIndex());
 
             try {
@@ -276,11 +272,9 @@ public class AxisEngine {
     }
 
     private static void flowComplete(MessageContext msgContext) {
-        Iterator<Handler> invokedPhaseIterator = msgContext.getExecutedPhases();
-
-        while (invokedPhaseIterator.hasNext()) {
-            Handler currentHandler = ((Handler) invokedPhaseIterator.next());
-            currentHandler.flowComplete(msgContext);
+        // walk back from the last executed phase
+        for (int i = 0, count = msgContext.getExecutedPhaseCount(); i < count; i++) {
+            msgContext.getExecutedPhase(i).flowComplete(msgContext);
         }
 
         /*This is needed because the OutInAxisOperation currently invokes
@@ -404,12 +398,9 @@ public class AxisEngine {
         }
         // find and invoke the Phases
         OperationContext operationContext = msgContext.getOperationContext();
-        ArrayList executionChain = operationContext.getAxisOperation().getPhasesOutFlow();
-        //rather than having two steps added both oparation and global chain together
-        ArrayList outPhases = new ArrayList();
-        outPhases.addAll(executionChain);
-        outPhases.addAll(msgContext.getConfigurationContext().getAxisConfiguration().getOutFlowPhases());
-        msgContext.setExecutionChain(outPhases);
+        //rather than having two steps the plan has both operation and global chain together
+        msgContext.setExecutionPlan(
+                operationContext.getAxisOperation().getExecutionPlan(MessageContext.OUT_FLOW));
         msgContext.setFLOW(MessageContext.OUT_FLOW);
         try {
             InvocationResponse pi = invoke(msgContext, NOT_RESUMING_EXECUTION);
@@ -465,13 +456,10 @@ public class AxisEngine {
         // find and execute the Fault Out Flow Handlers
         if (opContext != null) {
             AxisOperation axisOperation = opContext.getAxisOperation();
-            ArrayList faultExecutionChain = axisOperation.getPhasesOutFaultFlow();
-
-            //adding both operation specific and global out fault flows.
 
-            ArrayList outFaultPhases = new ArrayList();
-            outFaultPhases.addAll((ArrayList) faultExecutionChain.clone());
-            msgContext.setExecutionChain((ArrayList) outFaultPhases.clone());
+            // the operation specific out fault flow; the global one is executed below
+            msgContext.setExecutionPlan(
+                    axisOperation.getExecutionPlan(MessageContext.OUT_FAULT_FLOW));
             msgContext.setFLOW(MessageContext.OUT_FAULT_FLOW);
             try {
                 InvocationResponse pi = invoke(msgContext, NOT_RESUMING_EXECUTION);
@@ -497,9 +485,8 @@ public class AxisEngine {
             }
         }
 
-        ArrayList<Handler> executionChain = new ArrayList<Handler>(msgContext.getConfigurationContext()
-                .getAxisConfiguration().getOutFaultFlowPhases());
-        msgContext.setExecutionChain(executionChain);
+        msgContext.setExecutionPlan(msgContext.getConfigurationContext()
+                .getAxisConfiguration().getExecutionPlan(MessageContext.OUT_FAULT_FLOW));
         msgContext.setFLOW(MessageContext.OUT_FAULT_FLOW);
         InvocationResponse pi = invoke(msgContext, NOT_RESUMING_EXECUTION);
 
@@ -560,9 +547,8 @@ public class AxisEngine {
             }
         }
 
-        ArrayList<Handler> executionChain = new ArrayList<Handler>(msgContext.getConfigurationContext()
-                .getAxisConfiguration().getOutFaultFlowPhases());
-        msgContext.setExecutionChain(executionChain);
+        msgContext.setExecutionPlan(msgContext.getConfigurationContext()
+                .getAxisConfiguration().getExecutionPlan(MessageContext.OUT_FAULT_FLOW));
         msgContext.setFLOW(MessageContext.OUT_FAULT_FLOW);
         InvocationResponse pi = invoke(msgContext, NOT_RESUMING_EXECUTION);
 
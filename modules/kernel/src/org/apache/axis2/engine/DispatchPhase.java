@@ -46,7 +46,6 @@ import org.apache.commons.logging.LogFactory;
 
 import javax.xml.namespace.QName;
 import javax.servlet.http.HttpServletResponse;
-import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
@@ -186,8 +185,8 @@ public class DispatchPhase extends Phase {
         }
         
 
-        ArrayList operationChain = msgContext.getAxisOperation().getRemainingPhasesInFlow();
-        msgContext.setExecutionChain((ArrayList) operationChain.clone());
+        msgContext.setExecutionPlan(
+                msgContext.getAxisOperation().getExecutionPlan(MessageContext.IN_FLOW));
     }
 
     private void loadContexts(AxisService service, MessageContext msgContext) throws AxisFault {
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.engine;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable, array backed snapshot of the phases of a flow. A plan is shared by all the messages
+ * going through the flow, which spares a copy of the phase list for every message; see
+ * {@link org.apache.axis2.context.MessageContext#setExecutionPlan(List)}.
+ * <p>
+ * A plan is built from one or two phase lists, which are concatenated. Handlers added to the
+ * phases (e.g. when a module is engaged) are seen through the plan since the phases themselves
+ * are shared; a plan only needs to be rebuilt when the phase lists change, which
+ * {@link #update(ExecutionPlan, List, List)} detects.
+ */
+public final class ExecutionPlan {
+    private static final ExecutionPlan EMPTY = new ExecutionPlan(null, null);
+
+    private final List<?> first;
+    private final int firstSize;
+    private final List<?> second;
+    private final int secondSize;
+    private final List<Handler> handlers;
+
+    private ExecutionPlan(List<? extends Handler> first, List<? extends Handler> second) {
+        this.first = first;
+        this.second = second;
+        firstSize = first == null ? 0 : first.size();
+        secondSize = second == null ? 0 : second.size();
+        Handler[] array = new Handler[firstSize + secondSize];
+        for (int i = 0; i < firstSize; i++) {
+            array[i] = first.get(i);
+        }
+        for (int i = 0; i < secondSize; i++) {
+            array[firstSize + i] = second.get(i);
+        }
+        handlers = Collections.unmodifiableList(Arrays.asList(array));
+    }
+
+    /**
+     * Get a plan for the given phase lists, reusing an existing plan if it was built from the
+     * same lists and their size hasn't changed since.
+     *
+     * @param plan   the previous plan, may be <code>null</code>
+     * @param first  the first phase list, may be <code>null</code>
+     * @param second the phase list to append, may be <code>null</code>
+     * @return a plan for the concatenation of the lists
+     */
+    public static ExecutionPlan update(ExecutionPlan plan, List<? extends Handler> first,
+                                       List<? extends Handler> second) {
+        if (first == null && second == null) {
+            return EMPTY;
+        }
+        if (plan != null && plan.first == first && plan.second == second
+                && plan.firstSize == (first == null ? 0 : first.size())
+                && plan.secondSize == (second == null ? 0 : second.size())) {
+            return plan;
+        }
+        return new ExecutionPlan(first, second);
+    }
+
+    /**
+     * @return the read only list of phases of this plan
+     */
+    public List<Handler> getHandlers() {
+        return handlers;
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.kernel;
+
+import org.apache.axis2.context.MessageContext;
+
+/**
+ * A {@link TransportSender} that is able to send a request of an out-in exchange without blocking
+ * the calling thread until the response arrives.
+ * <p>
+ * If {@link #isNonBlocking(MessageContext)} returns <code>true</code> for an outgoing message and
+ * the message context has a {@link TransportResponseCallback} (set as the
+ * {@link TransportResponseCallback#PROPERTY} property), then {@link #invoke(MessageContext)}
+ * returns as soon as the request has been handed over to the transport. Exactly one of the
+ * methods of the callback is then invoked, possibly from a thread owned by the transport, when
+ * the response is available or when the exchange fails. If {@link #invoke(MessageContext)} throws
+ * an exception, the callback is not invoked.
+ */
+public interface AsyncTransportSender extends TransportSender {
+    /**
+     * Determine whether the given message will be sent without blocking if a
+     * {@link TransportResponseCallback} is set on it.
+     *
+     * @param msgContext the outgoing message
+     * @return <code>true</code> if the message will be sent without blocking
+     */
+    boolean isNonBlocking(MessageContext msgContext);
+}
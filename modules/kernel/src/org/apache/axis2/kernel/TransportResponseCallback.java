@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.kernel;
+
+import org.apache.axis2.context.MessageContext;
+
+/**
+ * Receives the outcome of a request sent by an {@link AsyncTransportSender} without blocking.
+ */
+public interface TransportResponseCallback {
+    /**
+     * The name of the property of the outgoing message context that holds the callback.
+     */
+    String PROPERTY = "TRANSPORT_RESPONSE_CALLBACK";
+
+    /**
+     * Called when the response is available. At this point the transport has set up the outgoing
+     * message context and the operation context in the same way as when
+     * {@link TransportSender#invoke(MessageContext)} returns after a blocking exchange, i.e. the
+     * response can be read from the {@link MessageContext#TRANSPORT_IN} stream.
+     *
+     * @param msgContext the outgoing message context
+     */
+    void onResponse(MessageContext msgContext);
+
+    /**
+     * Called if the exchange failed.
+     *
+     * @param e the cause of the failure
+     */
+    void onError(Exception e);
+}
@@ -432,6 +432,20 @@ public class HTTPConstants {
      */
     public static final String CONNECTION_TIMEOUT = "CONNECTION_TIMEOUT";
 
+    /**
+     * Size in bytes above which the body of a request that is not chunked is buffered in a
+     * temporary file instead of memory, in order to compute its Content-Length. Can be set as a
+     * transport sender parameter or as a message context property. 0 disables the temporary file,
+     * which is the default.
+     */
+    public static final String REQUEST_BUFFER_THRESHOLD = "REQUEST_BUFFER_THRESHOLD";
+
+    /**
+     * Field DEFAULT_REQUEST_BUFFER_THRESHOLD: requests are buffered in memory unless a threshold
+     * is configured
+     */
+    public static final int DEFAULT_REQUEST_BUFFER_THRESHOLD = 0;
+
     /**
      * Field CACHED_HTTP_CLIENT
      */
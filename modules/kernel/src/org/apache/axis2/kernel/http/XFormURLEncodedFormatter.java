@@ -24,6 +24,7 @@ import org.apache.axiom.om.OMOutputFormat;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.Constants;
 import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.context.PropertyKeys;
 import org.apache.axis2.description.WSDL2Constants;
 import org.apache.axis2.kernel.MessageFormatter;
 import org.apache.axis2.kernel.http.util.URLTemplatingUtil;
@@ -95,7 +96,7 @@ public class XFormURLEncodedFormatter implements MessageFormatter {
 
         // Need to have this check here cause         
         if (ignoreUncited == null || !JavaUtils.isTrueExplicitly(ignoreUncited)) {
-            String httpMethod = (String) messageContext.getProperty(Constants.Configuration.HTTP_METHOD);
+            String httpMethod = messageContext.getTypedProperty(PropertyKeys.HTTP_METHOD);
             if (Constants.Configuration.HTTP_METHOD_GET.equals(httpMethod) || Constants.Configuration.HTTP_METHOD_DELETE.equals(httpMethod)) {
             targetURL = URLTemplatingUtil.appendQueryParameters(messageContext, targetURL);
             }
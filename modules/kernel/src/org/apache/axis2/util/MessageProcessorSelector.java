@@ -23,6 +23,7 @@ import org.apache.axis2.AxisFault;
 import org.apache.axis2.Constants;
 import org.apache.axis2.builder.Builder;
 import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.context.PropertyKeys;
 import org.apache.axis2.description.Parameter;
 import org.apache.axis2.engine.AxisConfiguration;
 import org.apache.axis2.kernel.MessageFormatter;
@@ -137,7 +138,7 @@ public class MessageProcessorSelector {
 
             // If we are doing rest better default to Application/xml formatter
             if (msgContext.isDoingREST()) {
-                String httpMethod = (String) msgContext.getProperty(Constants.Configuration.HTTP_METHOD);
+                String httpMethod = msgContext.getTypedProperty(PropertyKeys.HTTP_METHOD);
                 if (Constants.Configuration.HTTP_METHOD_GET.equals(httpMethod) ||
                         Constants.Configuration.HTTP_METHOD_DELETE.equals(httpMethod)) {
                     return new XFormURLEncodedFormatter();
@@ -154,8 +155,7 @@ public class MessageProcessorSelector {
 
     private static String getMessageFormatterProperty(MessageContext msgContext) {
         String messageFormatterProperty = null;
-        Object property = msgContext
-                .getProperty(Constants.Configuration.MESSAGE_TYPE);
+        Object property = msgContext.getTypedProperty(PropertyKeys.MESSAGE_TYPE);
         if (property != null) {
             messageFormatterProperty = (String) property;
         }
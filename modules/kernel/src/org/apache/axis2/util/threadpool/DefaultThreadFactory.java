@@ -31,12 +31,24 @@ public class DefaultThreadFactory implements ThreadFactory {
     final ThreadGroup group;
     final AtomicInteger count;
     final String namePrefix;
+    final boolean daemon;
 
     public DefaultThreadFactory(final ThreadGroup group, final String namePrefix) {
+        this(group, namePrefix, false);
+    }
+
+    /**
+     * @param group the thread group, or null to use the group of the thread creating the threads
+     * @param namePrefix the prefix of the thread names; a sequence number is appended to it
+     * @param daemon whether the threads are daemon threads
+     */
+    public DefaultThreadFactory(final ThreadGroup group, final String namePrefix,
+                                final boolean daemon) {
         super();
         this.count = new AtomicInteger(1);
         this.group = group;
         this.namePrefix = namePrefix;
+        this.daemon = daemon;
     }
 
     public Thread newThread(final Runnable runnable) {
@@ -45,7 +57,7 @@ public class DefaultThreadFactory implements ThreadFactory {
         buffer.append('-');
         buffer.append(this.count.getAndIncrement());
         Thread t = new Thread(group, runnable, buffer.toString(), 0);
-        t.setDaemon(false);
+        t.setDaemon(this.daemon);
         t.setPriority(Thread.NORM_PRIORITY);
         return t;
     }
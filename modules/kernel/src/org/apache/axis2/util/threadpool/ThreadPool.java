@@ -26,9 +26,13 @@ import org.apache.axis2.java.security.AccessController;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -39,12 +43,49 @@ import java.util.concurrent.TimeUnit;
  * across axis2 engine. <code>ThreadPool</code> is accepts <code>AxisWorkers</code> which has
  * run method on them and execute this method, using one of the threads
  * in the thread pool.
+ * <p>
+ * On a Java runtime that supports virtual threads, the pool can instead be configured to run each
+ * task in a new virtual thread (see {@link #THREAD_POOL_TYPE}). This is useful when most tasks
+ * block on I/O, in which case the number of platform threads would limit throughput.
  */
 public class ThreadPool implements ThreadFactory {
     private static final Log log = LogFactory.getLog(ThreadPool.class);
+
+    /**
+     * Name of the axis2.xml parameter that selects the kind of threads used by the thread pool.
+     * The supported values are {@link #THREAD_POOL_TYPE_PLATFORM} (the default) and
+     * {@link #THREAD_POOL_TYPE_VIRTUAL}.
+     */
+    public static final String THREAD_POOL_TYPE = "threadPoolType";
+
+    /**
+     * Use a bounded pool of platform threads.
+     */
+    public static final String THREAD_POOL_TYPE_PLATFORM = "platform";
+
+    /**
+     * Use a new virtual thread for each task. This falls back to
+     * {@link #THREAD_POOL_TYPE_PLATFORM} on Java runtimes that don't support virtual threads.
+     */
+    public static final String THREAD_POOL_TYPE_VIRTUAL = "virtual";
+
+    /**
+     * The methods used to create a virtual thread per task executor (<code>Thread.ofVirtual</code>,
+     * <code>Thread.Builder.name</code>, <code>Thread.Builder.factory</code> and
+     * <code>Executors.newThreadPerTaskExecutor</code>), or <code>null</code> if virtual threads
+     * are not supported. They are looked up reflectively because Axis2 is compiled for Java
+     * versions that don't have that API.
+     */
+    private static final Method[] virtualThreadFactoryMethods = lookupVirtualThreadFactoryMethods();
+
     protected static long SLEEP_INTERVAL = 1000;
     private static boolean shutDown;
+    /**
+     * @deprecated The executor may not be a {@link ThreadPoolExecutor}; this field is only set if
+     *             it is. Use {@link #getExecutor()} instead.
+     */
     protected ThreadPoolExecutor executor;
+    private ExecutorService executorService;
 
     //integers that define the pool size, with the default values set.
     private int corePoolSize = 5;
@@ -61,19 +102,66 @@ public class ThreadPool implements ThreadFactory {
         setExecutor(createDefaultExecutor("Axis2 Task", Thread.NORM_PRIORITY, true));
     }
 
+    /**
+     * Create a thread pool of the given type.
+     *
+     * @param type one of {@link #THREAD_POOL_TYPE_PLATFORM} or {@link #THREAD_POOL_TYPE_VIRTUAL}
+     * @throws IllegalArgumentException if the type is not supported
+     */
+    public ThreadPool(String type) {
+        if (THREAD_POOL_TYPE_VIRTUAL.equals(type)) {
+            if (isVirtualThreadSupported()) {
+                setExecutor(newVirtualThreadPerTaskExecutor("Axis2 Task"));
+                return;
+            }
+            log.warn("Virtual threads are not supported by this Java runtime; "
+                    + "using a pool of platform threads instead");
+        } else {
+            checkThreadPoolType(type);
+        }
+        setExecutor(createDefaultExecutor("Axis2 Task", Thread.NORM_PRIORITY, true));
+    }
+
+    /**
+     * Check the value of the {@link #THREAD_POOL_TYPE} parameter.
+     *
+     * @param type the value of the parameter
+     * @throws IllegalArgumentException if the type is not supported
+     */
+    public static void checkThreadPoolType(String type) {
+        if (!THREAD_POOL_TYPE_PLATFORM.equals(type) && !THREAD_POOL_TYPE_VIRTUAL.equals(type)) {
+            throw new IllegalArgumentException("Unsupported value '" + type + "' for the "
+                    + THREAD_POOL_TYPE + " parameter; must be " + THREAD_POOL_TYPE_PLATFORM
+                    + " or " + THREAD_POOL_TYPE_VIRTUAL);
+        }
+    }
+
     public Executor getExecutor() {
-        return executor;
+        return getExecutorService();
     }
 
+    public void setExecutor(ExecutorService executor) {
+        this.executorService = executor;
+        this.executor = executor instanceof ThreadPoolExecutor ? (ThreadPoolExecutor)executor : null;
+    }
+
+    /**
+     * @deprecated Use {@link #setExecutor(ExecutorService)}.
+     */
     public void setExecutor(ThreadPoolExecutor executor) {
-        this.executor = executor;
+        setExecutor((ExecutorService)executor);
+    }
+
+    private ExecutorService getExecutorService() {
+        // subclasses may still assign the deprecated field directly
+        return executor != null ? executor : executorService;
     }
 
     public void execute(Runnable worker) {
         if (shutDown) {
             throw new RuntimeException(Messages.getMessage("threadpoolshutdown"));
         }
-        executor.execute(worker);
+        getExecutorService().execute(worker);
     }
 
     /**
@@ -83,7 +171,7 @@ public class ThreadPool implements ThreadFactory {
         if (log.isDebugEnabled()) {
             log.debug("forceShutDown called. Thread workers will be stopped");
         }
-        executor.shutdownNow();
+        getExecutorService().shutdownNow();
     }
 
     /**
@@ -98,7 +186,7 @@ public class ThreadPool implements ThreadFactory {
             shutDown = true;
         }
 
-        executor.shutdown();
+        getExecutorService().shutdown();
     }
 
     protected ThreadPoolExecutor createDefaultExecutor(final String name,
@@ -119,6 +207,59 @@ public class ThreadPool implements ThreadFactory {
         return rc;
     }
 
+    /**
+     * Determine whether the Java runtime supports virtual threads.
+     *
+     * @return <code>true</code> if {@link #newVirtualThreadPerTaskExecutor(String)} can be used
+     */
+    public static boolean isVirtualThreadSupported() {
+        return virtualThreadFactoryMethods != null;
+    }
+
+    /**
+     * Create an executor that runs each task in a new virtual thread.
+     *
+     * @param name the name prefix of the threads; a sequence number is appended to it
+     * @return the executor
+     * @throws UnsupportedOperationException if the Java runtime doesn't support virtual threads
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor(String name) {
+        if (virtualThreadFactoryMethods == null) {
+            throw new UnsupportedOperationException("Virtual threads are not supported");
+        }
+        try {
+            Object builder = virtualThreadFactoryMethods[0].invoke(null);
+            builder = virtualThreadFactoryMethods[1].invoke(builder, name + "-", 0L);
+            java.util.concurrent.ThreadFactory threadFactory =
+                    (java.util.concurrent.ThreadFactory)virtualThreadFactoryMethods[2].invoke(builder);
+            return (ExecutorService)virtualThreadFactoryMethods[3].invoke(null, threadFactory);
+        } catch (IllegalAccessException e) {
+            throw new UnsupportedOperationException(e);
+        } catch (InvocationTargetException e) {
+            throw new UnsupportedOperationException(e.getCause());
+        }
+    }
+
+    private static Method[] lookupVirtualThreadFactoryMethods() {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            // Fails if virtual threads are a preview feature that is not enabled
+            ofVirtual.invoke(null);
+            return new Method[] {
+                    ofVirtual,
+                    builderClass.getMethod("name", String.class, long.class),
+                    builderClass.getMethod("factory"),
+                    Executors.class.getMethod("newThreadPerTaskExecutor",
+                            java.util.concurrent.ThreadFactory.class) };
+        } catch (Exception e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Virtual threads are not available: " + e);
+            }
+            return null;
+        }
+    }
+
     private static class DefaultThreadFactory implements java.util.concurrent.ThreadFactory {
         private final String name;
         private final boolean daemon;
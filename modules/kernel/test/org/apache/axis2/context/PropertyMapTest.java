@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.context;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.apache.axis2.Constants;
+import org.apache.axis2.client.Options;
+
+public class PropertyMapTest extends TestCase {
+    public void testTypedAndNamedAccess() {
+        PropertyMap map = new PropertyMap();
+        map.put(Constants.Configuration.HTTP_METHOD, "GET");
+        assertEquals("GET", map.get(PropertyKeys.HTTP_METHOD));
+        map.put(PropertyKeys.CONTENT_TYPE, "text/xml");
+        assertEquals("text/xml", map.get(Constants.Configuration.CONTENT_TYPE));
+        map.put("someProperty", "value");
+        assertEquals(3, map.size());
+        assertEquals("value", map.get("someProperty"));
+    }
+
+    public void testNullValue() {
+        PropertyMap map = new PropertyMap();
+        assertFalse(map.containsKey(Constants.Configuration.HTTP_METHOD));
+        map.put(Constants.Configuration.HTTP_METHOD, null);
+        assertTrue(map.containsKey(Constants.Configuration.HTTP_METHOD));
+        assertNull(map.get(PropertyKeys.HTTP_METHOD));
+        assertEquals(1, map.size());
+        map.remove(Constants.Configuration.HTTP_METHOD);
+        assertFalse(map.containsKey(Constants.Configuration.HTTP_METHOD));
+        assertEquals(0, map.size());
+    }
+
+    public void testIteratorRemove() {
+        PropertyMap map = new PropertyMap();
+        map.put(Constants.Configuration.HTTP_METHOD, "GET");
+        map.put("someProperty", "value");
+        int count = 0;
+        for (Iterator<Map.Entry<String, Object>> it = map.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Object> entry = it.next();
+            count++;
+            if (entry.getKey().equals(Constants.Configuration.HTTP_METHOD)) {
+                it.remove();
+            }
+        }
+        assertEquals(2, count);
+        assertEquals(1, map.size());
+        assertNull(map.get(PropertyKeys.HTTP_METHOD));
+        assertEquals("value", map.get("someProperty"));
+    }
+
+    public void testLateRegistration() {
+        PropertyMap map = new PropertyMap();
+        String name = PropertyMapTest.class.getName() + ".late";
+        map.put(name, "value");
+        PropertyKey<String> key = PropertyKey.register(name, String.class);
+        assertEquals("value", map.get(key));
+        assertEquals(1, map.size());
+        map.put(key, "other");
+        assertEquals("other", map.get(name));
+        assertEquals(1, map.size());
+    }
+
+    public void testReadsDontMigrate() {
+        PropertyMap map = new PropertyMap();
+        String name = PropertyMapTest.class.getName() + ".readOnly";
+        map.put(name, "value");
+        PropertyKey<String> key = PropertyKey.register(name, String.class);
+        Iterator<Map.Entry<String, Object>> it = map.entrySet().iterator();
+        assertEquals("value", map.get(key));
+        assertEquals("value", map.get(name));
+        assertTrue(map.containsKey(name));
+        // a read must not invalidate the iterator
+        assertTrue(it.hasNext());
+        assertEquals(name, it.next().getKey());
+
+        it = map.entrySet().iterator();
+        map.put(key, "other");
+        try {
+            it.hasNext();
+            fail("Expected ConcurrentModificationException");
+        } catch (ConcurrentModificationException ex) {
+            // Expected
+        }
+        assertEquals("other", map.get(key));
+        assertEquals(1, map.size());
+        map.remove(name);
+        assertFalse(map.containsKey(name));
+        assertNull(map.get(key));
+        assertTrue(map.isEmpty());
+    }
+
+    public void testMissOnLateKey() {
+        PropertyMap map = new PropertyMap();
+        String other = PropertyMapTest.class.getName() + ".unregistered";
+        map.put(other, "value");
+        String name = PropertyMapTest.class.getName() + ".miss";
+        PropertyKey<String> key = PropertyKey.register(name, String.class);
+        assertNull(map.get(key));
+        assertNull(map.get(key));
+        assertNull(map.get(name));
+        map.put(key, "value");
+        assertEquals("value", map.get(key));
+        assertEquals("value", map.get(name));
+        map.remove(name);
+        assertNull(map.get(key));
+        assertEquals("value", map.get(other));
+        assertEquals(1, map.size());
+    }
+
+    public void testRegisterWithOtherType() {
+        try {
+            PropertyKey.register(Constants.Configuration.HTTP_METHOD, Integer.class);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // Expected
+        }
+    }
+
+    public void testMessageContextFallsBackToOptions() {
+        MessageContext msgContext = new MessageContext();
+        Options options = new Options();
+        options.setProperty(Constants.Configuration.HTTP_METHOD, "PUT");
+        msgContext.setOptions(options);
+        assertEquals("PUT", msgContext.getTypedProperty(PropertyKeys.HTTP_METHOD));
+        msgContext.setTypedProperty(PropertyKeys.HTTP_METHOD, "DELETE");
+        assertEquals("DELETE", msgContext.getProperty(Constants.Configuration.HTTP_METHOD));
+    }
+}
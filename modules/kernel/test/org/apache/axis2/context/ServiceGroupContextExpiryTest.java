@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.context;
+
+import junit.framework.TestCase;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.Constants;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.engine.AxisConfiguration;
+
+import java.util.concurrent.ScheduledExecutorService;
+
+public class ServiceGroupContextExpiryTest extends TestCase {
+    private AxisService axisService;
+    private ConfigurationContext configurationContext;
+    private ServiceGroupContextExpiryIndex index;
+
+    protected void setUp() throws Exception {
+        axisService = new AxisService("Temp");
+        AxisConfiguration axisConfiguration = new AxisConfiguration();
+        axisConfiguration.addService(axisService);
+        configurationContext = new ConfigurationContext(axisConfiguration);
+        configurationContext.setProperty(Constants.Configuration.CONFIG_CONTEXT_TIMEOUT_INTERVAL,
+                                         Integer.valueOf(1000));
+        index = new ServiceGroupContextExpiryIndex();
+    }
+
+    protected void tearDown() throws Exception {
+        index.clear();
+        configurationContext.cleanupContexts();
+    }
+
+    private ServiceGroupContext addContext(String id) {
+        ServiceGroupContext serviceGroupContext = configurationContext.createServiceGroupContext(
+                axisService.getAxisServiceGroup());
+        serviceGroupContext.setId(id);
+        configurationContext.addServiceGroupContextIntoSoapSessionTable(serviceGroupContext);
+        return serviceGroupContext;
+    }
+
+    public void testDrainExpiresOnlyUntouchedContexts() throws Exception {
+        ServiceGroupContext sgc1 = addContext("sgc1");
+        ServiceGroupContext sgc2 = addContext("sgc2");
+        sgc1.setLastTouchedTime(0);
+        sgc2.setLastTouchedTime(0);
+        index.add(configurationContext, sgc1, 1000);
+        index.add(configurationContext, sgc2, 1000);
+        // sgc2 is touched after having been queued and must survive
+        sgc2.setLastTouchedTime(5000);
+
+        index.drain(configurationContext, 3000, 1000);
+
+        assertNull(configurationContext.getServiceGroupContext("sgc1"));
+        assertSame(sgc2, configurationContext.peekSoapSessionServiceGroupContext("sgc2"));
+        assertEquals(1, configurationContext.getExpiredServiceGroupContextCount());
+        assertEquals(1, configurationContext.getSoapSessionServiceGroupContextCount());
+        // sgc2 has been re-queued with its new deadline
+        assertEquals(1, index.size());
+    }
+
+    public void testExpiredContextIsNotServed() throws Exception {
+        ServiceGroupContext sgc = addContext("sgc");
+        sgc.setLastTouchedTime(System.currentTimeMillis() - 5000);
+        try {
+            configurationContext.getServiceGroupContextFromSoapSessionTable("sgc", null);
+            fail("Expected AxisFault");
+        } catch (AxisFault ex) {
+            // expected
+        }
+        assertEquals(1, configurationContext.getExpiredServiceGroupContextCount());
+        assertEquals(0, configurationContext.getSoapSessionServiceGroupContextCount());
+    }
+
+    public void testReaperUsesSchedulerOfConfigurationContext() throws Exception {
+        ScheduledExecutorService scheduler = configurationContext.getScheduler();
+        assertSame(scheduler, configurationContext.getScheduler());
+        index.add(configurationContext, addContext("sgc1"), 1000);
+        ServiceGroupContext sgc2 = addContext("sgc2");
+        configurationContext.terminate();
+        assertTrue(scheduler.isShutdown());
+        // Adding contexts after termination must not fail
+        index.clear();
+        index.add(configurationContext, sgc2, 1000);
+    }
+}
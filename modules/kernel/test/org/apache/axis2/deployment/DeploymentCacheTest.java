@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.deployment;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import javax.wsdl.Definition;
+import javax.wsdl.Types;
+import javax.wsdl.extensions.schema.Schema;
+import javax.wsdl.factory.WSDLFactory;
+import javax.xml.namespace.QName;
+
+import junit.framework.TestCase;
+import org.apache.axis2.deployment.repository.util.ArchiveReader;
+import org.apache.axis2.deployment.repository.util.DeploymentFileData;
+import org.apache.axis2.description.AxisService;
+
+public class DeploymentCacheTest extends TestCase {
+    private File dir;
+    private DeploymentCache cache;
+    private Definition definition;
+
+    protected void setUp() throws Exception {
+        dir = Files.createTempDirectory("deployment-cache").toFile();
+        cache = new DeploymentCache(dir);
+        definition = WSDLFactory.newInstance().newDefinition();
+        definition.setTargetNamespace("urn:test");
+    }
+
+    protected void tearDown() throws Exception {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    public void testRoundTrip() {
+        cache.putDefinition("abc", "META-INF/test.wsdl", definition);
+        Definition cached = cache.getDefinition("abc", "META-INF/test.wsdl");
+        assertNotNull(cached);
+        assertEquals("urn:test", cached.getTargetNamespace());
+    }
+
+    public void testMismatch() {
+        cache.putDefinition("abc", "META-INF/test.wsdl", definition);
+        assertNull(cache.getDefinition("def", "META-INF/test.wsdl"));
+        assertNull(cache.getDefinition("abc", "META-INF/other.wsdl"));
+    }
+
+    public void testCorruptEntryIsDiscarded() throws Exception {
+        cache.putDefinition("abc", "META-INF/test.wsdl", definition);
+        File[] entries = dir.listFiles();
+        assertEquals(1, entries.length);
+        OutputStream out = new FileOutputStream(entries[0]);
+        out.write(new byte[] { 1, 2, 3 });
+        out.close();
+        assertNull(cache.getDefinition("abc", "META-INF/test.wsdl"));
+        assertFalse(entries[0].exists());
+    }
+
+    public void testDisallowedClassIsRejected() throws Exception {
+        cache.putDefinition("abc", "META-INF/test.wsdl", definition);
+        File[] entries = dir.listFiles();
+        assertEquals(1, entries.length);
+        ObjectInputStream in = new ObjectInputStream(new FileInputStream(entries[0]));
+        int format = in.readInt();
+        String version = in.readUTF();
+        in.close();
+        ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(entries[0]));
+        out.writeInt(format);
+        out.writeUTF(version);
+        out.writeUTF("abc");
+        out.writeUTF("META-INF/test.wsdl");
+        out.writeObject(new Date());
+        out.close();
+        assertNull(cache.getDefinition("abc", "META-INF/test.wsdl"));
+        assertFalse(entries[0].exists());
+    }
+
+    public void testIsAllowed() {
+        assertTrue(DeploymentCache.isAllowed("com.ibm.wsdl.DefinitionImpl"));
+        assertTrue(DeploymentCache.isAllowed("javax.xml.namespace.QName"));
+        assertTrue(DeploymentCache.isAllowed("[Ljava.lang.String;"));
+        assertTrue(DeploymentCache.isAllowed("[[I"));
+        assertFalse(DeploymentCache.isAllowed("java.util.Date"));
+        assertFalse(DeploymentCache.isAllowed("[Ljava.util.Date;"));
+        assertFalse(DeploymentCache.isAllowed("org.apache.commons.collections.functors.InvokerTransformer"));
+    }
+
+    public void testServiceArchive() throws Exception {
+        File archive = File.createTempFile("Version", ".aar");
+        try {
+            ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive));
+            out.putNextEntry(new ZipEntry("META-INF/Version.wsdl"));
+            Files.copy(new File("test-resources/wsdl/Version.wsdl").toPath(), out);
+            out.closeEntry();
+            out.close();
+
+            ArchiveReader reader = new ArchiveReader();
+            reader.setDeploymentCache(cache);
+            Map<String, AxisService> services =
+                    reader.processWSDLs(new DeploymentFileData(archive));
+            assertFalse(services.isEmpty());
+
+            Definition cached = cache.getDefinition(cache.checksum(archive),
+                                                    "META-INF/Version.wsdl");
+            assertNotNull(cached);
+            assertEquals("http://axisversion.sample", cached.getTargetNamespace());
+            assertNotNull(cached.getService(new QName("http://axisversion.sample", "Version")));
+            assertEquals(1, cached.getPortTypes().size());
+            Types types = cached.getTypes();
+            assertNotNull(types);
+            List<?> schemas = types.getExtensibilityElements();
+            assertEquals(1, schemas.size());
+            Schema schema = (Schema) schemas.get(0);
+            assertEquals("http://axisversion.sample",
+                         schema.getElement().getAttribute("targetNamespace"));
+            assertEquals(6, schema.getElement()
+                    .getElementsByTagNameNS("http://www.w3.org/2001/XMLSchema", "element")
+                    .getLength());
+
+            // The services are now built from the cached definition
+            Map<String, AxisService> reloaded =
+                    reader.processWSDLs(new DeploymentFileData(archive));
+            assertEquals(services.keySet(), reloaded.keySet());
+            for (AxisService service : reloaded.values()) {
+                assertEquals("http://axisversion.sample", service.getTargetNamespace());
+                assertNotNull(service.getOperation(
+                        new QName("http://axisversion.sample", "getVersionWSAW")));
+            }
+        } finally {
+            archive.delete();
+        }
+    }
+
+    public void testChecksum() throws Exception {
+        File file = new File(dir, "test.aar");
+        OutputStream out = new FileOutputStream(file);
+        out.write(new byte[] { 1, 2, 3 });
+        out.close();
+        String checksum = cache.checksum(file);
+        assertEquals(64, checksum.length());
+        assertEquals(checksum, cache.checksum(file));
+        out = new FileOutputStream(file, true);
+        out.write(4);
+        out.close();
+        assertFalse(checksum.equals(cache.checksum(file)));
+    }
+}
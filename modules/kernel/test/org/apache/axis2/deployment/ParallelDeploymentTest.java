@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.deployment;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import junit.framework.TestCase;
+
+import org.apache.axis2.AbstractTestCase;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.ConfigurationContextFactory;
+import org.apache.axis2.engine.AxisConfiguration;
+
+public class ParallelDeploymentTest extends TestCase {
+    private static final int SERVICES = 6;
+
+    private File repo;
+    private File services;
+    private ConfigurationContext configContext;
+
+    protected void setUp() throws Exception {
+        repo = Files.createTempDirectory("parallel-deployment").toFile();
+        services = new File(repo, "services");
+        services.mkdir();
+        for (int i = 0; i < SERVICES; i++) {
+            writeServiceArchive(new File(services, "service" + i + ".aar"),
+                                "ParallelService" + i);
+        }
+        writeArchive(new File(services, "broken.aar"), "<serviceGroup><service name=");
+    }
+
+    private void deploy() throws Exception {
+        String axis2xml = new String(Files.readAllBytes(new File(AbstractTestCase.basedir
+                + "/test-resources/deployment/hierarchicalServiceRepo/axis2.xml").toPath()),
+                StandardCharsets.UTF_8);
+        axis2xml = axis2xml.replace("<parameter name=\"hotdeployment\">true</parameter>",
+                "<parameter name=\"hotdeployment\">false</parameter>\n"
+                + "    <parameter name=\"deploymentThreads\">4</parameter>");
+        File axis2xmlFile = new File(repo, "axis2.xml");
+        Files.write(axis2xmlFile.toPath(), axis2xml.getBytes(StandardCharsets.UTF_8));
+
+        configContext = ConfigurationContextFactory.createConfigurationContextFromFileSystem(
+                repo.getAbsolutePath(), axis2xmlFile.getAbsolutePath());
+    }
+
+    protected void tearDown() throws Exception {
+        if (configContext != null) {
+            configContext.terminate();
+        }
+        delete(repo);
+    }
+
+    public void testServicesAreRegistered() throws Exception {
+        deploy();
+        AxisConfiguration axisConfig = configContext.getAxisConfiguration();
+        for (int i = 0; i < SERVICES; i++) {
+            assertNotNull(axisConfig.getService("ParallelService" + i));
+            assertNotNull(axisConfig.getServiceGroup("service" + i));
+        }
+        assertNull(axisConfig.getServiceGroup("broken"));
+        File broken = new File(new File(repo, "services"), "broken.aar");
+        assertTrue(axisConfig.getFaultyServices().containsKey(broken.getAbsolutePath()));
+        assertEquals(1, axisConfig.getFaultyServices().size());
+
+        Map<String, Long> timings =
+                ((DeploymentEngine) axisConfig.getConfigurator()).getDeploymentTimings();
+        for (int i = 0; i < SERVICES; i++) {
+            assertTrue(timings.containsKey(
+                    new File(new File(repo, "services"), "service" + i + ".aar").getAbsolutePath()));
+        }
+        assertTrue(timings.containsKey(broken.getAbsolutePath()));
+    }
+
+    public void testRegistrationIsAtomic() throws Exception {
+        writeServiceArchive(new File(services, "duplicate.aar"), "ParallelService0");
+        deploy();
+        AxisConfiguration axisConfig = configContext.getAxisConfiguration();
+        for (int i = 0; i < SERVICES; i++) {
+            assertNull(axisConfig.getService("ParallelService" + i));
+            assertNull(axisConfig.getServiceGroup("service" + i));
+            assertTrue(axisConfig.getFaultyServices().containsKey(
+                    new File(services, "service" + i + ".aar").getAbsolutePath()));
+        }
+        assertNull(axisConfig.getServiceGroup("duplicate"));
+        assertTrue(axisConfig.getFaultyServices().containsKey(
+                new File(services, "duplicate.aar").getAbsolutePath()));
+        assertEquals(SERVICES + 2, axisConfig.getFaultyServices().size());
+    }
+
+    private static void writeServiceArchive(File file, String serviceName) throws IOException {
+        writeArchive(file, "<serviceGroup><service name=\"" + serviceName + "\">"
+                     + "<parameter name=\"ServiceClass\">org.apache.axis2.Echo2</parameter>"
+                     + "<operation name=\"echo\"/></service></serviceGroup>");
+    }
+
+    private static void writeArchive(File file, String servicesXml) throws IOException {
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file));
+        try {
+            out.putNextEntry(new ZipEntry("META-INF/services.xml"));
+            out.write(servicesXml.getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.deployment;
+
+import junit.framework.TestCase;
+import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.axis2.util.threadpool.ThreadPool;
+
+import java.io.ByteArrayInputStream;
+
+public class ThreadPoolTypeTest extends TestCase {
+    public void testUnsupportedThreadPoolType() throws Exception {
+        String axis2xml = "<axisconfig name=\"AxisJava2.0\"><parameter name=\""
+                + ThreadPool.THREAD_POOL_TYPE + "\">green</parameter></axisconfig>";
+        AxisConfigBuilder builder = new AxisConfigBuilder(
+                new ByteArrayInputStream(axis2xml.getBytes("UTF-8")), new AxisConfiguration(),
+                null);
+        try {
+            builder.populateConfig();
+            fail("Expected DeploymentException");
+        } catch (DeploymentException ex) {
+            assertTrue(ex.getMessage().indexOf("green") != -1);
+        }
+    }
+}
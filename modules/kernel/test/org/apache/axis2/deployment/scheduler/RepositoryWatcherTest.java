@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.deployment.scheduler;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import junit.framework.TestCase;
+
+import org.apache.axis2.AbstractTestCase;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.ConfigurationContextFactory;
+import org.apache.axis2.engine.AxisConfiguration;
+
+public class RepositoryWatcherTest extends TestCase {
+    private static final long TIMEOUT = 10000;
+
+    private File repo;
+    private File services;
+    private File modules;
+    private ConfigurationContext configContext;
+
+    protected void setUp() throws Exception {
+        repo = Files.createTempDirectory("repository-watcher").toFile();
+        services = new File(repo, "services");
+        services.mkdir();
+        modules = new File(repo, "modules");
+        modules.mkdir();
+
+        String axis2xml = new String(Files.readAllBytes(new File(AbstractTestCase.basedir
+                + "/test-resources/deployment/hierarchicalServiceRepo/axis2.xml").toPath()),
+                StandardCharsets.UTF_8);
+        axis2xml = axis2xml.replace("<parameter name=\"hotdeployment\">true</parameter>",
+                "<parameter name=\"hotdeployment\">true</parameter>\n"
+                + "    <parameter name=\"hotdeploymentWatcher\">true</parameter>\n"
+                + "    <parameter name=\"hotdeploymentDebounce\">100</parameter>");
+        File axis2xmlFile = new File(repo, "axis2.xml");
+        Files.write(axis2xmlFile.toPath(), axis2xml.getBytes(StandardCharsets.UTF_8));
+
+        configContext = ConfigurationContextFactory.createConfigurationContextFromFileSystem(
+                repo.getAbsolutePath(), axis2xmlFile.getAbsolutePath());
+    }
+
+    protected void tearDown() throws Exception {
+        if (configContext != null) {
+            configContext.terminate();
+        }
+        delete(repo);
+    }
+
+    public void testServiceArchiveIsDeployed() throws Exception {
+        AxisConfiguration axisConfig = configContext.getAxisConfiguration();
+        assertNull(axisConfig.getService("WatchedService"));
+        drop(new File(services, "watched.aar"), "META-INF/services.xml",
+             "<serviceGroup><service name=\"WatchedService\">"
+             + "<parameter name=\"ServiceClass\">org.apache.axis2.Echo2</parameter>"
+             + "<operation name=\"echo\"/></service></serviceGroup>");
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (axisConfig.getService("WatchedService") == null
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertNotNull(axisConfig.getService("WatchedService"));
+    }
+
+    public void testModuleArchiveIsDeployed() throws Exception {
+        AxisConfiguration axisConfig = configContext.getAxisConfiguration();
+        assertNull(axisConfig.getModule("watchedModule"));
+        drop(new File(modules, "watched.mar"), "META-INF/module.xml",
+             "<module name=\"watchedModule\"/>");
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (axisConfig.getModule("watchedModule") == null
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertNotNull(axisConfig.getModule("watchedModule"));
+    }
+
+    public void testStopWaitsForWatcherThread() throws Exception {
+        configContext.terminate();
+        configContext = null;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("Axis2-RepositoryWatcher")) {
+                assertFalse(thread.isAlive());
+            }
+        }
+    }
+
+    /**
+     * Creates an archive with a single entry next to the repository and moves it to the given
+     * location, so that the watcher never sees a partially written file.
+     */
+    private void drop(File file, String entry, String content) throws IOException {
+        File tmp = new File(repo, file.getName() + ".tmp");
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(tmp));
+        try {
+            out.putNextEntry(new ZipEntry(entry));
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+        } finally {
+            out.close();
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
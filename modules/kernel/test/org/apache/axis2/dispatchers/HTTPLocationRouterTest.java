@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.dispatchers;
+
+import junit.framework.TestCase;
+import org.apache.axis2.description.AxisBinding;
+import org.apache.axis2.description.AxisBindingOperation;
+import org.apache.axis2.description.AxisOperation;
+import org.apache.axis2.description.InOutAxisOperation;
+import org.apache.axis2.description.WSDL2Constants;
+import org.apache.axis2.wsdl.WSDLUtil;
+
+import javax.xml.namespace.QName;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class HTTPLocationRouterTest extends TestCase {
+    private AxisBinding binding;
+    private Map<String, AxisOperation> httpLocationTable;
+
+    protected void setUp() throws Exception {
+        binding = new AxisBinding();
+        httpLocationTable = new HashMap<String, AxisOperation>();
+        binding.setProperty(WSDL2Constants.HTTP_LOCATION_TABLE, httpLocationTable);
+    }
+
+    private AxisOperation addOperation(String name, String method, String location) {
+        AxisOperation operation = new InOutAxisOperation(new QName(name));
+        AxisBindingOperation bindingOperation = new AxisBindingOperation();
+        bindingOperation.setName(operation.getName());
+        bindingOperation.setAxisOperation(operation);
+        bindingOperation.setProperty(WSDL2Constants.ATTR_WHTTP_LOCATION, location);
+        bindingOperation.setProperty(WSDL2Constants.ATTR_WHTTP_METHOD, method);
+        binding.addChild(bindingOperation.getName(), bindingOperation);
+        httpLocationTable.put(WSDLUtil.getConstantFromHTTPLocation(location, method), operation);
+        return operation;
+    }
+
+    public void testLongestLiteralFirst() {
+        AxisOperation listUsers = addOperation("listUsers", "GET", "users");
+        AxisOperation getCurrentUser = addOperation("getCurrentUser", "GET", "users/me");
+        AxisOperation getUser = addOperation("getUser", "GET", "users/{id}");
+        AxisOperation createUser = addOperation("createUser", "POST", "users");
+        HTTPLocationRouter router = new HTTPLocationRouter(binding, httpLocationTable);
+
+        assertSame(getCurrentUser, router.route("GET/users/me/", null));
+        assertSame(createUser, router.route("POST/users/", null));
+        assertSame(getUser, router.route("GET/users/42/", null));
+        assertSame(listUsers, router.route("GET/users", null));
+        assertNull(router.route("DELETE/users/42/", null));
+    }
+
+    public void testTemplateVariables() {
+        AxisOperation getOrder = addOperation("getOrder", "GET", "users/{user}/orders/{!order}");
+        HTTPLocationRouter router = new HTTPLocationRouter(binding, httpLocationTable);
+
+        Map<String, String> variables = new HashMap<String, String>();
+        assertSame(getOrder, router.route("GET/users/jdoe/orders/17?format=xml/", variables));
+        assertEquals(2, variables.size());
+        assertEquals("jdoe", variables.get("user"));
+        assertEquals("17", variables.get("order"));
+    }
+
+    public void testTemplateMismatchFallsBackToPrefix() {
+        AxisOperation getOrders = addOperation("getOrders", "GET", "users/{user}/orders");
+        HTTPLocationRouter router = new HTTPLocationRouter(binding, httpLocationTable);
+
+        Map<String, String> variables = new HashMap<String, String>();
+        assertSame(getOrders, router.route("GET/users/jdoe/invoices/", variables));
+        assertTrue(variables.isEmpty());
+    }
+
+    public void testTemplatesSharingKey() {
+        AxisOperation getUser = addOperation("getUser", "GET", "users/{id}");
+        AxisOperation getOrders = addOperation("getOrders", "GET", "users/{id}/orders");
+        AxisOperation listUsers = addOperation("listUsers", "GET", "users");
+        // Both templates have the same key; the table only holds one of them
+        assertEquals(2, httpLocationTable.size());
+        HTTPLocationRouter router = new HTTPLocationRouter(binding, httpLocationTable);
+
+        Map<String, String> variables = new HashMap<String, String>();
+        assertSame(getOrders, router.route("GET/users/42/orders/", variables));
+        assertEquals("42", variables.get("id"));
+        variables.clear();
+        assertSame(getUser, router.route("GET/users/43/", variables));
+        assertEquals("43", variables.get("id"));
+        assertSame(listUsers, router.route("GET/users/", null));
+    }
+
+    public void testTemplateWithEscapedBraces() {
+        HTTPLocationRouter.Template template = HTTPLocationRouter.Template.compile("{{{id}}}/x");
+        Map<String, String> variables = new HashMap<String, String>();
+        assertTrue(template.match("{42}/x/", variables));
+        assertEquals("42", variables.get("id"));
+        assertFalse(template.match("42/x", null));
+    }
+
+    public void testInsertionOrder() {
+        String[] keys = { "GETusers/list", "GETusers/", "GET", "GETusers/list/all" };
+        Map<String, AxisOperation> operations = new HashMap<String, AxisOperation>();
+        for (String key : keys) {
+            operations.put(key, new InOutAxisOperation(new QName(key)));
+        }
+        for (List<String> order : permutations(Arrays.asList(keys))) {
+            Map<String, AxisOperation> table = new LinkedHashMap<String, AxisOperation>();
+            for (String key : order) {
+                table.put(key, operations.get(key));
+            }
+            HTTPLocationRouter router = new HTTPLocationRouter(null, table);
+            assertSame(order.toString(), operations.get("GETusers/list"),
+                       router.route("GETusers/list/", null));
+            assertSame(order.toString(), operations.get("GETusers/list/all"),
+                       router.route("GETusers/list/all/", null));
+            assertSame(order.toString(), operations.get("GETusers/"),
+                       router.route("GETusers/42/", null));
+            assertSame(order.toString(), operations.get("GET"), router.route("GETorders/", null));
+        }
+    }
+
+    private static List<List<String>> permutations(List<String> items) {
+        List<List<String>> result = new ArrayList<List<String>>();
+        if (items.isEmpty()) {
+            result.add(new ArrayList<String>());
+            return result;
+        }
+        for (int i = 0; i < items.size(); i++) {
+            List<String> rest = new ArrayList<String>(items);
+            String first = rest.remove(i);
+            for (List<String> permutation : permutations(rest)) {
+                permutation.add(0, first);
+                result.add(permutation);
+            }
+        }
+        return result;
+    }
+
+    public void testIsCompiledFrom() {
+        addOperation("listUsers", "GET", "users");
+        HTTPLocationRouter router = new HTTPLocationRouter(binding, httpLocationTable);
+        assertTrue(router.isCompiledFrom(httpLocationTable));
+        addOperation("getUser", "GET", "users/{id}");
+        assertFalse(router.isCompiledFrom(httpLocationTable));
+
+        router = new HTTPLocationRouter(binding, httpLocationTable);
+        assertTrue(router.isCompiledFrom(httpLocationTable));
+        // Replacing an entry in place doesn't change the size of the table
+        addOperation("findUser", "GET", "users/{name}");
+        assertFalse(router.isCompiledFrom(httpLocationTable));
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import org.apache.axis2.context.MessageContext;
+
+public class ExecutionPlanTest extends TestCase {
+    public void testConcatenation() {
+        List<Phase> first = new ArrayList<Phase>();
+        first.add(new Phase("a"));
+        List<Phase> second = new ArrayList<Phase>();
+        second.add(new Phase("b"));
+        second.add(new Phase("c"));
+        List<Handler> handlers = ExecutionPlan.update(null, first, second).getHandlers();
+        assertEquals(3, handlers.size());
+        assertSame(first.get(0), handlers.get(0));
+        assertSame(second.get(1), handlers.get(2));
+        try {
+            handlers.add(new Phase("d"));
+            fail("Expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException ex) {
+            // expected
+        }
+    }
+
+    public void testReuse() {
+        List<Phase> phases = new ArrayList<Phase>();
+        phases.add(new Phase("a"));
+        ExecutionPlan plan = ExecutionPlan.update(null, phases, null);
+        assertSame(plan, ExecutionPlan.update(plan, phases, null));
+        phases.add(new Phase("b"));
+        ExecutionPlan updated = ExecutionPlan.update(plan, phases, null);
+        assertNotSame(plan, updated);
+        assertEquals(2, updated.getHandlers().size());
+        assertNotSame(plan, ExecutionPlan.update(plan, new ArrayList<Phase>(phases), null));
+    }
+
+    public void testCopyOnWrite() {
+        List<Phase> phases = new ArrayList<Phase>();
+        phases.add(new Phase("a"));
+        List<Handler> plan = ExecutionPlan.update(null, phases, null).getHandlers();
+        MessageContext msgContext = new MessageContext();
+        msgContext.setExecutionPlan(plan);
+        assertSame(plan, msgContext.getExecutionPlan());
+        msgContext.getExecutionChain().add(new Phase("b"));
+        assertEquals(2, msgContext.getExecutionPlan().size());
+        assertEquals(1, plan.size());
+    }
+
+    public void testExecutedPhases() {
+        List<Phase> first = new ArrayList<Phase>();
+        first.add(new Phase("a"));
+        first.add(new Phase("b"));
+        first.add(new Phase("c"));
+        List<Phase> second = new ArrayList<Phase>();
+        second.add(new Phase("d"));
+        MessageContext msgContext = new MessageContext();
+        msgContext.setExecutionPlan(ExecutionPlan.update(null, first, null).getHandlers());
+        for (int i = 0; i < 2; i++) {
+            msgContext.setCurrentHandlerIndex(i);
+            msgContext.addExecutedPhase(first.get(i));
+        }
+        msgContext.setExecutionPlan(ExecutionPlan.update(null, second, null).getHandlers());
+        msgContext.setCurrentHandlerIndex(0);
+        msgContext.addExecutedPhase(second.get(0));
+        assertEquals(3, msgContext.getExecutedPhaseCount());
+        assertSame(second.get(0), msgContext.getExecutedPhase(0));
+        assertSame(first.get(1), msgContext.getExecutedPhase(1));
+        assertSame(first.get(0), msgContext.getExecutedPhase(2));
+        msgContext.removeFirstExecutedPhase();
+        msgContext.removeFirstExecutedPhase();
+        assertEquals(1, msgContext.getExecutedPhaseCount());
+        assertSame(first.get(0), msgContext.getExecutedPhases().next());
+        msgContext.resetExecutedPhases();
+        assertEquals(0, msgContext.getExecutedPhaseCount());
+    }
+}
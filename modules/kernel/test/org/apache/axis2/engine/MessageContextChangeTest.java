@@ -63,7 +63,11 @@ public class MessageContextChangeTest extends TestCase {
             new FieldDescription("boolean", "newThreadRequired"),
             new FieldDescription("boolean", "isSOAP11"),
             new FieldDescription("java.util.ArrayList", "executionChain"),
-            new FieldDescription("java.util.LinkedList", "executedPhases"),
+            new FieldDescription("java.util.List", "executionPlan"),
+            new FieldDescription("int", "executedPhaseStart"),
+            new FieldDescription("int", "executedPhaseEnd"),
+            new FieldDescription("java.util.List", "priorExecutedPhases"),
+            new FieldDescription("int", "priorExecutedPhaseCount"),
             new FieldDescription("boolean", "doingREST"),
             new FieldDescription("boolean", "doingMTOM"),
             new FieldDescription("boolean", "doingSwA"),
@@ -24,6 +24,11 @@ import org.apache.axis2.AxisFault;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class TestThreadPool extends AbstractTestCase {
     /**
@@ -64,4 +69,49 @@ public class TestThreadPool extends AbstractTestCase {
 
     }
 
+    public void testVirtualThreadPool() throws Exception {
+        // Falls back to platform threads if virtual threads are not supported
+        ThreadPool tPool = new ThreadPool(ThreadPool.THREAD_POOL_TYPE_VIRTUAL);
+        final CountDownLatch latch = new CountDownLatch(100);
+        for (int i = 0; i < 100; i++) {
+            tPool.getExecutor().execute(new Runnable() {
+                public void run() {
+                    latch.countDown();
+                }
+            });
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        ((ExecutorService) tPool.getExecutor()).shutdown();
+    }
+
+    public void testSetThreadPoolExecutor() throws Exception {
+        ThreadPool tPool = new ThreadPool();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 10, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>());
+        tPool.setExecutor(executor);
+        assertSame(executor, tPool.executor);
+        assertSame(executor, tPool.getExecutor());
+        tPool.safeShutDown();
+        assertTrue(executor.isShutdown());
+    }
+
+    public void testCheckThreadPoolType() {
+        ThreadPool.checkThreadPoolType(ThreadPool.THREAD_POOL_TYPE_PLATFORM);
+        ThreadPool.checkThreadPoolType(ThreadPool.THREAD_POOL_TYPE_VIRTUAL);
+        try {
+            ThreadPool.checkThreadPoolType("green");
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            assertTrue(ex.getMessage().indexOf(ThreadPool.THREAD_POOL_TYPE) != -1);
+        }
+    }
+
+    public void testUnsupportedThreadPoolType() {
+        try {
+            new ThreadPool("green");
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // Expected
+        }
+    }
 }
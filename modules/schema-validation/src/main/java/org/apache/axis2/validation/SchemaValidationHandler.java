@@ -22,16 +22,21 @@ import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 import javax.xml.XMLConstants;
 import javax.xml.transform.Source;
+import javax.xml.transform.stax.StAXSource;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.Validator;
 
 import org.apache.axiom.blob.Blobs;
 import org.apache.axiom.blob.MemoryBlob;
 import org.apache.axiom.blob.MemoryBlobOutputStream;
+import org.apache.axiom.om.OMElement;
 import org.apache.axiom.om.OMException;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.context.MessageContext;
@@ -42,10 +47,80 @@ import org.apache.axis2.util.JavaUtils;
 import org.apache.ws.commons.schema.XmlSchema;
 import org.xml.sax.SAXException;
 
+/**
+ * Validates the body of messages against the schemas of the service. The schemas are compiled
+ * once per {@link AxisService} instance and stored in a transient parameter of that service, so
+ * that the compiled schema goes away together with the service (and its class loader) when it is
+ * undeployed; a redeployed service is a new instance and therefore gets a freshly compiled schema.
+ * Validators are not thread safe; idle validators are kept in a bounded pool and borrowed for the
+ * duration of a single validation.
+ * <p>
+ * By default the body is validated through a SAX source that is fed from the (cached) Axiom tree.
+ * If the <tt>streamingSchemaValidation</tt> parameter is set to <tt>true</tt>, the validator pulls
+ * the StAX events directly, building the tree in the same pass.
+ */
 public class SchemaValidationHandler extends AbstractHandler {
+    public static final String DISABLE_SCHEMA_VALIDATION = "disableSchemaValidation";
+    public static final String STREAMING_SCHEMA_VALIDATION = "streamingSchemaValidation";
+
+    /**
+     * The name of the (transient) service parameter holding the compiled schema.
+     */
+    static final String COMPILED_SCHEMA = SchemaValidationHandler.class.getName() + ".compiledSchema";
+
+    /**
+     * The maximum number of idle validators kept per service.
+     */
+    static final int MAX_IDLE_VALIDATORS = 16;
+
+    static final class CompiledSchema {
+        private final List<XmlSchema> sourceSchemas;
+        private final Schema schema;
+        private final BlockingQueue<Validator> validators =
+                new ArrayBlockingQueue<Validator>(MAX_IDLE_VALIDATORS);
+
+        CompiledSchema(List<XmlSchema> sourceSchemas, Schema schema) {
+            this.sourceSchemas = sourceSchemas;
+            this.schema = schema;
+        }
+
+        /**
+         * Check whether the schema was compiled from the given schemas. Schemas may be added to a
+         * service after it has been deployed, in which case the schema needs to be recompiled.
+         */
+        boolean isCompiledFrom(List<XmlSchema> schemas) {
+            if (schemas.size() != sourceSchemas.size()) {
+                return false;
+            }
+            for (int i = 0; i < schemas.size(); i++) {
+                if (schemas.get(i) != sourceSchemas.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        Validator borrowValidator() {
+            Validator validator = validators.poll();
+            return validator == null ? schema.newValidator() : validator;
+        }
+
+        /**
+         * Return a validator to the pool. If the pool is full, the validator is discarded.
+         */
+        void returnValidator(Validator validator) {
+            validator.reset();
+            validators.offer(validator);
+        }
+
+        int getIdleValidatorCount() {
+            return validators.size();
+        }
+    }
+
     public InvocationResponse invoke(MessageContext msgContext) throws AxisFault {
         AxisService service = msgContext.getAxisService();
-        Parameter parameter = service.getParameter("disableSchemaValidation");
+        Parameter parameter = service.getParameter(DISABLE_SCHEMA_VALIDATION);
         if (parameter != null && JavaUtils.isTrueExplicitly(parameter.getValue())) {
             return InvocationResponse.CONTINUE;
         }
@@ -53,6 +128,46 @@ public class SchemaValidationHandler extends AbstractHandler {
         if (schemas.isEmpty()) {
             return InvocationResponse.CONTINUE;
         }
+        CompiledSchema compiledSchema = getCompiledSchema(service, schemas);
+        Validator validator = compiledSchema.borrowValidator();
+        OMElement element = msgContext.getEnvelope().getBody().getFirstElement();
+        parameter = service.getParameter(STREAMING_SCHEMA_VALIDATION);
+        try {
+            Source source;
+            if (parameter != null && JavaUtils.isTrueExplicitly(parameter.getValue())) {
+                source = new StAXSource(element.getXMLStreamReader(true));
+            } else {
+                source = element.getSAXSource(true);
+            }
+            validator.validate(source);
+        } catch (SAXException ex) {
+            throw new AxisFault("Failed to validate message: " + ex.getMessage(), ex);
+        } catch (OMException | IOException ex) {
+            throw new AxisFault("Failed to validate message", ex);
+        } finally {
+            compiledSchema.returnValidator(validator);
+        }
+        return InvocationResponse.CONTINUE;
+    }
+
+    static CompiledSchema getCompiledSchema(AxisService service, List<XmlSchema> schemas)
+            throws AxisFault {
+        Parameter parameter = service.getParameter(COMPILED_SCHEMA);
+        CompiledSchema compiledSchema = parameter == null ? null : (CompiledSchema)parameter.getValue();
+        if (compiledSchema != null && compiledSchema.isCompiledFrom(schemas)) {
+            return compiledSchema;
+        }
+        // Copy the list so that later changes to the service's schemas are detected
+        List<XmlSchema> sourceSchemas = new ArrayList<XmlSchema>(schemas);
+        compiledSchema = new CompiledSchema(sourceSchemas, compileSchema(sourceSchemas));
+        // Concurrent compilations of the same schemas are harmless; the last one wins
+        parameter = new Parameter(COMPILED_SCHEMA, compiledSchema);
+        parameter.setTransient(true);
+        service.addParameter(parameter);
+        return compiledSchema;
+    }
+
+    private static Schema compileSchema(List<XmlSchema> schemas) throws AxisFault {
         SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
         schemaFactory.setErrorHandler(new SchemaFactoryErrorHandler());
         List<Source> schemaSources = new ArrayList<Source>();
@@ -67,19 +182,10 @@ public class SchemaValidationHandler extends AbstractHandler {
             out.close();
             schemaSources.add(new StreamSource(blob.getInputStream()));
         }
-        Schema schema;
         try {
-            schema = schemaFactory.newSchema(schemaSources.toArray(new Source[schemaSources.size()]));
+            return schemaFactory.newSchema(schemaSources.toArray(new Source[schemaSources.size()]));
         } catch (SAXException ex) {
             throw new AxisFault("Failed to compile schemas", ex);
         }
-        try {
-            schema.newValidator().validate(msgContext.getEnvelope().getBody().getFirstElement().getSAXSource(true));
-        } catch (SAXException ex) {
-            throw new AxisFault("Failed to validate message: " + ex.getMessage(), ex);
-        } catch (OMException | IOException ex) {
-            throw new AxisFault("Failed to validate message", ex);
-        }
-        return InvocationResponse.CONTINUE;
     }
 }
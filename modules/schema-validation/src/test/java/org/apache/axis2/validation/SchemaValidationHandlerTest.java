@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.validation;
+
+import java.io.StringReader;
+
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Validator;
+
+import junit.framework.TestCase;
+
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axiom.soap.SOAPFactory;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.Parameter;
+import org.apache.axis2.engine.Handler.InvocationResponse;
+import org.apache.ws.commons.schema.XmlSchema;
+import org.apache.ws.commons.schema.XmlSchemaCollection;
+
+public class SchemaValidationHandlerTest extends TestCase {
+    private static final String SCHEMA =
+            "<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema' targetNamespace='urn:test'"
+            + " elementFormDefault='qualified'>"
+            + "<xs:element name='echo'><xs:complexType><xs:sequence>"
+            + "<xs:element name='count' type='xs:int'/>"
+            + "</xs:sequence></xs:complexType></xs:element>"
+            + "</xs:schema>";
+
+    private AxisService service;
+    private SchemaValidationHandler handler;
+
+    @Override
+    protected void setUp() throws Exception {
+        service = new AxisService("TestService");
+        XmlSchema schema = new XmlSchemaCollection().read(new StreamSource(new StringReader(SCHEMA)));
+        service.addSchema(schema);
+        handler = new SchemaValidationHandler();
+    }
+
+    private MessageContext createMessageContext(String payload) throws Exception {
+        SOAPFactory factory = OMAbstractFactory.getSOAP11Factory();
+        SOAPEnvelope envelope = factory.getDefaultEnvelope();
+        envelope.getBody().addChild(OMXMLBuilderFactory.createOMBuilder(
+                new StringReader(payload)).getDocumentElement());
+        MessageContext msgContext = new MessageContext();
+        msgContext.setAxisService(service);
+        msgContext.setEnvelope(envelope);
+        return msgContext;
+    }
+
+    private void validate(String payload) throws Exception {
+        assertEquals(InvocationResponse.CONTINUE,
+                handler.invoke(createMessageContext(payload)));
+    }
+
+    public void testValidPayload() throws Exception {
+        validate("<echo xmlns='urn:test'><count>3</count></echo>");
+    }
+
+    public void testInvalidPayload() throws Exception {
+        try {
+            validate("<echo xmlns='urn:test'><count>three</count></echo>");
+            fail("Expected AxisFault");
+        } catch (AxisFault ex) {
+            // Expected
+        }
+    }
+
+    public void testStreamingValidation() throws Exception {
+        service.addParameter(SchemaValidationHandler.STREAMING_SCHEMA_VALIDATION, "true");
+        validate("<echo xmlns='urn:test'><count>3</count></echo>");
+        try {
+            validate("<echo xmlns='urn:test'><unknown/></echo>");
+            fail("Expected AxisFault");
+        } catch (AxisFault ex) {
+            // Expected
+        }
+    }
+
+    public void testDisabled() throws Exception {
+        service.addParameter(SchemaValidationHandler.DISABLE_SCHEMA_VALIDATION, "true");
+        validate("<echo xmlns='urn:test'><count>three</count></echo>");
+        assertNull(service.getParameter(SchemaValidationHandler.COMPILED_SCHEMA));
+    }
+
+    public void testCompiledSchemaIsCachedOnService() throws Exception {
+        validate("<echo xmlns='urn:test'><count>1</count></echo>");
+        Parameter parameter = service.getParameter(SchemaValidationHandler.COMPILED_SCHEMA);
+        assertNotNull(parameter);
+        assertTrue(parameter.isTransient());
+        SchemaValidationHandler.CompiledSchema compiledSchema =
+                (SchemaValidationHandler.CompiledSchema)parameter.getValue();
+        try {
+            validate("<echo xmlns='urn:test'><count>x</count></echo>");
+        } catch (AxisFault ex) {
+            // Expected
+        }
+        // Both validations reused the same compiled schema and returned their validator
+        assertSame(compiledSchema,
+                service.getParameter(SchemaValidationHandler.COMPILED_SCHEMA).getValue());
+        assertEquals(1, compiledSchema.getIdleValidatorCount());
+    }
+
+    public void testValidatorPoolIsBounded() throws Exception {
+        SchemaValidationHandler.CompiledSchema compiledSchema =
+                SchemaValidationHandler.getCompiledSchema(service, service.getSchema());
+        int count = SchemaValidationHandler.MAX_IDLE_VALIDATORS + 5;
+        Validator[] validators = new Validator[count];
+        for (int i = 0; i < count; i++) {
+            validators[i] = compiledSchema.borrowValidator();
+        }
+        for (int i = 0; i < count; i++) {
+            compiledSchema.returnValidator(validators[i]);
+        }
+        assertEquals(SchemaValidationHandler.MAX_IDLE_VALIDATORS,
+                compiledSchema.getIdleValidatorCount());
+    }
+}
@@ -19,7 +19,7 @@
 
 package org.apache.axis2.transport.base;
 
-import java.util.TimerTask;
+import java.util.concurrent.ScheduledFuture;
 
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.description.Parameter;
@@ -46,8 +46,18 @@ public abstract class AbstractPollTableEntry extends ProtocolEndpoint {
     private int lastPollState;
     /** can polling occur in parallel? */
     private boolean concurrentPollingAllowed = false;
-    /** The timer task that will trigger the next poll */
-    TimerTask timerTask;
+    /** factor applied to the poll interval after each consecutive failed poll */
+    private double backoffFactor = BaseConstants.DEFAULT_POLL_BACKOFF_FACTOR;
+    /** upper bound of the poll interval after backoff, or 0 for the default */
+    private long maxBackoffInterval;
+    /** the number of consecutive polls that failed */
+    private volatile int consecutiveFailures;
+    /** the delay between the scheduled and the actual start of the last poll */
+    private volatile long lastPollLag;
+    /** The scheduled task that will trigger the next poll */
+    ScheduledFuture<?> pollFuture;
+    /** The time the next poll is scheduled to start at */
+    volatile long scheduledPollTime;
     /** Flag indicating whether polling has been canceled. */
     boolean canceled;
     
@@ -91,10 +101,77 @@ public abstract class AbstractPollTableEntry extends ProtocolEndpoint {
         this.concurrentPollingAllowed = concurrentPollingAllowed;
     }
 
+    public double getBackoffFactor() {
+        return backoffFactor;
+    }
+
+    public void setBackoffFactor(double backoffFactor) {
+        this.backoffFactor = backoffFactor;
+    }
+
+    public long getMaxBackoffInterval() {
+        return maxBackoffInterval > 0 ? maxBackoffInterval
+                : pollInterval * BaseConstants.DEFAULT_MAX_BACKOFF_MULTIPLIER;
+    }
+
+    public void setMaxBackoffInterval(long maxBackoffInterval) {
+        this.maxBackoffInterval = maxBackoffInterval;
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    /**
+     * Get the delay between the time the last poll was scheduled for and the time it actually
+     * started, e.g. because all worker threads were busy
+     * @return the lag of the last poll in milliseconds
+     */
+    public long getLastPollLag() {
+        return lastPollLag;
+    }
+
+    void setLastPollLag(long lastPollLag) {
+        this.lastPollLag = lastPollLag;
+    }
+
+    /**
+     * Update the failure count from the state of the poll that just completed and compute the
+     * delay until the next poll, backing off exponentially while polls keep failing
+     * @return the delay in milliseconds
+     */
+    long nextPollDelay() {
+        if (getLastPollState() == FAILED) {
+            consecutiveFailures++;
+        } else {
+            consecutiveFailures = 0;
+        }
+        if (consecutiveFailures == 0 || backoffFactor <= 1) {
+            return pollInterval;
+        }
+        double delay = pollInterval * Math.pow(backoffFactor, consecutiveFailures);
+        return (long) Math.min(delay, Math.max(pollInterval, getMaxBackoffInterval()));
+    }
+
     @Override
     public boolean loadConfiguration(ParameterInclude params) throws AxisFault {
-        Parameter param = params.getParameter(BaseConstants.TRANSPORT_POLL_INTERVAL);
-        pollInterval = BaseConstants.DEFAULT_POLL_INTERVAL;
+        pollInterval = parseInterval(params, BaseConstants.TRANSPORT_POLL_INTERVAL,
+                BaseConstants.DEFAULT_POLL_INTERVAL);
+        maxBackoffInterval = parseInterval(params, BaseConstants.TRANSPORT_MAX_POLL_BACKOFF, 0);
+        Parameter param = params.getParameter(BaseConstants.TRANSPORT_POLL_BACKOFF_FACTOR);
+        if (param != null && param.getValue() instanceof String) {
+            try {
+                backoffFactor = Double.parseDouble(((String) param.getValue()).trim());
+            } catch (NumberFormatException e) {
+                log.error("Invalid poll backoff factor : " + param.getValue() + ",  default to : "
+                        + BaseConstants.DEFAULT_POLL_BACKOFF_FACTOR, e);
+            }
+        }
+        return true;
+    }
+
+    private static long parseInterval(ParameterInclude params, String name, long defaultValue) {
+        Parameter param = params.getParameter(name);
         if (param != null && param.getValue() instanceof String) {
             String s = (String)param.getValue();
             int multiplier;
@@ -105,12 +182,12 @@ public abstract class AbstractPollTableEntry extends ProtocolEndpoint {
                 multiplier = 1000;
             }
             try {
-                pollInterval = Integer.parseInt(s) * multiplier;
+                return Integer.parseInt(s) * (long) multiplier;
             } catch (NumberFormatException e) {
-                log.error("Invalid poll interval : " + param.getValue() + ",  default to : "
-                        + (BaseConstants.DEFAULT_POLL_INTERVAL / 1000) + "sec", e);
+                log.error("Invalid value for " + name + " : " + param.getValue()
+                        + ",  default to : " + (defaultValue / 1000) + "sec", e);
             }
         }
-        return true;
+        return defaultValue;
     }
 }
@@ -20,61 +20,151 @@ package org.apache.axis2.transport.base;
 
 import org.apache.axis2.AxisFault;
 
-import java.util.TimerTask;
-import java.util.Timer;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 public abstract class AbstractPollingTransportListener<T extends AbstractPollTableEntry>
         extends AbstractTransportListenerEx<T> {
 
-    /** The main timer. */
-    private Timer timer;
+    /**
+     * The scheduler triggering the polls. It only hands polls over to the worker pool, so a
+     * slow poll never delays the polls of other endpoints.
+     */
+    private ScheduledThreadPoolExecutor scheduler;
+
+    /** Limits the number of polls running concurrently, or null if unlimited */
+    private Semaphore pollPermits;
+
+    /** The maximum delay before a poll that found no free permit is retried */
+    private static final long MAX_POLL_RETRY_DELAY = 1000;
 
     @Override
     protected void doInit() throws AxisFault {
-        timer = new Timer("PollTimer");
+        scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            private final ThreadFactory defaultFactory = Executors.defaultThreadFactory();
+
+            public Thread newThread(Runnable r) {
+                Thread thread = defaultFactory.newThread(r);
+                thread.setName(getTransportName() + "-PollTimer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+
+        int maxConcurrentPolls = ParamUtils.getOptionalParamInt(getTransportInDescription(),
+                BaseConstants.TRANSPORT_MAX_CONCURRENT_POLLS, 0);
+        if (maxConcurrentPolls > 0) {
+            pollPermits = new Semaphore(maxConcurrentPolls);
+        }
     }
 
     @Override
     public void destroy() {
         super.destroy();
-        timer.cancel();
-        timer = null;
+        scheduler.shutdownNow();
+        scheduler = null;
     }
 
     /**
      * Schedule a repeated poll at the specified interval for a given service.
-     * The method will schedule a single-shot timer task with executes a work
-     * task on the worker pool. At the end of this work task, a new timer task
+     * The method will schedule a single-shot task which executes a work
+     * task on the worker pool. At the end of this work task, a new task
      * is scheduled for the next poll (except if the polling for the service
      * has been canceled). This effectively schedules the poll repeatedly
      * with fixed delay.
      * @param entry the poll table entry with the configuration for the service
-     * @param pollInterval the interval between successive polls in milliseconds
      */
     void schedulePoll(final T entry) {
-        final long pollInterval = entry.getPollInterval();
-        TimerTask timerTask = new TimerTask() {
-            @Override
+        schedulePoll(entry, entry.getPollInterval());
+    }
+
+    private void schedulePoll(final T entry, long delay) {
+        entry.scheduledPollTime = System.currentTimeMillis() + delay;
+        entry.setNextPollTime(entry.scheduledPollTime);
+        Runnable trigger = new Runnable() {
             public void run() {
-                workerPool.execute(new Runnable() {
-                    public void run() {
+                dispatchPoll(entry);
+            }
+        };
+        if (entry.isConcurrentPollingAllowed()) {
+            entry.pollFuture = scheduler.scheduleAtFixedRate(
+                    trigger, delay, entry.getPollInterval(), TimeUnit.MILLISECONDS);
+        } else {
+            entry.pollFuture = scheduler.schedule(trigger, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void dispatchPoll(final T entry) {
+        final long scheduledTime = entry.scheduledPollTime;
+        if (entry.isConcurrentPollingAllowed()) {
+            entry.scheduledPollTime = scheduledTime + entry.getPollInterval();
+            entry.setNextPollTime(entry.scheduledPollTime);
+        }
+        // Take the permit on the scheduler thread, so that polls waiting for a permit never
+        // occupy worker threads
+        if (pollPermits != null && !pollPermits.tryAcquire()) {
+            if (log.isDebugEnabled()) {
+                log.debug("Transport " + getTransportName() + " poll trigger : Maximum number " +
+                        "of concurrent polls reached, postponing poll of " + entry.getServiceName());
+            }
+            // With a fixed rate, the next trigger takes the place of this one
+            if (!entry.isConcurrentPollingAllowed()) {
+                retryPoll(entry);
+            }
+            return;
+        }
+        boolean dispatched = false;
+        try {
+            workerPool.execute(new Runnable() {
+                public void run() {
+                    try {
+                        entry.setLastPollLag(
+                                Math.max(0, System.currentTimeMillis() - scheduledTime));
                         if (state == BaseConstants.PAUSED) {
                             if (log.isDebugEnabled()) {
                                 log.debug("Transport " + getTransportName() +
                                         " poll trigger : Transport is currently paused..");
                             }
+                            onPollCompletion(entry);
                         } else {
                             poll(entry);
                         }
+                    } finally {
+                        if (pollPermits != null) {
+                            pollPermits.release();
+                        }
                     }
-                });
+                }
+            });
+            dispatched = true;
+        } finally {
+            if (!dispatched && pollPermits != null) {
+                pollPermits.release();
+            }
+        }
+    }
+
+    /**
+     * Trigger the poll of a fixed delay entry again shortly, because no permit was available.
+     * The scheduled poll time is kept, so that the lag of the poll includes the time spent
+     * waiting for a permit.
+     * @param entry the poll table entry
+     */
+    private void retryPoll(final T entry) {
+        synchronized (entry) {
+            if (!entry.canceled) {
+                entry.pollFuture = scheduler.schedule(new Runnable() {
+                    public void run() {
+                        dispatchPoll(entry);
+                    }
+                }, Math.min(entry.getPollInterval(), MAX_POLL_RETRY_DELAY), TimeUnit.MILLISECONDS);
             }
-        };
-        entry.timerTask = timerTask;
-        if (entry.isConcurrentPollingAllowed()) {
-            timer.scheduleAtFixedRate(timerTask, pollInterval, pollInterval);
-        } else {
-            timer.schedule(timerTask, pollInterval);
         }
     }
 
@@ -86,7 +176,7 @@ public abstract class AbstractPollingTransportListener<T extends AbstractPollTab
     @Override
     protected void stopEndpoint(T endpoint) {
         synchronized (endpoint) {
-            endpoint.timerTask.cancel();
+            endpoint.pollFuture.cancel(false);
             endpoint.canceled = true;
         }
     }
@@ -97,12 +187,32 @@ public abstract class AbstractPollingTransportListener<T extends AbstractPollTab
         if (!entry.isConcurrentPollingAllowed()) {
             synchronized (entry) {
                 if (!entry.canceled) {
-                    schedulePoll(entry);
+                    long delay = entry.nextPollDelay();
+                    if (delay > entry.getPollInterval() && log.isDebugEnabled()) {
+                        log.debug("Backing off polling of " + entry.getServiceName() + " after "
+                                + entry.getConsecutiveFailures() + " failures : next poll in "
+                                + delay + "ms");
+                    }
+                    schedulePoll(entry, delay);
                 }
             }
         }
     }
 
+    /**
+     * Get the lag of the last poll of each endpoint, i.e. how late it started compared to the
+     * time it was scheduled for
+     * @return a map of service name to poll lag in milliseconds
+     */
+    public Map<String, Long> getPollLags() {
+        Map<String, Long> lags = new TreeMap<String, Long>();
+        for (T entry : getEndpoints()) {
+            String name = entry.getServiceName();
+            lags.put(name == null ? getTransportName() : name, entry.getLastPollLag());
+        }
+        return lags;
+    }
+
     /**
      * method to log a failure to the log file and to update the last poll status and time
      * @param msg text for the log message
@@ -308,6 +308,7 @@ public abstract class AbstractTransportListener implements TransportListener {
         msgCtx.setProperty(MessageContext.TRANSPORT_HEADERS, trpHeaders);
 
         // send the message context through the axis engine
+        long start = System.nanoTime();
         try {
             // check if an Axis2 callback has been registered for this message
             Map callBackMap = (Map) msgCtx.getConfigurationContext().
@@ -335,9 +336,23 @@ public abstract class AbstractTransportListener implements TransportListener {
             if (msgCtx.isServerSide()) {
                 AxisEngine.sendFault(MessageContextBuilder.createFaultMessageContext(msgCtx, e));
             }
+        } finally {
+            if (metrics != null) {
+                metrics.notifyProcessLatency(getMetricsEndpoint(msgCtx), System.nanoTime() - start);
+            }
         }
     }
 
+    /**
+     * Determine the endpoint name under which latencies for the given message are tracked
+     * @param msgCtx the axis MessageContext
+     * @return the name of the service the message was dispatched to, or the transport name
+     */
+    protected String getMetricsEndpoint(MessageContext msgCtx) {
+        AxisService service = msgCtx.getAxisService();
+        return service != null ? service.getName() : getTransportName();
+    }
+
     protected void handleException(String msg, Exception e) throws AxisFault {
         log.error(msg, e);
         throw new AxisFault(msg, e);
@@ -506,6 +521,27 @@ public abstract class AbstractTransportListener implements TransportListener {
         return null;
     }
 
+    public Map getReceiveLatencies() {
+        if (metrics != null) {
+            return metrics.getLatencyStatistics(MetricsCollector.LATENCY_RECEIVE);
+        }
+        return null;
+    }
+
+    public Map getProcessLatencies() {
+        if (metrics != null) {
+            return metrics.getLatencyStatistics(MetricsCollector.LATENCY_PROCESS);
+        }
+        return null;
+    }
+
+    public Map getSendLatencies() {
+        if (metrics != null) {
+            return metrics.getLatencyStatistics(MetricsCollector.LATENCY_SEND);
+        }
+        return null;
+    }
+
     public void resetStatistics() {
         if (metrics != null) {
             metrics.reset();
@@ -28,6 +28,7 @@ import org.apache.axis2.handlers.AbstractHandler;
 import org.apache.axis2.engine.AxisEngine;
 import org.apache.axis2.kernel.TransportSender;
 import org.apache.axis2.kernel.OutTransportInfo;
+import org.apache.axis2.description.AxisService;
 import org.apache.axis2.description.TransportOutDescription;
 import org.apache.axis2.description.TransportInDescription;
 import org.apache.axis2.description.WSDL2Constants;
@@ -221,6 +222,16 @@ public abstract class AbstractTransportSender extends AbstractHandler implements
         return transportOut.getName();
     }
 
+    /**
+     * Determine the endpoint name under which latencies for the given message are tracked
+     * @param msgCtx the axis MessageContext
+     * @return the name of the service sending the message, or the transport name
+     */
+    protected String getMetricsEndpoint(MessageContext msgCtx) {
+        AxisService service = msgCtx.getAxisService();
+        return service != null ? service.getName() : getTransportName();
+    }
+
     protected void handleException(String msg, Exception e) throws AxisFault {
         log.error(msg, e);
         throw new AxisFault(msg, e);
@@ -378,6 +389,27 @@ public abstract class AbstractTransportSender extends AbstractHandler implements
         return null;
     }
 
+    public Map getReceiveLatencies() {
+        if (metrics != null) {
+            return metrics.getLatencyStatistics(MetricsCollector.LATENCY_RECEIVE);
+        }
+        return null;
+    }
+
+    public Map getProcessLatencies() {
+        if (metrics != null) {
+            return metrics.getLatencyStatistics(MetricsCollector.LATENCY_PROCESS);
+        }
+        return null;
+    }
+
+    public Map getSendLatencies() {
+        if (metrics != null) {
+            return metrics.getLatencyStatistics(MetricsCollector.LATENCY_SEND);
+        }
+        return null;
+    }
+
     public void resetStatistics() {
         if (metrics != null) {
             metrics.reset();
@@ -98,6 +98,26 @@ public class BaseConstants {
      * The default poll interval in milliseconds.
      */
     public static final int DEFAULT_POLL_INTERVAL = 5 * 60 * 1000; // 5 mins by default
+    /**
+     * The factor by which the poll interval of an endpoint is multiplied after each
+     * consecutive failed poll. A value of 1 disables the backoff.
+     */
+    public static final String TRANSPORT_POLL_BACKOFF_FACTOR = "transport.PollBackoffFactor";
+    /**
+     * The upper bound of the poll interval reached through backoff, in seconds (or
+     * milliseconds with a "ms" suffix). Defaults to {@link #DEFAULT_MAX_BACKOFF_MULTIPLIER}
+     * times the poll interval.
+     */
+    public static final String TRANSPORT_MAX_POLL_BACKOFF = "transport.MaxPollBackoffInterval";
+    /** The default backoff factor applied after failed polls */
+    public static final double DEFAULT_POLL_BACKOFF_FACTOR = 2;
+    /** The default upper bound of the backoff, as a multiple of the poll interval */
+    public static final int DEFAULT_MAX_BACKOFF_MULTIPLIER = 8;
+    /**
+     * The transport level parameter limiting the number of polls executing concurrently on
+     * the worker pool. Zero or less (the default) means no limit.
+     */
+    public static final String TRANSPORT_MAX_CONCURRENT_POLLS = "transport.MaxConcurrentPolls";
 
     public static final String CALLBACK_TABLE = "callbackTable";
     public static final String HEADER_IN_REPLY_TO = "In-Reply-To";
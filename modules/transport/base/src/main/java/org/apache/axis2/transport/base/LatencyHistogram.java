@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.base;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock free latency histogram in the style of HdrHistogram. Values (in nanoseconds) are
+ * recorded into log-linear buckets: every power of two range is split into
+ * {@link #SUB_BUCKETS} linear sub buckets, which bounds the relative error of a reported
+ * percentile to about 1/{@value #SUB_BUCKETS} while keeping the footprint fixed and small.
+ * <p>
+ * Recording never blocks; readers obtain a consistent enough view through
+ * {@link #snapshot()}.
+ */
+public class LatencyHistogram {
+
+    /** the number of linear sub buckets per power of two */
+    public static final int SUB_BUCKETS = 16;
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Record a single latency
+     * @param nanos the latency in nanoseconds; negative values are recorded as zero
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets.incrementAndGet(indexOf(nanos));
+        total.add(nanos);
+        min.accumulate(nanos);
+        max.accumulate(nanos);
+    }
+
+    /**
+     * Clear all recorded values. Values recorded concurrently with a reset may or may not
+     * survive it.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        total.reset();
+        min.reset();
+        max.reset();
+    }
+
+    /**
+     * Take a point in time copy of this histogram
+     * @return an immutable snapshot
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            count += counts[i];
+        }
+        long minValue = min.get();
+        return new Snapshot(counts, count, total.sum(),
+            minValue == Long.MAX_VALUE ? 0 : minValue, max.get());
+    }
+
+    static int indexOf(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    static long highestValueOf(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long mantissa = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    /**
+     * An immutable copy of the state of a {@link LatencyHistogram}. All values are in
+     * nanoseconds.
+     */
+    public static class Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final long total;
+        private final long min;
+        private final long max;
+
+        Snapshot(long[] counts, long count, long total, long min, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.total = total;
+            this.min = min;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMin() {
+            return min;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) total / count;
+        }
+
+        /**
+         * Get the value below which the given percentage of the recorded values fall
+         * @param percentile the percentile, between 0 and 100
+         * @return the (upper bound of the bucket holding the) value at the percentile, or 0
+         * if nothing was recorded
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            double p = Math.min(Math.max(percentile, 0), 100);
+            long rank = Math.max(1, (long) Math.ceil(p / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.max(min, Math.min(highestValueOf(i), max));
+                }
+            }
+            return max;
+        }
+
+        /**
+         * Summarize this snapshot in milliseconds, e.g. for exposure through JMX
+         * @return a map of count, min, max, mean and the usual percentiles
+         */
+        public Map<String, Number> toMap() {
+            Map<String, Number> map = new LinkedHashMap<String, Number>();
+            map.put("count", count);
+            map.put("min", toMillis(min));
+            map.put("max", toMillis(max));
+            map.put("mean", getMean() / TimeUnit.MILLISECONDS.toNanos(1));
+            map.put("p50", toMillis(getValueAtPercentile(50)));
+            map.put("p90", toMillis(getValueAtPercentile(90)));
+            map.put("p99", toMillis(getValueAtPercentile(99)));
+            map.put("p999", toMillis(getValueAtPercentile(99.9)));
+            return map;
+        }
+
+        private static double toMillis(long nanos) {
+            return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
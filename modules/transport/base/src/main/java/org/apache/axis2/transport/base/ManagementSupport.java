@@ -43,6 +43,9 @@ public interface ManagementSupport {
     public long getMaxSizeSent();
     public double getAvgSizeSent();
     public Map getResponseCodeTable();
+    public Map getReceiveLatencies();
+    public Map getProcessLatencies();
+    public Map getSendLatencies();
 
     public void resetStatistics();
     public long getLastResetTime();
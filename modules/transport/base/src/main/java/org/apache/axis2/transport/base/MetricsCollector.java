@@ -21,61 +21,80 @@ package org.apache.axis2.transport.base;
 import org.apache.axis2.context.MessageContext;
 
 import java.util.Map;
-import java.util.Collections;
 import java.util.HashMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * Collects metrics related to a transport that has metrics support enabled
+ * Collects metrics related to a transport that has metrics support enabled. All counters are
+ * striped ({@link LongAdder} / {@link LongAccumulator}), so that worker threads updating them
+ * never contend on a common monitor. In addition to counts and sizes, per endpoint latency
+ * histograms are kept for the receive, process and send phases, which can be pulled through
+ * {@link #getLatencySnapshots(int)}.
  */
 public class MetricsCollector {
 
     public static final int LEVEL_NONE = 0;
     public static final int LEVEL_TRANSPORT = 1;
     public static final int LEVEL_FULL = 2;
-    private static final Long ONE = (long) 1;
+
+    /** Latency from the time a message was produced until the transport received it */
+    public static final int LATENCY_RECEIVE = 0;
+    /** Latency of processing a received message through the Axis engine */
+    public static final int LATENCY_PROCESS = 1;
+    /** Latency of putting a message on the wire */
+    public static final int LATENCY_SEND = 2;
+
+    /**
+     * The maximum number of distinct endpoints latencies are tracked for. Further endpoints
+     * are accounted under {@link #OTHER_ENDPOINTS}, so that dynamic destinations (e.g.
+     * temporary reply queues) cannot grow the table without bounds.
+     */
+    public static final int MAX_ENDPOINTS = 256;
+    /** The endpoint name under which latencies of untracked endpoints are recorded */
+    public static final String OTHER_ENDPOINTS = "*";
 
     /** By default, full metrics collection is enabled */
-    private int level = LEVEL_FULL;
+    private volatile int level = LEVEL_FULL;
 
-    private long messagesReceived;
-    private long faultsReceiving;
-    private long timeoutsReceiving;
-    private long bytesReceived;
-    private long minSizeReceived;
-    private long maxSizeReceived;
-    private double avgSizeReceived;
+    private final LongAdder messagesReceived = new LongAdder();
+    private final LongAdder faultsReceiving = new LongAdder();
+    private final LongAdder timeoutsReceiving = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final SizeStatistics sizeReceived = new SizeStatistics();
 
-    private long messagesSent;
-    private long faultsSending;
-    private long timeoutsSending;
-    private long bytesSent;
-    private long minSizeSent;
-    private long maxSizeSent;
-    private double avgSizeSent;
+    private final LongAdder messagesSent = new LongAdder();
+    private final LongAdder faultsSending = new LongAdder();
+    private final LongAdder timeoutsSending = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final SizeStatistics sizeSent = new SizeStatistics();
 
-    private final Map<Integer, Long> responseCodeTable =
-        Collections.synchronizedMap(new HashMap<Integer, Long>());
+    private final ConcurrentMap<Integer, LongAdder> responseCodeTable =
+        new ConcurrentHashMap<Integer, LongAdder>();
 
-    private long lastResetTime = System.currentTimeMillis();
+    private final ConcurrentMap<String, LatencyHistogram[]> latencies =
+        new ConcurrentHashMap<String, LatencyHistogram[]>();
+
+    private volatile long lastResetTime = System.currentTimeMillis();
 
     public void reset() {
-        messagesReceived  = 0;
-        faultsReceiving   = 0;
-        timeoutsReceiving = 0;
-        bytesReceived     = 0;
-        minSizeReceived   = 0;
-        maxSizeReceived   = 0;
-        avgSizeReceived   = 0;
-
-        messagesSent      = 0;
-        faultsSending     = 0;
-        timeoutsSending   = 0;
-        bytesSent         = 0;
-        minSizeSent       = 0;
-        maxSizeSent       = 0;
-        avgSizeSent       = 0;
+        messagesReceived.reset();
+        faultsReceiving.reset();
+        timeoutsReceiving.reset();
+        bytesReceived.reset();
+        sizeReceived.reset();
+
+        messagesSent.reset();
+        faultsSending.reset();
+        timeoutsSending.reset();
+        bytesSent.reset();
+        sizeSent.reset();
 
         responseCodeTable.clear();
+        latencies.clear();
         lastResetTime = System.currentTimeMillis();
     }
 
@@ -92,19 +111,19 @@ public class MetricsCollector {
     }
 
     public long getMessagesReceived() {
-        return messagesReceived;
+        return messagesReceived.sum();
     }
 
     public long getFaultsReceiving() {
-        return faultsReceiving;
+        return faultsReceiving.sum();
     }
 
     public long getTimeoutsReceiving() {
-        return timeoutsReceiving;
+        return timeoutsReceiving.sum();
     }
 
     public long getBytesReceived() {
-        return bytesReceived;
+        return bytesReceived.sum();
     }
 
     /**
@@ -114,110 +133,196 @@ public class MetricsCollector {
      * @return the number of messages sent
      */
     public long getMessagesSent() {
-        return messagesSent;
+        return messagesSent.sum();
     }
 
     public long getFaultsSending() {
-        return faultsSending;
+        return faultsSending.sum();
     }
 
     public long getTimeoutsSending() {
-        return timeoutsSending;
+        return timeoutsSending.sum();
     }
 
     public long getBytesSent() {
-        return bytesSent;
+        return bytesSent.sum();
     }
 
     public long getMinSizeReceived() {
-        return minSizeReceived;
+        return sizeReceived.getMin();
     }
 
     public long getMaxSizeReceived() {
-        return maxSizeReceived;
+        return sizeReceived.getMax();
     }
 
     public long getMinSizeSent() {
-        return minSizeSent;
+        return sizeSent.getMin();
     }
 
     public long getMaxSizeSent() {
-        return maxSizeSent;
+        return sizeSent.getMax();
     }
 
     public double getAvgSizeReceived() {
-        return avgSizeReceived;
+        return sizeReceived.getAvg();
     }
 
     public double getAvgSizeSent() {
-        return avgSizeSent;
+        return sizeSent.getAvg();
     }
 
+    /**
+     * Get a copy of the number of times each response code has been reported
+     * @return a map of response code to count
+     */
     public Map<Integer, Long> getResponseCodeTable() {
-        return responseCodeTable;
+        Map<Integer, Long> table = new HashMap<Integer, Long>();
+        for (Map.Entry<Integer, LongAdder> entry : responseCodeTable.entrySet()) {
+            table.put(entry.getKey(), entry.getValue().sum());
+        }
+        return table;
     }
 
-    public synchronized void incrementMessagesReceived() {
-        messagesReceived++;
+    public void incrementMessagesReceived() {
+        messagesReceived.increment();
     }
 
-    public synchronized void incrementFaultsReceiving() {
-        faultsReceiving++;
+    public void incrementFaultsReceiving() {
+        faultsReceiving.increment();
     }
 
-    public synchronized void incrementTimeoutsReceiving() {
-        timeoutsReceiving++;
+    public void incrementTimeoutsReceiving() {
+        timeoutsReceiving.increment();
     }
 
-    public synchronized void incrementBytesReceived(long size) {
-        bytesReceived += size;
+    public void incrementBytesReceived(long size) {
+        bytesReceived.add(size);
     }
 
-    public synchronized void incrementMessagesSent() {
-        messagesSent++;
+    public void incrementMessagesSent() {
+        messagesSent.increment();
     }
 
-    public synchronized void incrementFaultsSending() {
-        faultsSending++;
+    public void incrementFaultsSending() {
+        faultsSending.increment();
     }
 
-    public synchronized void incrementTimeoutsSending() {
-        timeoutsSending++;
+    public void incrementTimeoutsSending() {
+        timeoutsSending.increment();
     }
 
-    public synchronized void incrementBytesSent(long size) {
-        bytesSent += size;
+    public void incrementBytesSent(long size) {
+        bytesSent.add(size);
     }
     
-    public synchronized void notifyReceivedMessageSize(long size) {
-        if (minSizeReceived == 0 || size < minSizeReceived) {
-            minSizeReceived = size;
-        }
-        if (size > maxSizeReceived) {
-            maxSizeReceived = size;
+    public void notifyReceivedMessageSize(long size) {
+        sizeReceived.record(size);
+    }
+
+    public void notifySentMessageSize(long size) {
+        sizeSent.record(size);
+    }
+
+    public void reportResponseCode(int respCode) {
+        LongAdder counter = responseCodeTable.get(respCode);
+        if (counter == null) {
+            counter = responseCodeTable.computeIfAbsent(respCode, k -> new LongAdder());
         }
-        avgSizeReceived = (avgSizeReceived == 0 ? size : (avgSizeReceived + size) / 2);
+        counter.increment();
+    }
+
+    // --- latency histograms ---
+
+    /**
+     * Record the time it took for a message to reach the transport
+     * @param endpoint the endpoint (service or destination) the message was received on
+     * @param nanos the latency in nanoseconds
+     */
+    public void notifyReceiveLatency(String endpoint, long nanos) {
+        recordLatency(endpoint, LATENCY_RECEIVE, nanos);
+    }
+
+    /**
+     * Record the time it took to process a received message
+     * @param endpoint the endpoint (service or destination) the message was received on
+     * @param nanos the latency in nanoseconds
+     */
+    public void notifyProcessLatency(String endpoint, long nanos) {
+        recordLatency(endpoint, LATENCY_PROCESS, nanos);
+    }
+
+    /**
+     * Record the time it took to send a message
+     * @param endpoint the endpoint (service or destination) the message was sent to
+     * @param nanos the latency in nanoseconds
+     */
+    public void notifySendLatency(String endpoint, long nanos) {
+        recordLatency(endpoint, LATENCY_SEND, nanos);
     }
 
-    public synchronized void notifySentMessageSize(long size) {
-        if (minSizeSent == 0 || size < minSizeSent) {
-            minSizeSent = size;
+    private void recordLatency(String endpoint, int type, long nanos) {
+        if (level == LEVEL_NONE) {
+            return;
         }
-        if (size > maxSizeSent) {
-            maxSizeSent = size;
+        if (endpoint == null) {
+            endpoint = OTHER_ENDPOINTS;
         }
-        avgSizeSent = (avgSizeSent == 0 ? size : (avgSizeSent + size) / 2);
+        LatencyHistogram[] histograms = latencies.get(endpoint);
+        if (histograms == null) {
+            if (latencies.size() >= MAX_ENDPOINTS) {
+                endpoint = OTHER_ENDPOINTS;
+            }
+            histograms = latencies.computeIfAbsent(endpoint, k -> new LatencyHistogram[] {
+                new LatencyHistogram(), new LatencyHistogram(), new LatencyHistogram() });
+        }
+        histograms[type].record(nanos);
     }
 
-    public void reportResponseCode(int respCode) {
-        synchronized(responseCodeTable) {
-            Object o = responseCodeTable.get(respCode);
-            if (o == null) {
-                responseCodeTable.put(respCode, ONE);
-            } else {
-                responseCodeTable.put(respCode, (Long) o + 1);
+    /**
+     * Take a snapshot of the latency histogram of one endpoint
+     * @param endpoint the endpoint name
+     * @param type one of {@link #LATENCY_RECEIVE}, {@link #LATENCY_PROCESS} or
+     *             {@link #LATENCY_SEND}
+     * @return the snapshot, or null if nothing has been recorded for the endpoint
+     */
+    public LatencyHistogram.Snapshot getLatencySnapshot(String endpoint, int type) {
+        LatencyHistogram[] histograms = latencies.get(endpoint);
+        return histograms == null ? null : histograms[type].snapshot();
+    }
+
+    /**
+     * Take a snapshot of the latency histograms of all endpoints
+     * @param type one of {@link #LATENCY_RECEIVE}, {@link #LATENCY_PROCESS} or
+     *             {@link #LATENCY_SEND}
+     * @return a map of endpoint name to snapshot, sorted by endpoint name; endpoints without
+     * any value recorded for the given type are omitted
+     */
+    public Map<String, LatencyHistogram.Snapshot> getLatencySnapshots(int type) {
+        Map<String, LatencyHistogram.Snapshot> snapshots =
+            new TreeMap<String, LatencyHistogram.Snapshot>();
+        for (Map.Entry<String, LatencyHistogram[]> entry : latencies.entrySet()) {
+            LatencyHistogram.Snapshot snapshot = entry.getValue()[type].snapshot();
+            if (snapshot.getCount() > 0) {
+                snapshots.put(entry.getKey(), snapshot);
             }
         }
+        return snapshots;
+    }
+
+    /**
+     * Summarize the latency histograms of all endpoints for management purposes
+     * @param type one of {@link #LATENCY_RECEIVE}, {@link #LATENCY_PROCESS} or
+     *             {@link #LATENCY_SEND}
+     * @return a map of endpoint name to {@link LatencyHistogram.Snapshot#toMap()}
+     */
+    public Map<String, Map<String, Number>> getLatencyStatistics(int type) {
+        Map<String, Map<String, Number>> statistics = new TreeMap<String, Map<String, Number>>();
+        for (Map.Entry<String, LatencyHistogram.Snapshot> entry
+                : getLatencySnapshots(type).entrySet()) {
+            statistics.put(entry.getKey(), entry.getValue().toMap());
+        }
+        return statistics;
     }
 
     // --- enhanced methods ---
@@ -318,4 +423,41 @@ public class MetricsCollector {
             m.reportResponseCode(respCode);
         }
     }
+
+    /** Lock free minimum, maximum and average of message sizes */
+    private static class SizeStatistics {
+
+        private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+
+        void record(long size) {
+            min.accumulate(size);
+            max.accumulate(size);
+            count.increment();
+            total.add(size);
+        }
+
+        long getMin() {
+            long value = min.get();
+            return value == Long.MAX_VALUE ? 0 : value;
+        }
+
+        long getMax() {
+            return max.get();
+        }
+
+        double getAvg() {
+            long n = count.sum();
+            return n == 0 ? 0 : (double) total.sum() / n;
+        }
+
+        void reset() {
+            min.reset();
+            max.reset();
+            count.reset();
+            total.reset();
+        }
+    }
 }
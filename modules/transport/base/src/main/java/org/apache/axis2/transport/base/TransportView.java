@@ -153,6 +153,27 @@ public class TransportView implements TransportViewMBean {
         return null;
     }    
 
+    public Map getReceiveLatencies() {
+        if (managementSupport != null) {
+            return managementSupport.getReceiveLatencies();
+        }
+        return null;
+    }
+
+    public Map getProcessLatencies() {
+        if (managementSupport != null) {
+            return managementSupport.getProcessLatencies();
+        }
+        return null;
+    }
+
+    public Map getSendLatencies() {
+        if (managementSupport != null) {
+            return managementSupport.getSendLatencies();
+        }
+        return null;
+    }
+
     public int getActiveThreadCount() {
         if (managementSupport != null) {
             return managementSupport.getActiveThreadCount();
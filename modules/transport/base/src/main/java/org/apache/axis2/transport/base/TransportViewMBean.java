@@ -40,6 +40,9 @@ public interface TransportViewMBean {
     public int  getActiveThreadCount();
     public int getQueueSize();
     public Map getResponseCodeTable();
+    public Map getReceiveLatencies();
+    public Map getProcessLatencies();
+    public Map getSendLatencies();
 
     // JMX Operations
     public void start() throws Exception;
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.base;
+
+import junit.framework.TestCase;
+
+import org.apache.axis2.addressing.EndpointReference;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.Parameter;
+import org.apache.axis2.description.ParameterIncludeImpl;
+
+public class AbstractPollTableEntryTest extends TestCase {
+    private static class TestPollTableEntry extends AbstractPollTableEntry {
+        @Override
+        public EndpointReference[] getEndpointReferences(AxisService service, String ip) {
+            return null;
+        }
+    }
+
+    private TestPollTableEntry entry;
+
+    @Override
+    protected void setUp() throws Exception {
+        entry = new TestPollTableEntry();
+        entry.setPollInterval(1000);
+    }
+
+    private long failedPoll() {
+        entry.setLastPollState(AbstractPollTableEntry.FAILED);
+        return entry.nextPollDelay();
+    }
+
+    private long successfulPoll() {
+        entry.setLastPollState(AbstractPollTableEntry.SUCCSESSFUL);
+        return entry.nextPollDelay();
+    }
+
+    public void testNoBackoffWithoutFailures() {
+        assertEquals(1000, successfulPoll());
+        entry.setLastPollState(AbstractPollTableEntry.WITH_ERRORS);
+        assertEquals(1000, entry.nextPollDelay());
+        assertEquals(0, entry.getConsecutiveFailures());
+    }
+
+    public void testExponentialBackoff() {
+        assertEquals(2000, failedPoll());
+        assertEquals(4000, failedPoll());
+        assertEquals(8000, failedPoll());
+        assertEquals(3, entry.getConsecutiveFailures());
+        // capped at 8 times the poll interval by default
+        assertEquals(8000, failedPoll());
+        assertEquals(8000, failedPoll());
+    }
+
+    public void testSuccessResetsBackoff() {
+        failedPoll();
+        failedPoll();
+        assertEquals(1000, successfulPoll());
+        assertEquals(0, entry.getConsecutiveFailures());
+        assertEquals(2000, failedPoll());
+    }
+
+    public void testMaxBackoffInterval() {
+        entry.setMaxBackoffInterval(3000);
+        assertEquals(2000, failedPoll());
+        assertEquals(3000, failedPoll());
+        // a maximum below the poll interval doesn't shorten the interval
+        entry.setMaxBackoffInterval(500);
+        assertEquals(1000, failedPoll());
+    }
+
+    public void testBackoffFactor() {
+        entry.setBackoffFactor(1.5);
+        assertEquals(1500, failedPoll());
+        assertEquals(2250, failedPoll());
+        entry.setBackoffFactor(1);
+        assertEquals(1000, failedPoll());
+    }
+
+    public void testLoadConfiguration() throws Exception {
+        ParameterIncludeImpl params = new ParameterIncludeImpl();
+        params.addParameter(new Parameter(BaseConstants.TRANSPORT_POLL_INTERVAL, "100ms"));
+        params.addParameter(new Parameter(BaseConstants.TRANSPORT_POLL_BACKOFF_FACTOR, "3"));
+        params.addParameter(new Parameter(BaseConstants.TRANSPORT_MAX_POLL_BACKOFF, "1"));
+        entry.loadConfiguration(params);
+        assertEquals(100, entry.getPollInterval());
+        assertEquals(300, failedPoll());
+        assertEquals(900, failedPoll());
+        assertEquals(1000, failedPoll());
+    }
+}
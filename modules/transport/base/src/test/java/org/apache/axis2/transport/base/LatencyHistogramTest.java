@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.base;
+
+import junit.framework.TestCase;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class LatencyHistogramTest extends TestCase {
+
+    public void testBucketBoundaries() {
+        for (long value : new long[] { 0, 1, 31, 32, 33, 63, 64, 1000, 123456789L,
+                Long.MAX_VALUE }) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.highestValueOf(index) >= value);
+            assertEquals(index, LatencyHistogram.indexOf(LatencyHistogram.highestValueOf(index)));
+            if (index > 0) {
+                assertTrue(LatencyHistogram.highestValueOf(index - 1) < value);
+            }
+        }
+    }
+
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(1000, snapshot.getMin());
+        assertEquals(1000000, snapshot.getMax());
+        assertEquals(500500.0, snapshot.getMean(), 0.001);
+        assertWithinError(500000, snapshot.getValueAtPercentile(50));
+        assertWithinError(990000, snapshot.getValueAtPercentile(99));
+        assertEquals(1000000, snapshot.getValueAtPercentile(100));
+
+        histogram.reset();
+        snapshot = histogram.snapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMin());
+        assertEquals(0, snapshot.getValueAtPercentile(99));
+    }
+
+    public void testConcurrentRecording() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final int threads = 8;
+        final int perThread = 10000;
+        final CountDownLatch latch = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(new Runnable() {
+                public void run() {
+                    for (int i = 0; i < perThread; i++) {
+                        histogram.record(i);
+                    }
+                    latch.countDown();
+                }
+            });
+        }
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals(threads * perThread, histogram.snapshot().getCount());
+    }
+
+    public void testMetricsCollectorEndpoints() {
+        MetricsCollector metrics = new MetricsCollector();
+        metrics.notifyProcessLatency("EchoService", TimeUnit.MILLISECONDS.toNanos(5));
+        metrics.notifySendLatency("EchoService", TimeUnit.MILLISECONDS.toNanos(2));
+        metrics.notifyProcessLatency("PingService", TimeUnit.MILLISECONDS.toNanos(1));
+
+        Map<String, LatencyHistogram.Snapshot> process =
+            metrics.getLatencySnapshots(MetricsCollector.LATENCY_PROCESS);
+        assertEquals(2, process.size());
+        assertEquals(1, process.get("EchoService").getCount());
+        assertEquals(1, metrics.getLatencySnapshots(MetricsCollector.LATENCY_SEND).size());
+        assertTrue(metrics.getLatencySnapshots(MetricsCollector.LATENCY_RECEIVE).isEmpty());
+        assertEquals(1L, metrics.getLatencyStatistics(MetricsCollector.LATENCY_SEND)
+            .get("EchoService").get("count"));
+
+        for (int i = 0; i < MetricsCollector.MAX_ENDPOINTS * 2; i++) {
+            metrics.notifyReceiveLatency("temp-queue-" + i, 1000);
+        }
+        assertTrue(metrics.getLatencySnapshots(MetricsCollector.LATENCY_RECEIVE).size()
+            <= MetricsCollector.MAX_ENDPOINTS + 1);
+
+        metrics.reset();
+        assertNull(metrics.getLatencySnapshot("EchoService", MetricsCollector.LATENCY_PROCESS));
+    }
+
+    public void testMessageSizes() {
+        MetricsCollector metrics = new MetricsCollector();
+        assertEquals(0, metrics.getMinSizeReceived());
+        metrics.notifyReceivedMessageSize(100);
+        metrics.notifyReceivedMessageSize(300);
+        assertEquals(100, metrics.getMinSizeReceived());
+        assertEquals(300, metrics.getMaxSizeReceived());
+        assertEquals(200.0, metrics.getAvgSizeReceived(), 0.001);
+        metrics.reportResponseCode(200);
+        metrics.reportResponseCode(200);
+        assertEquals(Long.valueOf(2), metrics.getResponseCodeTable().get(200));
+    }
+
+    private static void assertWithinError(long expected, long actual) {
+        assertTrue("expected " + expected + " but was " + actual,
+            Math.abs(actual - expected) <= expected / LatencyHistogram.SUB_BUCKETS);
+    }
+}
@@ -26,6 +26,7 @@ import org.apache.axis2.addressing.EndpointReference;
 import org.apache.axis2.context.ConfigurationContext;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.context.NamedValue;
+import org.apache.axis2.context.PropertyKeys;
 import org.apache.axis2.description.Parameter;
 import org.apache.axis2.description.TransportOutDescription;
 import org.apache.axis2.handlers.AbstractHandler;
@@ -79,6 +80,8 @@ public abstract class AbstractHTTPTransportSender extends AbstractHandler implem
     private int soTimeout = HTTPConstants.DEFAULT_SO_TIMEOUT;
 
     private int connectionTimeout = HTTPConstants.DEFAULT_CONNECTION_TIMEOUT;
+
+    private int requestBufferThreshold = HTTPConstants.DEFAULT_REQUEST_BUFFER_THRESHOLD;
     
     public void init(ConfigurationContext confContext,
                      TransportOutDescription transportOut) throws AxisFault {
@@ -134,6 +137,17 @@ public abstract class AbstractHTTPTransportSender extends AbstractHandler implem
             // If there's a problem log it and use the default values
             log.error("Invalid timeout value format: not a number", nfe);
         }
+
+        Parameter requestBufferThresholdParam = transportOut
+                .getParameter(HTTPConstants.REQUEST_BUFFER_THRESHOLD);
+        if (requestBufferThresholdParam != null) {
+            try {
+                requestBufferThreshold = Integer.parseInt(
+                        ((String) requestBufferThresholdParam.getValue()).trim());
+            } catch (NumberFormatException nfe) {
+                log.error("Invalid request buffer threshold: not a number", nfe);
+            }
+        }
     }
 
     public void stop() {
@@ -168,6 +182,11 @@ public abstract class AbstractHTTPTransportSender extends AbstractHandler implem
                 msgContext.setProperty(HTTPConstants.CONNECTION_TIMEOUT, connectionTimeout);
             }
 
+            if (msgContext.getProperty(HTTPConstants.REQUEST_BUFFER_THRESHOLD) == null) {
+                msgContext.setProperty(HTTPConstants.REQUEST_BUFFER_THRESHOLD,
+                        requestBufferThreshold);
+            }
+
             //if a parameter has set been set, we will omit the SOAP action for SOAP 1.2
             if (!msgContext.isSOAP11()) {
                 Parameter param = transportOut.getParameter(HTTPConstants.OMIT_SOAP_12_ACTION);
@@ -250,7 +269,7 @@ public abstract class AbstractHTTPTransportSender extends AbstractHandler implem
      */
     private void sendUsingOutputStream(MessageContext msgContext,
                                        OMOutputFormat format) throws AxisFault {
-        OutputStream out = (OutputStream) msgContext.getProperty(MessageContext.TRANSPORT_OUT);
+        OutputStream out = msgContext.getTypedProperty(PropertyKeys.TRANSPORT_OUT);
 
         // I Don't think we need this check.. Content type needs to be set in
         // any case. (thilina)
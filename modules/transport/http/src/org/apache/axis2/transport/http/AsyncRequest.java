@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http;
+
+import java.io.IOException;
+
+/**
+ * A {@link Request} that can be executed without blocking until the response arrives.
+ */
+public interface AsyncRequest extends Request {
+    /**
+     * Receives the outcome of {@link AsyncRequest#executeAsync(Callback)}.
+     */
+    interface Callback {
+        /**
+         * Called when the response is available. The response status, headers and content can
+         * then be retrieved from the request.
+         */
+        void completed();
+
+        /**
+         * Called if the request failed.
+         */
+        void failed(Exception ex);
+    }
+
+    /**
+     * Execute the request without blocking. Exactly one of the methods of the callback is
+     * invoked, unless this method throws an exception. The callback is invoked on a worker
+     * thread of the configuration context, not on the thread performing the I/O.
+     *
+     * @param callback the callback to notify when the response is available
+     * @throws IOException if the request could not be initiated
+     */
+    void executeAsync(Callback callback) throws IOException;
+}
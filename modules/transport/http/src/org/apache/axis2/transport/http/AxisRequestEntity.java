@@ -20,21 +20,34 @@
 package org.apache.axis2.transport.http;
 
 import org.apache.axiom.blob.Blobs;
-import org.apache.axiom.blob.MemoryBlob;
+import org.apache.axiom.blob.WritableBlob;
 import org.apache.axiom.om.OMOutputFormat;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.kernel.MessageFormatter;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.zip.GZIPOutputStream;
 
 /**
  * This Request Entity is used by the HTTPCommonsTransportSender. This wraps the
  * Axis2 message formatter object.
+ * <p>
+ * If chunking is disabled, the message is serialized once, to compute the Content-Length, into
+ * a blob that overflows to a temporary file above a configurable threshold, so that large
+ * messages are not held on the heap. {@link #release()} must be called once the request has
+ * been sent.
+ * <p>
+ * Clients that pull the content instead of letting the entity write it, such as the non blocking
+ * client, call {@link #buffer()} on the sending thread and then read {@link #getContent()}. A
+ * chunked message is serialized into a blob at that point, using the same threshold.
  */
 public final class AxisRequestEntity  {
+    private static final Log log = LogFactory.getLog(AxisRequestEntity.class);
 
     private MessageFormatter messageFormatter;
 
@@ -44,7 +57,12 @@ public final class AxisRequestEntity  {
 
     private MessageContext messageContext;
 
-    private final MemoryBlob content;
+    private final int bufferThreshold;
+
+    private final File tempDirectory;
+
+    // Guarded by this once the entity has been handed over to the client
+    private WritableBlob content;
 
     private final boolean preserve;
 
@@ -52,16 +70,23 @@ public final class AxisRequestEntity  {
 
     private final String contentType;
 
+    private boolean released;
+
     /**
      * Method calls to this request entity are delegated to the following Axis2
      * message formatter object.
      *
      * @param messageFormatter
+     * @param bufferThreshold the size above which the content of a non chunked request is
+     *        buffered in a temporary file; 0 to always buffer it in memory
+     * @param tempDirectory the directory for the temporary file, or <code>null</code> to use
+     *        the default temporary directory
      * @throws AxisFault 
      */
     AxisRequestEntity(MessageFormatter messageFormatter,
                       MessageContext msgContext, OMOutputFormat format, String contentType,
-                      boolean chunked, boolean gzip, boolean preserve) throws AxisFault {
+                      boolean chunked, boolean gzip, boolean preserve,
+                      int bufferThreshold, File tempDirectory) throws AxisFault {
         this.messageFormatter = messageFormatter;
         this.messageContext = msgContext;
         this.chunked = chunked;
@@ -69,29 +94,69 @@ public final class AxisRequestEntity  {
         this.preserve = preserve;
         this.format = format;
         this.contentType = contentType;
-        if (chunked) {
-            content = null;
-        } else {
-            content = Blobs.createMemoryBlob();
-            OutputStream out = content.getOutputStream();
+        this.bufferThreshold = bufferThreshold;
+        this.tempDirectory = tempDirectory;
+        if (!chunked) {
             try {
-                internalWriteRequest(out);
-                out.close();
+                buffer();
             } catch (IOException ex) {
                 throw AxisFault.makeFault(ex);
             }
         }
     }
 
+    /**
+     * Serialize the message into a blob, if this has not been done yet. This must be called on
+     * the thread sending the message, before {@link #getContent()}.
+     *
+     * @throws IOException if the message can't be serialized; the entity is then released
+     */
+    public synchronized void buffer() throws IOException {
+        if (content != null) {
+            return;
+        }
+        if (bufferThreshold > 0) {
+            content = Blobs.createOverflowableBlob(bufferThreshold, "axis2", ".tmp",
+                    tempDirectory);
+        } else {
+            content = Blobs.createMemoryBlob();
+        }
+        try {
+            OutputStream out = content.getOutputStream();
+            internalWriteRequest(out);
+            out.close();
+        } catch (IOException ex) {
+            release();
+            throw ex;
+        }
+    }
+
+    /**
+     * Get a stream reading the buffered content, without copying it.
+     *
+     * @throws IllegalStateException if {@link #buffer()} has not been called for a chunked
+     *         message, or the entity has been released
+     */
+    public synchronized InputStream getContent() throws IOException {
+        if (content == null || released) {
+            throw new IllegalStateException("The request content is not available");
+        }
+        return content.getInputStream();
+    }
+
     public boolean isRepeatable() {
         // If chunking is disabled, we don't preserve the original SOAPEnvelope, but we store the
-        // serialized SOAPEnvelope in a byte array, which means that the entity can be written
+        // serialized SOAPEnvelope in a blob, which means that the entity can be written
         // repeatedly.
         return preserve || !chunked;
     }
 
     public void writeRequest(OutputStream outStream) throws IOException {
-        if (chunked) {
+        WritableBlob content;
+        synchronized (this) {
+            content = this.content;
+        }
+        if (content == null) {
             internalWriteRequest(outStream);
         } else {
             content.writeTo(outStream);
@@ -99,21 +164,42 @@ public final class AxisRequestEntity  {
     }
     
     private void internalWriteRequest(OutputStream outStream) throws IOException {
+        PooledGZIPOutputStream gzipStream = null;
         if (gzip) {
-            outStream = new GZIPOutputStream(outStream);
+            gzipStream = new PooledGZIPOutputStream(outStream);
+            outStream = gzipStream;
         }
         try {
             messageFormatter.writeTo(messageContext, format, outStream, preserve);
-            if (gzip) {
-                ((GZIPOutputStream) outStream).finish();
+            if (gzipStream != null) {
+                gzipStream.finish();
             }
             outStream.flush();
         } catch (IOException e) {
             throw AxisFault.makeFault(e);
+        } finally {
+            if (gzipStream != null) {
+                gzipStream.release();
+            }
         }
 
     }
 
+    /**
+     * Release the buffered content, deleting the temporary file if one was used. Subsequent calls
+     * have no effect.
+     */
+    public synchronized void release() {
+        if (content != null && !released) {
+            released = true;
+            try {
+                content.release();
+            } catch (IOException ex) {
+                log.warn("Unable to release the request content", ex);
+            }
+        }
+    }
+
     public long getContentLength() {
         if (chunked) {
             return -1;
@@ -30,10 +30,12 @@ import org.apache.axis2.Constants;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.context.NamedValue;
 import org.apache.axis2.context.OperationContext;
+import org.apache.axis2.context.PropertyKeys;
 import org.apache.axis2.description.TransportOutDescription;
 import org.apache.axis2.i18n.Messages;
 import org.apache.axis2.kernel.http.HTTPConstants;
 import org.apache.axis2.kernel.MessageFormatter;
+import org.apache.axis2.kernel.TransportResponseCallback;
 import org.apache.axis2.util.MessageProcessorSelector;
 import org.apache.axis2.util.Utils;
 import org.apache.axis2.wsdl.WSDLConstants;
@@ -42,6 +44,7 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.http.HttpStatus;
 import org.apache.http.protocol.HTTP;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
@@ -107,14 +110,18 @@ public abstract class HTTPSender {
     protected abstract Request createRequest(MessageContext msgContext, String methodName, URL url,
             AxisRequestEntity requestEntity) throws AxisFault;
     
-    public void send(MessageContext msgContext, URL url, String soapActionString)
+    /**
+     * Send the request. If the message context has a {@link TransportResponseCallback}, the
+     * request must be an {@link AsyncRequest}; it is then executed without blocking and the
+     * response is processed, and the callback notified, on the thread that receives it.
+     */
+    public void send(final MessageContext msgContext, final URL url, String soapActionString)
             throws IOException {
 
         // execute the HtttpMethodBase - a connection manager can be given for
         // handle multiple
 
-        String httpMethod =
-                (String) msgContext.getProperty(Constants.Configuration.HTTP_METHOD);
+        String httpMethod = msgContext.getTypedProperty(PropertyKeys.HTTP_METHOD);
         if (httpMethod == null) {
             httpMethod = Constants.Configuration.HTTP_METHOD_POST;
         }
@@ -146,126 +153,203 @@ public abstract class HTTPSender {
                 || Constants.Configuration.HTTP_METHOD_PUT.equalsIgnoreCase(httpMethod)) {
             gzip = msgContext.isPropertyTrue(HTTPConstants.MC_GZIP_REQUEST);
             requestEntity = new AxisRequestEntity(messageFormatter, msgContext, format,
-                    contentType, chunked, gzip, authenticator != null && authenticator.isAllowedRetry());
+                    contentType, chunked, gzip, authenticator != null && authenticator.isAllowedRetry(),
+                    getRequestBufferThreshold(msgContext), getRequestBufferDirectory(msgContext));
         } else {
             throw new AxisFault("Unsupported HTTP method " + httpMethod);
         }
 
-        Request request = createRequest(msgContext, httpMethod, url, requestEntity);
+        // the entity is released here unless it has been handed over to an asynchronous request
+        boolean async = false;
+        try {
+            final Request request = createRequest(msgContext, httpMethod, url, requestEntity);
 
-        if (msgContext.getOptions() != null && msgContext.getOptions().isManageSession()) {
-            // setting the cookie in the out path
-            Object cookieString = msgContext.getProperty(HTTPConstants.COOKIE_STRING);
+            if (msgContext.getOptions() != null && msgContext.getOptions().isManageSession()) {
+                // setting the cookie in the out path
+                Object cookieString = msgContext.getProperty(HTTPConstants.COOKIE_STRING);
 
-            if (cookieString != null) {
-                StringBuffer buffer = new StringBuffer();
-                buffer.append(cookieString);
-                request.setHeader(HTTPConstants.HEADER_COOKIE, buffer.toString());
+                if (cookieString != null) {
+                    StringBuffer buffer = new StringBuffer();
+                    buffer.append(cookieString);
+                    request.setHeader(HTTPConstants.HEADER_COOKIE, buffer.toString());
+                }
             }
-        }
 
-        if (httpVersion.equals(HTTPConstants.HEADER_PROTOCOL_10)) {
-            request.enableHTTP10();
-        }
+            if (httpVersion.equals(HTTPConstants.HEADER_PROTOCOL_10)) {
+                request.enableHTTP10();
+            }
         
-        request.setHeader(HTTPConstants.HEADER_CONTENT_TYPE, contentType);
+            request.setHeader(HTTPConstants.HEADER_CONTENT_TYPE, contentType);
 
-        String soapAction = messageFormatter.formatSOAPAction(msgContext, format, soapActionString);
+            String soapAction = messageFormatter.formatSOAPAction(msgContext, format, soapActionString);
 
-        if (soapAction != null && !msgContext.isDoingREST()) {
-            request.setHeader(HTTPConstants.HEADER_SOAP_ACTION, soapAction);
-        }
+            if (soapAction != null && !msgContext.isDoingREST()) {
+                request.setHeader(HTTPConstants.HEADER_SOAP_ACTION, soapAction);
+            }
 
-        if (gzip) {
-            request.setHeader(HTTPConstants.HEADER_CONTENT_ENCODING,
-                    HTTPConstants.COMPRESSION_GZIP);
-        }
+            if (gzip) {
+                request.setHeader(HTTPConstants.HEADER_CONTENT_ENCODING,
+                        HTTPConstants.COMPRESSION_GZIP);
+            }
         
-        // set the custom headers, if available
-        addCustomHeaders(msgContext, request);
+            // set the custom headers, if available
+            addCustomHeaders(msgContext, request);
         
-        if (authenticator != null) {
-            request.enableAuthentication(authenticator);
-        }
+            if (authenticator != null) {
+                request.enableAuthentication(authenticator);
+            }
 
-        setTimeouts(msgContext, request);
+            setTimeouts(msgContext, request);
 
-        try {
-            request.execute();
-            boolean cleanup = true;
-            try {
-                int statusCode = request.getStatusCode();
-                log.trace("Handling response - " + statusCode);
-                boolean processResponse;
-                boolean fault;
-                if (statusCode == HttpStatus.SC_ACCEPTED) {
-                    processResponse = false;
-                    fault = false;
-                } else if (statusCode >= 200 && statusCode < 300) {
-                    processResponse = true;
-                    fault = false;
-                } else if (statusCode == HttpStatus.SC_INTERNAL_SERVER_ERROR
-                           || statusCode == HttpStatus.SC_BAD_REQUEST || statusCode == HttpStatus.SC_NOT_FOUND) {
-                    processResponse = true;
-                    fault = true;
-                } else {
-                    throw new AxisFault(Messages.getMessage("transportError", String.valueOf(statusCode),
-                                                            request.getStatusText()));
+            final TransportResponseCallback responseCallback = (TransportResponseCallback)msgContext
+                    .getProperty(TransportResponseCallback.PROPERTY);
+            if (responseCallback != null) {
+                if (!(request instanceof AsyncRequest)) {
+                    throw new AxisFault("Non blocking requests are not supported by " + getClass().getName());
                 }
-                obtainHTTPHeaderInformation(request, msgContext);
-                if (processResponse) {
-                    OperationContext opContext = msgContext.getOperationContext();
-                    MessageContext inMessageContext = opContext == null ? null
-                            : opContext.getMessageContext(WSDLConstants.MESSAGE_LABEL_IN_VALUE);
-                    if (opContext != null) {
-                        InputStream in = request.getResponseContent();
-                        if (in != null) {
-                            String contentEncoding = request.getResponseHeader(HTTPConstants.HEADER_CONTENT_ENCODING);
-                            if (contentEncoding != null) {
-                                if (contentEncoding.equalsIgnoreCase(HTTPConstants.COMPRESSION_GZIP)) {
-                                    in = new GZIPInputStream(in);
-                                    // If the content-encoding is identity we can basically ignore
-                                    // it.
-                                } else if (!"identity".equalsIgnoreCase(contentEncoding)) {
-                                    throw new AxisFault("HTTP :" + "unsupported content-encoding of '"
-                                                        + contentEncoding + "' found");
-                                }
-                            }
-                            opContext.setProperty(MessageContext.TRANSPORT_IN, in);
-                            // This implements the behavior of the HTTPClient 3.x based transport in
-                            // Axis2 1.7: if AUTO_RELEASE_CONNECTION is enabled, we set the input stream
-                            // in the message context, but we nevertheless release the connection.
-                            // It is unclear in which situation this would actually be the right thing
-                            // to do.
-                            if (msgContext.isPropertyTrue(HTTPConstants.AUTO_RELEASE_CONNECTION)) {
-                                log.debug("AUTO_RELEASE_CONNECTION enabled; are you sure that you really want that?");
-                            } else {
-                                cleanup = false;
-                            }
+                ((AsyncRequest)request).executeAsync(new AsyncRequest.Callback() {
+                    public void completed() {
+                        release(requestEntity);
+                        try {
+                            processResponse(msgContext, request);
+                        } catch (IOException e) {
+                            log.info("Unable to process response from url[" + url + "]", e);
+                            responseCallback.onError(AxisFault.makeFault(e));
+                            return;
                         }
+                        responseCallback.onResponse(msgContext);
                     }
-                    if (fault) {
-                        if (inMessageContext != null) {
-                            inMessageContext.setProcessingFault(true);
+
+                    public void failed(Exception ex) {
+                        release(requestEntity);
+                        log.info("Unable to send to url[" + url + "]", ex);
+                        responseCallback.onError(AxisFault.makeFault(ex));
+                    }
+                });
+                async = true;
+                return;
+            }
+
+            try {
+                request.execute();
+                processResponse(msgContext, request);
+            } catch (IOException e) {
+                log.info("Unable to send to url[" + url + "]", e);
+                throw AxisFault.makeFault(e);
+            }
+        } finally {
+            if (!async) {
+                release(requestEntity);
+            }
+        }
+    }
+
+    private static void release(AxisRequestEntity requestEntity) {
+        if (requestEntity != null) {
+            requestEntity.release();
+        }
+    }
+
+    private static int getRequestBufferThreshold(MessageContext msgContext) {
+        Object threshold = msgContext.getProperty(HTTPConstants.REQUEST_BUFFER_THRESHOLD);
+        if (threshold instanceof Integer) {
+            return (Integer) threshold;
+        } else if (threshold != null) {
+            try {
+                return Integer.parseInt(threshold.toString().trim());
+            } catch (NumberFormatException ex) {
+                log.warn("Invalid value for " + HTTPConstants.REQUEST_BUFFER_THRESHOLD + " : "
+                        + threshold);
+            }
+        }
+        return HTTPConstants.DEFAULT_REQUEST_BUFFER_THRESHOLD;
+    }
+
+    private static File getRequestBufferDirectory(MessageContext msgContext) {
+        if (msgContext.getConfigurationContext() == null) {
+            return null;
+        }
+        Object dir = msgContext.getConfigurationContext().getAxisConfiguration()
+                .getParameterValue(Constants.Configuration.ATTACHMENT_TEMP_DIR);
+        return dir instanceof String && ((String) dir).trim().length() > 0
+                ? new File(((String) dir).trim()) : null;
+    }
+
+    /**
+     * Process the response of an executed request, making the content available to the
+     * operation context.
+     */
+    private void processResponse(MessageContext msgContext, Request request) throws IOException {
+        boolean cleanup = true;
+        try {
+            int statusCode = request.getStatusCode();
+            log.trace("Handling response - " + statusCode);
+            boolean processResponse;
+            boolean fault;
+            if (statusCode == HttpStatus.SC_ACCEPTED) {
+                processResponse = false;
+                fault = false;
+            } else if (statusCode >= 200 && statusCode < 300) {
+                processResponse = true;
+                fault = false;
+            } else if (statusCode == HttpStatus.SC_INTERNAL_SERVER_ERROR
+                       || statusCode == HttpStatus.SC_BAD_REQUEST || statusCode == HttpStatus.SC_NOT_FOUND) {
+                processResponse = true;
+                fault = true;
+            } else {
+                throw new AxisFault(Messages.getMessage("transportError", String.valueOf(statusCode),
+                                                        request.getStatusText()));
+            }
+            obtainHTTPHeaderInformation(request, msgContext);
+            if (processResponse) {
+                OperationContext opContext = msgContext.getOperationContext();
+                MessageContext inMessageContext = opContext == null ? null
+                        : opContext.getMessageContext(WSDLConstants.MESSAGE_LABEL_IN_VALUE);
+                if (opContext != null) {
+                    InputStream in = request.getResponseContent();
+                    if (in != null) {
+                        String contentEncoding = request.getResponseHeader(HTTPConstants.HEADER_CONTENT_ENCODING);
+                        if (contentEncoding != null) {
+                            if (contentEncoding.equalsIgnoreCase(HTTPConstants.COMPRESSION_GZIP)) {
+                                in = new GZIPInputStream(in);
+                                // If the content-encoding is identity we can basically ignore
+                                // it.
+                            } else if (!"identity".equalsIgnoreCase(contentEncoding)) {
+                                throw new AxisFault("HTTP :" + "unsupported content-encoding of '"
+                                                    + contentEncoding + "' found");
+                            }
                         }
-                        if (Utils.isClientThreadNonBlockingPropertySet(msgContext)) {
-                            throw new AxisFault(Messages.
-                                    getMessage("transportError",
-                                               String.valueOf(statusCode),
-                                               request.getStatusText()));
+                        opContext.setProperty(MessageContext.TRANSPORT_IN, in);
+                        // This implements the behavior of the HTTPClient 3.x based transport in
+                        // Axis2 1.7: if AUTO_RELEASE_CONNECTION is enabled, we set the input stream
+                        // in the message context, but we nevertheless release the connection.
+                        // It is unclear in which situation this would actually be the right thing
+                        // to do.
+                        if (msgContext.isPropertyTrue(HTTPConstants.AUTO_RELEASE_CONNECTION)) {
+                            log.debug("AUTO_RELEASE_CONNECTION enabled; are you sure that you really want that?");
+                        } else {
+                            cleanup = false;
                         }
                     }
                 }
-            } finally {
-                if (cleanup) {
-                    request.releaseConnection();
+                if (fault) {
+                    if (inMessageContext != null) {
+                        inMessageContext.setProcessingFault(true);
+                    }
+                    if (Utils.isClientThreadNonBlockingPropertySet(msgContext)) {
+                        throw new AxisFault(Messages.
+                                getMessage("transportError",
+                                           String.valueOf(statusCode),
+                                           request.getStatusText()));
+                    }
                 }
             }
-        } catch (IOException e) {
-            log.info("Unable to send to url[" + url + "]", e);
-            throw AxisFault.makeFault(e);
+        } finally {
+            if (cleanup) {
+                request.releaseConnection();
+            }
         }
-    }   
+    }
 
     private void addCustomHeaders(MessageContext msgContext, Request request) {
     
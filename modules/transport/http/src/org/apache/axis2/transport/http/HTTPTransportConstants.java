@@ -49,4 +49,23 @@ public class HTTPTransportConstants {
     public static final String PROTOCOL_HTTP = "http";
     public static final String PROTOCOL_HTTPS = "https";
 
+    //Settings for the client connection pool, as transport sender parameters in axis2.xml.
+    public static final String MAX_TOTAL_CONNECTIONS = "maxTotalConnections";
+    public static final String MAX_CONNECTIONS_PER_ROUTE = "maxConnectionsPerRoute";
+    public static final String ROUTE_MAX_CONNECTIONS = "routeMaxConnections";
+    public static final String CONNECTION_TIME_TO_LIVE = "connectionTimeToLive";
+    public static final String CONNECTION_IDLE_TIMEOUT = "connectionIdleTimeout";
+    public static final String CONNECTION_EVICTION_INTERVAL = "connectionEvictionInterval";
+    public static final String CONNECTION_VALIDATE_AFTER_INACTIVITY = "connectionValidateAfterInactivity";
+    public static final String CONNECTION_REQUEST_TIMEOUT = "connectionRequestTimeout";
+
+    public static final int DEFAULT_MAX_TOTAL_CONNECTIONS = 200;
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 200;
+    public static final long DEFAULT_CONNECTION_EVICTION_INTERVAL = 5000;
+
+    //Setting to send out-in requests of non blocking invocations using the asynchronous client.
+    public static final String NON_BLOCKING = "nonBlocking";
+    public static final String CACHED_HTTP_ASYNC_CLIENT = "CACHED_HTTP_ASYNC_CLIENT";
+    public static final String ASYNC_HTTP_CONNECTION_MANAGER = "ASYNC_HTTP_CONNECTION_MANAGER";
+
 }
@@ -60,6 +60,8 @@ public class ListingAgent extends AbstractAgent {
             "listServices.jsp";
     private static final String LIST_FAULTY_SERVICES_JSP_NAME = "listFaultyService.jsp";
 
+    private final ServiceMetadataCache metadataCache = new ServiceMetadataCache();
+
     public ListingAgent(ConfigurationContext aConfigContext) {
         super(aConfigContext);
     }
@@ -277,13 +279,19 @@ public class ListingAgent extends AbstractAgent {
     }
 
     private void handleXSDRequest(HttpServletRequest req, HttpServletResponse res,
-                                  AxisService axisService) throws IOException {
+                                  final AxisService axisService) throws IOException {
         if (!canExposeServiceMetadata(axisService)){
             res.sendError(HttpServletResponse.SC_FORBIDDEN);
             return;
         }
-        res.setContentType("text/xml");
-        int ret = axisService.printXSD(res.getOutputStream(), getParamtereIgnoreCase(req ,"xsd"));
+        final String xsdName = getParamtereIgnoreCase(req ,"xsd");
+        ServiceMetadataCache.Document document = metadataCache.getDocument(axisService,
+                "xsd|" + xsdName, new ServiceMetadataCache.Renderer() {
+                    public int render(OutputStream out) throws IOException {
+                        return axisService.printXSD(out, xsdName);
+                    }
+                });
+        int ret = document.getStatus();
         if (ret == 0) {
             //multiple schemas are present and the user specified
             //no name - in this case we cannot possibly pump a schema
@@ -291,49 +299,81 @@ public class ListingAgent extends AbstractAgent {
             res.sendRedirect("");
         } else if (ret == -1) {
             res.sendError(HttpServletResponse.SC_NOT_FOUND);
+        } else {
+            writeDocument(req, res, document);
         }
     }
 
     private void handleWSDLRequest(HttpServletRequest req,
                                    HttpServletResponse res,
                                    String url,
-                                   AxisService axisService) throws IOException {
+                                   final AxisService axisService) throws IOException {
         if (!canExposeServiceMetadata(axisService)){
             res.sendError(HttpServletResponse.SC_FORBIDDEN);
             return;
         }
-        OutputStream out = res.getOutputStream();
-        res.setContentType("text/xml");
-        String ip = extractHost(url);
-        String wsdlName = getParamtereIgnoreCase(req , "wsdl");
-
-        if (wsdlName != null && wsdlName.length()>0) {
-            axisService.printUserWSDL(out, wsdlName, ip);
-        } else {
-            axisService.printWSDL(out, ip);
-        }
+        final String ip = extractHost(url);
+        final String wsdlName = getParamtereIgnoreCase(req , "wsdl");
+
+        ServiceMetadataCache.Document document = metadataCache.getDocument(axisService,
+                "wsdl|" + wsdlName + "|" + ip, new ServiceMetadataCache.Renderer() {
+                    public int render(OutputStream out) throws IOException {
+                        if (wsdlName != null && wsdlName.length()>0) {
+                            axisService.printUserWSDL(out, wsdlName, ip);
+                        } else {
+                            axisService.printWSDL(out, ip);
+                        }
+                        return 1;
+                    }
+                });
+        writeDocument(req, res, document);
     }
 
     private void handleWSDL2Request(HttpServletRequest req,
                                     HttpServletResponse res,
                                     String url,
-                                    AxisService axisService) throws IOException {
+                                    final AxisService axisService) throws IOException {
         if (!canExposeServiceMetadata(axisService)){
             res.sendError(HttpServletResponse.SC_FORBIDDEN);
             return;
         }
-        res.setContentType("text/xml");
-        String ip = extractHost(url);
-        String wsdlName = getParamtereIgnoreCase(req , "wsdl2");
-
-        int ret = axisService.printWSDL2(res.getOutputStream(), ip, wsdlName);
+        final String ip = extractHost(url);
+        final String wsdlName = getParamtereIgnoreCase(req , "wsdl2");
+
+        ServiceMetadataCache.Document document = metadataCache.getDocument(axisService,
+                "wsdl2|" + wsdlName + "|" + ip, new ServiceMetadataCache.Renderer() {
+                    public int render(OutputStream out) throws IOException {
+                        return axisService.printWSDL2(out, ip, wsdlName);
+                    }
+                });
+        int ret = document.getStatus();
         if (ret == 0) {
             res.sendRedirect("");
         } else if (ret == -1) {
             res.sendError(HttpServletResponse.SC_NOT_FOUND);
+        } else {
+            writeDocument(req, res, document);
         }
     }
 
+    /**
+     * Write a rendered WSDL or schema document, or a 304 response if the client already has
+     * the current version of it.
+     */
+    private void writeDocument(HttpServletRequest req, HttpServletResponse res,
+                               ServiceMetadataCache.Document document) throws IOException {
+        res.setHeader("ETag", document.getETag());
+        if (document.matches(req.getHeader("If-None-Match"))) {
+            res.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        res.setContentType("text/xml");
+        res.setContentLength(document.getContent().length);
+        OutputStream out = res.getOutputStream();
+        out.write(document.getContent());
+        out.flush();
+    }
+
     public String getParamtereIgnoreCase(HttpServletRequest req ,String paraName){
         Enumeration e = req.getParameterNames();
         while (e.hasMoreElements()) {
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes data in GZIP format, like {@link java.util.zip.GZIPOutputStream}, but borrows its
+ * {@link Deflater} from a pool instead of allocating a new one (and its native buffers) for
+ * every request. The deflater is returned to the pool by {@link #finish()} or
+ * {@link #release()}.
+ */
+final class PooledGZIPOutputStream extends DeflaterOutputStream {
+    private static final int GZIP_MAGIC = 0x8b1f;
+
+    private static final BlockingQueue<Deflater> pool =
+            new ArrayBlockingQueue<Deflater>(Runtime.getRuntime().availableProcessors() * 2);
+
+    private final CRC32 crc = new CRC32();
+    private boolean released;
+
+    PooledGZIPOutputStream(OutputStream out) throws IOException {
+        super(out, borrow(), 8192);
+        writeHeader();
+    }
+
+    private static Deflater borrow() {
+        Deflater deflater = pool.poll();
+        return deflater != null ? deflater : new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    }
+
+    public synchronized void write(byte[] buf, int off, int len) throws IOException {
+        super.write(buf, off, len);
+        crc.update(buf, off, len);
+    }
+
+    /**
+     * Finishes writing compressed data to the output stream without closing the underlying
+     * stream, and returns the deflater to the pool.
+     */
+    public void finish() throws IOException {
+        if (released) {
+            return;
+        }
+        super.finish();
+        writeInt((int) crc.getValue());
+        writeInt((int) def.getBytesRead());
+        release();
+    }
+
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            release();
+            out.close();
+        }
+    }
+
+    /**
+     * Returns the deflater to the pool if that hasn't been done yet. The stream can't be used
+     * any more afterwards. This method must be called if the stream is abandoned without being
+     * finished.
+     */
+    void release() {
+        if (!released) {
+            released = true;
+            def.reset();
+            if (!pool.offer(def)) {
+                def.end();
+            }
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        out.write(new byte[] {
+                (byte) GZIP_MAGIC, (byte) (GZIP_MAGIC >> 8), Deflater.DEFLATED,
+                0, 0, 0, 0, 0, 0, 0 });
+    }
+
+    private void writeInt(int i) throws IOException {
+        out.write(i & 0xff);
+        out.write((i >> 8) & 0xff);
+        out.write((i >> 16) & 0xff);
+        out.write((i >> 24) & 0xff);
+    }
+}
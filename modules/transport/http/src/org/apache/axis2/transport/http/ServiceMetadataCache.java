@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http;
+
+import org.apache.axis2.Constants;
+import org.apache.axis2.description.AxisDescription;
+import org.apache.axis2.description.AxisEndpoint;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.Parameter;
+import org.apache.axis2.description.PolicySubject;
+import org.apache.axis2.util.JavaUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of the WSDL and schema documents served by {@link ListingAgent}.
+ * <p>
+ * Documents are cached per {@link AxisService} instance, so a redeployed service (which is a new
+ * instance) never sees the documents of its predecessor. Within a service, the documents are
+ * discarded as soon as the policies attached to the service, its operations, messages or
+ * bindings change, or when modules are engaged or operations added. Each document is keyed by
+ * the kind of document, its name and the host it was requested on, since the endpoint addresses
+ * in the generated WSDL depend on it.
+ * <p>
+ * Services that compute their metadata dynamically through a <code>WSDLSupplier</code> or
+ * <code>SchemaSupplier</code> are never cached. Caching can be disabled for a service, or
+ * globally in axis2.xml, with the <code>cacheServiceMetadata</code> parameter.
+ */
+public class ServiceMetadataCache {
+
+    /**
+     * Name of the parameter that disables caching when set to false.
+     */
+    public static final String CACHE_SERVICE_METADATA = "cacheServiceMetadata";
+
+    /**
+     * Upper bound on the number of documents cached per service. Keys include the requested
+     * host, so without a bound arbitrary Host headers could grow the cache indefinitely.
+     */
+    static final int MAX_DOCUMENTS_PER_SERVICE = 64;
+
+    /**
+     * Renders a document to a stream and returns a status code, as the print methods of
+     * {@link AxisService} do.
+     */
+    public interface Renderer {
+        int render(OutputStream out) throws IOException;
+    }
+
+    /**
+     * A rendered document.
+     */
+    public static final class Document {
+        private final byte[] content;
+        private final String etag;
+        private final int status;
+
+        Document(byte[] content, int status) {
+            this.content = content;
+            this.etag = computeETag(content);
+            this.status = status;
+        }
+
+        public byte[] getContent() {
+            return content;
+        }
+
+        public String getETag() {
+            return etag;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        /**
+         * Check whether the given If-None-Match header matches this document.
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class ServiceEntry {
+        final String version;
+        final Map<String, Document> documents = new ConcurrentHashMap<String, Document>();
+
+        ServiceEntry(String version) {
+            this.version = version;
+        }
+    }
+
+    private final Map<AxisService, ServiceEntry> services =
+            Collections.synchronizedMap(new WeakHashMap<AxisService, ServiceEntry>());
+
+    /**
+     * Get a document from the cache, rendering it if necessary.
+     *
+     * @param service the service the document belongs to
+     * @param key identifies the document within the service
+     * @param renderer renders the document if it is not cached
+     * @return the document
+     */
+    public Document getDocument(AxisService service, String key, Renderer renderer)
+            throws IOException {
+        if (!isCacheable(service)) {
+            return render(renderer);
+        }
+        String version = computeVersion(service);
+        ServiceEntry entry = services.get(service);
+        if (entry == null || !entry.version.equals(version)) {
+            entry = new ServiceEntry(version);
+            services.put(service, entry);
+        }
+        Document document = entry.documents.get(key);
+        if (document == null) {
+            document = render(renderer);
+            if (!isError(document) && entry.documents.size() < MAX_DOCUMENTS_PER_SERVICE) {
+                entry.documents.put(key, document);
+            }
+        }
+        return document;
+    }
+
+    private static Document render(Renderer renderer) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int status = renderer.render(out);
+        return new Document(out.toByteArray(), status);
+    }
+
+    private static boolean isError(Document document) {
+        // AxisService.printWSDL reports generation errors in the document itself
+        byte[] content = document.getContent();
+        byte[] marker = "<error>".getBytes();
+        if (content.length < marker.length) {
+            return false;
+        }
+        for (int i = 0; i < marker.length; i++) {
+            if (content[i] != marker[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isCacheable(AxisService service) {
+        Parameter parameter = service.getParameter(CACHE_SERVICE_METADATA);
+        if (parameter != null && JavaUtils.isFalseExplicitly(parameter.getValue())) {
+            return false;
+        }
+        return service.getParameter(Constants.WSDL_SUPPLIER_PARAM) == null
+                && service.getParameter(Constants.WSDL_11_SUPPLIER_CLASS_PARAM) == null
+                && service.getParameter(Constants.WSDL_20_SUPPLIER_CLASS_PARAM) == null
+                && service.getParameter("SchemaSupplier") == null;
+    }
+
+    /**
+     * Compute a string that changes whenever the generated metadata of the service may change.
+     */
+    static String computeVersion(AxisService service) {
+        long lastUpdated = lastUpdatedTime(service, 0);
+        for (AxisDescription parent = service.getParent(); parent != null;
+             parent = parent.getParent()) {
+            lastUpdated = Math.max(lastUpdated, lastUpdatedTime(parent.getPolicySubject()));
+        }
+        int operations = 0;
+        for (Iterator<?> it = service.getOperations(); it.hasNext(); it.next()) {
+            operations++;
+        }
+        for (AxisEndpoint endpoint : service.getEndpoints().values()) {
+            lastUpdated = Math.max(lastUpdated, lastUpdatedTime(endpoint, 0));
+            if (endpoint.getBinding() != null) {
+                lastUpdated = Math.max(lastUpdated, lastUpdatedTime(endpoint.getBinding(), 0));
+            }
+        }
+        return lastUpdated + ":" + operations + ":" + service.getEngagedModules().size();
+    }
+
+    private static long lastUpdatedTime(AxisDescription description, long lastUpdated) {
+        lastUpdated = Math.max(lastUpdated, lastUpdatedTime(description.getPolicySubject()));
+        for (Iterator<? extends AxisDescription> it = description.getChildren(); it.hasNext();) {
+            lastUpdated = lastUpdatedTime(it.next(), lastUpdated);
+        }
+        return lastUpdated;
+    }
+
+    private static long lastUpdatedTime(PolicySubject policySubject) {
+        return policySubject == null || policySubject.getLastUpdatedTime() == null ? 0
+                : policySubject.getLastUpdatedTime().getTime();
+    }
+
+    private static String computeETag(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(content);
+            StringBuilder buffer = new StringBuilder(digest.length * 2 + 2);
+            buffer.append('"');
+            for (byte b : digest) {
+                buffer.append(Character.forDigit((b >> 4) & 0xF, 16));
+                buffer.append(Character.forDigit(b & 0xF, 16));
+            }
+            buffer.append('"');
+            return buffer.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-1 is required to be supported by every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+}
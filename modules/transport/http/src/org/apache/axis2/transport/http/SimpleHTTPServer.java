@@ -91,7 +91,7 @@ public class SimpleHTTPServer implements TransportListener {
         httpDescription.setReceiver(this);
         trpInDesc = httpDescription;
         httpFactory.getListenerManager().addListener(httpDescription, true);
-        sessionManager = new SessionManager();
+        sessionManager = httpFactory.newSessionManager();
     }
 
     /**
@@ -115,6 +115,9 @@ public class SimpleHTTPServer implements TransportListener {
             if (httpFactory == null) {
                 httpFactory = new HttpFactory(configurationContext, port);
             }
+            if (sessionManager == null) {
+                sessionManager = httpFactory.newSessionManager();
+            }
         } catch (Exception e1) {
             throw AxisFault.makeFault(e1);
         }
@@ -231,6 +234,9 @@ public class SimpleHTTPServer implements TransportListener {
                 log.error(e.getMessage(), e);
             }
         }
+        if (sessionManager != null) {
+            sessionManager.shutdown();
+        }
     }
 
     /**
@@ -50,11 +50,13 @@ public class AxisRequestEntityImpl implements HttpEntity {
         return null;
     }
 
+    /**
+     * Get the content of a buffered entity. This is only used by the non blocking client, whose
+     * I/O reactor pulls the content; the blocking client calls {@link #writeTo(OutputStream)}.
+     */
     @Override
     public InputStream getContent() throws IOException {
-        // Implementations are allowed to throw UnsupportedOperationException and this method is
-        // never called for outgoing requests anyway.
-        throw new UnsupportedOperationException();
+        return entity.getContent();
     }
 
     @Override
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http.impl.httpclient4;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.description.TransportOutDescription;
+import org.apache.axis2.transport.http.HTTPTransportConstants;
+import org.apache.http.config.Registry;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.reactor.ConnectingIOReactor;
+import org.apache.http.nio.reactor.IOReactorException;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The connection pool of the asynchronous HTTP client of a configuration context. It is
+ * configured from the same transport sender parameters as {@link HTTPConnectionPool}, i.e. the
+ * total and per route limits, the time to live and idle timeout of connections (enforced by the
+ * same background eviction task) and the connection request timeout. The
+ * <tt>connectionValidateAfterInactivity</tt> parameter doesn't apply: the I/O reactor detects
+ * connections closed by the peer by itself.
+ * <p>
+ * The pool can be retrieved from the
+ * {@link HTTPTransportConstants#ASYNC_HTTP_CONNECTION_MANAGER} property of the configuration
+ * context.
+ */
+public class HTTPAsyncConnectionPool extends PoolingNHttpClientConnectionManager {
+    private final long timeToLive;
+    private final long idleTimeout;
+    private final int connectionRequestTimeout;
+    private ScheduledFuture<?> evictor;
+
+    /**
+     * Create a pool.
+     *
+     * @param ioReactor the I/O reactor
+     * @param sessionStrategyRegistry the I/O session strategies
+     * @param timeToLive the maximum lifetime of a connection in milliseconds, or a value
+     *        &lt;= 0 for an unlimited lifetime
+     * @param idleTimeout the time in milliseconds after which idle connections are closed by
+     *        {@link #closeExpiredAndIdleConnections()}, or a value &lt;= 0 to keep them
+     * @param connectionRequestTimeout the maximum time in milliseconds to wait for a connection,
+     *        or -1 to wait without limit
+     */
+    public HTTPAsyncConnectionPool(ConnectingIOReactor ioReactor,
+                                   Registry<SchemeIOSessionStrategy> sessionStrategyRegistry,
+                                   long timeToLive, long idleTimeout,
+                                   int connectionRequestTimeout) {
+        super(ioReactor, null, sessionStrategyRegistry, null, null, timeToLive,
+                TimeUnit.MILLISECONDS);
+        this.timeToLive = timeToLive;
+        this.idleTimeout = idleTimeout;
+        this.connectionRequestTimeout = connectionRequestTimeout;
+        setMaxTotal(HTTPTransportConstants.DEFAULT_MAX_TOTAL_CONNECTIONS);
+        setDefaultMaxPerRoute(HTTPTransportConstants.DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
+    }
+
+    /**
+     * Create and configure a pool from the parameters of the given transport sender.
+     *
+     * @param scheduler the executor that runs the eviction task, or null to not evict connections
+     *        in the background
+     * @throws AxisFault if a parameter has an invalid value or the I/O reactor can't be created
+     */
+    public static HTTPAsyncConnectionPool create(
+            Registry<SchemeIOSessionStrategy> sessionStrategyRegistry,
+            TransportOutDescription transportOut, ScheduledExecutorService scheduler)
+            throws AxisFault {
+        ConnectingIOReactor ioReactor;
+        try {
+            ioReactor = new DefaultConnectingIOReactor(IOReactorConfig.DEFAULT);
+        } catch (IOReactorException ex) {
+            throw AxisFault.makeFault(ex);
+        }
+        HTTPAsyncConnectionPool pool = new HTTPAsyncConnectionPool(ioReactor,
+                sessionStrategyRegistry,
+                HTTPConnectionPool.getLongParameter(transportOut,
+                        HTTPTransportConstants.CONNECTION_TIME_TO_LIVE, -1),
+                HTTPConnectionPool.getLongParameter(transportOut,
+                        HTTPTransportConstants.CONNECTION_IDLE_TIMEOUT, 0),
+                (int)HTTPConnectionPool.getLongParameter(transportOut,
+                        HTTPTransportConstants.CONNECTION_REQUEST_TIMEOUT, -1));
+        pool.setMaxTotal((int)HTTPConnectionPool.getLongParameter(transportOut,
+                HTTPTransportConstants.MAX_TOTAL_CONNECTIONS,
+                HTTPTransportConstants.DEFAULT_MAX_TOTAL_CONNECTIONS));
+        pool.setDefaultMaxPerRoute((int)HTTPConnectionPool.getLongParameter(transportOut,
+                HTTPTransportConstants.MAX_CONNECTIONS_PER_ROUTE,
+                HTTPTransportConstants.DEFAULT_MAX_CONNECTIONS_PER_ROUTE));
+        for (Map.Entry<HttpRoute,Integer> entry :
+                HTTPConnectionPool.getRouteMaxConnections(transportOut).entrySet()) {
+            pool.setMaxPerRoute(entry.getKey(), entry.getValue());
+        }
+        pool.startEvictor(scheduler, HTTPConnectionPool.getLongParameter(transportOut,
+                HTTPTransportConstants.CONNECTION_EVICTION_INTERVAL,
+                HTTPTransportConstants.DEFAULT_CONNECTION_EVICTION_INTERVAL));
+        return pool;
+    }
+
+    /**
+     * Get the maximum time to wait for a connection from the pool.
+     *
+     * @return the timeout in milliseconds, or -1 if there is no limit
+     */
+    public int getConnectionRequestTimeout() {
+        return connectionRequestTimeout;
+    }
+
+    /**
+     * Close the connections that have expired and, if an idle timeout is configured, the
+     * connections that have been idle for longer than that timeout.
+     */
+    public void closeExpiredAndIdleConnections() {
+        closeExpiredConnections();
+        if (idleTimeout > 0) {
+            closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void startEvictor(ScheduledExecutorService scheduler, long interval) {
+        if (scheduler == null || interval <= 0 || (timeToLive <= 0 && idleTimeout <= 0)) {
+            return;
+        }
+        evictor = HTTPConnectionPool.scheduleEvictor(scheduler, new AsyncPoolEvictor(this),
+                interval);
+    }
+
+    @Override
+    public void shutdown(long waitMs) throws IOException {
+        synchronized (this) {
+            if (evictor != null) {
+                evictor.cancel(false);
+                evictor = null;
+            }
+        }
+        super.shutdown(waitMs);
+    }
+
+    private static final class AsyncPoolEvictor
+            extends HTTPConnectionPool.Evictor<HTTPAsyncConnectionPool> {
+        AsyncPoolEvictor(HTTPAsyncConnectionPool pool) {
+            super(pool);
+        }
+
+        @Override
+        void evict(HTTPAsyncConnectionPool pool) {
+            pool.closeExpiredAndIdleConnections();
+        }
+    }
+}
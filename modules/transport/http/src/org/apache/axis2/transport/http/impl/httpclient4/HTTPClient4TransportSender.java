@@ -26,20 +26,72 @@ import org.apache.axis2.AxisFault;
 import org.apache.axis2.context.ConfigurationContext;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.context.OperationContext;
+import org.apache.axis2.description.Parameter;
+import org.apache.axis2.description.TransportOutDescription;
+import org.apache.axis2.kernel.AsyncTransportSender;
 import org.apache.axis2.kernel.http.HTTPConstants;
 import org.apache.axis2.transport.http.HTTPSender;
 import org.apache.axis2.transport.http.AbstractHTTPTransportSender;
 import org.apache.axis2.transport.http.HTTPTransportConstants;
+import org.apache.axis2.util.JavaUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 
 /**
  * The Class HTTPClient4TransportSender use HC HTTPClient 4.X. 
  */
-public class HTTPClient4TransportSender extends AbstractHTTPTransportSender {
+public class HTTPClient4TransportSender extends AbstractHTTPTransportSender
+        implements AsyncTransportSender {
 
     private static final Log log = LogFactory.getLog(HTTPClient4TransportSender.class);
 
+    private ConfigurationContext configurationContext;
+
+    private boolean nonBlocking;
+
+    @Override
+    public void init(ConfigurationContext confContext,
+                     TransportOutDescription transportOut) throws AxisFault {
+        super.init(confContext, transportOut);
+        configurationContext = confContext;
+        Parameter param = transportOut.getParameter(HTTPTransportConstants.NON_BLOCKING);
+        nonBlocking = param != null && JavaUtils.isTrueExplicitly(param.getValue());
+    }
+
+    /**
+     * Non blocking requests are sent using the asynchronous HTTP client if enabled by the
+     * <tt>nonBlocking</tt> transport parameter. The message context property with the same name
+     * overrides the transport parameter.
+     */
+    public boolean isNonBlocking(MessageContext msgContext) {
+        Object value = msgContext.getProperty(HTTPTransportConstants.NON_BLOCKING);
+        return value == null ? nonBlocking : JavaUtils.isTrueExplicitly(value);
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        if (configurationContext == null) {
+            return;
+        }
+        CloseableHttpAsyncClient asyncClient;
+        synchronized (configurationContext) {
+            asyncClient = (CloseableHttpAsyncClient)configurationContext.getProperty(
+                    HTTPTransportConstants.CACHED_HTTP_ASYNC_CLIENT);
+            configurationContext.removeProperty(HTTPTransportConstants.CACHED_HTTP_ASYNC_CLIENT);
+            configurationContext.removeProperty(
+                    HTTPTransportConstants.ASYNC_HTTP_CONNECTION_MANAGER);
+        }
+        if (asyncClient != null) {
+            try {
+                asyncClient.close();
+            } catch (IOException ex) {
+                log.warn("Failed to close the asynchronous HTTP client", ex);
+            }
+        }
+    }
+
     @Override
     public void cleanup(MessageContext msgContext) throws AxisFault {
         log.trace("cleanup() releasing connection");
@@ -0,0 +1,352 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http.impl.httpclient4;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.description.Parameter;
+import org.apache.axis2.description.TransportOutDescription;
+import org.apache.axis2.transport.http.HTTPTransportConstants;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpHost;
+import org.apache.http.config.Registry;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The connection pool shared by the HTTP clients of a configuration context. It is configured
+ * using the following transport sender parameters in axis2.xml:
+ * <dl>
+ * <dt>maxTotalConnections</dt>
+ * <dd>The maximum number of connections in the pool (default 200).</dd>
+ * <dt>maxConnectionsPerRoute</dt>
+ * <dd>The default maximum number of connections per route (default 200).</dd>
+ * <dt>routeMaxConnections</dt>
+ * <dd>A comma separated list of per route limits, in the form
+ * <code>https://host:port=limit</code>. The port may be omitted if it is the default port of the
+ * scheme. This only applies to direct routes, i.e. not to routes through a proxy.</dd>
+ * <dt>connectionTimeToLive</dt>
+ * <dd>The maximum lifetime of a connection in milliseconds (default: unlimited).</dd>
+ * <dt>connectionIdleTimeout</dt>
+ * <dd>The time in milliseconds after which idle connections are closed (default: never).</dd>
+ * <dt>connectionEvictionInterval</dt>
+ * <dd>The interval in milliseconds at which a background task closes expired and idle
+ * connections (default 5000). The task only runs if <code>connectionTimeToLive</code> or
+ * <code>connectionIdleTimeout</code> is set.</dd>
+ * <dt>connectionValidateAfterInactivity</dt>
+ * <dd>The time in milliseconds after which an idle connection is checked for staleness before
+ * it is reused (default 2000).</dd>
+ * <dt>connectionRequestTimeout</dt>
+ * <dd>The maximum time in milliseconds to wait for a connection from the pool (default:
+ * unlimited).</dd>
+ * </dl>
+ * The pool is shared by the http and https transport senders and is configured from the
+ * parameters of the sender that creates it. The pool of the asynchronous client,
+ * {@link HTTPAsyncConnectionPool}, is configured from the same parameters.
+ * <p>
+ * The pool statistics (leased, available and pending connections) are exposed by
+ * {@link #getTotalStats()}, {@link #getRouteStats()} and the related getters. The pool can be
+ * retrieved from the {@link org.apache.axis2.kernel.http.HTTPConstants#MULTITHREAD_HTTP_CONNECTION_MANAGER}
+ * property of the configuration context.
+ */
+public class HTTPConnectionPool extends PoolingHttpClientConnectionManager {
+    private static final Log log = LogFactory.getLog(HTTPConnectionPool.class);
+
+    private final long timeToLive;
+    private final long idleTimeout;
+    private final int connectionRequestTimeout;
+    private ScheduledFuture<?> evictor;
+
+    /**
+     * Create a pool with the default settings.
+     */
+    public HTTPConnectionPool(Registry<ConnectionSocketFactory> socketFactoryRegistry) {
+        this(socketFactoryRegistry, -1, 0, -1);
+    }
+
+    /**
+     * Create a pool.
+     *
+     * @param socketFactoryRegistry the socket factories
+     * @param timeToLive the maximum lifetime of a connection in milliseconds, or a value
+     *        &lt;= 0 for an unlimited lifetime
+     * @param idleTimeout the time in milliseconds after which idle connections are closed by
+     *        {@link #closeExpiredAndIdleConnections()}, or a value &lt;= 0 to keep them
+     * @param connectionRequestTimeout the maximum time in milliseconds to wait for a connection,
+     *        or -1 to wait without limit
+     */
+    public HTTPConnectionPool(Registry<ConnectionSocketFactory> socketFactoryRegistry,
+                              long timeToLive, long idleTimeout, int connectionRequestTimeout) {
+        super(socketFactoryRegistry, null, null, null, timeToLive, TimeUnit.MILLISECONDS);
+        this.timeToLive = timeToLive;
+        this.idleTimeout = idleTimeout;
+        this.connectionRequestTimeout = connectionRequestTimeout;
+        setMaxTotal(HTTPTransportConstants.DEFAULT_MAX_TOTAL_CONNECTIONS);
+        setDefaultMaxPerRoute(HTTPTransportConstants.DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
+    }
+
+    /**
+     * Create and configure a pool from the parameters of the given transport sender.
+     *
+     * @param scheduler the executor that runs the eviction task, normally the
+     *        {@link org.apache.axis2.context.ConfigurationContext#getScheduler() scheduler} of the
+     *        configuration context, or null to not evict connections in the background
+     * @throws AxisFault if a parameter has an invalid value
+     */
+    public static HTTPConnectionPool create(Registry<ConnectionSocketFactory> socketFactoryRegistry,
+                                            TransportOutDescription transportOut,
+                                            ScheduledExecutorService scheduler)
+            throws AxisFault {
+        HTTPConnectionPool pool = new HTTPConnectionPool(socketFactoryRegistry,
+                getLongParameter(transportOut, HTTPTransportConstants.CONNECTION_TIME_TO_LIVE, -1),
+                getLongParameter(transportOut, HTTPTransportConstants.CONNECTION_IDLE_TIMEOUT, 0),
+                (int)getLongParameter(transportOut,
+                        HTTPTransportConstants.CONNECTION_REQUEST_TIMEOUT, -1));
+        pool.setMaxTotal((int)getLongParameter(transportOut,
+                HTTPTransportConstants.MAX_TOTAL_CONNECTIONS,
+                HTTPTransportConstants.DEFAULT_MAX_TOTAL_CONNECTIONS));
+        pool.setDefaultMaxPerRoute((int)getLongParameter(transportOut,
+                HTTPTransportConstants.MAX_CONNECTIONS_PER_ROUTE,
+                HTTPTransportConstants.DEFAULT_MAX_CONNECTIONS_PER_ROUTE));
+        long validateAfterInactivity = getLongParameter(transportOut,
+                HTTPTransportConstants.CONNECTION_VALIDATE_AFTER_INACTIVITY, -1);
+        if (validateAfterInactivity >= 0) {
+            pool.setValidateAfterInactivity((int)validateAfterInactivity);
+        }
+        for (Map.Entry<HttpRoute,Integer> entry : getRouteMaxConnections(transportOut).entrySet()) {
+            pool.setMaxPerRoute(entry.getKey(), entry.getValue());
+        }
+        pool.startEvictor(scheduler, getLongParameter(transportOut,
+                HTTPTransportConstants.CONNECTION_EVICTION_INTERVAL,
+                HTTPTransportConstants.DEFAULT_CONNECTION_EVICTION_INTERVAL));
+        return pool;
+    }
+
+    /**
+     * Parse the per route limits given by the <tt>routeMaxConnections</tt> parameter.
+     *
+     * @throws AxisFault if the parameter has an invalid value
+     */
+    static Map<HttpRoute,Integer> getRouteMaxConnections(TransportOutDescription transportOut)
+            throws AxisFault {
+        Map<HttpRoute,Integer> limits = new LinkedHashMap<HttpRoute,Integer>();
+        String routes = getParameter(transportOut, HTTPTransportConstants.ROUTE_MAX_CONNECTIONS);
+        if (routes != null) {
+            for (String route : routes.split(",")) {
+                route = route.trim();
+                if (route.length() > 0) {
+                    addRouteMaxConnections(limits, route);
+                }
+            }
+        }
+        return limits;
+    }
+
+    private static String getParameter(TransportOutDescription transportOut, String name) {
+        Parameter param = transportOut == null ? null : transportOut.getParameter(name);
+        if (param == null || !(param.getValue() instanceof String)) {
+            return null;
+        }
+        return ((String)param.getValue()).trim();
+    }
+
+    static long getLongParameter(TransportOutDescription transportOut, String name,
+                                 long def) throws AxisFault {
+        String value = getParameter(transportOut, name);
+        if (value == null) {
+            return def;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            throw new AxisFault("Invalid value for parameter " + name + ": " + value);
+        }
+    }
+
+    private static void addRouteMaxConnections(Map<HttpRoute,Integer> limits, String route)
+            throws AxisFault {
+        int idx = route.lastIndexOf('=');
+        if (idx == -1) {
+            throw new AxisFault("Invalid route limit (expected uri=limit): " + route);
+        }
+        try {
+            URI uri = new URI(route.substring(0, idx).trim());
+            String scheme = uri.getScheme();
+            int port = uri.getPort();
+            if (port == -1) {
+                if (HTTPTransportConstants.PROTOCOL_HTTP.equals(scheme)) {
+                    port = 80;
+                } else if (HTTPTransportConstants.PROTOCOL_HTTPS.equals(scheme)) {
+                    port = 443;
+                }
+            }
+            if (uri.getHost() == null || port == -1) {
+                throw new AxisFault("Invalid route in route limit: " + route);
+            }
+            HttpHost target = new HttpHost(uri.getHost(), port, scheme);
+            limits.put(new HttpRoute(target, null,
+                    HTTPTransportConstants.PROTOCOL_HTTPS.equals(scheme)),
+                    Integer.parseInt(route.substring(idx + 1).trim()));
+        } catch (URISyntaxException ex) {
+            throw new AxisFault("Invalid route in route limit: " + route, ex);
+        } catch (NumberFormatException ex) {
+            throw new AxisFault("Invalid limit in route limit: " + route);
+        }
+    }
+
+    /**
+     * Get the maximum time to wait for a connection from the pool.
+     *
+     * @return the timeout in milliseconds, or -1 if there is no limit
+     */
+    public int getConnectionRequestTimeout() {
+        return connectionRequestTimeout;
+    }
+
+    /**
+     * Close the connections that have expired and, if an idle timeout is configured, the
+     * connections that have been idle for longer than that timeout.
+     */
+    public void closeExpiredAndIdleConnections() {
+        closeExpiredConnections();
+        if (idleTimeout > 0) {
+            closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @return the number of connections that are currently in use
+     */
+    public int getLeasedConnections() {
+        return getTotalStats().getLeased();
+    }
+
+    /**
+     * @return the number of idle connections kept in the pool
+     */
+    public int getAvailableConnections() {
+        return getTotalStats().getAvailable();
+    }
+
+    /**
+     * @return the number of requests waiting for a connection
+     */
+    public int getPendingRequests() {
+        return getTotalStats().getPending();
+    }
+
+    /**
+     * Get the statistics of each route that the pool has connections for.
+     *
+     * @return the statistics, keyed by route
+     */
+    public Map<HttpRoute,PoolStats> getRouteStats() {
+        Map<HttpRoute,PoolStats> stats = new LinkedHashMap<HttpRoute,PoolStats>();
+        for (HttpRoute route : getRoutes()) {
+            stats.put(route, getStats(route));
+        }
+        return stats;
+    }
+
+    private synchronized void startEvictor(ScheduledExecutorService scheduler, long interval) {
+        if (scheduler == null || interval <= 0 || (timeToLive <= 0 && idleTimeout <= 0)) {
+            return;
+        }
+        evictor = scheduleEvictor(scheduler, new PoolEvictor(this), interval);
+    }
+
+    /**
+     * Run an eviction task periodically on the given scheduler.
+     *
+     * @return the scheduled task, or null if the scheduler has been shut down
+     */
+    static ScheduledFuture<?> scheduleEvictor(ScheduledExecutorService scheduler,
+                                              Evictor<?> evictor, long interval) {
+        try {
+            return scheduler.scheduleWithFixedDelay(evictor, interval, interval,
+                    TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            log.warn("Not evicting HTTP connections in the background: the scheduler is shut down");
+            return null;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        synchronized (this) {
+            if (evictor != null) {
+                evictor.cancel(false);
+                evictor = null;
+            }
+        }
+        super.shutdown();
+    }
+
+    /**
+     * Periodically closes expired and idle connections. Only holds a weak reference to the pool,
+     * so that a pool that is discarded without being shut down can still be garbage collected.
+     * Subclasses must not capture the pool either, i.e. they must not be inner classes of it.
+     */
+    abstract static class Evictor<T> implements Runnable {
+        private final WeakReference<T> poolRef;
+
+        Evictor(T pool) {
+            poolRef = new WeakReference<T>(pool);
+        }
+
+        abstract void evict(T pool);
+
+        public void run() {
+            T pool = poolRef.get();
+            if (pool == null) {
+                // The pool has been garbage collected; throwing suppresses further executions
+                throw new IllegalStateException("Connection pool no longer exists");
+            }
+            try {
+                evict(pool);
+            } catch (RuntimeException ex) {
+                log.warn("Failed to evict connections from the HTTP connection pool", ex);
+            }
+        }
+    }
+
+    private static final class PoolEvictor extends Evictor<HTTPConnectionPool> {
+        PoolEvictor(HTTPConnectionPool pool) {
+            super(pool);
+        }
+
+        @Override
+        void evict(HTTPConnectionPool pool) {
+            pool.closeExpiredAndIdleConnections();
+        }
+    }
+}
@@ -22,9 +22,11 @@ package org.apache.axis2.transport.http.impl.httpclient4;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.context.ConfigurationContext;
 import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.kernel.TransportResponseCallback;
 import org.apache.axis2.kernel.http.HTTPConstants;
 import org.apache.axis2.transport.http.AxisRequestEntity;
 import org.apache.axis2.transport.http.HTTPSender;
+import org.apache.axis2.transport.http.HTTPTransportConstants;
 import org.apache.axis2.transport.http.Request;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -36,7 +38,12 @@ import org.apache.http.conn.socket.ConnectionSocketFactory;
 import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.nio.client.HttpAsyncClient;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
 import org.apache.http.ssl.SSLContexts;
 
 import java.net.URL;
@@ -50,10 +57,36 @@ public class HTTPSenderImpl extends HTTPSender {
     @Override
     protected Request createRequest(MessageContext msgContext, String methodName, URL url,
             AxisRequestEntity requestEntity) throws AxisFault {
-        return new RequestImpl(getHttpClient(msgContext), msgContext, methodName, url, requestEntity);
+        HttpAsyncClient asyncClient = null;
+        if (msgContext.getProperty(TransportResponseCallback.PROPERTY) != null) {
+            asyncClient = getHttpAsyncClient(msgContext);
+        }
+        RequestImpl request = new RequestImpl(getHttpClient(msgContext), asyncClient, msgContext,
+                methodName, url, requestEntity);
+        int timeout = -1;
+        if (asyncClient != null) {
+            Object connManager = msgContext.getConfigurationContext().getProperty(
+                    HTTPTransportConstants.ASYNC_HTTP_CONNECTION_MANAGER);
+            if (connManager instanceof HTTPAsyncConnectionPool) {
+                timeout = ((HTTPAsyncConnectionPool)connManager).getConnectionRequestTimeout();
+            }
+        } else {
+            Object connManager = msgContext.getProperty(HTTPConstants.MULTITHREAD_HTTP_CONNECTION_MANAGER);
+            if (connManager == null) {
+                connManager = msgContext.getConfigurationContext().getProperty(
+                        HTTPConstants.MULTITHREAD_HTTP_CONNECTION_MANAGER);
+            }
+            if (connManager instanceof HTTPConnectionPool) {
+                timeout = ((HTTPConnectionPool)connManager).getConnectionRequestTimeout();
+            }
+        }
+        if (timeout >= 0) {
+            request.setConnectionRequestTimeout(timeout);
+        }
+        return request;
     }
 
-    private HttpClient getHttpClient(MessageContext msgContext) {
+    private HttpClient getHttpClient(MessageContext msgContext) throws AxisFault {
         ConfigurationContext configContext = msgContext.getConfigurationContext();
 
         HttpClient httpClient = (HttpClient) msgContext
@@ -103,9 +136,8 @@ public class HTTPSenderImpl extends HTTPSender {
                                 .register("https", new SSLConnectionSocketFactory(sslContext))
                                 .build();
 
-                        connManager = new PoolingHttpClientConnectionManager(socketFactoryRegistry);
-                        ((PoolingHttpClientConnectionManager)connManager).setMaxTotal(200);
-                        ((PoolingHttpClientConnectionManager)connManager).setDefaultMaxPerRoute(200);
+                        connManager = HTTPConnectionPool.create(socketFactoryRegistry,
+                                msgContext.getTransportOut(), configContext.getScheduler());
                         configContext.setProperty(
                                 HTTPConstants.MULTITHREAD_HTTP_CONNECTION_MANAGER, connManager);
                     }
@@ -122,4 +154,40 @@ public class HTTPSenderImpl extends HTTPSender {
         }
     }
 
+    /**
+     * Get the client used to execute requests without blocking the calling thread. Unlike the
+     * blocking client, a single instance is shared by all requests and its I/O reactor runs until
+     * the transport sender is stopped. Its connection pool is an {@link HTTPAsyncConnectionPool}
+     * configured from the same parameters as the pool of the blocking client.
+     */
+    private HttpAsyncClient getHttpAsyncClient(MessageContext msgContext) throws AxisFault {
+        ConfigurationContext configContext = msgContext.getConfigurationContext();
+        synchronized (configContext) {
+            CloseableHttpAsyncClient asyncClient = (CloseableHttpAsyncClient) configContext
+                    .getProperty(HTTPTransportConstants.CACHED_HTTP_ASYNC_CLIENT);
+            if (asyncClient != null) {
+                return asyncClient;
+            }
+            log.trace("Making new asynchronous HTTP client");
+            SSLContext sslContext = (SSLContext)configContext.getProperty(SSLContext.class.getName());
+            if (sslContext == null) {
+                sslContext = SSLContexts.createDefault();
+            }
+            Registry<SchemeIOSessionStrategy> sessionStrategyRegistry = RegistryBuilder.<SchemeIOSessionStrategy>create()
+                    .register("http", NoopIOSessionStrategy.INSTANCE)
+                    .register("https", new SSLIOSessionStrategy(sslContext))
+                    .build();
+            HTTPAsyncConnectionPool connManager = HTTPAsyncConnectionPool.create(
+                    sessionStrategyRegistry, msgContext.getTransportOut(),
+                    configContext.getScheduler());
+            asyncClient = HttpAsyncClients.custom()
+                    .setConnectionManager(connManager)
+                    .build();
+            asyncClient.start();
+            configContext.setProperty(HTTPTransportConstants.ASYNC_HTTP_CONNECTION_MANAGER,
+                    connManager);
+            configContext.setProperty(HTTPTransportConstants.CACHED_HTTP_ASYNC_CLIENT, asyncClient);
+            return asyncClient;
+        }
+    }
 }
@@ -29,12 +29,13 @@ import java.util.Map;
 
 import org.apache.axiom.mime.Header;
 import org.apache.axis2.AxisFault;
+import org.apache.axis2.context.ConfigurationContext;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.kernel.http.HTTPConstants;
+import org.apache.axis2.transport.http.AsyncRequest;
 import org.apache.axis2.transport.http.AxisRequestEntity;
 import org.apache.axis2.transport.http.HTTPAuthenticator;
 import org.apache.axis2.transport.http.HTTPTransportConstants;
-import org.apache.axis2.transport.http.Request;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.HeaderElement;
@@ -53,28 +54,45 @@ import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.params.AuthPolicy;
 import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.nio.client.HttpAsyncClient;
 import org.apache.http.util.EntityUtils;
 
-final class RequestImpl implements Request {
+final class RequestImpl implements AsyncRequest {
     private static final String[] COOKIE_HEADER_NAMES = { HTTPConstants.HEADER_SET_COOKIE, HTTPConstants.HEADER_SET_COOKIE2 };
     
     private static final Log log = LogFactory.getLog(RequestImpl.class);
     
     private final HttpClient httpClient;
+    private final HttpAsyncClient asyncClient;
     private final MessageContext msgContext;
     private final URL url;
     private final HttpRequestBase method;
     private final HttpHost httpHost;
     private final RequestConfig.Builder requestConfig = RequestConfig.custom();
     private final HttpClientContext clientContext = HttpClientContext.create();
-    private HttpResponse response;
+    private final AxisRequestEntity requestEntity;
+    private volatile HttpResponse response;
 
     RequestImpl(HttpClient httpClient, MessageContext msgContext, final String methodName, URL url,
             AxisRequestEntity requestEntity) throws AxisFault {
+        this(httpClient, null, msgContext, methodName, url, requestEntity);
+    }
+
+    /**
+     * Create a request that can be executed using either client.
+     *
+     * @param asyncClient the client used by {@link #executeAsync(AsyncRequest.Callback)}; may be
+     *        <code>null</code> if the request is only executed synchronously
+     */
+    RequestImpl(HttpClient httpClient, HttpAsyncClient asyncClient, MessageContext msgContext,
+            final String methodName, URL url, AxisRequestEntity requestEntity) throws AxisFault {
         this.httpClient = httpClient;
+        this.asyncClient = asyncClient;
         this.msgContext = msgContext;
         this.url = url;
+        this.requestEntity = requestEntity;
         if (requestEntity == null) {
             method = new HttpRequestBase() {
                 @Override
@@ -147,6 +165,10 @@ final class RequestImpl implements Request {
         requestConfig.setSocketTimeout(timeout);
     }
 
+    void setConnectionRequestTimeout(int timeout) {
+        requestConfig.setConnectionRequestTimeout(timeout);
+    }
+
     @Override
     public int getStatusCode() {
         return response.getStatusLine().getStatusCode();
@@ -192,6 +214,72 @@ final class RequestImpl implements Request {
 
     @Override
     public void execute() throws IOException {
+        prepare();
+        response = httpClient.execute(httpHost, method, clientContext);
+    }
+
+    @Override
+    public void executeAsync(final Callback callback) throws IOException {
+        if (asyncClient == null) {
+            throw new IllegalStateException("No asynchronous client available");
+        }
+        prepare();
+        if (requestEntity != null) {
+            // The formatter writes to an OutputStream, but the I/O reactor pulls the content;
+            // serialize the message on the calling thread (unless this has already been done
+            // to compute the Content-Length) and let the reactor stream the buffered content
+            requestEntity.buffer();
+        }
+        asyncClient.execute(httpHost, method, clientContext, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(final HttpResponse result) {
+                response = result;
+                dispatch(new Runnable() {
+                    public void run() {
+                        callback.completed();
+                    }
+                });
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                dispatch(new Runnable() {
+                    public void run() {
+                        callback.failed(ex);
+                    }
+                });
+            }
+
+            @Override
+            public void cancelled() {
+                dispatch(new Runnable() {
+                    public void run() {
+                        callback.failed(new IOException("Request cancelled"));
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Run a callback on a thread of the configuration context's thread pool, so that the I/O
+     * reactor thread that received the response isn't held up while the response is processed.
+     */
+    private void dispatch(Runnable task) {
+        ConfigurationContext configContext = msgContext.getConfigurationContext();
+        if (configContext != null) {
+            try {
+                configContext.getThreadPool().execute(task);
+                return;
+            } catch (RuntimeException ex) {
+                log.warn("Unable to process the response on a worker thread; "
+                        + "processing it on the I/O thread", ex);
+            }
+        }
+        task.run();
+    }
+
+    private void prepare() throws AxisFault {
         populateHostConfiguration();
 
         // add compression headers if needed
@@ -206,8 +294,6 @@ final class RequestImpl implements Request {
         }
 
         method.setConfig(requestConfig.build());
-
-        response = httpClient.execute(httpHost, method, clientContext);
     }
 
     @Override
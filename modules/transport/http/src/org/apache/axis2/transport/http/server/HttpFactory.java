@@ -26,6 +26,9 @@ import org.apache.axis2.description.Parameter;
 import org.apache.axis2.description.TransportInDescription;
 import org.apache.axis2.engine.ListenerManager;
 import org.apache.axis2.transport.http.HTTPWorkerFactory;
+import org.apache.axis2.util.threadpool.ThreadPool;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.apache.http.ConnectionReuseStrategy;
 import org.apache.http.HttpResponseFactory;
 import org.apache.http.impl.DefaultConnectionReuseStrategy;
@@ -54,6 +57,8 @@ import java.util.concurrent.TimeUnit;
  */
 public class HttpFactory {
 
+    private static final Log log = LogFactory.getLog(HttpFactory.class);
+
     /**
      * Name of axis2.xml port parameter for SimpleHTTPServer configuration
      */
@@ -100,6 +105,21 @@ public class HttpFactory {
      */
     public static final String PARAMETER_THREAD_KEEP_ALIVE_TIME_UNIT = "threadKeepAliveTimeUnit";
 
+    /**
+     * Name of axis2.xml maxSessions parameter for SimpleHTTPServer configuration
+     */
+    public static final String PARAMETER_MAX_SESSIONS = "maxSessions";
+
+    /**
+     * Name of axis2.xml sessionCleanupInterval parameter for SimpleHTTPServer configuration
+     */
+    public static final String PARAMETER_SESSION_CLEANUP_INTERVAL = "sessionCleanupInterval";
+
+    /**
+     * Name of axis2.xml requestThreadPoolType parameter for SimpleHTTPServer configuration
+     */
+    public static final String PARAMETER_REQUEST_THREAD_POOL_TYPE = "requestThreadPoolType";
+
     private ConfigurationContext configurationContext;
     private TransportInDescription httpConfiguration;
     private int port;
@@ -111,6 +131,9 @@ public class HttpFactory {
     private int requestMaxThreadPoolSize;
     private long threadKeepAliveTime;
     private TimeUnit threadKeepAliveTimeUnit;
+    private int maxSessions;
+    private long sessionCleanupInterval;
+    private String requestThreadPoolType;
 
     private WorkerFactory requestWorkerFactory = null;
 
@@ -130,6 +153,17 @@ public class HttpFactory {
         threadKeepAliveTime = getLongParam(PARAMETER_THREAD_KEEP_ALIVE_TIME, 180L);
         threadKeepAliveTimeUnit =
                 getTimeUnitParam(PARAMETER_THREAD_KEEP_ALIVE_TIME_UNIT, TimeUnit.SECONDS);
+        maxSessions = getIntParam(PARAMETER_MAX_SESSIONS, 0);
+        sessionCleanupInterval = getLongParam(PARAMETER_SESSION_CLEANUP_INTERVAL,
+                SessionManager.DEFAULT_CLEANUP_INTERVAL);
+        requestThreadPoolType = getStringParam(PARAMETER_REQUEST_THREAD_POOL_TYPE,
+                ThreadPool.THREAD_POOL_TYPE_PLATFORM);
+        if (!requestThreadPoolType.equals(ThreadPool.THREAD_POOL_TYPE_PLATFORM) &&
+                !requestThreadPoolType.equals(ThreadPool.THREAD_POOL_TYPE_VIRTUAL)) {
+            throw new AxisFault("Thread pool type must be " + ThreadPool.THREAD_POOL_TYPE_PLATFORM
+                    + " or " + ThreadPool.THREAD_POOL_TYPE_VIRTUAL + " for parameter "
+                    + PARAMETER_REQUEST_THREAD_POOL_TYPE + ":  " + requestThreadPoolType);
+        }
     }
 
     /**
@@ -272,6 +306,13 @@ public class HttpFactory {
      * Create the executor use the manage request processing threads
      */
     public ExecutorService newRequestExecutor(int port) {
+        if (requestThreadPoolType.equals(ThreadPool.THREAD_POOL_TYPE_VIRTUAL)) {
+            if (ThreadPool.isVirtualThreadSupported()) {
+                return ThreadPool.newVirtualThreadPerTaskExecutor("HttpConnection-" + port);
+            }
+            log.warn("Virtual threads are not supported by this Java runtime; "
+                    + "using a pool of platform threads to process requests");
+        }
         return new ThreadPoolExecutor(requestCoreThreadPoolSize, requestMaxThreadPoolSize,
                                       threadKeepAliveTime, threadKeepAliveTimeUnit,
                                       newRequestBlockingQueue(),
@@ -299,6 +340,13 @@ public class HttpFactory {
         }
     }
 
+    /**
+     * Create the manager holding the soapsession contexts of the server
+     */
+    public SessionManager newSessionManager() {
+        return new SessionManager(maxSessions, sessionCleanupInterval);
+    }
+
     public HttpProcessor newHttpProcessor() {
         BasicHttpProcessor httpProcessor = new BasicHttpProcessor();
         httpProcessor.addInterceptor(new RequestSessionCookie());
@@ -481,4 +529,53 @@ public class HttpFactory {
         this.threadKeepAliveTimeUnit = threadKeepAliveTimeUnit;
     }
 
+    /**
+     * Getter for maxSessions
+     *
+     * @return the maximum number of live soapsession contexts, or 0 if unbounded (default 0)
+     */
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    /**
+     * Setter for maxSessions
+     */
+    public void setMaxSessions(int maxSessions) {
+        this.maxSessions = maxSessions;
+    }
+
+    /**
+     * Getter for sessionCleanupInterval
+     *
+     * @return the minimum time in millis between two sweeps for expired sessions (default 5000)
+     */
+    public long getSessionCleanupInterval() {
+        return sessionCleanupInterval;
+    }
+
+    /**
+     * Setter for sessionCleanupInterval
+     */
+    public void setSessionCleanupInterval(long sessionCleanupInterval) {
+        this.sessionCleanupInterval = sessionCleanupInterval;
+    }
+
+    /**
+     * Getter for requestThreadPoolType
+     *
+     * @return "platform" to process requests in a bounded pool of platform threads, or "virtual"
+     *         to process each request in a new virtual thread (default "platform")
+     */
+    public String getRequestThreadPoolType() {
+        return requestThreadPoolType;
+    }
+
+    /**
+     * Setter for requestThreadPoolType
+     */
+    public void setRequestThreadPoolType(String requestThreadPoolType) {
+        this.requestThreadPoolType = requestThreadPoolType;
+    }
+
 }
@@ -25,51 +25,222 @@ import org.apache.axis2.context.ServiceGroupContext;
 import org.apache.axis2.context.SessionContext;
 import org.apache.axis2.engine.DependencyManager;
 
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Keeps track of the {@link SessionContext}s of the standalone HTTP server.
+ * <p>
+ * Sessions are kept in a concurrent map, and each session carries the time at which it was last
+ * accessed through this manager. Looking up a session only updates that stamp; it takes no lock
+ * shared with other sessions.
+ * <p>
+ * In addition, every session has exactly one entry in a queue ordered by access stamp. Accesses
+ * don't update the queue; instead, whenever an entry reaches the head of the queue and its stamp
+ * turns out to be stale, it is re-queued with the current stamp. The head of the queue is thus
+ * the least recently used session, which is the one evicted when a new session would exceed the
+ * optional maximum session count. Expired sessions are reaped by a background task that runs
+ * once per cleanup interval and only looks at the entries at the head of the queue, i.e. at the
+ * sessions that may actually have expired. Sessions are expected to share the same timeout; a
+ * session whose timeout is shorter than that of the sessions used before it is only reaped once
+ * these have been.
+ */
 public class SessionManager {
 
-    private final Map<String, SessionContext> sessionmap;
+    /**
+     * Default interval in millis between two sweeps for expired sessions.
+     */
+    public static final long DEFAULT_CLEANUP_INTERVAL = 5 * 1000;
+
+    private final ConcurrentHashMap<String, Session> sessionmap =
+            new ConcurrentHashMap<String, Session>();
+
+    // One entry per session, ordered by access stamp
+    private final PriorityBlockingQueue<Entry> queue = new PriorityBlockingQueue<Entry>();
+
+    private final AtomicInteger sessionCount = new AtomicInteger();
+
+    private final int maxSessions;
+    private final long cleanupInterval;
+
+    // Guarded by this
+    private ScheduledExecutorService sweeper;
+
+    private final AtomicLong createdSessions = new AtomicLong();
+    private final AtomicLong expiredSessions = new AtomicLong();
+    private final AtomicLong evictedSessions = new AtomicLong();
 
     public SessionManager() {
+        this(0, DEFAULT_CLEANUP_INTERVAL);
+    }
+
+    /**
+     * @param maxSessions the maximum number of live sessions, or a value &lt;= 0 for no limit
+     * @param cleanupInterval the time in millis between two sweeps for expired sessions, or a
+     *                        value &lt;= 0 to disable the background sweep
+     */
+    public SessionManager(int maxSessions, long cleanupInterval) {
         super();
-        this.sessionmap = new HashMap<String, SessionContext>();
+        this.maxSessions = maxSessions;
+        this.cleanupInterval = cleanupInterval;
     }
 
-    public synchronized SessionContext getSessionContext(String sessionKey) {
-        SessionContext sessionContext = null;
+    public SessionContext getSessionContext(String sessionKey) {
+        Session session = null;
         if (sessionKey != null && sessionKey.length() != 0) {
-            sessionContext = (SessionContext) this.sessionmap.get(sessionKey);
+            session = this.sessionmap.get(sessionKey);
+        }
+        if (session != null) {
+            session.access();
+            return session.sessionContext;
+        }
+        sessionKey = UIDGenerator.generateUID();
+        SessionContext sessionContext = new SessionContext(null);
+        sessionContext.setCookieID(sessionKey);
+        session = new Session(sessionKey, sessionContext);
+        session.access();
+        this.sessionmap.put(sessionKey, session);
+        this.queue.offer(new Entry(session, session.lastAccess));
+        this.createdSessions.incrementAndGet();
+        if (this.sessionCount.incrementAndGet() > this.maxSessions && this.maxSessions > 0) {
+            evictLeastRecentlyUsed(session);
         }
-        if (sessionContext == null) {
-            sessionKey = UIDGenerator.generateUID();
-            sessionContext = new SessionContext(null);
-            sessionContext.setCookieID(sessionKey);
-            this.sessionmap.put(sessionKey, sessionContext);
+        if (this.cleanupInterval > 0) {
+            startSweeper();
         }
-        sessionContext.touch();
-        cleanupServiceGroupContexts();
         return sessionContext;
     }
 
-    private void cleanupServiceGroupContexts() {
-        long currentTime = System.currentTimeMillis();
-        for (Iterator<String> it = this.sessionmap.keySet().iterator(); it.hasNext();) {
-            String cookieID = (String) it.next();
-            SessionContext sessionContext = (SessionContext) this.sessionmap.get(cookieID);
-            if ((currentTime - sessionContext.getLastTouchedTime()) >
-                    sessionContext.sessionContextTimeoutInterval) {
-                it.remove();
-                Iterator<ServiceGroupContext> serviceGroupContext = sessionContext.getServiceGroupContext();
-                if (serviceGroupContext != null) {
-                    while (serviceGroupContext.hasNext()) {
-                        ServiceGroupContext groupContext =
-                                (ServiceGroupContext) serviceGroupContext.next();
-                        cleanupServiceContexts(groupContext);
-                    }
-                }
+    /**
+     * Get the number of sessions currently held by this manager.
+     */
+    public int getActiveSessionCount() {
+        return this.sessionCount.get();
+    }
+
+    /**
+     * Get the total number of sessions created since this manager was instantiated.
+     */
+    public long getCreatedSessionCount() {
+        return this.createdSessions.get();
+    }
+
+    /**
+     * Get the total number of sessions removed because they timed out.
+     */
+    public long getExpiredSessionCount() {
+        return this.expiredSessions.get();
+    }
+
+    /**
+     * Get the total number of live sessions removed to honour the maximum session count.
+     */
+    public long getEvictedSessionCount() {
+        return this.evictedSessions.get();
+    }
+
+    public int getMaxSessions() {
+        return this.maxSessions;
+    }
+
+    /**
+     * Remove the sessions that have timed out. This is normally done by the background sweep.
+     */
+    public void cleanupExpiredSessions() {
+        long currentTime = System.nanoTime();
+        Entry entry;
+        while ((entry = this.queue.poll()) != null) {
+            Session session = entry.session;
+            long lastAccess = session.lastAccess;
+            if (lastAccess != entry.lastAccess) {
+                // Used since it was queued
+                this.queue.offer(new Entry(session, lastAccess));
+                continue;
+            }
+            if (currentTime - lastAccess <= TimeUnit.MILLISECONDS.toNanos(
+                    session.sessionContext.sessionContextTimeoutInterval)) {
+                this.queue.offer(entry);
+                break;
+            }
+            if (remove(session)) {
+                this.expiredSessions.incrementAndGet();
+                cleanupSessionContext(session.sessionContext);
+            }
+        }
+    }
+
+    /**
+     * Stop the background sweep. It is restarted when the next session is created.
+     */
+    public synchronized void shutdown() {
+        if (this.sweeper != null) {
+            this.sweeper.shutdownNow();
+            this.sweeper = null;
+        }
+    }
+
+    /**
+     * Evict the least recently used session other than the one just created. Gives up after
+     * looking at as many entries as there are sessions, which only happens if all of them are
+     * being used concurrently.
+     */
+    private void evictLeastRecentlyUsed(Session created) {
+        Entry entry;
+        for (int attempts = this.queue.size(); attempts > 0
+                && (entry = this.queue.poll()) != null; attempts--) {
+            Session session = entry.session;
+            long lastAccess = session.lastAccess;
+            if (session == created || lastAccess != entry.lastAccess) {
+                this.queue.offer(new Entry(session, lastAccess));
+                continue;
+            }
+            if (remove(session)) {
+                this.evictedSessions.incrementAndGet();
+                cleanupSessionContext(session.sessionContext);
+                return;
+            }
+        }
+    }
+
+    private boolean remove(Session session) {
+        if (this.sessionmap.remove(session.key, session)) {
+            this.sessionCount.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void startSweeper() {
+        if (this.sweeper != null) {
+            return;
+        }
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Axis2 HTTP session cleanup");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.sweeper.scheduleWithFixedDelay(new Runnable() {
+            public void run() {
+                cleanupExpiredSessions();
+            }
+        }, this.cleanupInterval, this.cleanupInterval, TimeUnit.MILLISECONDS);
+    }
+
+    private void cleanupSessionContext(final SessionContext sessionContext) {
+        Iterator<ServiceGroupContext> serviceGroupContext = sessionContext.getServiceGroupContext();
+        if (serviceGroupContext != null) {
+            while (serviceGroupContext.hasNext()) {
+                ServiceGroupContext groupContext = serviceGroupContext.next();
+                cleanupServiceContexts(groupContext);
             }
         }
     }
@@ -81,4 +252,36 @@ public class SessionManager {
         }
     }
 
+    private static final class Session {
+        final String key;
+        final SessionContext sessionContext;
+        // System.nanoTime() of the last access through the manager
+        volatile long lastAccess;
+
+        Session(String key, SessionContext sessionContext) {
+            this.key = key;
+            this.sessionContext = sessionContext;
+        }
+
+        void access() {
+            lastAccess = System.nanoTime();
+            sessionContext.touch();
+        }
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        final Session session;
+        final long lastAccess;
+
+        Entry(Session session, long lastAccess) {
+            this.session = session;
+            this.lastAccess = lastAccess;
+        }
+
+        public int compareTo(Entry other) {
+            long diff = lastAccess - other.lastAccess;
+            return diff < 0 ? -1 : (diff == 0 ? 0 : 1);
+        }
+    }
+
 }
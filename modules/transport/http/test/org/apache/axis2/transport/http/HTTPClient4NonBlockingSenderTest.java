@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http;
+
+import org.apache.axis2.Constants;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.ConfigurationContextFactory;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.context.OperationContext;
+import org.apache.axis2.kernel.TransportResponseCallback;
+import org.apache.axis2.kernel.http.HTTPConstants;
+import org.apache.axis2.transport.http.impl.httpclient4.HTTPAsyncConnectionPool;
+import org.apache.axis2.transport.http.impl.httpclient4.HTTPSenderImpl;
+import org.apache.axis2.transport.http.mock.server.AbstractHTTPServerTest;
+import org.apache.axis2.transport.http.mock.server.BasicHttpServer;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the non blocking sends of {@link HTTPSenderImpl}, i.e. requests executed by the
+ * asynchronous HTTP client.
+ */
+public class HTTPClient4NonBlockingSenderTest extends AbstractHTTPServerTest {
+    private ConfigurationContext configContext;
+
+    private static class Callback implements TransportResponseCallback {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private MessageContext response;
+        private Exception error;
+        private Thread thread;
+
+        public void onResponse(MessageContext msgContext) {
+            response = msgContext;
+            thread = Thread.currentThread();
+            latch.countDown();
+        }
+
+        public void onError(Exception e) {
+            error = e;
+            thread = Thread.currentThread();
+            latch.countDown();
+        }
+
+        void await() throws InterruptedException {
+            assertTrue("Callback not invoked", latch.await(30, TimeUnit.SECONDS));
+        }
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        configContext = ConfigurationContextFactory.createEmptyConfigurationContext();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        CloseableHttpAsyncClient asyncClient = (CloseableHttpAsyncClient)configContext
+                .getProperty(HTTPTransportConstants.CACHED_HTTP_ASYNC_CLIENT);
+        if (asyncClient != null) {
+            asyncClient.close();
+        }
+        super.tearDown();
+    }
+
+    private Callback send(String address, Integer soTimeout) throws IOException {
+        return send(address, soTimeout, false);
+    }
+
+    private Callback send(String address, Integer soTimeout, boolean chunked)
+            throws IOException {
+        MessageContext msgContext = new MessageContext();
+        msgContext.setConfigurationContext(configContext);
+        msgContext.setEnvelope(getEnvelope());
+        msgContext.setProperty(Constants.Configuration.HTTP_METHOD,
+                Constants.Configuration.HTTP_METHOD_POST);
+        msgContext.setOperationContext(new OperationContext());
+        if (soTimeout != null) {
+            msgContext.setProperty(HTTPConstants.SO_TIMEOUT, soTimeout);
+        }
+        Callback callback = new Callback();
+        msgContext.setProperty(TransportResponseCallback.PROPERTY, callback);
+        HTTPSenderImpl sender = new HTTPSenderImpl();
+        sender.setChunked(chunked);
+        sender.send(msgContext, new URL(address), "urn:postService");
+        return callback;
+    }
+
+    public void testSuccess() throws Exception {
+        Callback callback = send("http://localhost:" + getBasicHttpServer().getPort()
+                + "/postService", null);
+        callback.await();
+        assertNull(callback.error);
+        assertEquals(200, callback.response.getProperty(HTTPConstants.MC_HTTP_STATUS_CODE));
+        assertNotNull(callback.response.getOperationContext().getProperty(
+                MessageContext.TRANSPORT_IN));
+        assertEquals(Constants.Configuration.HTTP_METHOD_POST, getHTTPMethod());
+        assertTrue(configContext.getProperty(HTTPTransportConstants.ASYNC_HTTP_CONNECTION_MANAGER)
+                instanceof HTTPAsyncConnectionPool);
+        assertTrue(getStringContent().contains("Body"));
+        // the response is processed by a worker, not by the I/O reactor
+        assertFalse(callback.thread.getName().startsWith("I/O dispatcher"));
+    }
+
+    public void testChunked() throws Exception {
+        Callback callback = send("http://localhost:" + getBasicHttpServer().getPort()
+                + "/postService", null, true);
+        callback.await();
+        assertNull(callback.error);
+        assertEquals(200, callback.response.getProperty(HTTPConstants.MC_HTTP_STATUS_CODE));
+        assertTrue(getStringContent().contains("Body"));
+        assertEquals("chunked", getHeaders().get("Transfer-Encoding"));
+    }
+
+    public void testFault() throws Exception {
+        getBasicHttpServer().setResponseTemplate(BasicHttpServer.RESPONSE_HTTP_500);
+        Callback callback = send("http://localhost:" + getBasicHttpServer().getPort()
+                + "/postService", null);
+        callback.await();
+        assertNull(callback.error);
+        assertEquals(500, callback.response.getProperty(HTTPConstants.MC_HTTP_STATUS_CODE));
+    }
+
+    public void testTimeout() throws Exception {
+        // accepts connections but never responds
+        ServerSocket serverSocket = new ServerSocket(0);
+        try {
+            Callback callback = send("http://localhost:" + serverSocket.getLocalPort()
+                    + "/postService", 500);
+            Socket socket = serverSocket.accept();
+            try {
+                callback.await();
+            } finally {
+                socket.close();
+            }
+            assertNull(callback.response);
+            assertNotNull(callback.error);
+            assertTrue(callback.error.getCause() instanceof SocketTimeoutException);
+        } finally {
+            serverSocket.close();
+        }
+    }
+}
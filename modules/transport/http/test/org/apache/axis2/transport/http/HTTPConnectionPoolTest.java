@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http;
+
+import junit.framework.TestCase;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.description.Parameter;
+import org.apache.axis2.description.TransportOutDescription;
+import org.apache.axis2.transport.http.impl.httpclient4.HTTPAsyncConnectionPool;
+import org.apache.axis2.transport.http.impl.httpclient4.HTTPConnectionPool;
+import org.apache.http.HttpHost;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+public class HTTPConnectionPoolTest extends TestCase {
+    private Registry<ConnectionSocketFactory> registry;
+    private TransportOutDescription transportOut;
+
+    @Override
+    protected void setUp() throws Exception {
+        registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .build();
+        transportOut = new TransportOutDescription("http");
+    }
+
+    public void testDefaults() throws Exception {
+        HTTPConnectionPool pool = HTTPConnectionPool.create(registry, transportOut, null);
+        try {
+            assertEquals(HTTPTransportConstants.DEFAULT_MAX_TOTAL_CONNECTIONS, pool.getMaxTotal());
+            assertEquals(HTTPTransportConstants.DEFAULT_MAX_CONNECTIONS_PER_ROUTE,
+                    pool.getDefaultMaxPerRoute());
+            assertEquals(-1, pool.getConnectionRequestTimeout());
+            assertEquals(0, pool.getLeasedConnections());
+            assertEquals(0, pool.getAvailableConnections());
+            assertEquals(0, pool.getPendingRequests());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public void testConfiguration() throws Exception {
+        transportOut.addParameter(new Parameter(HTTPTransportConstants.MAX_TOTAL_CONNECTIONS, "50"));
+        transportOut.addParameter(new Parameter(HTTPTransportConstants.MAX_CONNECTIONS_PER_ROUTE, "10"));
+        transportOut.addParameter(new Parameter(HTTPTransportConstants.ROUTE_MAX_CONNECTIONS,
+                "https://backend1.example.org=20, http://backend2.example.org:8080=5"));
+        transportOut.addParameter(new Parameter(HTTPTransportConstants.CONNECTION_IDLE_TIMEOUT, "30000"));
+        transportOut.addParameter(new Parameter(HTTPTransportConstants.CONNECTION_REQUEST_TIMEOUT, "500"));
+        HTTPConnectionPool pool = HTTPConnectionPool.create(registry, transportOut, null);
+        try {
+            assertEquals(50, pool.getMaxTotal());
+            assertEquals(10, pool.getDefaultMaxPerRoute());
+            assertEquals(20, pool.getMaxPerRoute(new HttpRoute(
+                    new HttpHost("backend1.example.org", 443, "https"), null, true)));
+            assertEquals(5, pool.getMaxPerRoute(new HttpRoute(
+                    new HttpHost("backend2.example.org", 8080, "http"))));
+            assertEquals(10, pool.getMaxPerRoute(new HttpRoute(
+                    new HttpHost("backend3.example.org", 80, "http"))));
+            assertEquals(500, pool.getConnectionRequestTimeout());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public void testAsyncConfiguration() throws Exception {
+        transportOut.addParameter(new Parameter(HTTPTransportConstants.MAX_TOTAL_CONNECTIONS, "50"));
+        transportOut.addParameter(new Parameter(HTTPTransportConstants.MAX_CONNECTIONS_PER_ROUTE, "10"));
+        transportOut.addParameter(new Parameter(HTTPTransportConstants.ROUTE_MAX_CONNECTIONS,
+                "https://backend1.example.org=20"));
+        transportOut.addParameter(new Parameter(HTTPTransportConstants.CONNECTION_IDLE_TIMEOUT, "30000"));
+        transportOut.addParameter(new Parameter(HTTPTransportConstants.CONNECTION_REQUEST_TIMEOUT, "500"));
+        Registry<SchemeIOSessionStrategy> asyncRegistry = RegistryBuilder.<SchemeIOSessionStrategy>create()
+                .register("http", NoopIOSessionStrategy.INSTANCE)
+                .build();
+        HTTPAsyncConnectionPool pool = HTTPAsyncConnectionPool.create(asyncRegistry, transportOut, null);
+        try {
+            assertEquals(50, pool.getMaxTotal());
+            assertEquals(10, pool.getDefaultMaxPerRoute());
+            assertEquals(20, pool.getMaxPerRoute(new HttpRoute(
+                    new HttpHost("backend1.example.org", 443, "https"), null, true)));
+            assertEquals(500, pool.getConnectionRequestTimeout());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public void testInvalidRouteLimit() throws Exception {
+        transportOut.addParameter(new Parameter(HTTPTransportConstants.ROUTE_MAX_CONNECTIONS,
+                "backend1.example.org"));
+        try {
+            HTTPConnectionPool.create(registry, transportOut, null);
+            fail("Expected AxisFault");
+        } catch (AxisFault ex) {
+            // Expected
+        }
+    }
+
+    public void testEvictorRunsOnGivenScheduler() throws Exception {
+        transportOut.addParameter(new Parameter(HTTPTransportConstants.CONNECTION_IDLE_TIMEOUT, "30000"));
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+        scheduler.setRemoveOnCancelPolicy(true);
+        try {
+            HTTPConnectionPool pool = HTTPConnectionPool.create(registry, transportOut, scheduler);
+            assertEquals(1, scheduler.getQueue().size());
+            pool.shutdown();
+            assertEquals(0, scheduler.getQueue().size());
+
+            scheduler.shutdown();
+            // A pool created once the scheduler is shut down works without eviction task
+            HTTPConnectionPool.create(registry, transportOut, scheduler).shutdown();
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+}
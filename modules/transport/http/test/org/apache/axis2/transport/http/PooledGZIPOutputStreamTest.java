@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import junit.framework.TestCase;
+
+public class PooledGZIPOutputStreamTest extends TestCase {
+    private static byte[] compress(byte[] data) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PooledGZIPOutputStream out = new PooledGZIPOutputStream(baos);
+        out.write(data[0]);
+        out.write(data, 1, data.length - 1);
+        out.finish();
+        return baos.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] data) throws Exception {
+        InputStream in = new GZIPInputStream(new ByteArrayInputStream(data));
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buf = new byte[4096];
+        int read;
+        while ((read = in.read(buf)) != -1) {
+            baos.write(buf, 0, read);
+        }
+        return baos.toByteArray();
+    }
+
+    public void testRoundTrip() throws Exception {
+        Random random = new Random(1234);
+        // several iterations so that pooled deflaters are reused
+        for (int i = 0; i < 10; i++) {
+            byte[] data = new byte[1000 + random.nextInt(100000)];
+            for (int j = 0; j < data.length; j++) {
+                data[j] = (byte) ('a' + random.nextInt(4));
+            }
+            byte[] compressed = compress(data);
+            assertTrue(compressed.length < data.length);
+            assertTrue(Arrays.equals(data, decompress(compressed)));
+        }
+    }
+
+    public void testReleaseWithoutFinish() throws Exception {
+        PooledGZIPOutputStream out = new PooledGZIPOutputStream(new ByteArrayOutputStream());
+        out.write(new byte[] { 1, 2, 3 });
+        out.release();
+        out.release();
+        byte[] data = "test".getBytes("UTF-8");
+        assertTrue(Arrays.equals(data, decompress(compress(data))));
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Date;
+
+import junit.framework.TestCase;
+
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.Parameter;
+
+public class ServiceMetadataCacheTest extends TestCase {
+    private ServiceMetadataCache cache;
+    private AxisService service;
+    private int renderCount;
+
+    private final ServiceMetadataCache.Renderer renderer = new ServiceMetadataCache.Renderer() {
+        public int render(OutputStream out) throws IOException {
+            renderCount++;
+            out.write(("<definitions count='" + renderCount + "'/>").getBytes("UTF-8"));
+            return 1;
+        }
+    };
+
+    @Override
+    protected void setUp() throws Exception {
+        cache = new ServiceMetadataCache();
+        service = new AxisService("test_service");
+        renderCount = 0;
+    }
+
+    public void testDocumentIsRenderedOnce() throws Exception {
+        ServiceMetadataCache.Document first = cache.getDocument(service, "wsdl|null|host", renderer);
+        ServiceMetadataCache.Document second = cache.getDocument(service, "wsdl|null|host", renderer);
+        assertEquals(1, renderCount);
+        assertSame(first, second);
+        assertEquals(1, second.getStatus());
+
+        cache.getDocument(service, "wsdl|null|otherhost", renderer);
+        assertEquals(2, renderCount);
+    }
+
+    public void testPolicyChangeInvalidatesCache() throws Exception {
+        ServiceMetadataCache.Document first = cache.getDocument(service, "wsdl|null|host", renderer);
+        service.getPolicySubject().setLastUpdatedTime(
+                new Date(service.getPolicySubject().getLastUpdatedTime().getTime() + 1000));
+        ServiceMetadataCache.Document second = cache.getDocument(service, "wsdl|null|host", renderer);
+        assertEquals(2, renderCount);
+        assertFalse(first.getETag().equals(second.getETag()));
+    }
+
+    public void testCachingCanBeDisabled() throws Exception {
+        service.addParameter(new Parameter(ServiceMetadataCache.CACHE_SERVICE_METADATA, "false"));
+        cache.getDocument(service, "wsdl|null|host", renderer);
+        cache.getDocument(service, "wsdl|null|host", renderer);
+        assertEquals(2, renderCount);
+    }
+
+    public void testETagMatching() throws Exception {
+        ServiceMetadataCache.Document document = cache.getDocument(service, "xsd|null", renderer);
+        String etag = document.getETag();
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+        assertTrue(document.matches(etag));
+        assertTrue(document.matches("\"other\", W/" + etag));
+        assertTrue(document.matches("*"));
+        assertFalse(document.matches("\"other\""));
+        assertFalse(document.matches(null));
+    }
+}
@@ -48,6 +48,7 @@ public class SessionManagerTest extends TestCase {
      */
     protected void tearDown() throws Exception {
         super.tearDown();
+        manager.shutdown();
         manager = null;
     }
 
@@ -72,4 +73,68 @@ public class SessionManagerTest extends TestCase {
         assertFalse(sessionKey.equals(ctx3.getCookieID()));
     }
 
+    /**
+     * Test that the least recently touched session is evicted once the limit is reached.
+     */
+    public void testMaxSessions() throws Exception {
+        manager = new SessionManager(2, SessionManager.DEFAULT_CLEANUP_INTERVAL);
+        SessionContext ctx1 = manager.getSessionContext(null);
+        Thread.sleep(5);
+        SessionContext ctx2 = manager.getSessionContext(null);
+        Thread.sleep(5);
+        SessionContext ctx3 = manager.getSessionContext(null);
+        assertEquals(2, manager.getActiveSessionCount());
+        assertEquals(1, manager.getEvictedSessionCount());
+        assertEquals(3, manager.getCreatedSessionCount());
+        assertNotSame(ctx1, manager.getSessionContext(ctx1.getCookieID()));
+        assertSame(ctx3, manager.getSessionContext(ctx3.getCookieID()));
+        assertNotNull(ctx2);
+    }
+
+    /**
+     * Test that a session that was looked up recently is not the one evicted.
+     */
+    public void testMaxSessionsEvictsLeastRecentlyUsed() throws Exception {
+        manager = new SessionManager(2, SessionManager.DEFAULT_CLEANUP_INTERVAL);
+        SessionContext ctx1 = manager.getSessionContext(null);
+        SessionContext ctx2 = manager.getSessionContext(null);
+        assertSame(ctx1, manager.getSessionContext(ctx1.getCookieID()));
+        SessionContext ctx3 = manager.getSessionContext(null);
+        assertEquals(1, manager.getEvictedSessionCount());
+        assertSame(ctx1, manager.getSessionContext(ctx1.getCookieID()));
+        assertSame(ctx3, manager.getSessionContext(ctx3.getCookieID()));
+        assertNotSame(ctx2, manager.getSessionContext(ctx2.getCookieID()));
+    }
+
+    /**
+     * Test that timed out sessions are removed by a sweep.
+     */
+    public void testExpiredSessionsAreRemoved() throws Exception {
+        manager = new SessionManager(0, 0);
+        SessionContext ctx1 = manager.getSessionContext(null);
+        ctx1.sessionContextTimeoutInterval = 0;
+        Thread.sleep(5);
+        SessionContext ctx2 = manager.getSessionContext(null);
+        assertEquals(0, manager.getExpiredSessionCount());
+        manager.cleanupExpiredSessions();
+        assertEquals(1, manager.getExpiredSessionCount());
+        assertEquals(1, manager.getActiveSessionCount());
+        assertSame(ctx2, manager.getSessionContext(ctx2.getCookieID()));
+    }
+
+    /**
+     * Test that timed out sessions are removed by the background sweep.
+     */
+    public void testBackgroundSweep() throws Exception {
+        manager = new SessionManager(0, 10);
+        SessionContext ctx1 = manager.getSessionContext(null);
+        ctx1.sessionContextTimeoutInterval = 0;
+        long deadline = System.currentTimeMillis() + 5000;
+        while (manager.getExpiredSessionCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, manager.getExpiredSessionCount());
+        assertEquals(0, manager.getActiveSessionCount());
+    }
+
 }
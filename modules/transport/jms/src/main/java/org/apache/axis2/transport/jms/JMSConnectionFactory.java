@@ -30,7 +30,10 @@ import javax.jms.Session;
 import javax.naming.Context;
 import javax.naming.InitialContext;
 import javax.naming.NamingException;
+import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * Encapsulate a JMS Connection factory definition within an Axis2.xml
@@ -64,6 +67,14 @@ public class JMSConnectionFactory {
     private Destination sharedDestination = null;
     /** The shared JMS connection for this JMS connection factory */
     private int cacheLevel = JMSConstants.CACHE_CONNECTION;
+    /** The shared reply consumers for this JMS connection factory, by reply destination type
+     * and name */
+    private final Map<String, JMSReplyConsumer> replyConsumers =
+        new HashMap<String, JMSReplyConsumer>();
+    /** The shared reply consumer for replies on a temporary destination */
+    private JMSReplyConsumer temporaryReplyConsumer = null;
+    /** Has this connection factory been stopped? */
+    private boolean stopped = false;
 
     /**
      * Digest a JMS CF definition from an axis2.xml 'Parameter' and construct
@@ -133,6 +144,15 @@ public class JMSConnectionFactory {
      * Close all connections, sessions etc.. and stop this connection factory
      */
     public synchronized void stop() {
+        stopped = true;
+        for (JMSReplyConsumer replyConsumer : replyConsumers.values()) {
+            replyConsumer.close();
+        }
+        replyConsumers.clear();
+        if (temporaryReplyConsumer != null) {
+            temporaryReplyConsumer.close();
+            temporaryReplyConsumer = null;
+        }
         if (sharedConnection != null) {
             try {
             	sharedConnection.close();
@@ -218,6 +238,53 @@ public class JMSConnectionFactory {
                 JMSConstants.DESTINATION_TYPE_GENERIC;
     }
 
+    /**
+     * Should replies to synchronous requests be received by a shared reply consumer?
+     * @return true, if the PARAM_SHARED_REPLY_CONSUMER parameter is set to true
+     */
+    public boolean isSharedReplyConsumer() {
+        return Boolean.valueOf(parameters.get(JMSConstants.PARAM_SHARED_REPLY_CONSUMER));
+    }
+
+    /**
+     * Get the shared reply consumer for the given reply destination, creating it (or replacing
+     * it, if its connection failed) as required. Consumers are keyed by the JNDI name and type
+     * of the destination rather than by the Destination object, as JNDI lookups and providers
+     * need not return equal objects for the same destination.
+     * @param replyDestName the JNDI name of the reply destination or null to use a temporary
+     *                      destination
+     * @param replyDestType the type of the reply destination
+     * @param timer the executor that completes the replies which didn't arrive in time, used if
+     *              a new consumer is created
+     * @return the shared reply consumer for the destination
+     */
+    public synchronized JMSReplyConsumer getReplyConsumer(String replyDestName,
+        String replyDestType, ScheduledExecutorService timer) {
+
+        if (stopped) {
+            throw new AxisJMSException("JMS CF : " + name + " has been stopped");
+        }
+        String key = replyDestName == null ? null : replyDestType + ":" + replyDestName;
+        JMSReplyConsumer replyConsumer = key == null ?
+            temporaryReplyConsumer : replyConsumers.get(key);
+        if (replyConsumer == null || replyConsumer.isClosed()) {
+            Destination replyDestination = replyDestName == null ?
+                null : getDestination(replyDestName, replyDestType);
+            try {
+                replyConsumer = new JMSReplyConsumer(this, replyDestination, timer);
+            } catch (JMSException e) {
+                handleException("Error creating a reply consumer for destination : " +
+                    replyDestName + " from the JMS CF : " + name, e);
+            }
+            if (key == null) {
+                temporaryReplyConsumer = replyConsumer;
+            } else {
+                replyConsumers.put(key, replyConsumer);
+            }
+        }
+        return replyConsumer;
+    }
+
     private void handleException(String msg, Exception e) {
         log.error(msg, e);
         throw new AxisJMSException(msg, e);
@@ -276,7 +343,7 @@ public class JMSConnectionFactory {
      * Create a new Connection
      * @return a new Connection
      */
-    private Connection createConnection() {
+    Connection createConnection() {
 
         Connection connection = null;
         try {
@@ -92,6 +92,12 @@ public class JMSConstants {
      * also see {@link DESTINATION_TYPE_QUEUE}, {@link DESTINATION_TYPE_TOPIC}
      */
     public static final String PARAM_REPLY_DEST_TYPE = "transport.jms.ReplyDestinationType";
+    /**
+     * The JMS connection factory parameter indicating whether responses to synchronous requests
+     * should be received by a single long-lived consumer per reply destination, which dispatches
+     * the replies to the waiting requests by JMS correlation ID - "true" or "false" (default)
+     */
+    public static final String PARAM_SHARED_REPLY_CONSUMER = "transport.jms.SharedReplyConsumer";
     /**
      * The Parameter name of an Axis2 service, indicating the JMS connection
      * factory which should be used to listen for messages for it. This is
@@ -176,6 +182,17 @@ public class JMSConstants {
      * prevent many longer running threads - default is unlimited (i.e. a worker task will live forever)
      */
     public static final String PARAM_MAX_MSGS_PER_TASK = "transport.jms.MaxMessagesPerTask";
+    /**
+     * The maximum number of messages a polling worker task should receive before processing them
+     * and committing or acknowledging them at once - default is 1 (i.e. no batching). Only applies
+     * to transacted and CLIENT_ACKNOWLEDGE sessions
+     */
+    public static final String PARAM_BATCH_SIZE = "transport.jms.BatchSize";
+    /**
+     * The number of milliseconds a polling worker task should wait for further messages to
+     * complete a batch after receiving the first one - See {@link PARAM_BATCH_SIZE}
+     */
+    public static final String PARAM_BATCH_TIMEOUT = "transport.jms.BatchTimeout";
     /**
      * Number of milliseconds before the first reconnection attempt is tried, on detection of an
      * error. Subsequent retries follow a geometric series, where the
@@ -26,6 +26,7 @@ import org.apache.commons.logging.LogFactory;
 
 import javax.jms.*;
 import javax.transaction.UserTransaction;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This is the JMS message receiver which is invoked when a message is received. This processes
@@ -104,6 +105,16 @@ public class JMSMessageReceiver {
             log.warn("Error reading JMS message size to update transport metrics", e);
         }
 
+        // the JMS timestamp is the time the message was handed to the provider
+        try {
+            long timestamp = message.getJMSTimestamp();
+            if (timestamp > 0) {
+                long latency = Math.max(0, System.currentTimeMillis() - timestamp);
+                metrics.notifyReceiveLatency(endpoint.getServiceName(),
+                    TimeUnit.MILLISECONDS.toNanos(latency));
+            }
+        } catch (JMSException ignore) {}
+
         // has this message already expired? expiration time == 0 means never expires
         // TODO: explain why this is necessary; normally it is the responsibility of the provider to handle message expiration
         try {
@@ -0,0 +1,277 @@
+/*
+* Copyright 2004,2005 The Apache Software Foundation.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*      http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.axis2.transport.jms;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.jms.Connection;
+import javax.jms.Destination;
+import javax.jms.ExceptionListener;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.Session;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * A long-lived consumer for a reply destination, shared by all requests sent through a
+ * JMS connection factory that expect their response on that destination.
+ *
+ * Instead of creating a consumer with a JMSCorrelationID selector for every request, callers
+ * register the correlation ID of the request before sending it, and the consumer completes the
+ * registered reply when a message with that correlation ID arrives. Replies that nobody waits
+ * for (e.g. because the request timed out) are discarded.
+ *
+ * A named reply destination may be shared with other consumers, e.g. other nodes of a cluster.
+ * Each consumer therefore generates correlation IDs with a prefix of its own (see
+ * {@link #createCorrelationId()}), and only receives the messages whose correlation ID starts
+ * with that prefix. Requests with a correlation ID chosen by the application can't use a shared
+ * consumer on a named destination (see {@link #accepts(String)}).
+ *
+ * The consumer uses its own connection and session, since a session with a MessageListener
+ * cannot be used for anything else.
+ */
+public class JMSReplyConsumer implements MessageListener, ExceptionListener {
+
+    private static final Log log = LogFactory.getLog(JMSReplyConsumer.class);
+
+    /** The name of the JMS CF definition this consumer belongs to */
+    private final String cfName;
+    /** Completes replies which didn't arrive in time */
+    private final ScheduledExecutorService timer;
+    /** The prefix of the correlation IDs generated by this consumer */
+    private final String correlationIdPrefix = "axis2-" + UUID.randomUUID() + "-";
+    /** Does the consumer only receive the correlation IDs starting with the prefix? */
+    private final boolean selective;
+    private final AtomicLong correlationIdSequence = new AtomicLong();
+    private final Connection connection;
+    private final Session session;
+    private final MessageConsumer consumer;
+    private final Destination replyDestination;
+    /** The replies waited for, by JMS correlation ID */
+    private final ConcurrentMap<String, CompletableFuture<Message>> pendingReplies =
+        new ConcurrentHashMap<String, CompletableFuture<Message>>();
+    /** Guards the transition to closed against concurrent registrations */
+    private final Object lock = new Object();
+    private volatile boolean closed;
+
+    /**
+     * Create a consumer for the given reply destination and start receiving replies
+     * @param jmsConnectionFactory the JMS CF definition to connect with
+     * @param replyDestination the reply destination or null to receive the replies on a
+     *                         temporary destination
+     * @param timer the executor that completes the replies which didn't arrive in time,
+     *              normally the scheduler of the configuration context
+     * @throws JMSException on errors, to be handled and logged by the caller
+     */
+    JMSReplyConsumer(JMSConnectionFactory jmsConnectionFactory, Destination replyDestination,
+        ScheduledExecutorService timer) throws JMSException {
+
+        this.cfName = jmsConnectionFactory.getName();
+        this.timer = timer;
+        // nobody else receives from a temporary destination
+        this.selective = replyDestination != null;
+        this.connection = jmsConnectionFactory.createConnection();
+        try {
+            session = JMSUtils.createSession(connection, false, Session.AUTO_ACKNOWLEDGE,
+                jmsConnectionFactory.isJmsSpec11(), jmsConnectionFactory.isQueue());
+            if (replyDestination == null) {
+                replyDestination = JMSUtils.createTemporaryDestination(session);
+            }
+            this.replyDestination = replyDestination;
+            consumer = JMSUtils.createConsumer(session, replyDestination, selective ?
+                "JMSCorrelationID LIKE '" + correlationIdPrefix + "%'" : null);
+            consumer.setMessageListener(this);
+            connection.setExceptionListener(this);
+            connection.start();
+        } catch (JMSException e) {
+            closeConnection();
+            throw e;
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Started shared reply consumer for destination : " + replyDestination +
+                " of JMS CF : " + cfName);
+        }
+    }
+
+    /**
+     * Get the destination the replies are received on
+     * @return the reply destination; a temporary destination if none was given
+     */
+    public Destination getReplyDestination() {
+        return replyDestination;
+    }
+
+    /**
+     * Generate a correlation ID for a request whose reply is to be received by this consumer
+     * @return a correlation ID that is unique to this consumer
+     */
+    public String createCorrelationId() {
+        return correlationIdPrefix + correlationIdSequence.incrementAndGet();
+    }
+
+    /**
+     * Can the reply with the given correlation ID be received by this consumer?
+     * @param correlationId the JMS correlation ID of the reply
+     * @return true if the consumer receives from a temporary destination, or the correlation ID
+     *         was generated by {@link #createCorrelationId()}
+     */
+    public boolean accepts(String correlationId) {
+        return !selective || correlationId.startsWith(correlationIdPrefix);
+    }
+
+    /**
+     * Is this consumer closed, either explicitly or because its connection failed?
+     * @return true if replies are no longer received
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Register a request that expects a reply. This must be done before the request is sent,
+     * as the reply may arrive before the send call returns.
+     *
+     * @param correlationId the JMS correlation ID of the reply, which must be
+     *                      {@link #accepts(String) accepted} by this consumer
+     * @param timeout the time in milliseconds after which the reply completes with a
+     *                {@link TimeoutException}; 0 or less stands for
+     *                {@link JMSConstants#DEFAULT_JMS_TIMEOUT}, as a reply that is lost would
+     *                otherwise be waited for, and kept in memory, forever
+     * @return the reply, which the caller may wait for or attach a completion action to
+     */
+    public CompletableFuture<Message> register(final String correlationId, long timeout) {
+        final CompletableFuture<Message> reply = new CompletableFuture<Message>();
+        synchronized (lock) {
+            if (closed) {
+                reply.completeExceptionally(new JMSException("Reply consumer for destination : " +
+                    replyDestination + " of JMS CF : " + cfName + " is closed"));
+                return reply;
+            }
+            if (pendingReplies.putIfAbsent(correlationId, reply) != null) {
+                reply.completeExceptionally(new JMSException("A reply with JMS correlation ID : " +
+                    correlationId + " is already expected"));
+                return reply;
+            }
+        }
+        final ScheduledFuture<?> timeoutTask;
+        try {
+            timeoutTask = timer.schedule(new Runnable() {
+                public void run() {
+                    if (pendingReplies.remove(correlationId, reply)) {
+                        reply.completeExceptionally(new TimeoutException());
+                    }
+                }
+            }, timeout > 0 ? timeout : JMSConstants.DEFAULT_JMS_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // the configuration context is being terminated
+            pendingReplies.remove(correlationId, reply);
+            reply.completeExceptionally(new JMSException("Reply consumer for destination : " +
+                replyDestination + " of JMS CF : " + cfName + " can't time out replies"));
+            return reply;
+        }
+        reply.whenComplete(new BiConsumer<Message, Throwable>() {
+            public void accept(Message message, Throwable ex) {
+                timeoutTask.cancel(false);
+            }
+        });
+        return reply;
+    }
+
+    /**
+     * Stop waiting for a reply, e.g. because the request couldn't be sent
+     * @param correlationId the JMS correlation ID of the reply
+     */
+    public void cancel(String correlationId) {
+        CompletableFuture<Message> reply = pendingReplies.remove(correlationId);
+        if (reply != null) {
+            reply.cancel(false);
+        }
+    }
+
+    public void onMessage(Message message) {
+        String correlationId;
+        try {
+            correlationId = message.getJMSCorrelationID();
+        } catch (JMSException e) {
+            log.warn("Error reading the JMS correlation ID of a reply on destination : " +
+                replyDestination, e);
+            return;
+        }
+        CompletableFuture<Message> reply =
+            correlationId == null ? null : pendingReplies.remove(correlationId);
+        if (reply != null) {
+            reply.complete(message);
+        } else {
+            log.warn("Discarding unexpected or late reply with JMS correlation ID : " +
+                correlationId + " on destination : " + replyDestination);
+        }
+    }
+
+    public void onException(JMSException e) {
+        log.error("Connection of the shared reply consumer for destination : " + replyDestination +
+            " of JMS CF : " + cfName + " failed", e);
+        close(e);
+    }
+
+    /**
+     * Stop receiving replies. Requests still waiting for a reply fail.
+     */
+    public void close() {
+        close(new JMSException("Reply consumer for destination : " + replyDestination +
+            " of JMS CF : " + cfName + " was closed"));
+    }
+
+    private void close(JMSException cause) {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        // no reply can be registered any more
+        closeConnection();
+        for (Iterator<CompletableFuture<Message>> it = pendingReplies.values().iterator();
+             it.hasNext(); ) {
+            CompletableFuture<Message> reply = it.next();
+            it.remove();
+            reply.completeExceptionally(cause);
+        }
+    }
+
+    private void closeConnection() {
+        try {
+            connection.close();
+        } catch (JMSException e) {
+            log.warn("Error closing the connection of the shared reply consumer of JMS CF : " +
+                cfName, e);
+        }
+    }
+}
@@ -25,9 +25,12 @@ import org.apache.axis2.AxisFault;
 import org.apache.axis2.Constants;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.addressing.EndpointReference;
 import org.apache.axis2.description.TransportOutDescription;
+import org.apache.axis2.kernel.AsyncTransportSender;
 import org.apache.axis2.kernel.MessageFormatter;
 import org.apache.axis2.kernel.OutTransportInfo;
+import org.apache.axis2.kernel.TransportResponseCallback;
 import org.apache.axis2.kernel.http.HTTPConstants;
 import org.apache.axis2.transport.base.*;
 import org.apache.axis2.transport.jms.iowrappers.BytesMessageOutputStream;
@@ -39,11 +42,16 @@ import java.io.OutputStream;
 import java.io.StringWriter;
 import java.nio.charset.UnsupportedCharsetException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
 
 /**
  * The TransportSender for JMS
  */
-public class JMSSender extends AbstractTransportSender implements ManagementSupport {
+public class JMSSender extends AbstractTransportSender
+    implements ManagementSupport, AsyncTransportSender {
 
     public static final String TRANSPORT_NAME = Constants.TRANSPORT_JMS;
 
@@ -82,8 +90,18 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
      * @return the corresponding JMS connection factory, if any
      */
     private JMSConnectionFactory getJMSConnectionFactory(JMSOutTransportInfo trpInfo) {
-        Map<String,String> props = trpInfo.getProperties();
-        if (trpInfo.getProperties() != null) {
+        return getJMSConnectionFactory(trpInfo.getProperties());
+    }
+
+    /**
+     * Get corresponding JMS connection factory defined within the transport sender for the
+     * properties of a JMS EPR
+     *
+     * @param props the properties of the JMS EPR
+     * @return the corresponding JMS connection factory, if any
+     */
+    private JMSConnectionFactory getJMSConnectionFactory(Map<String,String> props) {
+        if (props != null) {
             String jmsConnectionFactoryName = props.get(JMSConstants.PARAM_JMS_CONFAC);
             if (jmsConnectionFactoryName != null) {
                 return connFacManager.getJMSConnectionFactory(jmsConnectionFactoryName);
@@ -99,6 +117,21 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
         }
     }
 
+    /**
+     * Requests are sent without blocking until the response arrives if the JMS connection
+     * factory of the target EPR uses a shared reply consumer
+     */
+    public boolean isNonBlocking(MessageContext msgCtx) {
+        EndpointReference to = msgCtx.getTo();
+        if (to == null || to.getAddress() == null ||
+            !to.getAddress().startsWith(JMSConstants.JMS_PREFIX)) {
+            return false;
+        }
+        JMSConnectionFactory jmsConnectionFactory =
+            getJMSConnectionFactory(BaseUtils.getEPRProperties(to.getAddress()));
+        return jmsConnectionFactory != null && jmsConnectionFactory.isSharedReplyConsumer();
+    }
+
     /**
      * Performs the actual sending of the JMS message
      */
@@ -177,6 +210,8 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
         // should we wait for a synchronous response on this same thread?
         boolean waitForResponse = waitForSynchronousResponse(msgCtx);
         Destination replyDestination = jmsOut.getReplyDestination();
+        JMSReplyConsumer replyConsumer = null;
+        CompletableFuture<Message> reply = null;
 
         // if this is a synchronous out-in, prepare to listen on the response destination
         if (waitForResponse) {
@@ -191,7 +226,35 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
                 replyDestType = jmsConnectionFactory.getReplyDestinationType();
             }
 
-            if (replyDestName != null) {
+            if (jmsConnectionFactory != null && jmsConnectionFactory.isSharedReplyConsumer()) {
+                if (replyDestName == null && replyDestination != null) {
+                    // the reply destination given by the target EPR
+                    replyDestName = jmsOut.getReplyDestinationName();
+                    replyDestType = jmsOut.getReplyDestinationType();
+                }
+                replyConsumer = jmsConnectionFactory.getReplyConsumer(replyDestName, replyDestType,
+                    cfgCtx.getScheduler());
+                replyDestination = replyConsumer.getReplyDestination();
+                try {
+                    // the reply must be registered before it can arrive, i.e. before the
+                    // JMS message ID is known, so make sure there is a correlation ID
+                    correlationId = message.getJMSCorrelationID();
+                    if (correlationId == null || correlationId.length() == 0) {
+                        correlationId = replyConsumer.createCorrelationId();
+                        message.setJMSCorrelationID(correlationId);
+                    }
+                } catch (JMSException e) {
+                    handleException("Error setting the JMS correlation ID", e);
+                }
+                if (replyConsumer.accepts(correlationId)) {
+                    reply = replyConsumer.register(correlationId, getTimeout(msgCtx));
+                } else {
+                    // the correlation ID was chosen by the application and doesn't match the
+                    // selector of the shared consumer; wait for the reply with a consumer of
+                    // our own
+                    replyConsumer = null;
+                }
+            } else if (replyDestName != null) {
                 if (jmsConnectionFactory != null) {
                     replyDestination = jmsConnectionFactory.getDestination(
                             replyDestName, replyDestType);
@@ -199,16 +262,22 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
                     replyDestination = jmsOut.getReplyDestination(replyDestName);
                 }
             }
+
             replyDestination = JMSUtils.setReplyDestination(
                 replyDestination, messageSender.getSession(), message);
         }
 
         try {
+            long start = System.nanoTime();
             messageSender.send(message, msgCtx);
+            metrics.notifySendLatency(getMetricsEndpoint(msgCtx), System.nanoTime() - start);
             metrics.incrementMessagesSent(msgCtx);
 
         } catch (AxisJMSException e) {
             metrics.incrementFaultsSending();
+            if (replyConsumer != null) {
+                replyConsumer.cancel(correlationId);
+            }
             handleException("Error sending JMS message", e);
         }
 
@@ -218,8 +287,19 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
             log.warn("Error reading JMS message size to update transport metrics", e);
         }
 
+        if (reply != null) {
+            TransportResponseCallback responseCallback = (TransportResponseCallback)
+                msgCtx.getProperty(TransportResponseCallback.PROPERTY);
+            if (responseCallback != null) {
+                completeResponse(reply, replyDestination, msgCtx, correlationId,
+                    contentTypeProperty, responseCallback);
+            } else {
+                waitForResponseAndProcess(reply, replyDestination, msgCtx, correlationId,
+                    contentTypeProperty);
+            }
+
         // if we are expecting a synchronous response back for the message sent out
-        if (waitForResponse) {
+        } else if (waitForResponse) {
             // TODO ********************************************************************************
             // TODO **** replace with asynchronous polling via a poller task to process this *******
             // information would be given. Then it should poll (until timeout) the
@@ -267,11 +347,7 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
                 "JMSCorrelationID = '" + correlationId + "'");
 
             // how long are we willing to wait for the sync response
-            long timeout = JMSConstants.DEFAULT_JMS_TIMEOUT;
-            String waitReply = (String) msgCtx.getProperty(JMSConstants.JMS_WAIT_REPLY);
-            if (waitReply != null) {
-                timeout = Long.valueOf(waitReply).longValue();
-            }
+            long timeout = getTimeout(msgCtx);
 
             if (log.isDebugEnabled()) {
                 log.debug("Waiting for a maximum of " + timeout +
@@ -282,23 +358,7 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
             Message reply = consumer.receive(timeout);
 
             if (reply != null) {
-
-                // update transport level metrics
-                metrics.incrementMessagesReceived();                
-                try {
-                    metrics.incrementBytesReceived(JMSUtils.getMessageSize(reply));
-                } catch (JMSException e) {
-                    log.warn("Error reading JMS message size to update transport metrics", e);
-                }
-
-                try {
-                    processSyncResponse(msgCtx, reply, contentTypeProperty);
-                    metrics.incrementMessagesReceived();
-                } catch (AxisFault e) {
-                    metrics.incrementFaultsReceiving();
-                    throw e;
-                }
-
+                processReply(msgCtx, reply, contentTypeProperty);
             } else {
                 log.warn("Did not receive a JMS response within " +
                     timeout + " ms to destination : " + replyDestination +
@@ -314,6 +374,129 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
         }
     }
 
+    /**
+     * Wait for a reply expected by a shared reply consumer. If it arrives within the specified
+     * time interval, process it through Axis2
+     * @param reply the reply registered with the shared reply consumer
+     * @param replyDestination the JMS reply Destination
+     * @param msgCtx the outgoing message for which we are expecting the response
+     * @param correlationId the JMS correlation ID of the reply
+     * @param contentTypeProperty the message property used to determine the content type
+     *                            of the response message
+     * @throws AxisFault on error
+     */
+    private void waitForResponseAndProcess(CompletableFuture<Message> reply,
+            Destination replyDestination, MessageContext msgCtx, String correlationId,
+            String contentTypeProperty) throws AxisFault {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Waiting for a response message to destination : " + replyDestination +
+                " with JMS correlation ID : " + correlationId);
+        }
+
+        Message message;
+        try {
+            message = reply.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reply.cancel(false);
+            handleException("Interrupted while waiting for a synchronous reply " +
+                "for outgoing MessageContext ID : " + msgCtx.getMessageID(), e);
+            return;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                log.warn("Did not receive a JMS response within " + getTimeout(msgCtx) +
+                    " ms to destination : " + replyDestination +
+                    " with JMS correlation ID : " + correlationId);
+                metrics.incrementTimeoutsReceiving();
+                return;
+            }
+            metrics.incrementFaultsReceiving();
+            handleException("Error receiving a synchronous reply " +
+                "for outgoing MessageContext ID : " + msgCtx.getMessageID() +
+                " and reply Destination : " + replyDestination, (Exception) e.getCause());
+            return;
+        }
+        processReply(msgCtx, message, contentTypeProperty);
+    }
+
+    /**
+     * Process a reply expected by a shared reply consumer once it arrives, and notify the
+     * transport response callback. The reply is processed by a thread of the configuration
+     * context's thread pool, so that the reply consumer isn't held up.
+     */
+    private void completeResponse(CompletableFuture<Message> reply,
+            final Destination replyDestination, final MessageContext msgCtx,
+            final String correlationId, final String contentTypeProperty,
+            final TransportResponseCallback responseCallback) {
+
+        reply.whenComplete(new BiConsumer<Message, Throwable>() {
+            public void accept(final Message message, final Throwable ex) {
+                if (message == null) {
+                    Exception error;
+                    if (ex instanceof TimeoutException) {
+                        metrics.incrementTimeoutsReceiving();
+                        error = new AxisFault("Did not receive a JMS response within " +
+                            getTimeout(msgCtx) + " ms to destination : " + replyDestination +
+                            " with JMS correlation ID : " + correlationId);
+                    } else {
+                        metrics.incrementFaultsReceiving();
+                        error = AxisFault.makeFault(ex);
+                    }
+                    responseCallback.onError(error);
+                    return;
+                }
+                cfgCtx.getThreadPool().execute(new Runnable() {
+                    public void run() {
+                        try {
+                            processReply(msgCtx, message, contentTypeProperty);
+                        } catch (AxisFault e) {
+                            responseCallback.onError(e);
+                            return;
+                        }
+                        responseCallback.onResponse(msgCtx);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Update the transport metrics for a received reply and process it through Axis2
+     */
+    private void processReply(MessageContext msgCtx, Message reply,
+            String contentTypeProperty) throws AxisFault {
+
+        // update transport level metrics
+        metrics.incrementMessagesReceived();
+        try {
+            metrics.incrementBytesReceived(JMSUtils.getMessageSize(reply));
+        } catch (JMSException e) {
+            log.warn("Error reading JMS message size to update transport metrics", e);
+        }
+
+        try {
+            processSyncResponse(msgCtx, reply, contentTypeProperty);
+            metrics.incrementMessagesReceived();
+        } catch (AxisFault e) {
+            metrics.incrementFaultsReceiving();
+            throw e;
+        }
+    }
+
+    /**
+     * How long are we willing to wait for a response
+     * @param msgCtx the outgoing message for which we are expecting the response
+     * @return the timeout in milliseconds
+     */
+    private long getTimeout(MessageContext msgCtx) {
+        String waitReply = (String) msgCtx.getProperty(JMSConstants.JMS_WAIT_REPLY);
+        if (waitReply != null) {
+            return Long.valueOf(waitReply).longValue();
+        }
+        return JMSConstants.DEFAULT_JMS_TIMEOUT;
+    }
+
     /**
      * Create a JMS Message from the given MessageContext and using the given
      * session
@@ -99,6 +99,10 @@ public class ServiceTaskManager {
     private int idleTaskExecutionLimit = 10;
     /** The maximum number of successful message receipts for a task - to limit thread life span */
     private int maxMessagesPerTask = -1;    // default is unlimited
+    /** The maximum number of messages received and committed / acknowledged at once */
+    private int batchSize = 1;              // default is no batching
+    /** The time to wait for further messages to complete a batch, after the first was received */
+    private int batchTimeout = 100;
     /** The default receive timeout - a negative value means wait forever, zero dont wait at all */
     private int receiveTimeout = 1000;
     /** JMS Resource cache level - Connection, Session, Consumer. Auto will select safe default */
@@ -193,6 +197,11 @@ public class ServiceTaskManager {
             }
         }
 
+        if (batchSize > 1 && !isBatching()) {
+            log.warn("Ignoring the batch size of service : " + serviceName + " as batches can " +
+                "only be received with a transacted or CLIENT_ACKNOWLEDGE session");
+        }
+
         for (int i=0; i<concurrentConsumers; i++) {
             workerPool.execute(new MessageListenerTask());
         }
@@ -433,7 +442,13 @@ public class ServiceTaskManager {
                         messageCount++;
                         // I will be busy now while processing this message, so start another if needed
                         scheduleNewTaskIfAppropriate();
-                        handleMessage(message, ut);
+                        if (isBatching()) {
+                            List<Message> batch = receiveBatch(message);
+                            messageCount += batch.size() - 1;
+                            handleBatch(batch, ut);
+                        } else {
+                            handleMessage(message, ut);
+                        }
 
                     } else {
                         idle = true;
@@ -515,6 +530,78 @@ public class ServiceTaskManager {
             return null;
         }
 
+        /**
+         * Receive further messages to complete a batch, until the batch size is reached or the
+         * batch timeout expires
+         *
+         * @param message the first message of the batch
+         * @return the messages of the batch
+         */
+        private List<Message> receiveBatch(Message message) {
+
+            List<Message> batch = new ArrayList<Message>(getBatchSize());
+            batch.add(message);
+            long deadline = System.currentTimeMillis() + getBatchTimeout();
+            while (batch.size() < getBatchSize() && isActive()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    break;
+                }
+                try {
+                    message = consumer.receive(remaining);
+                } catch (IllegalStateException ignore) {
+                    // probably the consumer (shared) was closed.. process what we have
+                    break;
+                } catch (JMSException e) {
+                    logError("Error receiving message for service : " + serviceName, e);
+                    break;
+                }
+                if (message == null) {
+                    break;
+                }
+                batch.add(message);
+            }
+
+            if (log.isDebugEnabled()) {
+                log.debug("Received a batch of " + batch.size() + " messages for service : " +
+                    serviceName);
+            }
+            return batch;
+        }
+
+        /**
+         * Invoke ultimate message handler/listener for each message of a batch and ack the
+         * messages and/or commit/rollback transactions once for the whole batch. If processing
+         * of any message fails, the remaining messages are not processed and the whole batch is
+         * rolled back (or recovered) for redelivery.
+         *
+         * The messages are processed sequentially on this polling thread, as the JMS Session
+         * (and a JTA transaction, if any) must only be used by the thread that owns it.
+         *
+         * @param batch the JMS messages received
+         * @param ut the UserTransaction used to receive these messages, or null
+         */
+        private void handleBatch(List<Message> batch, UserTransaction ut) {
+
+            boolean commitOrAck = true;
+            try {
+                for (Message message : batch) {
+                    commitOrAck = jmsMessageReceiver.onMessage(message, ut);
+                    if (!commitOrAck) {
+                        break;
+                    }
+                }
+
+            } catch (RuntimeException e) {
+                commitOrAck = false;
+                throw e;
+
+            } finally {
+                completeReceipt(batch.get(batch.size() - 1),
+                    "batch of " + batch.size() + " messages", commitOrAck, ut, true);
+            }
+        }
+
         /**
          * Invoke ultimate message handler/listener and ack message and/or
          * commit/rollback transactions
@@ -533,65 +620,88 @@ public class ServiceTaskManager {
                 commitOrAck = jmsMessageReceiver.onMessage(message, ut);
 
             } finally {
+                completeReceipt(message, "message : " + messageId, commitOrAck, ut, false);
+            }
+        }
 
-                // if client acknowledgement is selected, and processing requested ACK
-                if (commitOrAck && getSessionAckMode() == Session.CLIENT_ACKNOWLEDGE) {
-                    try {
+        /**
+         * Ack the received messages and/or commit/rollback transactions, and release the
+         * JMS resources which are not cached
+         * @param message the last JMS message received
+         * @param description the received message(s), for logging
+         * @param commitOrAck true if the message(s) were processed successfully
+         * @param ut the UserTransaction used to receive the message(s), or null
+         * @param recover should unacknowledged messages be redelivered right away on failure?
+         */
+        private void completeReceipt(Message message, String description, boolean commitOrAck,
+            UserTransaction ut, boolean recover) {
+
+            // if client acknowledgement is selected, and processing requested ACK
+            if (getSessionAckMode() == Session.CLIENT_ACKNOWLEDGE) {
+                try {
+                    if (commitOrAck) {
+                        // acknowledges all messages consumed by the session
                         message.acknowledge();
                         if (log.isDebugEnabled()) {
-                            log.debug("Message : " + messageId + " acknowledged");
+                            log.debug("Acknowledged " + description);
+                        }
+                    } else if (recover && !session.getTransacted()) {
+                        session.recover();
+                        if (log.isDebugEnabled()) {
+                            log.debug("Session for " + description + " recovered");
                         }
-                    } catch (JMSException e) {
-                        logError("Error acknowledging message : " + messageId, e);
                     }
+                } catch (JMSException e) {
+                    logError("Error " + (commitOrAck ? "acknowledging " : "recovering ") +
+                        description, e);
                 }
+            }
 
-                // if session was transacted, commit it or rollback
-                try {
-                    if (session.getTransacted()) {
-                        if (commitOrAck) {
-                            session.commit();
-                            if (log.isDebugEnabled()) {
-                                log.debug("Session for message : " + messageId + " committed");
-                            }
-                        } else {
-                            session.rollback();
-                            if (log.isDebugEnabled()) {
-                                log.debug("Session for message : " + messageId + " rolled back");
-                            }
+            // if session was transacted, commit it or rollback
+            try {
+                if (session.getTransacted()) {
+                    if (commitOrAck) {
+                        session.commit();
+                        if (log.isDebugEnabled()) {
+                            log.debug("Session for " + description + " committed");
+                        }
+                    } else {
+                        session.rollback();
+                        if (log.isDebugEnabled()) {
+                            log.debug("Session for " + description + " rolled back");
                         }
                     }
-                } catch (JMSException e) {
-                    logError("Error " + (commitOrAck ? "committing" : "rolling back") +
-                        " local session txn for message : " + messageId, e);
                 }
+            } catch (JMSException e) {
+                logError("Error " + (commitOrAck ? "committing" : "rolling back") +
+                    " local session txn for " + description, e);
+            }
 
-                // if a JTA transaction was being used, commit it or rollback
-                try {
-                    if (ut != null) {
-                        if (commitOrAck) {
-                            ut.commit();
-                            if (log.isDebugEnabled()) {
-                                log.debug("JTA txn for message : " + messageId + " committed");
-                            }
-                        } else {
-                            ut.rollback();
-                            if (log.isDebugEnabled()) {
-                                log.debug("JTA txn for message : " + messageId + " rolled back");
-                            }
+            // if a JTA transaction was being used, commit it or rollback
+            try {
+                if (ut != null) {
+                    if (commitOrAck) {
+                        ut.commit();
+                        if (log.isDebugEnabled()) {
+                            log.debug("JTA txn for " + description + " committed");
+                        }
+                    } else {
+                        ut.rollback();
+                        if (log.isDebugEnabled()) {
+                            log.debug("JTA txn for " + description + " rolled back");
                         }
                     }
-                } catch (Exception e) {
-                    logError("Error " + (commitOrAck ? "committing" : "rolling back") +
-                        " JTA txn for message : " + messageId + " from the session", e);
                 }
+            } catch (Exception e) {
+                logError("Error " + (commitOrAck ? "committing" : "rolling back") +
+                    " JTA txn for " + description + " from the session", e);
+            }
 
-                // close the consumer
-                closeConsumer(false);
+            // close the consumer
+            closeConsumer(false);
 
-                closeSession(false);
-                closeConnection();
-            }
+            closeSession(false);
+            closeConnection();
         }
 
         /** Handle JMS Connection exceptions by re-initializing. A single connection failure could
@@ -1171,6 +1281,34 @@ public class ServiceTaskManager {
         this.maxMessagesPerTask = maxMessagesPerTask;
     }
 
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Are messages received and committed / acknowledged in batches? With an AUTO_ACKNOWLEDGE or
+     * DUPS_OK_ACKNOWLEDGE session each message is acknowledged as it is received, so a batch
+     * could not be redelivered; batching therefore requires a transacted (local or JTA) or
+     * CLIENT_ACKNOWLEDGE session.
+     * @return true if the batch size is greater than 1 and the session supports batching
+     */
+    public boolean isBatching() {
+        return batchSize > 1 && (transactionality != BaseConstants.TRANSACTION_NONE ||
+            isSessionTransacted() || sessionAckMode == Session.CLIENT_ACKNOWLEDGE);
+    }
+
+    public int getBatchTimeout() {
+        return batchTimeout;
+    }
+
+    public void setBatchTimeout(int batchTimeout) {
+        this.batchTimeout = batchTimeout;
+    }
+
     public String getUserTransactionJNDIName() {
         return userTransactionJNDIName;
     }
@@ -102,6 +102,14 @@ public class ServiceTaskManagerFactory {
         if (value != null) {
             stm.setMaxMessagesPerTask(value);
         }
+        value = getOptionalIntProperty(JMSConstants.PARAM_BATCH_SIZE, svc, cf);
+        if (value != null) {
+            stm.setBatchSize(value);
+        }
+        value = getOptionalIntProperty(JMSConstants.PARAM_BATCH_TIMEOUT, svc, cf);
+        if (value != null) {
+            stm.setBatchTimeout(value);
+        }
 
         value = getOptionalIntProperty(JMSConstants.PARAM_RECON_INIT_DURATION, svc, cf);
         if (value != null) {
@@ -136,6 +144,8 @@ public class ServiceTaskManagerFactory {
         stm.removeJmsProperties(JMSConstants.PARAM_MAX_CONSUMERS);
         stm.removeJmsProperties(JMSConstants.PARAM_IDLE_TASK_LIMIT);
         stm.removeJmsProperties(JMSConstants.PARAM_MAX_MSGS_PER_TASK);
+        stm.removeJmsProperties(JMSConstants.PARAM_BATCH_SIZE);
+        stm.removeJmsProperties(JMSConstants.PARAM_BATCH_TIMEOUT);
         stm.removeJmsProperties(JMSConstants.PARAM_RECON_INIT_DURATION);
         stm.removeJmsProperties(JMSConstants.PARAM_RECON_MAX_DURATION);
         stm.removeJmsProperties(JMSConstants.PARAM_RECON_FACTOR);
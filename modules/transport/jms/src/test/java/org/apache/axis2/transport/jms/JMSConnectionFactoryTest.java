@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.transport.jms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.Connection;
+import javax.jms.Message;
+import javax.jms.MessageProducer;
+import javax.jms.Queue;
+import javax.jms.Session;
+import javax.jms.Topic;
+import javax.naming.Context;
+
+import org.apache.axiom.om.util.AXIOMUtil;
+import org.apache.axis2.description.Parameter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JMSConnectionFactoryTest {
+    private JMSConnectionFactory jmsConnectionFactory;
+    private ScheduledThreadPoolExecutor timer;
+
+    private static String parameter(String name, String value) {
+        return "<parameter name='" + name + "'>" + value + "</parameter>";
+    }
+
+    private static JMSConnectionFactory createConnectionFactory(String name) throws Exception {
+        Parameter parameter = new Parameter();
+        parameter.setName(name);
+        parameter.setParameterElement(AXIOMUtil.stringToOM("<parameter name='" + name + "'>"
+                + parameter(Context.INITIAL_CONTEXT_FACTORY,
+                        "org.apache.activemq.jndi.ActiveMQInitialContextFactory")
+                + parameter(Context.PROVIDER_URL, "vm://replytest?broker.persistent=false")
+                + parameter(JMSConstants.PARAM_CONFAC_JNDI_NAME, "ConnectionFactory")
+                + parameter(JMSConstants.PARAM_SHARED_REPLY_CONSUMER, "true")
+                + "</parameter>"));
+        return new JMSConnectionFactory(parameter);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        jmsConnectionFactory = createConnectionFactory("test");
+        timer = new ScheduledThreadPoolExecutor(1);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        jmsConnectionFactory.stop();
+        timer.shutdownNow();
+    }
+
+    @Test
+    public void testReplyConsumersAreKeyedByNameAndType() throws Exception {
+        JMSReplyConsumer queueConsumer = jmsConnectionFactory.getReplyConsumer("reply",
+                JMSConstants.DESTINATION_TYPE_QUEUE, timer);
+        assertThat(queueConsumer.getReplyDestination()).isInstanceOf(Queue.class);
+        // Every call looks up the destination again; the consumer must still be shared
+        assertThat(jmsConnectionFactory.getReplyConsumer("reply",
+                JMSConstants.DESTINATION_TYPE_QUEUE, timer)).isSameAs(queueConsumer);
+        JMSReplyConsumer topicConsumer = jmsConnectionFactory.getReplyConsumer("reply",
+                JMSConstants.DESTINATION_TYPE_TOPIC, timer);
+        assertThat(topicConsumer).isNotSameAs(queueConsumer);
+        assertThat(topicConsumer.getReplyDestination()).isInstanceOf(Topic.class);
+        assertThat(jmsConnectionFactory.getReplyConsumer("other",
+                JMSConstants.DESTINATION_TYPE_QUEUE, timer)).isNotSameAs(queueConsumer);
+    }
+
+    @Test
+    public void testTemporaryReplyConsumer() throws Exception {
+        JMSReplyConsumer replyConsumer = jmsConnectionFactory.getReplyConsumer(null,
+                JMSConstants.DESTINATION_TYPE_GENERIC, timer);
+        assertThat(replyConsumer.getReplyDestination()).isNotNull();
+        assertThat(jmsConnectionFactory.getReplyConsumer(null,
+                JMSConstants.DESTINATION_TYPE_GENERIC, timer)).isSameAs(replyConsumer);
+    }
+
+    @Test
+    public void testClosedReplyConsumerIsReplaced() throws Exception {
+        JMSReplyConsumer replyConsumer = jmsConnectionFactory.getReplyConsumer("reply",
+                JMSConstants.DESTINATION_TYPE_QUEUE, timer);
+        replyConsumer.close();
+        JMSReplyConsumer newReplyConsumer = jmsConnectionFactory.getReplyConsumer("reply",
+                JMSConstants.DESTINATION_TYPE_QUEUE, timer);
+        assertThat(newReplyConsumer).isNotSameAs(replyConsumer);
+        assertThat(newReplyConsumer.isClosed()).isFalse();
+    }
+
+    @Test
+    public void testStopClosesReplyConsumers() throws Exception {
+        JMSReplyConsumer queueConsumer = jmsConnectionFactory.getReplyConsumer("reply",
+                JMSConstants.DESTINATION_TYPE_QUEUE, timer);
+        JMSReplyConsumer temporaryConsumer = jmsConnectionFactory.getReplyConsumer(null,
+                JMSConstants.DESTINATION_TYPE_GENERIC, timer);
+        jmsConnectionFactory.stop();
+        assertThat(queueConsumer.isClosed()).isTrue();
+        assertThat(temporaryConsumer.isClosed()).isTrue();
+        try {
+            jmsConnectionFactory.getReplyConsumer("reply", JMSConstants.DESTINATION_TYPE_QUEUE, timer);
+            fail("Expected AxisJMSException");
+        } catch (AxisJMSException ex) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testReplyConsumersSharingADestinationOnlyReceiveTheirReplies() throws Exception {
+        // e.g. two nodes of a cluster using the same reply queue
+        JMSConnectionFactory otherConnectionFactory = createConnectionFactory("other");
+        try {
+            JMSReplyConsumer replyConsumer = jmsConnectionFactory.getReplyConsumer("shared",
+                    JMSConstants.DESTINATION_TYPE_QUEUE, timer);
+            JMSReplyConsumer otherReplyConsumer = otherConnectionFactory.getReplyConsumer(
+                    "shared", JMSConstants.DESTINATION_TYPE_QUEUE, timer);
+            String correlationId = otherReplyConsumer.createCorrelationId();
+            assertThat(otherReplyConsumer.accepts(correlationId)).isTrue();
+            assertThat(replyConsumer.accepts(correlationId)).isFalse();
+            CompletableFuture<Message> otherReply = otherReplyConsumer.register(correlationId, 0);
+            String[] correlationIds = new String[10];
+            CompletableFuture<?>[] replies = new CompletableFuture<?>[correlationIds.length];
+            for (int i = 0; i < correlationIds.length; i++) {
+                correlationIds[i] = replyConsumer.createCorrelationId();
+                replies[i] = replyConsumer.register(correlationIds[i], 0);
+            }
+
+            Connection connection = jmsConnectionFactory.createConnection();
+            try {
+                Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+                MessageProducer producer = session.createProducer(
+                        otherReplyConsumer.getReplyDestination());
+                Message message = session.createTextMessage();
+                message.setJMSCorrelationID(correlationId);
+                producer.send(message);
+                for (String id : correlationIds) {
+                    message = session.createTextMessage();
+                    message.setJMSCorrelationID(id);
+                    producer.send(message);
+                }
+            } finally {
+                connection.close();
+            }
+
+            assertThat(otherReply.get(10, TimeUnit.SECONDS)
+                    .getJMSCorrelationID()).isEqualTo(correlationId);
+            for (int i = 0; i < replies.length; i++) {
+                assertThat(((Message)replies[i].get(10, TimeUnit.SECONDS))
+                        .getJMSCorrelationID()).isEqualTo(correlationIds[i]);
+            }
+        } finally {
+            otherConnectionFactory.stop();
+        }
+    }
+}
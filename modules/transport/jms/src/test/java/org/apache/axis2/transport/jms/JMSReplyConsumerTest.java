@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.transport.jms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeoutException;
+
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.Queue;
+import javax.jms.Session;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JMSReplyConsumerTest {
+    private Queue queue;
+    private Connection connection;
+    private MessageConsumer consumer;
+    private ScheduledThreadPoolExecutor timer;
+    private JMSReplyConsumer replyConsumer;
+
+    @Before
+    public void setUp() throws Exception {
+        queue = mock(Queue.class);
+        connection = mock(Connection.class);
+        Session session = mock(Session.class);
+        consumer = mock(MessageConsumer.class);
+        JMSConnectionFactory jmsConnectionFactory = mock(JMSConnectionFactory.class);
+        when(jmsConnectionFactory.getName()).thenReturn("test");
+        when(jmsConnectionFactory.isJmsSpec11()).thenReturn(true);
+        when(jmsConnectionFactory.createConnection()).thenReturn(connection);
+        when(connection.createSession(false, Session.AUTO_ACKNOWLEDGE)).thenReturn(session);
+        when(session.createConsumer(eq(queue), startsWith("JMSCorrelationID LIKE 'axis2-")))
+                .thenReturn(consumer);
+        timer = new ScheduledThreadPoolExecutor(1);
+        replyConsumer = new JMSReplyConsumer(jmsConnectionFactory, queue, timer);
+    }
+
+    @After
+    public void tearDown() {
+        timer.shutdownNow();
+    }
+
+    private static Message reply(String correlationId) throws JMSException {
+        Message message = mock(Message.class);
+        when(message.getJMSCorrelationID()).thenReturn(correlationId);
+        return message;
+    }
+
+    @Test
+    public void testDispatchByCorrelationId() throws Exception {
+        verify(consumer).setMessageListener(replyConsumer);
+        verify(connection).start();
+        assertThat(replyConsumer.getReplyDestination()).isSameAs(queue);
+        CompletableFuture<Message> reply1 = replyConsumer.register("id1", 0);
+        CompletableFuture<Message> reply2 = replyConsumer.register("id2", 0);
+        Message message2 = reply("id2");
+        replyConsumer.onMessage(message2);
+        assertThat(reply1.isDone()).isFalse();
+        assertThat(reply2.get()).isSameAs(message2);
+        // A late or unknown reply is discarded
+        replyConsumer.onMessage(reply("id2"));
+        Message message1 = reply("id1");
+        replyConsumer.onMessage(message1);
+        assertThat(reply1.get()).isSameAs(message1);
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        CompletableFuture<Message> reply = replyConsumer.register("id", 50);
+        try {
+            reply.get();
+            fail("Expected ExecutionException");
+        } catch (ExecutionException ex) {
+            assertThat(ex.getCause()).isInstanceOf(TimeoutException.class);
+        }
+        // The correlation ID may be reused once the reply timed out
+        assertThat(replyConsumer.register("id", 0).isDone()).isFalse();
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        CompletableFuture<Message> reply = replyConsumer.register("id", 0);
+        replyConsumer.close();
+        verify(connection).close();
+        assertThat(replyConsumer.isClosed()).isTrue();
+        assertThat(reply.isCompletedExceptionally()).isTrue();
+        assertThat(replyConsumer.register("id2", 0).isCompletedExceptionally()).isTrue();
+    }
+
+    @Test
+    public void testCorrelationIds() throws Exception {
+        String correlationId1 = replyConsumer.createCorrelationId();
+        String correlationId2 = replyConsumer.createCorrelationId();
+        assertThat(correlationId1).isNotEqualTo(correlationId2);
+        assertThat(replyConsumer.accepts(correlationId1)).isTrue();
+        assertThat(replyConsumer.accepts("ID:chosen-by-the-application")).isFalse();
+    }
+
+    @Test
+    public void testNoTimeoutUsesDefault() throws Exception {
+        replyConsumer.register("id", 0);
+        assertThat(timer.getQueue()).hasSize(1);
+    }
+
+    @Test
+    public void testRegisterAfterTimerShutdown() throws Exception {
+        timer.shutdownNow();
+        CompletableFuture<Message> reply = replyConsumer.register("id", 0);
+        assertThat(reply.isCompletedExceptionally()).isTrue();
+        // nothing is left waiting for the reply
+        assertThat(replyConsumer.register("id", 0).isCompletedExceptionally()).isTrue();
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.transport.jms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.Connection;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import javax.naming.Context;
+
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.axis2.transport.base.BaseConstants;
+import org.apache.axis2.transport.base.threads.WorkerPool;
+import org.apache.axis2.transport.base.threads.WorkerPoolFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class ServiceTaskManagerTest {
+    private static final String BROKER_URL = "vm://stmtest?broker.persistent=false";
+    private static final String QUEUE_NAME = "batch";
+
+    private Connection connection;
+    private WorkerPool workerPool;
+    private ServiceTaskManager stm;
+    private final List<String> threads = new CopyOnWriteArrayList<String>();
+
+    @Before
+    public void setUp() throws Exception {
+        // keeps the embedded broker alive for the duration of the test
+        connection = new ActiveMQConnectionFactory(BROKER_URL).createConnection();
+        connection.start();
+        workerPool = WorkerPoolFactory.getWorkerPool(2, 4, 5, -1, "JMSTest", "JMSTest");
+        stm = new ServiceTaskManager();
+        stm.setServiceName("BatchService");
+        Map<String,String> jmsProperties = new HashMap<String,String>();
+        jmsProperties.put(Context.INITIAL_CONTEXT_FACTORY,
+                "org.apache.activemq.jndi.ActiveMQInitialContextFactory");
+        jmsProperties.put(Context.PROVIDER_URL, BROKER_URL);
+        stm.addJmsProperties(jmsProperties);
+        stm.setConnFactoryJNDIName("ConnectionFactory");
+        stm.setDestinationJNDIName(QUEUE_NAME);
+        stm.setDestinationType(JMSConstants.QUEUE);
+        stm.setConcurrentConsumers(1);
+        stm.setMaxConcurrentConsumers(1);
+        stm.setReceiveTimeout(100);
+        stm.setBatchSize(5);
+        stm.setBatchTimeout(1000);
+        stm.setWorkerPool(workerPool);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        stm.stop();
+        workerPool.shutdown(1000);
+        connection.close();
+    }
+
+    private void send(int count) throws Exception {
+        Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        MessageProducer producer = session.createProducer(session.createQueue(QUEUE_NAME));
+        for (int i = 0; i < count; i++) {
+            producer.send(session.createTextMessage("message " + i));
+        }
+        session.close();
+    }
+
+    private void assertQueueEmpty() throws Exception {
+        Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        MessageConsumer consumer = session.createConsumer(session.createQueue(QUEUE_NAME));
+        assertThat(consumer.receive(500)).isNull();
+        session.close();
+    }
+
+    /**
+     * Set a message receiver which returns the given results for successive messages and
+     * {@code true} once they are exhausted.
+     */
+    private CountDownLatch setMessageReceiver(int expectedMessages, final boolean... results)
+            throws Exception {
+        final CountDownLatch latch = new CountDownLatch(expectedMessages);
+        JMSMessageReceiver receiver = mock(JMSMessageReceiver.class);
+        doAnswer(new Answer<Boolean>() {
+            private int count;
+
+            public Boolean answer(InvocationOnMock invocation) {
+                threads.add(Thread.currentThread().getName());
+                boolean result = count < results.length ? results[count] : true;
+                count++;
+                latch.countDown();
+                return result;
+            }
+        }).when(receiver).onMessage(any(Message.class), any());
+        stm.setJmsMessageReceiver(receiver);
+        return latch;
+    }
+
+    @Test
+    public void testIsBatching() {
+        stm.setTransactionality(BaseConstants.TRANSACTION_NONE);
+        stm.setSessionAckMode(Session.AUTO_ACKNOWLEDGE);
+        assertThat(stm.isBatching()).isFalse();
+        stm.setSessionAckMode(Session.DUPS_OK_ACKNOWLEDGE);
+        assertThat(stm.isBatching()).isFalse();
+        stm.setSessionAckMode(Session.CLIENT_ACKNOWLEDGE);
+        assertThat(stm.isBatching()).isTrue();
+        stm.setSessionAckMode(Session.AUTO_ACKNOWLEDGE);
+        stm.setTransactionality(BaseConstants.TRANSACTION_LOCAL);
+        assertThat(stm.isBatching()).isTrue();
+        stm.setTransactionality(BaseConstants.TRANSACTION_JTA);
+        assertThat(stm.isBatching()).isTrue();
+        stm.setBatchSize(1);
+        assertThat(stm.isBatching()).isFalse();
+    }
+
+    @Test
+    public void testClientAcknowledgeBatch() throws Exception {
+        stm.setTransactionality(BaseConstants.TRANSACTION_NONE);
+        stm.setSessionAckMode(Session.CLIENT_ACKNOWLEDGE);
+        send(5);
+        CountDownLatch latch = setMessageReceiver(5);
+        stm.start();
+        assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+        stm.stop();
+        // all messages of the batch are processed by the thread owning the session
+        assertThat(threads).hasSize(5);
+        assertThat(threads).containsOnly(threads.get(0));
+        assertQueueEmpty();
+    }
+
+    @Test
+    public void testTransactedBatchIsRedeliveredOnFailure() throws Exception {
+        stm.setTransactionality(BaseConstants.TRANSACTION_LOCAL);
+        send(3);
+        // the first message fails, so the batch is rolled back before the other messages are
+        // processed; then all three messages are redelivered
+        CountDownLatch latch = setMessageReceiver(4, false);
+        stm.start();
+        assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+        stm.stop();
+        assertThat(threads).hasSize(4);
+        assertQueueEmpty();
+    }
+}
@@ -20,6 +20,7 @@
 
 package org.apache.axis2.transport.local;
 
+import org.apache.axiom.soap.SOAPEnvelope;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.addressing.EndpointReference;
 import org.apache.axis2.context.ConfigurationContext;
@@ -44,10 +45,32 @@ public class LocalResponder extends AbstractHandler implements TransportSender {
     //  fixed for Executing LocalTransport in MulthThread. 
     private OutputStream out;
 
+    // set when responses are passed by reference instead of being written to a stream
+    private boolean passByReference;
+    private SOAPEnvelope responseEnvelope;
+
     public LocalResponder(OutputStream response) {
         this.out = response;        
     }
 
+    /**
+     * Create a responder that keeps a reference to the response envelope instead of writing it
+     * to a stream.
+     *
+     * @see #getResponseEnvelope()
+     */
+    public LocalResponder() {
+        this.passByReference = true;
+    }
+
+    /**
+     * @return the response envelope if this responder passes responses by reference, or null
+     *         if no response was sent
+     */
+    public SOAPEnvelope getResponseEnvelope() {
+        return responseEnvelope;
+    }
+
     public void init(ConfigurationContext confContext, TransportOutDescription transportOut)
             throws AxisFault {
     }
@@ -82,7 +105,11 @@ public class LocalResponder extends AbstractHandler implements TransportSender {
                 log.debug("Response - " + msgContext.getEnvelope().toString());
             }
 
-            if (epr != null) {
+            if (passByReference) {
+                if (epr == null || !epr.hasNoneAddress()) {
+                    responseEnvelope = msgContext.getEnvelope();
+                }
+            } else if (epr != null) {
                 if (!epr.hasNoneAddress()) {
                     TransportUtils.writeMessage(msgContext, out);
                 }
@@ -73,9 +73,34 @@ public class LocalTransportReceiver {
         processMessage(in, to, action, response);
     }
 
+    /**
+     * Process a message without serializing it: the given envelope is handed over as is to the
+     * service, and the response envelope is returned as is to the caller. The caller must not
+     * touch the request envelope any more, since the service is free to modify it.
+     *
+     * @return the response envelope, or null if the service didn't produce a response
+     */
+    public SOAPEnvelope processMessage(MessageContext inMessageContext, SOAPEnvelope envelope)
+            throws AxisFault {
+        if (this.confContext == null) {
+            this.confContext = inMessageContext.getConfigurationContext();
+        }
+        this.inMessageContext = inMessageContext;
+        LocalResponder responder = new LocalResponder();
+        processMessage(envelope, null, inMessageContext.getTo(),
+                       inMessageContext.getOptions().getAction(), null, responder);
+        return responder.getResponseEnvelope();
+    }
+
     public void processMessage(InputStream in, EndpointReference to, String action,
                                OutputStream response)
             throws AxisFault {
+        processMessage(null, in, to, action, response, new LocalResponder(response));
+    }
+
+    private void processMessage(SOAPEnvelope envelope, InputStream in, EndpointReference to,
+                                String action, OutputStream response, LocalResponder responder)
+            throws AxisFault {
         MessageContext msgCtx = confContext.createMessageContext();
         if (inMessageContext != null) {
             msgCtx.setProperty(HTTPConstants.MC_HTTP_SERVLETREQUEST,
@@ -94,7 +119,7 @@ public class LocalTransportReceiver {
         // We escaped this problem by the following code.
         LocalResponseTransportOutDescription localTransportResOut = new LocalResponseTransportOutDescription(
                 tOut);
-        localTransportResOut.setSender(new LocalResponder(response));
+        localTransportResOut.setSender(responder);
 
         try {
             msgCtx.setIncomingTransportName(Constants.TRANSPORT_LOCAL);
@@ -111,8 +136,10 @@ public class LocalTransportReceiver {
             msgCtx.setWSAAction(action);
             msgCtx.setServerSide(true);
 
-            InputStreamReader streamReader = new InputStreamReader(in);
-            SOAPEnvelope envelope = OMXMLBuilderFactory.createSOAPModelBuilder(streamReader).getSOAPEnvelope();
+            if (envelope == null) {
+                InputStreamReader streamReader = new InputStreamReader(in);
+                envelope = OMXMLBuilderFactory.createSOAPModelBuilder(streamReader).getSOAPEnvelope();
+            }
 
             msgCtx.setEnvelope(envelope);
 
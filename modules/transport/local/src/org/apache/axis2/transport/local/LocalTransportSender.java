@@ -20,14 +20,19 @@
 
 package org.apache.axis2.transport.local;
 
+import org.apache.axiom.soap.SOAPEnvelope;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.addressing.EndpointReference;
 import org.apache.axis2.context.ConfigurationContext;
 import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.context.OperationContext;
+import org.apache.axis2.description.Parameter;
 import org.apache.axis2.description.TransportOutDescription;
 import org.apache.axis2.handlers.AbstractHandler;
 import org.apache.axis2.kernel.TransportSender;
 import org.apache.axis2.kernel.TransportUtils;
+import org.apache.axis2.util.JavaUtils;
+import org.apache.axis2.wsdl.WSDLConstants;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -40,8 +45,22 @@ import java.io.OutputStream;
 public class LocalTransportSender extends AbstractHandler implements TransportSender {
     protected static final Log log = LogFactory.getLog(LocalTransportSender.class);
 
+    /**
+     * Name of the transport parameter, or message context property, that enables passing
+     * messages by reference. In that mode the request and response envelopes are handed over
+     * between the client and the service without being serialized and parsed again. The
+     * envelopes are then shared by both sides, so the default is to copy them.
+     */
+    public static final String PASS_BY_REFERENCE = "transport.local.passByReference";
+
+    private boolean passByReference;
+
     public void init(ConfigurationContext confContext, TransportOutDescription transportOut)
             throws AxisFault {
+        Parameter param = transportOut.getParameter(PASS_BY_REFERENCE);
+        if (param != null) {
+            passByReference = JavaUtils.isTrueExplicitly(param.getValue());
+        }
     }
 
     public void stop() {
@@ -72,9 +91,13 @@ public class LocalTransportSender extends AbstractHandler implements TransportSe
 
         if (epr != null) {
             if (!epr.hasNoneAddress()) {
-                out = new ByteArrayOutputStream();
-                TransportUtils.writeMessage(msgContext, out);
-                finalizeSendWithToAddress(msgContext, (ByteArrayOutputStream)out);
+                if (isPassByReference(msgContext)) {
+                    finalizeSendByReference(msgContext);
+                } else {
+                    out = new ByteArrayOutputStream();
+                    TransportUtils.writeMessage(msgContext, out);
+                    finalizeSendWithToAddress(msgContext, (ByteArrayOutputStream)out);
+                }
             }
         } else {
             out = (OutputStream) msgContext.getProperty(MessageContext.TRANSPORT_OUT);
@@ -111,4 +134,27 @@ public class LocalTransportSender extends AbstractHandler implements TransportSe
             throw AxisFault.makeFault(e);
         }
     }
+
+    private boolean isPassByReference(MessageContext msgContext) {
+        Object value = msgContext.getProperty(PASS_BY_REFERENCE);
+        return value == null ? passByReference : JavaUtils.isTrueExplicitly(value);
+    }
+
+    /**
+     * Hand the request envelope over to the service and attach the response envelope to the
+     * IN message context of the operation, so that neither of them is serialized.
+     */
+    public void finalizeSendByReference(MessageContext msgContext) throws AxisFault {
+        LocalTransportReceiver localTransportReceiver = new LocalTransportReceiver(this);
+        SOAPEnvelope response = localTransportReceiver.processMessage(msgContext,
+                                                                     msgContext.getEnvelope());
+        if (response != null) {
+            OperationContext opContext = msgContext.getOperationContext();
+            MessageContext responseMsgCtx = opContext == null ? null :
+                    opContext.getMessageContext(WSDLConstants.MESSAGE_LABEL_IN_VALUE);
+            if (responseMsgCtx != null) {
+                responseMsgCtx.setEnvelope(response);
+            }
+        }
+    }
 }
@@ -37,6 +37,15 @@ import org.junit.Test;
 public class LocalTransportTest {
     @Test
     public void test() throws Exception {
+        testEcho(false);
+    }
+
+    @Test
+    public void testPassByReference() throws Exception {
+        testEcho(true);
+    }
+
+    private void testEcho(boolean passByReference) throws Exception {
         ConfigurationContext configurationContext =
             ConfigurationContextFactory.createConfigurationContextFromURIs(
                     LocalTransportTest.class.getResource("axis2.xml"), null);
@@ -54,10 +63,12 @@ public class LocalTransportTest {
         
         Options options = new Options();
         options.setTo(new EndpointReference("local://localhost/axis2/services/Echo"));
+        options.setProperty(LocalTransportSender.PASS_BY_REFERENCE, passByReference);
         ServiceClient serviceClient = new ServiceClient(configurationContext, null);
         serviceClient.setOptions(options);
+        String expected = requestElement.toString();
         OMElement responseElement = serviceClient.sendReceive(requestElement);
         
-        XMLAssert.assertXMLEqual(requestElement.toString(), responseElement.toString());
+        XMLAssert.assertXMLEqual(expected, responseElement.toString());
     }
 }
@@ -482,7 +482,9 @@ public class MailTransportSender extends AbstractTransportSender
 
             
             log.debug("Sending message");
+            long start = System.nanoTime();
             Transport.send(message);
+            metrics.notifySendLatency(getMetricsEndpoint(msgContext), System.nanoTime() - start);
 
             // update metrics
             metrics.incrementMessagesSent(msgContext);
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.tcp;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client side of a framed TCP connection. Any number of threads may send requests over the
+ * connection concurrently; a dedicated reader thread dispatches the response frames to the
+ * waiting callers using the correlation id of the frames.
+ */
+public class TCPClientConnection implements Runnable {
+
+    private static final Log log = LogFactory.getLog(TCPClientConnection.class);
+
+    private final Socket socket;
+    private final DataOutputStream out;
+    private final DataInputStream in;
+    private final int maxFrameSize;
+    private final AtomicLong nextCorrelationId = new AtomicLong();
+    private final Map<Long, CompletableFuture<byte[]>> pendingResponses =
+            new ConcurrentHashMap<Long, CompletableFuture<byte[]>>();
+    private volatile boolean closed = false;
+
+    /**
+     * @param connectionTimeout the connect timeout in millis, or 0 to wait indefinitely
+     */
+    public TCPClientConnection(String host, int port, int maxFrameSize, int connectionTimeout)
+            throws IOException {
+        this.maxFrameSize = maxFrameSize;
+        socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.setKeepAlive(true);
+        socket.connect(new InetSocketAddress(host, port), connectionTimeout);
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        Thread reader = new Thread(this, "TCPClientConnection-" + host + ":" + port);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Send a request frame and return a future completed with the payload of the response. The
+     * server answers every request frame; the payload is empty if the request did not produce
+     * a response message.
+     */
+    public CompletableFuture<byte[]> sendRequest(byte[] payload, int offset, int length)
+            throws IOException {
+        long correlationId = nextCorrelationId.incrementAndGet();
+        CompletableFuture<byte[]> response = new CompletableFuture<byte[]>();
+        pendingResponses.put(correlationId, response);
+        try {
+            write(correlationId, payload, offset, length);
+        } catch (IOException e) {
+            pendingResponses.remove(correlationId);
+            throw e;
+        }
+        return response;
+    }
+
+    /**
+     * Stop waiting for the response to the given request, e.g. after a timeout.
+     */
+    public void cancel(CompletableFuture<byte[]> response) {
+        pendingResponses.values().remove(response);
+    }
+
+    private void write(long correlationId, byte[] payload, int offset, int length)
+            throws IOException {
+        if (closed) {
+            throw new IOException("The TCP connection has been closed");
+        }
+        synchronized (out) {
+            out.writeInt(length);
+            out.writeLong(correlationId);
+            out.write(payload, offset, length);
+            out.flush();
+        }
+    }
+
+    public void run() {
+        IOException failure = null;
+        try {
+            TCPFrame frame;
+            while ((frame = TCPFrame.read(in, maxFrameSize)) != null) {
+                CompletableFuture<byte[]> response =
+                        pendingResponses.remove(frame.getCorrelationId());
+                if (response != null) {
+                    response.complete(frame.getPayload());
+                } else if (log.isDebugEnabled()) {
+                    log.debug("Discarding TCP response with unknown correlation id : " +
+                            frame.getCorrelationId());
+                }
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                failure = e;
+            }
+        }
+        if (failure == null) {
+            failure = new IOException("The TCP connection has been closed");
+        }
+        close();
+        for (CompletableFuture<byte[]> response : pendingResponses.values()) {
+            response.completeExceptionally(failure);
+        }
+        pendingResponses.clear();
+    }
+
+    public void close() {
+        closed = true;
+        try {
+            socket.close();
+        } catch (IOException e) {
+            log.error("Error while closing a TCP socket", e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.tcp;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps a small, fixed number of long lived {@link TCPClientConnection}s per remote host and
+ * port, and spreads the requests over them in a round robin fashion. Connections that have been
+ * closed are replaced on demand.
+ */
+public class TCPConnectionPool {
+
+    private final int maxConnectionsPerHost;
+    private final int maxFrameSize;
+    private final Map<String, Route> routes = new ConcurrentHashMap<String, Route>();
+
+    public TCPConnectionPool(int maxConnectionsPerHost, int maxFrameSize) {
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.maxFrameSize = maxFrameSize;
+    }
+
+    /**
+     * @param connectionTimeout the connect timeout in millis used if a new connection must be
+     *                          opened, or 0 to wait indefinitely
+     */
+    public TCPClientConnection getConnection(String host, int port, int connectionTimeout)
+            throws IOException {
+        String key = host + ":" + port;
+        Route route = routes.get(key);
+        if (route == null) {
+            Route newRoute = new Route(host, port);
+            route = routes.putIfAbsent(key, newRoute);
+            if (route == null) {
+                route = newRoute;
+            }
+        }
+        return route.next(connectionTimeout);
+    }
+
+    public void close() {
+        for (Route route : routes.values()) {
+            route.close();
+        }
+        routes.clear();
+    }
+
+    private final class Route {
+        private final String host;
+        private final int port;
+        private final AtomicReferenceArray<TCPClientConnection> connections;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        Route(String host, int port) {
+            this.host = host;
+            this.port = port;
+            this.connections =
+                    new AtomicReferenceArray<TCPClientConnection>(maxConnectionsPerHost);
+        }
+
+        TCPClientConnection next(int connectionTimeout) throws IOException {
+            int index = (counter.getAndIncrement() & Integer.MAX_VALUE) % connections.length();
+            TCPClientConnection connection = connections.get(index);
+            if (connection != null && !connection.isClosed()) {
+                return connection;
+            }
+            synchronized (this) {
+                connection = connections.get(index);
+                if (connection == null || connection.isClosed()) {
+                    connection = new TCPClientConnection(host, port, maxFrameSize,
+                            connectionTimeout);
+                    connections.set(index, connection);
+                }
+                return connection;
+            }
+        }
+
+        synchronized void close() {
+            for (int i = 0; i < connections.length(); i++) {
+                TCPClientConnection connection = connections.getAndSet(i, null);
+                if (connection != null) {
+                    connection.close();
+                }
+            }
+        }
+    }
+}
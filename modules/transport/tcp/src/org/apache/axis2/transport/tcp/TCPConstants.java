@@ -25,9 +25,20 @@ public class TCPConstants {
     public static final String PARAM_HOST = "transport.tcp.hostname";
     public static final String PARAM_BACKLOG = "transport.tcp.backlog";
     public static final String PARAM_CONTENT_TYPE = "transport.tcp.contentType";
+    public static final String PARAM_FRAMED = "transport.tcp.framed";
+    public static final String PARAM_MAX_FRAME_SIZE = "transport.tcp.maxFrameSize";
+    public static final String PARAM_MAX_CONNECTIONS_PER_HOST = "transport.tcp.maxConnectionsPerHost";
+    public static final String PARAM_CONNECTION_TIMEOUT = "transport.tcp.connectionTimeout";
 
     public static final int TCP_DEFAULT_BACKLOG = 50;
     public static final String TCP_DEFAULT_CONTENT_TYPE = "text/xml";
+    public static final int TCP_DEFAULT_MAX_FRAME_SIZE = 64 * 1024 * 1024;
+    public static final int TCP_DEFAULT_MAX_CONNECTIONS_PER_HOST = 2;
+    /**
+     * The default connection timeout in milliseconds of framed connections. Unframed connections
+     * have no connection timeout unless {@link #PARAM_CONNECTION_TIMEOUT} is set.
+     */
+    public static final int TCP_DEFAULT_CONNECTION_TIMEOUT = 60000;
 
     public static final String TCP_OUTPUT_SOCKET = "transport.tcp.outputSocket";
 }
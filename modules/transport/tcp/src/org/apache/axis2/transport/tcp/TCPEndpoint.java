@@ -36,6 +36,8 @@ public class TCPEndpoint extends ProtocolEndpoint {
     private int port = -1;
     private int backlog = TCPConstants.TCP_DEFAULT_BACKLOG;
     private String contentType;
+    private boolean framed = false;
+    private int maxFrameSize = TCPConstants.TCP_DEFAULT_MAX_FRAME_SIZE;
 
     public TCPEndpoint() {
 
@@ -63,6 +65,14 @@ public class TCPEndpoint extends ProtocolEndpoint {
         return contentType;
     }
 
+    public boolean isFramed() {
+        return framed;
+    }
+
+    public int getMaxFrameSize() {
+        return maxFrameSize;
+    }
+
     public boolean loadConfiguration(ParameterInclude params) throws AxisFault {
         port = ParamUtils.getOptionalParamInt(params, TCPConstants.PARAM_PORT, -1);
         if (port == -1) {
@@ -77,6 +87,9 @@ public class TCPEndpoint extends ProtocolEndpoint {
         host = ParamUtils.getOptionalParam(params, TCPConstants.PARAM_HOST);
         backlog = ParamUtils.getOptionalParamInt(params, TCPConstants.PARAM_BACKLOG,
                 TCPConstants.TCP_DEFAULT_BACKLOG);
+        framed = ParamUtils.getOptionalParamBoolean(params, TCPConstants.PARAM_FRAMED, false);
+        maxFrameSize = ParamUtils.getOptionalParamInt(params, TCPConstants.PARAM_MAX_FRAME_SIZE,
+                TCPConstants.TCP_DEFAULT_MAX_FRAME_SIZE);
         return true;
     }
 
@@ -97,8 +110,15 @@ public class TCPEndpoint extends ProtocolEndpoint {
                 (context.endsWith("/") ? "" : "/") +
                 (getService() == null ? service.getName() : getServiceName());
 
+        String query = "";
         if (!contentType.equals(TCPConstants.TCP_DEFAULT_CONTENT_TYPE)) {
-            url += "?contentType=" + contentType;
+            query += "contentType=" + contentType;
+        }
+        if (framed) {
+            query += (query.length() == 0 ? "" : "&") + "framed=true";
+        }
+        if (query.length() > 0) {
+            url += "?" + query;
         }
 
         return new EndpointReference[] { new EndpointReference(url) };
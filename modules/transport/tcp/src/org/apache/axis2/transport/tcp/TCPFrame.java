@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.tcp;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Wire format of the framed mode of the TCP transport. Every message is sent as a frame made of
+ * a 4 byte payload length, an 8 byte correlation id and the payload itself. A response carries
+ * the correlation id of the request it answers, which allows many requests to be in flight
+ * over the same connection.
+ */
+public final class TCPFrame {
+
+    public static final int HEADER_SIZE = 12;
+
+    private final long correlationId;
+    private final byte[] payload;
+
+    public TCPFrame(long correlationId, byte[] payload) {
+        this.correlationId = correlationId;
+        this.payload = payload;
+    }
+
+    public long getCorrelationId() {
+        return correlationId;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    /**
+     * Encode a frame into a buffer ready to be written to a channel.
+     */
+    public static ByteBuffer encode(long correlationId, byte[] payload, int offset, int length) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + length);
+        buffer.putInt(length);
+        buffer.putLong(correlationId);
+        buffer.put(payload, offset, length);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Decode the next frame from a buffer in read mode. Returns null and leaves the buffer
+     * position unchanged if the buffer does not contain a complete frame yet.
+     *
+     * @throws IOException if the frame is larger than <code>maxFrameSize</code>
+     */
+    public static TCPFrame decode(ByteBuffer buffer, int maxFrameSize) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE) {
+            return null;
+        }
+        int start = buffer.position();
+        int length = buffer.getInt(start);
+        checkLength(length, maxFrameSize);
+        if (buffer.remaining() < HEADER_SIZE + length) {
+            return null;
+        }
+        long correlationId = buffer.getLong(start + 4);
+        byte[] payload = new byte[length];
+        buffer.position(start + HEADER_SIZE);
+        buffer.get(payload);
+        return new TCPFrame(correlationId, payload);
+    }
+
+    /**
+     * Read the next frame from a blocking stream. Returns null if the stream is at its end
+     * before the start of a frame.
+     */
+    public static TCPFrame read(DataInputStream in, int maxFrameSize) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        checkLength(length, maxFrameSize);
+        long correlationId = in.readLong();
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        return new TCPFrame(correlationId, payload);
+    }
+
+    private static void checkLength(int length, int maxFrameSize) throws IOException {
+        if (length < 0 || length > maxFrameSize) {
+            throw new IOException("Invalid TCP frame length : " + length);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.tcp;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A long lived connection accepted by a {@link TCPFramedServer}. Incoming bytes are
+ * accumulated until complete frames are available, and responses are queued by the worker
+ * threads and written out by the selector thread of the server.
+ */
+public class TCPFramedConnection {
+
+    private static final Log log = LogFactory.getLog(TCPFramedConnection.class);
+
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+
+    private final TCPFramedServer server;
+    private final SocketChannel channel;
+    private final int maxFrameSize;
+    private final Queue<ByteBuffer> writeQueue = new ConcurrentLinkedQueue<ByteBuffer>();
+    private ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private SelectionKey key;
+    private volatile boolean closed = false;
+
+    TCPFramedConnection(TCPFramedServer server, SocketChannel channel, int maxFrameSize) {
+        this.server = server;
+        this.channel = channel;
+        this.maxFrameSize = maxFrameSize;
+    }
+
+    void setKey(SelectionKey key) {
+        this.key = key;
+    }
+
+    SelectionKey getKey() {
+        return key;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Queue a response frame for writing. May be called from any thread.
+     */
+    public void send(long correlationId, byte[] payload, int offset, int length)
+            throws IOException {
+        if (closed) {
+            throw new IOException("The TCP connection has been closed");
+        }
+        writeQueue.add(TCPFrame.encode(correlationId, payload, offset, length));
+        server.requestWrite(this);
+    }
+
+    /**
+     * Read the available bytes from the channel. Only called by the selector thread.
+     *
+     * @return the frames completed by this read, or null if the peer closed the connection
+     */
+    List<TCPFrame> read() throws IOException {
+        if (!readBuffer.hasRemaining()) {
+            ByteBuffer larger = ByteBuffer.allocate(readBuffer.capacity() * 2);
+            readBuffer.flip();
+            larger.put(readBuffer);
+            readBuffer = larger;
+        }
+        int count = channel.read(readBuffer);
+        if (count < 0) {
+            return null;
+        }
+        List<TCPFrame> frames = new ArrayList<TCPFrame>();
+        readBuffer.flip();
+        TCPFrame frame;
+        while ((frame = TCPFrame.decode(readBuffer, maxFrameSize)) != null) {
+            frames.add(frame);
+        }
+        if (readBuffer.remaining() >= TCPFrame.HEADER_SIZE) {
+            // make sure the pending frame fits in the buffer
+            int needed = TCPFrame.HEADER_SIZE + readBuffer.getInt(readBuffer.position());
+            if (needed > readBuffer.capacity()) {
+                ByteBuffer larger = ByteBuffer.allocate(needed);
+                larger.put(readBuffer);
+                readBuffer = larger;
+                return frames;
+            }
+        }
+        readBuffer.compact();
+        return frames;
+    }
+
+    /**
+     * Write as much of the queued frames as the channel accepts. Only called by the selector
+     * thread.
+     *
+     * @return true if all the queued frames have been written
+     */
+    boolean write() throws IOException {
+        ByteBuffer buffer;
+        while ((buffer = writeQueue.peek()) != null) {
+            channel.write(buffer);
+            if (buffer.hasRemaining()) {
+                return false;
+            }
+            writeQueue.poll();
+        }
+        return true;
+    }
+
+    void close() {
+        closed = true;
+        server.connectionClosed(this);
+        writeQueue.clear();
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.error("Error while closing a TCP connection", e);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.tcp;
+
+import org.apache.axis2.transport.base.threads.WorkerPool;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Selector based server used by the framed mode of the TCP transport. A single thread accepts
+ * connections, reads frames and writes responses for all the connections of an endpoint, while
+ * the messages themselves are processed on the worker pool. Connections are kept open, so a
+ * client can send any number of requests, concurrently, over the same connection.
+ */
+public class TCPFramedServer implements Runnable {
+
+    private static final Log log = LogFactory.getLog(TCPFramedServer.class);
+
+    private TCPEndpoint endpoint;
+    private WorkerPool workerPool;
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private final Queue<TCPFramedConnection> pendingWrites =
+            new ConcurrentLinkedQueue<TCPFramedConnection>();
+    private final Set<TCPFramedConnection> connections =
+            Collections.newSetFromMap(new ConcurrentHashMap<TCPFramedConnection, Boolean>());
+    private volatile boolean started = false;
+
+    public TCPFramedServer(TCPEndpoint endpoint, WorkerPool workerPool) {
+        this.endpoint = endpoint;
+        this.workerPool = workerPool;
+    }
+
+    public void run() {
+        Selector selector = this.selector;
+        while (started) {
+            try {
+                selector.select();
+                TCPFramedConnection connection;
+                while ((connection = pendingWrites.poll()) != null) {
+                    SelectionKey key = connection.getKey();
+                    if (key != null && key.isValid()) {
+                        key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                    }
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    connection = (TCPFramedConnection) key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            read(connection);
+                        }
+                        if (key.isValid() && key.isWritable() && connection.write()) {
+                            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+                        }
+                    } catch (IOException e) {
+                        log.debug("Closing TCP connection after I/O error", e);
+                        connection.close();
+                    }
+                }
+            } catch (ClosedSelectorException e) {
+                break;
+            } catch (IOException e) {
+                log.error("Error in the TCP selector loop", e);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        TCPFramedConnection connection =
+                new TCPFramedConnection(this, channel, endpoint.getMaxFrameSize());
+        connection.setKey(channel.register(selector, SelectionKey.OP_READ, connection));
+        connections.add(connection);
+    }
+
+    private void read(TCPFramedConnection connection) throws IOException {
+        List<TCPFrame> frames = connection.read();
+        if (frames == null) {
+            connection.close();
+            return;
+        }
+        for (TCPFrame frame : frames) {
+            workerPool.execute(new TCPFramedWorker(endpoint, connection, frame));
+        }
+    }
+
+    void connectionClosed(TCPFramedConnection connection) {
+        connections.remove(connection);
+    }
+
+    void requestWrite(TCPFramedConnection connection) {
+        pendingWrites.add(connection);
+        Selector s = selector;
+        if (s != null) {
+            s.wakeup();
+        }
+    }
+
+    public void startServer() throws IOException {
+        if (serverChannel == null) {
+            selector = Selector.open();
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.configureBlocking(false);
+            InetSocketAddress address;
+            if (endpoint.getHost() != null) {
+                address = new InetSocketAddress(InetAddress.getByName(endpoint.getHost()),
+                        endpoint.getPort());
+            } else {
+                address = new InetSocketAddress(endpoint.getPort());
+            }
+            serverChannel.socket().bind(address, endpoint.getBacklog());
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        }
+        started = true;
+        endpoint.getListener().getConfigurationContext().getThreadPool().execute(this);
+        log.info("Framed TCP server started on port : " + endpoint.getPort());
+    }
+
+    public void stopServer() throws IOException {
+        started = false;
+        for (TCPFramedConnection connection : connections) {
+            connection.close();
+        }
+        serverChannel.close();
+        selector.close();
+        serverChannel = null;
+        selector = null;
+        log.info("Framed TCP server stopped on port : " + endpoint.getPort());
+    }
+}
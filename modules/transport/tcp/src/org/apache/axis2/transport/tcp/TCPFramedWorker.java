@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.tcp;
+
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axis2.Constants;
+import org.apache.axis2.kernel.TransportUtils;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.engine.AxisEngine;
+import org.apache.axis2.util.MessageContextBuilder;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+/**
+ * Processes a single request frame received over a framed TCP connection. Unlike
+ * {@link TCPWorker}, the connection is left open once the message has been processed.
+ * Every request frame is answered: if processing the message did not produce a response
+ * (e.g. for an in-only operation), an empty frame is sent to acknowledge the request.
+ */
+public class TCPFramedWorker implements Runnable {
+
+    private static final Log log = LogFactory.getLog(TCPFramedWorker.class);
+
+    private TCPEndpoint endpoint;
+    private TCPFramedConnection connection;
+    private TCPFrame frame;
+
+    public TCPFramedWorker(TCPEndpoint endpoint, TCPFramedConnection connection, TCPFrame frame) {
+        this.endpoint = endpoint;
+        this.connection = connection;
+        this.frame = frame;
+    }
+
+    public void run() {
+
+        MessageContext msgContext = null;
+        TCPOutTransportInfo outInfo = new TCPOutTransportInfo();
+
+        try {
+            msgContext = endpoint.createMessageContext();
+            msgContext.setIncomingTransportName(Constants.TRANSPORT_TCP);
+
+            outInfo.setConnection(connection);
+            outInfo.setCorrelationId(frame.getCorrelationId());
+            outInfo.setContentType(endpoint.getContentType());
+            msgContext.setProperty(Constants.OUT_TRANSPORT_INFO, outInfo);
+
+            SOAPEnvelope envelope = TransportUtils.createSOAPMessage(msgContext,
+                    new ByteArrayInputStream(frame.getPayload()), endpoint.getContentType());
+            msgContext.setEnvelope(envelope);
+
+            AxisEngine.receive(msgContext);
+
+        } catch (Exception e) {
+            sendFault(msgContext, e);
+        }
+
+        if (!outInfo.isResponseWritten() && !connection.isClosed()) {
+            try {
+                connection.send(frame.getCorrelationId(), new byte[0], 0, 0);
+            } catch (IOException e) {
+                log.error("Error while acknowledging a TCP request", e);
+            }
+        }
+    }
+
+    private void sendFault(MessageContext msgContext, Exception fault) {
+        log.error("Error while processing TCP request through the Axis2 engine", fault);
+        try {
+            if (msgContext != null && !connection.isClosed()) {
+                MessageContext faultContext =
+                        MessageContextBuilder.createFaultMessageContext(msgContext, fault);
+
+                AxisEngine.sendFault(faultContext);
+            }
+        } catch (Exception e) {
+            log.error("Error while sending the fault response", e);
+        }
+    }
+}
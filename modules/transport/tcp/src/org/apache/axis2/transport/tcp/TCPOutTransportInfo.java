@@ -27,7 +27,10 @@ import java.net.Socket;
 public class TCPOutTransportInfo implements OutTransportInfo {
 
     private Socket socket;
+    private TCPFramedConnection connection;
+    private long correlationId;
     private String contentType;
+    private volatile boolean responseWritten;
 
     public Socket getSocket() {
         return socket;
@@ -37,6 +40,26 @@ public class TCPOutTransportInfo implements OutTransportInfo {
         this.socket = socket;
     }
 
+    /**
+     * @return the framed connection the response must be sent on, or null if the request was
+     *         not received in framed mode
+     */
+    public TCPFramedConnection getConnection() {
+        return connection;
+    }
+
+    public void setConnection(TCPFramedConnection connection) {
+        this.connection = connection;
+    }
+
+    public long getCorrelationId() {
+        return correlationId;
+    }
+
+    public void setCorrelationId(long correlationId) {
+        this.correlationId = correlationId;
+    }
+
     public void setContentType(String contentType) {
         this.contentType = contentType;
     }
@@ -44,4 +67,15 @@ public class TCPOutTransportInfo implements OutTransportInfo {
     public String getContentType() {
         return contentType;
     }
+
+    /**
+     * @return true if a response frame has been sent for the request
+     */
+    public boolean isResponseWritten() {
+        return responseWritten;
+    }
+
+    public void setResponseWritten(boolean responseWritten) {
+        this.responseWritten = responseWritten;
+    }
 }
@@ -29,6 +29,8 @@ import java.util.concurrent.ConcurrentHashMap;
 public class TCPTransportListener extends AbstractTransportListenerEx<TCPEndpoint> {
 
     private Map<TCPEndpoint, TCPServer> serverTable = new ConcurrentHashMap<TCPEndpoint, TCPServer>();
+    private Map<TCPEndpoint, TCPFramedServer> framedServerTable =
+            new ConcurrentHashMap<TCPEndpoint, TCPFramedServer>();
 
     protected void doInit() throws AxisFault {
 
@@ -40,9 +42,15 @@ public class TCPTransportListener extends AbstractTransportListenerEx<TCPEndpoin
 
     protected void startEndpoint(TCPEndpoint endpoint) throws AxisFault {
         try {
-            TCPServer server = new TCPServer(endpoint, workerPool);
-            server.startServer();
-            serverTable.put(endpoint, server);
+            if (endpoint.isFramed()) {
+                TCPFramedServer server = new TCPFramedServer(endpoint, workerPool);
+                server.startServer();
+                framedServerTable.put(endpoint, server);
+            } else {
+                TCPServer server = new TCPServer(endpoint, workerPool);
+                server.startServer();
+                serverTable.put(endpoint, server);
+            }
         } catch (IOException e) {
             handleException("Error while starting the TCP endpoint", e);
         }
@@ -54,10 +62,15 @@ public class TCPTransportListener extends AbstractTransportListenerEx<TCPEndpoin
             if (server != null) {
                 server.stopServer();
             }
+            TCPFramedServer framedServer = framedServerTable.get(endpoint);
+            if (framedServer != null) {
+                framedServer.stopServer();
+            }
         } catch (IOException e) {
             log.error("Error while stopping the TCP endpoint", e);
         } finally {
             serverTable.remove(endpoint);
+            framedServerTable.remove(endpoint);
         }
     }
 }
@@ -21,18 +21,24 @@
 package org.apache.axis2.transport.tcp;
 
 import org.apache.axis2.AxisFault;
+import org.apache.axis2.context.ConfigurationContext;
 import org.apache.axis2.description.OutInAxisOperation;
+import org.apache.axis2.description.TransportOutDescription;
 import org.apache.axis2.engine.AxisEngine;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.kernel.OutTransportInfo;
 import org.apache.axis2.kernel.TransportUtils;
 import org.apache.axis2.kernel.MessageFormatter;
+import org.apache.axis2.kernel.http.HTTPConstants;
 import org.apache.axis2.transport.base.AbstractTransportSender;
 import org.apache.axis2.transport.base.BaseUtils;
+import org.apache.axis2.transport.base.ParamUtils;
 import org.apache.axiom.soap.SOAPEnvelope;
 import org.apache.axiom.om.OMOutputFormat;
 import org.apache.axis2.util.MessageProcessorSelector;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
@@ -42,9 +48,41 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class TCPTransportSender extends AbstractTransportSender {
 
+    private boolean framed;
+    // The configured connection timeout, or -1 if none was configured
+    private int connectionTimeout;
+    private TCPConnectionPool connectionPool;
+
+    @Override
+    public void init(ConfigurationContext cfgCtx, TransportOutDescription transportOut)
+            throws AxisFault {
+        super.init(cfgCtx, transportOut);
+        framed = ParamUtils.getOptionalParamBoolean(transportOut, TCPConstants.PARAM_FRAMED, false);
+        connectionTimeout = ParamUtils.getOptionalParamInt(transportOut,
+                TCPConstants.PARAM_CONNECTION_TIMEOUT, -1);
+        connectionPool = new TCPConnectionPool(
+                ParamUtils.getOptionalParamInt(transportOut,
+                        TCPConstants.PARAM_MAX_CONNECTIONS_PER_HOST,
+                        TCPConstants.TCP_DEFAULT_MAX_CONNECTIONS_PER_HOST),
+                ParamUtils.getOptionalParamInt(transportOut, TCPConstants.PARAM_MAX_FRAME_SIZE,
+                        TCPConstants.TCP_DEFAULT_MAX_FRAME_SIZE));
+    }
+
+    @Override
+    public void stop() {
+        if (connectionPool != null) {
+            connectionPool.close();
+        }
+        super.stop();
+    }
+
     public void sendMessage(MessageContext msgContext, String targetEPR,
                             OutTransportInfo outTransportInfo) throws AxisFault {
 
@@ -54,7 +92,22 @@ public class TCPTransportSender extends AbstractTransportSender {
             if (params.containsKey("timeout")) {
                 timeout = Integer.parseInt(params.get("timeout"));
             }
-            Socket socket = openTCPConnection(targetEPR, timeout);
+            boolean useFraming = framed;
+            if (params.containsKey("framed")) {
+                useFraming = Boolean.parseBoolean(params.get("framed"));
+            }
+            if (useFraming && connectionPool != null) {
+                String contentType = params.get("contentType");
+                if (contentType == null) {
+                    contentType = TCPConstants.TCP_DEFAULT_CONTENT_TYPE;
+                }
+                sendFramed(msgContext, targetEPR, contentType, timeout);
+                return;
+            }
+            // Unframed connections wait for the connection without limit unless a timeout is
+            // configured, as they always did
+            Socket socket = openTCPConnection(targetEPR, timeout,
+                    getConnectionTimeout(msgContext, 0));
             msgContext.setProperty(TCPConstants.TCP_OUTPUT_SOCKET, socket);
 
             String contentType = params.get("contentType");
@@ -73,6 +126,18 @@ public class TCPTransportSender extends AbstractTransportSender {
 
         } else if (outTransportInfo != null && (outTransportInfo instanceof TCPOutTransportInfo)) {
             TCPOutTransportInfo outInfo = (TCPOutTransportInfo) outTransportInfo;
+            if (outInfo.getConnection() != null) {
+                try {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    writeOut(msgContext, out, outInfo.getContentType());
+                    outInfo.getConnection().send(outInfo.getCorrelationId(),
+                            out.toByteArray(), 0, out.size());
+                    outInfo.setResponseWritten(true);
+                } catch (IOException e) {
+                    handleException("Error while sending a TCP response", e);
+                }
+                return;
+            }
             try {
                 writeOut(msgContext, outInfo.getSocket(), outInfo.getContentType());
             } catch (IOException e) {
@@ -85,14 +150,94 @@ public class TCPTransportSender extends AbstractTransportSender {
 
     private void writeOut(MessageContext msgContext, Socket socket,
                           String contentType) throws IOException {
+        writeOut(msgContext, socket.getOutputStream(), contentType);
+    }
+
+    private void writeOut(MessageContext msgContext, OutputStream out,
+                          String contentType) throws IOException {
         MessageFormatter messageFormatter = MessageProcessorSelector.getMessageFormatter(msgContext);
         OMOutputFormat format = BaseUtils.getOMOutputFormat(msgContext);
         format.setContentType(contentType);
-        OutputStream out = socket.getOutputStream();
         messageFormatter.writeTo(msgContext, format, out, false);
         out.flush();
     }
 
+    /**
+     * Send a message over a pooled, framed connection and wait for the frame carrying the same
+     * correlation id. The server answers every request, with an empty frame if there is no
+     * response message, so the wait is bounded by the read timeout of the message: the timeout
+     * URL parameter, the {@link HTTPConstants#SO_TIMEOUT} property or the timeout of the
+     * options, in that order.
+     */
+    private void sendFramed(MessageContext msgContext, String url, String contentType,
+                            int timeout) throws AxisFault {
+        TCPClientConnection connection = null;
+        CompletableFuture<byte[]> response = null;
+        try {
+            URI tcpUrl = new URI(url);
+            if (!tcpUrl.getScheme().equals("tcp")) {
+                throw new AxisFault("Invalid protocol prefix : " + tcpUrl.getScheme());
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writeOut(msgContext, out, contentType);
+            connection = connectionPool.getConnection(tcpUrl.getHost(), tcpUrl.getPort(),
+                    getConnectionTimeout(msgContext, TCPConstants.TCP_DEFAULT_CONNECTION_TIMEOUT));
+            response = connection.sendRequest(out.toByteArray(), 0, out.size());
+            if (timeout == -1) {
+                timeout = getReadTimeout(msgContext);
+            }
+            byte[] payload = timeout <= 0 ? response.get()
+                    : response.get(timeout, TimeUnit.MILLISECONDS);
+            if (payload.length == 0 || msgContext.getOptions().isUseSeparateListener()
+                    || msgContext.isServerSide() || !isReplyExpected(msgContext)) {
+                // acknowledgement only
+                return;
+            }
+
+            MessageContext responseMsgCtx = createResponseMessageContext(msgContext);
+            SOAPEnvelope envelope = TransportUtils.createSOAPMessage(msgContext,
+                    new ByteArrayInputStream(payload), contentType);
+            responseMsgCtx.setEnvelope(envelope);
+            AxisEngine.receive(responseMsgCtx);
+        } catch (TimeoutException e) {
+            connection.cancel(response);
+            handleException("Timed out waiting for a TCP response from : " + url, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            handleException("Error while waiting for a TCP response",
+                    cause instanceof Exception ? (Exception) cause : e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            connection.cancel(response);
+            handleException("Interrupted while waiting for a TCP response", e);
+        } catch (AxisFault e) {
+            throw e;
+        } catch (Exception e) {
+            handleException("Error while sending a framed TCP request to : " + url, e);
+        }
+    }
+
+    private static int getReadTimeout(MessageContext msgContext) {
+        Object timeout = msgContext.getProperty(HTTPConstants.SO_TIMEOUT);
+        if (timeout instanceof Integer) {
+            return (Integer) timeout;
+        }
+        return (int) msgContext.getOptions().getTimeOutInMilliSeconds();
+    }
+
+    private int getConnectionTimeout(MessageContext msgContext, int defaultTimeout) {
+        Object timeout = msgContext.getProperty(HTTPConstants.CONNECTION_TIMEOUT);
+        if (timeout instanceof Integer) {
+            return (Integer) timeout;
+        }
+        return connectionTimeout >= 0 ? connectionTimeout : defaultTimeout;
+    }
+
+    private static boolean isReplyExpected(MessageContext msgContext) {
+        return msgContext.getAxisOperation() instanceof OutInAxisOperation ||
+                msgContext.getProperty(org.apache.axis2.Constants.PIGGYBACK_MESSAGE) != null;
+    }
+
     @Override
     public void cleanup(MessageContext msgContext) throws AxisFault {
         Object socketObj = msgContext.getProperty(TCPConstants.TCP_OUTPUT_SOCKET);
@@ -139,7 +284,8 @@ public class TCPTransportSender extends AbstractTransportSender {
         return null;
     }
 
-    private Socket openTCPConnection(String url, int timeout) throws AxisFault {
+    private Socket openTCPConnection(String url, int timeout, int connectionTimeout)
+            throws AxisFault {
         try {
             URI tcpUrl = new URI(url);
             if (!tcpUrl.getScheme().equals("tcp")) {
@@ -150,7 +296,7 @@ public class TCPTransportSender extends AbstractTransportSender {
             if (timeout != -1) {
                 socket.setSoTimeout(timeout);
             }
-            socket.connect(address);
+            socket.connect(address, connectionTimeout);
             return socket;
         } catch (Exception e) {
             handleException("Error while opening TCP connection to : " + url, e);
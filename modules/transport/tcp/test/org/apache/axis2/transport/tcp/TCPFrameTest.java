@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.tcp;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class TCPFrameTest extends TestCase {
+
+    public void testDecodePartialFrames() throws Exception {
+        ByteBuffer first = TCPFrame.encode(1, "first".getBytes("UTF-8"), 0, 5);
+        ByteBuffer second = TCPFrame.encode(2, "second".getBytes("UTF-8"), 0, 6);
+        ByteBuffer buffer = ByteBuffer.allocate(first.remaining() + second.remaining());
+        buffer.put(first).put(second).flip();
+
+        // only part of the second frame is available
+        buffer.limit(buffer.limit() - 3);
+        TCPFrame frame = TCPFrame.decode(buffer, 1024);
+        assertEquals(1, frame.getCorrelationId());
+        assertEquals("first", new String(frame.getPayload(), "UTF-8"));
+        int position = buffer.position();
+        assertNull(TCPFrame.decode(buffer, 1024));
+        assertEquals(position, buffer.position());
+
+        buffer.limit(buffer.capacity());
+        frame = TCPFrame.decode(buffer, 1024);
+        assertEquals(2, frame.getCorrelationId());
+        assertEquals("second", new String(frame.getPayload(), "UTF-8"));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    public void testReadFromStream() throws Exception {
+        ByteBuffer encoded = TCPFrame.encode(42, "payload".getBytes("UTF-8"), 0, 7);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded.array()));
+        TCPFrame frame = TCPFrame.read(in, 1024);
+        assertEquals(42, frame.getCorrelationId());
+        assertEquals("payload", new String(frame.getPayload(), "UTF-8"));
+        assertNull(TCPFrame.read(in, 1024));
+    }
+
+    public void testOversizedFrameIsRejected() throws Exception {
+        ByteBuffer encoded = TCPFrame.encode(1, new byte[100], 0, 100);
+        try {
+            TCPFrame.decode(encoded, 10);
+            fail("Expected IOException");
+        } catch (IOException ex) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.tcp;
+
+import junit.framework.TestCase;
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axiom.om.OMNamespace;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.Constants;
+import org.apache.axis2.addressing.EndpointReference;
+import org.apache.axis2.client.Options;
+import org.apache.axis2.client.ServiceClient;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.receivers.RawXMLINOnlyMessageReceiver;
+import org.apache.axis2.util.Utils;
+
+import javax.xml.namespace.QName;
+
+/**
+ * Exercises the framed mode of the TCP transport end to end, with a service that has its own
+ * framed endpoint.
+ */
+public class TCPFramedEchoRawXMLTest extends TestCase {
+
+    private static final int FRAMED_PORT = UtilsTCPServer.TESTING_PORT + 1;
+    private static final int IN_ONLY_PORT = UtilsTCPServer.TESTING_PORT + 2;
+
+    private EndpointReference targetEPR =
+            new EndpointReference("tcp://127.0.0.1:" + FRAMED_PORT
+                    + "/axis2/services/FramedEchoXMLService/echoOMElement?framed=true");
+    private EndpointReference inOnlyEPR =
+            new EndpointReference("tcp://127.0.0.1:" + IN_ONLY_PORT
+                    + "/axis2/services/FramedInOnlyService/echoOMElementNoResponse?framed=true");
+    private QName serviceName = new QName("FramedEchoXMLService");
+    private QName inOnlyServiceName = new QName("FramedInOnlyService");
+    private QName operationName = new QName("echoOMElement");
+    private QName inOnlyOperationName = new QName("echoOMElementNoResponse");
+
+    private AxisService clientService;
+    private ConfigurationContext configContext;
+
+    protected void setUp() throws Exception {
+        UtilsTCPServer.start();
+
+        AxisService service =
+                Utils.createSimpleService(serviceName, Echo.class.getName(), operationName);
+        service.addParameter(TCPConstants.PARAM_PORT, String.valueOf(FRAMED_PORT));
+        service.addParameter(TCPConstants.PARAM_FRAMED, "true");
+        UtilsTCPServer.deployService(service);
+
+        AxisService inOnlyService = Utils.createSimpleInOnlyService(inOnlyServiceName,
+                new RawXMLINOnlyMessageReceiver(), inOnlyOperationName);
+        inOnlyService.addParameter(Constants.SERVICE_CLASS, Echo.class.getName());
+        inOnlyService.addParameter(TCPConstants.PARAM_PORT, String.valueOf(IN_ONLY_PORT));
+        inOnlyService.addParameter(TCPConstants.PARAM_FRAMED, "true");
+        UtilsTCPServer.deployService(inOnlyService);
+
+        clientService = Utils.createSimpleServiceforClient(serviceName,
+                                                           Echo.class.getName(),
+                                                           operationName);
+        configContext = UtilsTCPServer.createClientConfigurationContext();
+    }
+
+    protected void tearDown() throws Exception {
+        UtilsTCPServer.unDeployService(serviceName);
+        UtilsTCPServer.unDeployService(inOnlyServiceName);
+        UtilsTCPServer.stop();
+        configContext.getListenerManager().destroy();
+    }
+
+    private OMElement createPayload(String localName, String text) {
+        OMFactory fac = OMAbstractFactory.getOMFactory();
+        OMNamespace omNs = fac.createOMNamespace("http://localhost/my", "my");
+        OMElement method = fac.createOMElement(localName, omNs);
+        OMElement value = fac.createOMElement("myValue", omNs);
+        value.setText(text);
+        method.addChild(value);
+        return method;
+    }
+
+    private Options createOptions(EndpointReference epr, QName operation) {
+        Options options = new Options();
+        options.setTo(epr);
+        options.setTransportInProtocol(Constants.TRANSPORT_TCP);
+        options.setAction(Constants.AXIS2_NAMESPACE_URI + "/" + operation.getLocalPart());
+        options.setTimeOutInMilliSeconds(10000);
+        return options;
+    }
+
+    public void testEchoXMLSync() throws Exception {
+        ServiceClient sender = new ServiceClient(configContext, clientService);
+        sender.setOptions(createOptions(targetEPR, operationName));
+        for (int i = 0; i < 3; i++) {
+            OMElement result = sender.sendReceive(operationName,
+                    createPayload("echoOMElement", "Isaac Asimov, The Foundation Trilogy"));
+            assertEquals("echoOMElementResponse", result.getLocalName());
+            assertEquals("Isaac Asimov, The Foundation Trilogy",
+                    result.getFirstElement().getText());
+            sender.cleanupTransport();
+        }
+        sender.cleanup();
+    }
+
+    public void testFault() throws Exception {
+        ServiceClient sender = new ServiceClient(configContext, clientService);
+        sender.setOptions(createOptions(targetEPR, operationName));
+        try {
+            sender.sendReceive(operationName, createPayload("echoOMElement", "fault"));
+            fail("Expected an AxisFault");
+        } catch (AxisFault e) {
+            assertTrue(e.getMessage().indexOf("fault string found in echoOMElement") != -1);
+        }
+        sender.cleanup();
+    }
+
+    /**
+     * The server must acknowledge a request that produces no response, otherwise a robust
+     * in-only client waits until it times out.
+     */
+    public void testRobustInOnly() throws Exception {
+        ServiceClient sender = new ServiceClient(configContext, null);
+        sender.setOptions(createOptions(inOnlyEPR, inOnlyOperationName));
+        long start = System.currentTimeMillis();
+        sender.sendRobust(createPayload("echoOMElementNoResponse", "no response"));
+        assertTrue(System.currentTimeMillis() - start < 10000);
+        sender.cleanup();
+    }
+
+    public void testFireAndForget() throws Exception {
+        ServiceClient sender = new ServiceClient(configContext, null);
+        sender.setOptions(createOptions(inOnlyEPR, inOnlyOperationName));
+        for (int i = 0; i < 3; i++) {
+            sender.fireAndForget(createPayload("echoOMElementNoResponse", "no response"));
+        }
+        sender.cleanup();
+    }
+}